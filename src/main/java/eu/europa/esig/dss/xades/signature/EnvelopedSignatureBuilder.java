@@ -56,6 +56,14 @@ class EnvelopedSignatureBuilder extends XPathPlacementSignatureBuilder {
      */
     @Override
     protected Document buildRootDocumentDom() {
+        // ########################OVERRIDE_DSS#########################
+        // ##### Parametrelerde kök belge (DOM) verilmişse imza     #
+        // ##### doğrudan bu belgeye yazılır; belge ikinci kez      #
+        // ##### ayrıştırılmaz ve imza sonrası taşıma gerekmez.     #
+        // #############################################################
+        if (params.getRootDocument() != null) {
+            return params.getRootDocument();
+        }
         return DomUtils.buildDOM(document);
     }
 
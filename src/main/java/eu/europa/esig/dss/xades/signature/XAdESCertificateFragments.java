@@ -0,0 +1,87 @@
+// @formatter:off
+
+package eu.europa.esig.dss.xades.signature;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.xml.utils.DomUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// ########################OVERRIDE_DSS#########################
+// #####  DİKKAT: OVERRIDE DEĞİLDİR!                        ####
+// #####  XAdESSignatureBuilder'ın imzacı sertifikasına     ####
+// #####  bağlı, istekten isteğe değişmeyen DOM parçalarını ####
+// #####  (KeyInfo içeriği, SigningCertificate/CertDigest)  ####
+// #####  saklayan önbellektir.                             ####
+// #############################################################
+
+/**
+ * İmzacı sertifikasından türetilen XAdES DOM parçalarını saklar.
+ *
+ * <p>{@code X509Data}, {@code KeyValue} ve {@code SigningCertificate(V2)} içerikleri
+ * (sertifika base64'ü, public key ve CertDigest özeti dahil) yalnızca sertifikaya ve
+ * imza parametrelerine bağlıdır. İlk imzada builder tarafından üretilen parçalar burada
+ * kendi şablon belgesine kopyalanır; sonraki imzalarda yeniden hesaplanmak yerine hedef
+ * belgeye {@link Document#importNode(org.w3c.dom.Node, boolean)} ile klonlanır.
+ *
+ * <p>Parçalar, namespace ve algoritma seçimlerini içeren bir anahtarla saklanır;
+ * farklı parametrelerle yapılan imzalar birbirinin parçasını kullanmaz.
+ */
+public final class XAdESCertificateFragments {
+
+    private final CertificateToken certificate;
+    private final Document templateDocument = DomUtils.buildDOM();
+    private final Map<String, Element> fragments = new HashMap<>();
+
+    /**
+     * @param certificate Parçaların ait olduğu imzacı sertifikası
+     */
+    public XAdESCertificateFragments(CertificateToken certificate) {
+        this.certificate = certificate;
+    }
+
+    /**
+     * Parçaların verilen sertifikaya ait olup olmadığını döner.
+     */
+    public boolean isFor(CertificateToken signingCertificate) {
+        return certificate.equals(signingCertificate);
+    }
+
+    /**
+     * Saklanan parçanın hedef belgeye ait derin bir kopyasını döner.
+     *
+     * @param key Parça anahtarı
+     * @param targetDocument Kopyanın oluşturulacağı belge
+     * @return Kopya eleman veya parça henüz saklanmadıysa null
+     */
+    synchronized Element importFragment(String key, Document targetDocument) {
+        Element fragment = fragments.get(key);
+        if (fragment == null) {
+            return null;
+        }
+        return (Element) targetDocument.importNode(fragment, true);
+    }
+
+    /**
+     * Builder'ın ürettiği parçanın bir kopyasını saklar. Anahtar için zaten
+     * parça varsa mevcut parça korunur.
+     *
+     * @param key Parça anahtarı
+     * @param fragment Builder'ın ürettiği eleman
+     */
+    synchronized void storeFragment(String key, Element fragment) {
+        if (!fragments.containsKey(key)) {
+            fragments.put(key, (Element) templateDocument.importNode(fragment, true));
+        }
+    }
+
+    /**
+     * Saklanan parça sayısını döner.
+     */
+    public synchronized int size() {
+        return fragments.size();
+    }
+}
@@ -108,6 +108,7 @@ public class XAdESLevelA extends XAdESLevelXL {
             } else {
                 // Fallback: fetch new data
                 validationDataContainer = documentAnalyzer.getValidationData(signatures);
+                applyRevocationInclusionPolicy(validationDataContainer);
                 LOGGER.warn("A-LEVEL: WARNING - No cached data, fetching new validation data");
             }
         }
@@ -65,10 +65,13 @@ import eu.europa.esig.dss.xml.common.definition.xmldsig.XMLDSigElement;
 import eu.europa.esig.dss.xml.utils.DomUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -92,6 +95,14 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements SignatureEx
      */
     protected TSPSource tspSource;
 
+    // ########################OVERRIDE_DSS#########################
+    // ##### Servisin az önce ürettiği imza için imzalama sırasında#
+    // ##### doğrulanan bilgiler. Atanmışsa eşleşen imzanın       #
+    // ##### kriptografik ve sertifika doğrulaması tekrarlanmaz.  #
+    // #############################################################
+    private io.mersel.dss.signer.api.services.signature.xades.SelfProducedSignature selfProducedSignature;
+    // #############################################################
+
     /**
      * The default constructor for XAdESLevelBaselineT.
      *
@@ -113,13 +124,59 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements SignatureEx
     public DSSDocument extendSignatures(final DSSDocument dssDocument, final XAdESSignatureParameters params) throws DSSException {
         Objects.requireNonNull(dssDocument, "The document cannot be null");
         Objects.requireNonNull(tspSource, "The TSPSource cannot be null");
-        this.params = params;
-        final XAdESProfileParameters context = params.getContext();
         if (LOG.isInfoEnabled()) {
             LOG.info("====> Extending: {}", (dssDocument.getName() == null ? "IN MEMORY DOCUMENT" : dssDocument.getName()));
         }
 
-        documentAnalyzer = new XMLDocumentAnalyzer(dssDocument);
+        extendSignatures(new XMLDocumentAnalyzer(dssDocument), params);
+
+        return createXmlDocument();
+    }
+
+    // ########################OVERRIDE_DSS#########################
+    // ##### Bu alan, imzalama sırasında oluşturulan DOM'un       #
+    // ##### serileştirilip yeniden ayrıştırılmadan tek geçişte   #
+    // ##### T, C, X, XL ve A seviyelerine uzatılmasını sağlar.   #
+    // #############################################################
+    //
+    // DSSDocument alan sürüm, imzalı belgeyi akıştan yeniden
+    // ayrıştırır ve sonucu tekrar serileştirir. e-Arşiv raporları
+    // gibi binlerce satırlık belgelerde bu iki adım uzatma süresinin
+    // büyük kısmını oluşturur. Bu sürümde:
+    //
+    // 1. Analizör (XMLDOMDocumentAnalyzer) verilen DOM üzerinde
+    //    çalışır; tüm seviyeler aynı DOM ve aynı AdvancedSignature
+    //    nesneleri ile uzatılır.
+    //
+    // 2. C seviyesinde toplanan ValidationDataContainer, XL ve A
+    //    seviyelerinde yeniden kullanılır (bkz. XAdESLevelXL).
+    //
+    // 3. DOM yerinde güncellenir ve döndürülür; serileştirme
+    //    çağıranın sorumluluğundadır.
+    // #############################################################
+
+    /**
+     * Extends signatures of the given DOM in place, without serializing and re-parsing the document
+     *
+     * @param signedDocumentDom {@link Document} containing the signatures to extend (modified in place)
+     * @param params {@link XAdESSignatureParameters}
+     * @return the same {@link Document} with the extended signatures
+     */
+    public Document extendSignatures(final Document signedDocumentDom, final XAdESSignatureParameters params) throws DSSException {
+        Objects.requireNonNull(signedDocumentDom, "The document cannot be null");
+        Objects.requireNonNull(tspSource, "The TSPSource cannot be null");
+        LOG.info("====> Extending: IN MEMORY DOM");
+
+        extendSignatures(new eu.europa.esig.dss.xades.validation.XMLDOMDocumentAnalyzer(signedDocumentDom), params);
+
+        return documentDom;
+    }
+
+    private void extendSignatures(final XMLDocumentAnalyzer analyzer, final XAdESSignatureParameters params) {
+        this.params = params;
+        final XAdESProfileParameters context = params.getContext();
+
+        documentAnalyzer = analyzer;
         documentAnalyzer.setCertificateVerifier(certificateVerifier);
         documentAnalyzer.setDetachedContents(params.getDetachedContents());
         documentAnalyzer.setValidationContextExecutor(CompleteValidationContextExecutor.INSTANCE);
@@ -150,8 +207,6 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements SignatureEx
         signaturesToExtend = assertNoEmbeddedSignaturesPresent(signaturesToExtend);
 
         extendSignatures(signaturesToExtend);
-
-        return createXmlDocument();
     }
 
     /**
@@ -230,9 +285,28 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements SignatureEx
      * @return {@link SignatureRequirementsChecker}
      */
     protected SignatureRequirementsChecker getSignatureRequirementsChecker() {
+        // ########################OVERRIDE_DSS#########################
+        if (selfProducedSignature != null) {
+            return new io.mersel.dss.signer.api.services.signature.xades.SelfProducedSignatureRequirementsChecker(
+                    certificateVerifier, params, selfProducedSignature);
+        }
+        // #############################################################
         return new SignatureRequirementsChecker(certificateVerifier, params);
     }
 
+    // ########################OVERRIDE_DSS#########################
+    /**
+     * Sets the facts verified while producing the signature being extended.
+     * Matching signatures skip the cryptographic and signing certificate re-validation.
+     *
+     * @param selfProducedSignature facts of the signature produced by this service, or null for full validation
+     */
+    public void setSelfProducedSignature(
+            io.mersel.dss.signer.api.services.signature.xades.SelfProducedSignature selfProducedSignature) {
+        this.selfProducedSignature = selfProducedSignature;
+    }
+    // #############################################################
+
     private List<AdvancedSignature> getExtendToTLevelSignatures(List<AdvancedSignature> signatures) {
         final List<AdvancedSignature> toBeExtended = new ArrayList<>();
         for (AdvancedSignature signature : signatures) {
@@ -350,7 +424,7 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements SignatureEx
         }
         final Element crlValuesDom = DomUtils.addElement(documentDom, parentDom, getXadesNamespace(), getCurrentXAdESElements().getElementCRLValues());
 
-        for (final RevocationToken<?> revocationToken : crlTokens) {
+        for (final CRLToken crlToken : crlTokens) {
             
             // ########################OVERRIDE_DSS#########################
             // #####  Bu alan, XadesUtil kullanarak Tübitak'da         #####
@@ -363,8 +437,14 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements SignatureEx
             //
             // Bu yardımcı metot ile üretilen EncapsulatedCRLValue
             // elemanları, okunabilirliği artırmak için satır sonu eklenir.
+            // CRL'ler megabaytlar boyutunda olabildiğinden akıştan parça
+            // parça kodlanır (bkz. XadesUtil.appendBase64Content).
 
-            XadesUtil.createEncapsulatedCRLElement(documentDom, crlValuesDom, getXadesNamespace(), revocationToken.getEncoded());
+            try (InputStream crlStream = crlToken.getCRLStream()) {
+                XadesUtil.createEncapsulatedCRLElement(documentDom, crlValuesDom, getXadesNamespace(), crlStream);
+            } catch (IOException e) {
+                throw new DSSException(String.format("Unable to embed CRL : %s", e.getMessage()), e);
+            }
         }
     }
 
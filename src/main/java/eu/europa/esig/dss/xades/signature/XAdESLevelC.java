@@ -102,21 +102,27 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
     protected ValidationDataContainer cachedValidationDataContainer;
 
     /**
-     * Thread-safe, signature-specific cache for OCSP tokens.
-     * Outer Map: Signature ID -> Inner cache
-     * Inner Map: Certificate (base64) -> OCSPToken
-     * 
-     * This ensures:
-     * 1. Thread-safety for concurrent signature operations
-     * 2. Cache isolation between different signatures
-     * 3. No cache pollution between requests
+     * OCSP tokens referenced at C-level for the signature being extended.
+     * Key: Certificate (base64) -> OCSPToken
+     *
+     * The responses themselves are shared process-wide by the certificate
+     * verifier's OCSP source (keyed by CertID); this map only records which
+     * token got an OCSPRef so that XL-level embeds exactly the same response.
+     * A new extension profile is created per upgrade, so no cleanup is needed.
      */
-    protected static final java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.ConcurrentHashMap<String, OCSPToken>> ocspCacheBySignature = new java.util.concurrent.ConcurrentHashMap<>();
+    protected final java.util.Map<String, OCSPToken> referencedOcspTokens = new java.util.concurrent.ConcurrentHashMap<>();
 
     /**
-     * Current signature ID being processed (for cache lookup)
+     * Current signature ID being processed (for logging)
      */
     protected String currentSignatureId;
+
+    /**
+     * Revocation inclusion policy applied to the cached validation data container, so that
+     * C-level references and XL-level values are built from the same filtered data.
+     * No filtering is applied when null.
+     */
+    protected io.mersel.dss.signer.api.services.revocation.RevocationInclusionPolicy revocationInclusionPolicy;
     // ################ BLOK BİTTİ (XADES-C,XL GELİŞMELERİ) ################
 
     /**
@@ -145,6 +151,14 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
      */
     @Override
     protected void extendSignatures(List<AdvancedSignature> signatures) {
+        // ########################OVERRIDE_DSS#########################
+        // İmzacı zincirinin iptal verisi imza zaman damgasına bağlı değildir:
+        // OCSP sorguları T seviyesindeki TSA isteğinden önce başlatılır ve
+        // onunla paralel yürür. Aşağıdaki C seviyesi doğrulamaları sertifikaları
+        // sırayla sorgularken devam eden sorgulara katılır (CachingOCSPSource).
+        prefetchRevocationData(getExtendToCLevelSignatures(signatures));
+        // #############################################################
+
         super.extendSignatures(signatures);
 
         final List<AdvancedSignature> signaturesToExtend = getExtendToCLevelSignatures(signatures);
@@ -165,15 +179,17 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
         // 1. CompleteCertificateRefs ve CompleteRevocationRefs
         //    öğeleri UnsignedSignatureProperties içine eklenir.
         //
-        // 2. OCSP/CRL yanıtları bu aşamada elde edilir ve
-        //    imza-özel (signature-specific) cache'te saklanır.
+        // 2. OCSP/CRL yanıtları bu aşamada elde edilir. OCSP
+        //    yanıtları doğrulayıcının OCSP kaynağında CertID'ye
+        //    göre süreç genelinde paylaşılır (CachingOCSPSource).
         //
-        // 3. Cache kullanımı sayesinde, aynı revocation verileri
-        //    hem C seviyesinde (referans) hem de XL seviyesinde
+        // 3. Referans verilen OCSP token'ları bu uzatma profiline
+        //    özel olarak saklanır; aynı revocation verileri hem
+        //    C seviyesinde (referans) hem de XL seviyesinde
         //    (gömülü değer) tutarlı şekilde kullanılır.
         //
-        // 4. Thread-safe ConcurrentHashMap ile eş zamanlı işlemler
-        //    izole edilir ve cache kirliliği engellenir.
+        // 4. Her yükseltme yeni bir profil örneği kullandığından
+        //    eş zamanlı işlemler izoledir, temizlik gerekmez.
         //
         // Bu sayede OCSP/CRL digest eşleşmezliği önlenir ve
         // imza arşiv seviyelerine (XL, A) sorunsuz geçiş sağlanır.
@@ -182,14 +198,16 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
         // Initialize signature-specific cache context
         if (!signaturesToExtend.isEmpty()) {
             AdvancedSignature firstSignature = signaturesToExtend.get(0);
-            currentSignatureId = firstSignature.getId();
+            // ds:Signature/@Id, imzalama sırasında kullanılan deterministik ID ile aynıdır;
+            // böylece çağıran taraf imzayı yeniden doğrulamadan cache'i temizleyebilir
+            currentSignatureId = ((XAdESSignature) firstSignature).getDAIdentifier();
+            if (currentSignatureId == null || currentSignatureId.isEmpty()) {
+                currentSignatureId = firstSignature.getId();
+            }
             if (currentSignatureId == null || currentSignatureId.isEmpty()) {
                 currentSignatureId = "sig_" + System.currentTimeMillis() + "_"
                         + System.identityHashCode(firstSignature);
             }
-
-            // Initialize cache for this signature if not exists
-            ocspCacheBySignature.putIfAbsent(currentSignatureId, new java.util.concurrent.ConcurrentHashMap<>());
         }
         // ################ BLOK BİTTİ (XADES-C,XL GELİŞMELERİ) ################        
 
@@ -218,6 +236,7 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
         if (cachedValidationDataContainer == null) {
             // First call: Fetch fresh validation data from OCSP/CRL sources
             validationDataContainer = documentAnalyzer.getValidationData(signaturesToExtend);
+            applyRevocationInclusionPolicy(validationDataContainer);
             // Cache it for subsequent levels (XL, A)
             cachedValidationDataContainer = validationDataContainer;
         } else {
@@ -263,6 +282,32 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
 
     }
 
+    // ########################OVERRIDE_DSS#########################
+    /**
+     * Zincirdeki tüm sertifikaların OCSP sorgularını havuzda paralel başlatır, sonucu beklemez.
+     * Güven çapaları KeyInfo'ya yazılmadığından imzadaki sertifikalara imzalama parametrelerindeki
+     * zincir eklenir. Eş zamanlı sorgu stratejisi kullanılmıyorsa hiçbir şey yapmaz.
+     */
+    private void prefetchRevocationData(List<AdvancedSignature> signaturesToExtend) {
+        if (!(certificateVerifier.getRevocationDataLoadingStrategyFactory()
+                instanceof io.mersel.dss.signer.api.services.revocation.ConcurrentRevocationFetcher)) {
+            return;
+        }
+        io.mersel.dss.signer.api.services.revocation.ConcurrentRevocationFetcher fetcher =
+                (io.mersel.dss.signer.api.services.revocation.ConcurrentRevocationFetcher)
+                        certificateVerifier.getRevocationDataLoadingStrategyFactory();
+        for (AdvancedSignature signature : signaturesToExtend) {
+            final List<CertificateToken> chain = new ArrayList<>(signature.getCertificates());
+            for (CertificateToken certificate : params.getCertificateChain()) {
+                if (!chain.contains(certificate)) {
+                    chain.add(certificate);
+                }
+            }
+            fetcher.prefetch(chain, certificateVerifier.getOcspSource());
+        }
+    }
+    // #############################################################
+
     private List<AdvancedSignature> getExtendToCLevelSignatures(List<AdvancedSignature> signatures) {
         final List<AdvancedSignature> signaturesToExtend = new ArrayList<>();
         for (AdvancedSignature signature : signatures) {
@@ -337,6 +382,40 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
         }
     }
 
+    // ########################OVERRIDE_DSS#########################
+    /**
+     * Sets the policy deciding which revocation data is referenced (C) and embedded (XL)
+     *
+     * @param revocationInclusionPolicy policy to apply, or null to include all collected data
+     */
+    public void setRevocationInclusionPolicy(
+            io.mersel.dss.signer.api.services.revocation.RevocationInclusionPolicy revocationInclusionPolicy) {
+        this.revocationInclusionPolicy = revocationInclusionPolicy;
+    }
+
+    /**
+     * Applies the revocation inclusion policy to freshly collected validation data
+     *
+     * @param validationDataContainer {@link ValidationDataContainer} updated in place
+     */
+    protected void applyRevocationInclusionPolicy(ValidationDataContainer validationDataContainer) {
+        if (revocationInclusionPolicy != null) {
+            revocationInclusionPolicy.apply(validationDataContainer);
+        }
+    }
+
+    /**
+     * Applies the revocation inclusion policy to freshly collected validation data of a token
+     *
+     * @param validationData {@link ValidationData} updated in place
+     */
+    protected void applyRevocationInclusionPolicy(ValidationData validationData) {
+        if (revocationInclusionPolicy != null) {
+            revocationInclusionPolicy.apply(validationData);
+        }
+    }
+    // #############################################################
+
     private ValidationData getValidationDataForCLevelInclusion(final ValidationDataContainer validationDataContainer,
                                                                final AdvancedSignature signature) {
         // Zaman damgası doğrulama verileri artık ayrı bir alanda tutulduğu için buradan siliniyor.
@@ -524,41 +603,33 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
                 //
                 // Çözüm olarak:
                 // 1. Her OCSP token, ilgili sertifikanın Base64 anahtarı
-                //    ile imza-özel (signature-specific) cache'te saklanır.
+                //    ile bu uzatma profiline özel haritada saklanır.
                 //
                 // 2. XL-seviyesinde aynı sertifika için OCSP gerektiğinde,
-                //    cache'ten alınarak tutarlılık garanti edilir.
+                //    haritadan alınarak tutarlılık garanti edilir.
                 //
-                // 3. Thread-safe ConcurrentHashMap kullanımı ile eş zamanlı
-                //    işlemler güvenli şekilde izole edilir.
+                // 3. Yanıtların kendisi süreç genelinde CertID'ye göre
+                //    paylaşıldığından (CachingOCSPSource) XL seviyesi
+                //    çoğunlukla aynı yanıtı yeniden ağa gitmeden alır.
                 //
-                // 4. Cache, imza işlemi tamamlandıktan sonra temizlenir.
+                // 4. Harita profil örneğiyle birlikte serbest kalır.
                 //
                 // Bu sayede OCSPRef digest'i ile EncapsulatedOCSPValue
                 // digest'i her zaman eşleşir ve XAdES-A doğrulaması başarılı olur.
                 // #############################################################
                 
                 try {
-                    if (currentSignatureId != null) {
-                        CertificateToken relatedCert = ocspToken.getRelatedCertificate();
-                        if (relatedCert != null) {
-                            String certKey = Utils.toBase64(relatedCert.getEncoded());
-
-                            // Get signature-specific cache
-                            java.util.concurrent.ConcurrentHashMap<String, OCSPToken> signatureCache = ocspCacheBySignature
-                                    .get(currentSignatureId);
-
-                            if (signatureCache != null) {
-                                signatureCache.put(certKey, ocspToken);
-
-                                // Also store digest for debugging
-                                byte[] ocspDigest = ocspToken.getDigest(digestAlgorithm);
-                                LOGGER.info("C-LEVEL [{}]: Cached OCSP for cert {} with digest {}", 
-                                        currentSignatureId, 
-                                        certKey.substring(0, Math.min(20, certKey.length())),
-                                        Utils.toBase64(ocspDigest).substring(0, 20));
-                            }
-                        }
+                    CertificateToken relatedCert = ocspToken.getRelatedCertificate();
+                    if (relatedCert != null) {
+                        String certKey = Utils.toBase64(relatedCert.getEncoded());
+                        referencedOcspTokens.put(certKey, ocspToken);
+
+                        // Also store digest for debugging
+                        byte[] ocspDigest = ocspToken.getDigest(digestAlgorithm);
+                        LOGGER.info("C-LEVEL [{}]: Referenced OCSP for cert {} with digest {}", 
+                                currentSignatureId, 
+                                certKey.substring(0, Math.min(20, certKey.length())),
+                                Utils.toBase64(ocspDigest).substring(0, 20));
                     }
                 } catch (Exception e) {
                     LOGGER.error("C-LEVEL: Failed to cache OCSP token: {}", e.getMessage());
@@ -569,89 +640,4 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
             }
         }
     }
-
-    // ################ BLOK BAŞLANGICI (CACHE CLEANUP) ################
-    // ########################OVERRIDE_DSS#########################
-    // ##### Bu alan, OCSP cache temizliği için eklenen           #
-    // ##### yardımcı metodları içerir. Memory leak önlenir.      #
-    // ##### DSS orijinalinde bulunmayan ek fonksiyonlardır.      #
-    // #############################################################
-    //
-    // DSS kütüphanesinde OCSP cache mekanizması olmadığı için
-    // cache temizliği de yoktur. Bizim eklediğimiz cache
-    // yapısının memory leak'e yol açmaması için bu metodlar
-    // geliştirilmiştir.
-    //
-    // İki tür temizleme sağlanır:
-    //
-    // 1. cleanupOcspCache(signatureId):
-    //    Belirli bir imza işlemi tamamlandığında, o imzaya
-    //    özel cache'in hemen silinmesini sağlar. SignService'de
-    //    her imza işlemi sonrası finally bloğunda çağrılır.
-    //
-    // 2. cleanupOldCaches(maxAgeMillis):
-    //    Eğer bir nedenle (exception, crash vb.) cleanup
-    //    çağrılmamışsa, eski cache'leri periyodik olarak
-    //    temizler. Güvenlik ağı (fallback) görevi görür.
-    //
-    // Thread-safe: ConcurrentHashMap kullanımı sayesinde
-    // eş zamanlı temizleme işlemleri güvenlidir.
-    //
-    // Kullanım:
-    // - Her imza sonrası: cleanupOcspCache(signatureId)
-    // - Periyodik: cleanupOldCaches(5 * 60 * 1000L) // 5 dakika
-    // #############################################################
-
-    /**
-     * Cleans up the OCSP cache for a specific signature.
-     * Should be called after signature extension is complete.
-     * Thread-safe operation.
-     * 
-     * @param signatureId The signature ID to clean up
-     */
-    public static void cleanupOcspCache(String signatureId) {
-        if (signatureId != null) {
-            java.util.concurrent.ConcurrentHashMap<String, OCSPToken> removed = ocspCacheBySignature
-                    .remove(signatureId);
-            if (removed != null) {
-                LOGGER.info("🧹 Cleaned up OCSP cache for signature: {} (removed {} entries)", 
-                        signatureId, removed.size());
-            }
-        }
-    }
-
-    /**
-     * Cleans up all OCSP caches older than the specified age.
-     * Useful for preventing memory leaks if cleanup wasn't called explicitly.
-     * Thread-safe operation.
-     * 
-     * @param maxAgeMillis Maximum age in milliseconds
-     */
-    public static void cleanupOldCaches(long maxAgeMillis) {
-        long cutoffTime = System.currentTimeMillis() - maxAgeMillis;
-        int removedCount = 0;
-
-        for (String signatureId : ocspCacheBySignature.keySet()) {
-            // Extract timestamp from signature ID if it follows our format
-            if (signatureId.startsWith("sig_")) {
-                try {
-                    String[] parts = signatureId.split("_");
-                    if (parts.length >= 2) {
-                        long timestamp = Long.parseLong(parts[1]);
-                        if (timestamp < cutoffTime) {
-                            ocspCacheBySignature.remove(signatureId);
-                            removedCount++;
-                        }
-                    }
-                } catch (NumberFormatException ignored) {
-                    // Skip if timestamp can't be parsed
-                }
-            }
-        }
-
-        if (removedCount > 0) {
-            LOGGER.info("🧹 Cleaned up {} old OCSP cache(s)", removedCount);
-        }
-    }
-    // ################ BLOK BİTTİ (CACHE CLEANUP) ################
 }
\ No newline at end of file
@@ -48,6 +48,7 @@ import org.w3c.dom.NodeList;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -147,10 +148,11 @@ public class XAdESLevelXL extends XAdESLevelX {
         signatureRequirementsChecker.assertCertificateChainValidForXLLevel(signatures);
 
         // Perform signature validation
-        // CRITICAL: Fetch NEW validation data for timestamp validation
+        // CRITICAL: Reuse C-level validation data, only timestamps added after
+        // C-level (e.g. SigAndRefsTimeStamp) are validated here
         // OCSP tokens will be replaced with cached versions in
         // replaceWithCachedOcspTokens()
-        ValidationDataContainer validationDataContainer = documentAnalyzer.getValidationData(signatures);
+        ValidationDataContainer validationDataContainer = getXLLevelValidationData(signatures);
 
         for (AdvancedSignature signature : signatures) {
             initializeSignatureBuilder((XAdESSignature) signature);
@@ -225,6 +227,58 @@ public class XAdESLevelXL extends XAdESLevelX {
 
     }
 
+    // ################ BLOK BAŞLANGICI (TEK GEÇİŞ DOĞRULAMA VERİSİ) ################
+    // ########################OVERRIDE_DSS#########################
+    // ##### DSS, XL seviyesinde imzanın tüm doğrulama verisini   #
+    // ##### (sertifika zinciri, OCSP/CRL, zaman damgaları) C     #
+    // ##### seviyesinden bağımsız olarak yeniden toplar.         #
+    // #############################################################
+    //
+    // C seviyesinde toplanan ValidationDataContainer imzanın
+    // sertifika ve iptal verisini zaten içerir; XL'de yalnızca C
+    // seviyesinden sonra eklenen zaman damgaları (SigAndRefsTimeStamp)
+    // için doğrulama yapılır ve sonuç aynı container'a eklenir.
+    // Böylece T -> A yükseltmesi boyunca tek bir container kullanılır
+    // ve gömülen OCSP/CRL değerleri C referanslarıyla birebir aynıdır.
+    //
+    // C seviyesi atlandıysa (imza zaten C seviyesindeyse) veya
+    // container bu imzaları içermiyorsa DSS davranışına dönülür.
+    // #############################################################
+    private ValidationDataContainer getXLLevelValidationData(List<AdvancedSignature> signatures) {
+        if (cachedValidationDataContainer == null
+                || !cachedValidationDataContainer.getSignatures().containsAll(signatures)) {
+            LOGGER.info("XL-LEVEL: No cached C-level validation data, fetching new validation data");
+            cachedValidationDataContainer = documentAnalyzer.getValidationData(signatures);
+            applyRevocationInclusionPolicy(cachedValidationDataContainer);
+            return cachedValidationDataContainer;
+        }
+
+        List<TimestampToken> newTimestamps = new ArrayList<>();
+        for (AdvancedSignature signature : signatures) {
+            for (TimestampToken timestampToken : signature.getAllTimestamps()) {
+                if (cachedValidationDataContainer.getValidationData(timestampToken) == null) {
+                    newTimestamps.add(timestampToken);
+                }
+            }
+        }
+
+        if (!newTimestamps.isEmpty()) {
+            ValidationDataContainer timestampValidationData = documentAnalyzer.getValidationData(
+                    Collections.<AdvancedSignature>emptyList(), newTimestamps);
+            for (TimestampToken timestampToken : newTimestamps) {
+                ValidationData validationData = timestampValidationData.getValidationData(timestampToken);
+                if (validationData != null) {
+                    applyRevocationInclusionPolicy(validationData);
+                    cachedValidationDataContainer.addValidationData(timestampToken, validationData);
+                }
+            }
+        }
+        LOGGER.info("XL-LEVEL: Using cached validation data from C level ({} new timestamp(s) validated)",
+                newTimestamps.size());
+        return cachedValidationDataContainer;
+    }
+    // ################ BLOK BİTTİ (TEK GEÇİŞ DOĞRULAMA VERİSİ) ################
+
     private void appendTimestampValidationDataAfterTimestamp(TimestampToken timestampToken,
             ValidationData validationData,
             String indent) {
@@ -511,13 +565,10 @@ public class XAdESLevelXL extends XAdESLevelX {
             return newOcspTokens;
         }
 
-        // Get signature-specific cache
-        java.util.concurrent.ConcurrentHashMap<String, OCSPToken> signatureCache = null;
-        if (currentSignatureId != null) {
-            signatureCache = ocspCacheBySignature.get(currentSignatureId);
-        }
+        // OCSP tokens referenced at C-level by this extension
+        java.util.Map<String, OCSPToken> signatureCache = referencedOcspTokens;
 
-        if (signatureCache == null || signatureCache.isEmpty()) {
+        if (signatureCache.isEmpty()) {
             LOGGER.error("XL-LEVEL: ERROR - No cached OCSP tokens available for signature: {}", currentSignatureId);
             LOGGER.error("XL-LEVEL: This will cause 'OCSP not found in references' error!");
             return newOcspTokens;
@@ -552,8 +603,7 @@ public class XAdESLevelXL extends XAdESLevelX {
                 LOGGER.info("XL-LEVEL: New OCSP digest: {}", 
                         Utils.toBase64(newOcspDigest).substring(0, 20));
 
-                // Check if we have a cached token for this certificate in signature-specific
-                // cache
+                // Check if we have a token referenced at C-level for this certificate
                 OCSPToken cachedToken = signatureCache.get(certKey);
 
                 if (cachedToken != null) {
@@ -109,6 +109,10 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
     /** Cached UnsignedSignatureProperties element */
     protected Element unsignedSignaturePropertiesDom;
 
+    // ########################OVERRIDE_DSS#########################
+    /** İmzacı sertifikasına bağlı DOM parçalarının önbelleği (isteğe bağlı) */
+    protected XAdESCertificateFragments certificateFragments;
+
     /** Id-prefix for Reference element */
     protected static final String REFERENCE_PREFIX = "r-";
 
@@ -528,12 +532,26 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
             return;
         }
 
+        /*
+         * ######################## OVERRIDE_DSS #########################
+         * KeyInfo içeriği (X509Data + KeyValue) yalnızca imzacı sertifikasına bağlıdır.
+         * Sertifika için önceden üretilmiş parça varsa klonlanır; yoksa aşağıda
+         * üretilip sonraki imzalar için saklanır (XAdESCertificateFragments).
+         */
+        final String fragmentKey = getKeyInfoFragmentKey();
+        final Element cachedKeyInfo = importCertificateFragment(fragmentKey);
+        if (cachedKeyInfo != null) {
+            signatureDom.appendChild(cachedKeyInfo);
+            if (params.isSignKeyInfo()) {
+                cachedKeyInfo.setAttribute(XMLDSigAttribute.ID.getAttributeName(), KEYINFO_PREFIX + deterministicId);
+            }
+            this.keyInfoDom = cachedKeyInfo;
+            return;
+        }
+
         // <ds:KeyInfo>
         final Element keyInfoElement = DomUtils.createElementNS(documentDom, getXmldsigNamespace(), XMLDSigElement.KEY_INFO);
         signatureDom.appendChild(keyInfoElement);
-        if (params.isSignKeyInfo()) {
-            keyInfoElement.setAttribute(XMLDSigAttribute.ID.getAttributeName(), KEYINFO_PREFIX + deterministicId);
-        }
 
         /*
          * ######################## OVERRIDE_DSS #########################
@@ -597,10 +615,53 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
          *      </ds:KeyInfo>
          */
         addKeyValue(keyInfoElement,params.getSigningCertificate());
+        storeCertificateFragment(fragmentKey, keyInfoElement);
+
+        if (params.isSignKeyInfo()) {
+            keyInfoElement.setAttribute(XMLDSigAttribute.ID.getAttributeName(), KEYINFO_PREFIX + deterministicId);
+        }
         this.keyInfoDom = keyInfoElement;
 
     }
 
+    // ########################OVERRIDE_DSS#########################
+    // ##### Sertifikaya bağlı DOM parçalarının önbelleği        ####
+    // #############################################################
+
+    /**
+     * İmzacı sertifikasına bağlı DOM parçaları önbelleğini ayarlar. Önbellek
+     * verilmezse veya başka bir sertifikaya aitse parçalar her imzada üretilir.
+     *
+     * @param certificateFragments sertifika parçaları önbelleği
+     */
+    public void setCertificateFragments(XAdESCertificateFragments certificateFragments) {
+        this.certificateFragments = certificateFragments;
+    }
+
+    private String getKeyInfoFragmentKey() {
+        return "KeyInfo|" + getXmldsigNamespace().getPrefix() + "|" + getXmldsigNamespace().getUri()
+                + "|" + params.isAddX509SubjectName();
+    }
+
+    private String getSigningCertificateFragmentKey() {
+        return "SigningCertificate|" + getXadesNamespace().getPrefix() + "|" + getXadesNamespace().getUri()
+                + "|" + getXmldsigNamespace().getPrefix() + "|" + params.isEn319132()
+                + "|" + params.getSigningCertificateDigestMethod();
+    }
+
+    private Element importCertificateFragment(String key) {
+        if (certificateFragments == null || !certificateFragments.isFor(params.getSigningCertificate())) {
+            return null;
+        }
+        return certificateFragments.importFragment(key, documentDom);
+    }
+
+    private void storeCertificateFragment(String key, Element fragment) {
+        if (certificateFragments != null && certificateFragments.isFor(params.getSigningCertificate())) {
+            certificateFragments.storeFragment(key, fragment);
+        }
+    }
+
     private void addKeyValue(Element keyInfoElement, CertificateToken signingCertificate) {
         PublicKey publicKey = signingCertificate.getPublicKey();
         if ((publicKey instanceof RSAPublicKey)) {
@@ -1223,17 +1284,31 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
             return;
         }
 
+        /*
+         * ######################## OVERRIDE_DSS #########################
+         * SigningCertificate(V2) ve CertDigest özeti yalnızca imzacı sertifikasına
+         * bağlıdır; önceden üretilmiş parça varsa yeniden özetlenmeden klonlanır.
+         */
+        final String fragmentKey = getSigningCertificateFragmentKey();
+        final Element cachedSigningCertificate = importCertificateFragment(fragmentKey);
+        if (cachedSigningCertificate != null) {
+            signedSignaturePropertiesDom.appendChild(cachedSigningCertificate);
+            return;
+        }
+
         final Set<CertificateToken> certificates = new HashSet<>();
         certificates.add(params.getSigningCertificate());
 
+        final Element signingCertificateDom;
         if (params.isEn319132()) {
-            incorporateSigningCertificateV2(certificates);
+            signingCertificateDom = incorporateSigningCertificateV2(certificates);
         } else {
-            incorporateSigningCertificateV1(certificates);
+            signingCertificateDom = incorporateSigningCertificateV1(certificates);
         }
+        storeCertificateFragment(fragmentKey, signingCertificateDom);
     }
 
-    private void incorporateSigningCertificateV1(Set<CertificateToken> certificates) {
+    private Element incorporateSigningCertificateV1(Set<CertificateToken> certificates) {
         Element signingCertificateDom = DomUtils.addElement(documentDom, signedSignaturePropertiesDom, getXadesNamespace(),
                 getCurrentXAdESElements().getElementSigningCertificate());
 
@@ -1241,9 +1316,10 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
         for (final CertificateToken certificate : certificates) {
             incorporateCert(signingCertificateDom, certificate, signingCertificateDigestMethod);
         }
+        return signingCertificateDom;
     }
 
-    private void incorporateSigningCertificateV2(Set<CertificateToken> certificates) {
+    private Element incorporateSigningCertificateV2(Set<CertificateToken> certificates) {
         Element signingCertificateDom = DomUtils.addElement(documentDom, signedSignaturePropertiesDom, getXadesNamespace(),
                 getCurrentXAdESElements().getElementSigningCertificateV2());
 
@@ -1251,6 +1327,7 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
         for (final CertificateToken certificate : certificates) {
             incorporateCert(signingCertificateDom, certificate, signingCertificateDigestMethod);
         }
+        return signingCertificateDom;
     }
 
     /**
@@ -1733,6 +1810,16 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
      */
     @Override
     public DSSDocument signDocument(final byte[] signatureValue) {
+        appendSignatureValue(signatureValue);
+        return createXmlDocument();
+    }
+
+    /**
+     * Adds signature value to the signature DOM without serializing the document
+     *
+     * @param signatureValue byte array
+     */
+    public void appendSignatureValue(final byte[] signatureValue) {
         if (!built) {
             build();
         }
@@ -1752,7 +1839,6 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
         final String signatureValueBase64Encoded = Utils.toBase64(signatureValueBytes);
         final Text signatureValueNode = documentDom.createTextNode(signatureValueBase64Encoded);
         signatureValueDom.appendChild(signatureValueNode);
-        return createXmlDocument();
     }
 
     /**
@@ -3,6 +3,7 @@
 package eu.europa.esig.dss.xades.signature;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.security.cert.X509CRL;
 import java.security.interfaces.ECPublicKey;
@@ -43,6 +44,11 @@ public class XadesUtil {
      */
     public static final String DER_ENCODING_URI = "http://uri.etsi.org/01903/v1.2.2#DER";
 
+    /**
+     * Number of bytes encoded per text node (1024 lines of 76 characters).
+     */
+    private static final int BASE64_CHUNK_BYTES = 57 * 1024;
+
     /**
      * Formats binary data with Base64 encoding using 76-character line breaks.
      * This is the standard format for XAdES encapsulated values.
@@ -119,6 +125,74 @@ public class XadesUtil {
         return crlElement;
     }
 
+    /**
+     * Creates an EncapsulatedCRLValue element, encoding the CRL from the given stream.
+     * The produced content is identical to {@link #formatWithBase64(byte[])}.
+     *
+     * @param documentDom    The parent document
+     * @param parentElement  The parent element to append to
+     * @param xadesNamespace The XAdES namespace to use
+     * @param crlStream      The DER-encoded CRL stream (not closed)
+     * @return The created Element
+     * @throws IOException If the CRL stream cannot be read
+     * @see #appendBase64Content(Document, Element, InputStream)
+     */
+    public static Element createEncapsulatedCRLElement(
+            Document documentDom,
+            Element parentElement,
+            DSSNamespace xadesNamespace,
+            InputStream crlStream) throws IOException {
+
+        Element crlElement = documentDom.createElementNS(
+                xadesNamespace.getUri(),
+                xadesNamespace.getPrefix() + ":EncapsulatedCRLValue");
+
+        crlElement.setAttribute("Encoding", DER_ENCODING_URI);
+        appendBase64Content(documentDom, crlElement, crlStream);
+        parentElement.appendChild(crlElement);
+
+        return crlElement;
+    }
+
+    /**
+     * Encodes the stream with Base64 using 76-character line breaks and appends it to the
+     * element in chunks.
+     *
+     * <p>{@link #formatWithBase64(byte[])} keeps the binary, the encoded bytes and the
+     * resulting String in memory at the same time; for multi-megabyte CRLs this triples the
+     * heap used per value. Here the stream is read in blocks of {@value #BASE64_CHUNK_BYTES}
+     * bytes (a multiple of 57, i.e. whole 76-character lines) and each block is appended as a
+     * separate text node, so only the DOM text itself grows with the CRL size. Adjacent text
+     * nodes serialize and canonicalize exactly like a single one.
+     *
+     * @param documentDom   The parent document
+     * @param element       The element receiving the text content
+     * @param data          The binary data to encode (not closed)
+     * @throws IOException If the stream cannot be read
+     */
+    public static void appendBase64Content(Document documentDom, Element element, InputStream data)
+            throws IOException {
+        java.util.Base64.Encoder encoder = java.util.Base64.getMimeEncoder(76, new byte[] { '\n' });
+        byte[] buffer = new byte[BASE64_CHUNK_BYTES];
+        int length;
+        while ((length = readBlock(data, buffer)) > 0) {
+            byte[] block = length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+            element.appendChild(documentDom.createTextNode(encoder.encodeToString(block) + '\n'));
+        }
+    }
+
+    private static int readBlock(InputStream data, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = data.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
     /**
      * Creates an EncapsulatedOCSPValue element with properly formatted Base64
      * content.
@@ -0,0 +1,77 @@
+// @formatter:off
+
+package eu.europa.esig.dss.xades.validation;
+
+import eu.europa.esig.dss.xades.definition.xades111.XAdES111Path;
+import eu.europa.esig.dss.xades.definition.xades122.XAdES122Path;
+import eu.europa.esig.dss.xades.definition.xades132.XAdES132Path;
+import eu.europa.esig.dss.xml.common.definition.xmldsig.XMLDSigAttribute;
+import eu.europa.esig.dss.xml.utils.DOMDocument;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+// ########################OVERRIDE_DSS#########################
+// #####  DİKKAT: OVERRIDE DEĞİLDİR!                        ####
+// #####  XMLDocumentAnalyzer'ı belgeyi yeniden             ####
+// #####  ayrıştırmadan bellekteki DOM üzerinde             ####
+// #####  çalıştıran alt sınıftır. Paket erişimli           ####
+// #####  yapıcıya ulaşmak için DSS paketindedir.           ####
+// #############################################################
+
+/**
+ * Bellekteki bir DOM üzerinde çalışan {@link XMLDocumentAnalyzer}.
+ *
+ * <p>DSS'in analizörü belgeyi her zaman {@link eu.europa.esig.dss.model.DSSDocument}
+ * akışından yeniden ayrıştırır. İmzalama sırasında oluşturulan DOM, XAdES-A
+ * yükseltmesinde doğrudan kullanıldığında imzalı belgenin serileştirilip yeniden
+ * ayrıştırılmasına gerek kalmaz; uzatma adımları aynı DOM'u yerinde günceller.
+ *
+ * <p>{@link #document} yalnızca ihtiyaç olursa (ör. orijinal belge istenirse)
+ * DOM'dan serileştirilen bir {@link DOMDocument} ile temsil edilir.
+ *
+ * <p>İmza oluşturulurken eklenen {@code Id} nitelikleri namespace'siz (DOM Level 1)
+ * düğümlerdir; DSS'in {@link eu.europa.esig.dss.xades.DSSXMLUtils#setIDIdentifier}
+ * metodu yerel adı olmayan nitelikleri atladığından bu nitelikler burada ID olarak
+ * kaydedilir. Aksi halde Santuario {@code #xades-...} referanslarını çözemez.
+ */
+public class XMLDOMDocumentAnalyzer extends XMLDocumentAnalyzer {
+
+    /**
+     * @param documentDom Analiz edilecek (ve uzatma sırasında güncellenecek) DOM
+     */
+    public XMLDOMDocumentAnalyzer(Document documentDom) {
+        super();
+        Objects.requireNonNull(documentDom, "Document to be validated cannot be null!");
+        this.document = new DOMDocument(documentDom);
+        this.rootElement = documentDom;
+
+        this.xadesPathsHolders = new ArrayList<>();
+        this.xadesPathsHolders.add(new XAdES111Path());
+        this.xadesPathsHolders.add(new XAdES122Path());
+        this.xadesPathsHolders.add(new XAdES132Path());
+
+        registerIdAttributes(documentDom.getDocumentElement());
+    }
+
+    private static void registerIdAttributes(Element element) {
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (attribute.getLocalName() == null
+                    && XMLDSigAttribute.ID.getAttributeName().equalsIgnoreCase(attribute.getName())) {
+                element.setIdAttributeNode(attribute, true);
+            }
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                registerIdAttributes((Element) child);
+            }
+        }
+    }
+}
@@ -1,31 +1,48 @@
 package io.mersel.dss.signer.api.config;
 
-import eu.europa.esig.dss.service.crl.OnlineCRLSource;
+import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.service.http.commons.OCSPDataLoader;
 import eu.europa.esig.dss.service.ocsp.OnlineOCSPSource;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
 import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
 import eu.europa.esig.dss.spi.validation.RevocationDataVerifier;
+import eu.europa.esig.dss.spi.x509.CommonCertificateSource;
 import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
-import eu.europa.esig.dss.spi.x509.aia.DefaultAIASource;
+import eu.europa.esig.dss.spi.x509.aia.AIASource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
 import io.mersel.dss.signer.api.models.SigningContext;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
 import io.mersel.dss.signer.api.services.SigningMaterialFactory;
+import io.mersel.dss.signer.api.services.certificate.CachingAIASource;
 import io.mersel.dss.signer.api.services.certificate.CertificateChainProvider;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
 import io.mersel.dss.signer.api.services.certificate.LocalCertificateChainProvider;
 import io.mersel.dss.signer.api.services.certificate.OnlineCertificateChainProvider;
 import io.mersel.dss.signer.api.services.keystore.KeyStoreProvider;
 import io.mersel.dss.signer.api.services.keystore.PKCS11KeyStoreProvider;
 import io.mersel.dss.signer.api.services.keystore.PfxKeyStoreProvider;
+import io.mersel.dss.signer.api.services.revocation.CachingCRLSource;
+import io.mersel.dss.signer.api.services.revocation.CachingOCSPSource;
+import io.mersel.dss.signer.api.services.revocation.ConcurrentRevocationFetcher;
 import io.mersel.dss.signer.api.services.KamusmRootCertificateService;
+import io.mersel.dss.signer.api.services.util.NetworkLimitedDataLoader;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.StringUtils;
 
+import java.nio.file.Paths;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * İmza servisleri için ana yapılandırma.
@@ -73,12 +90,12 @@ public class SignatureConfiguration {
      * Öncelik sırasına göre sertifika zinciri sağlayıcılarını verir.
      */
     @Bean
-    public List<CertificateChainProvider> certificateChainProviders() {
+    public List<CertificateChainProvider> certificateChainProviders(AIASource aiaSource) {
         List<CertificateChainProvider> providers = new ArrayList<>();
         
         // Online sağlayıcı (yüksek öncelik)
         if (config.isCertificateChainGetOnline()) {
-            providers.add(new OnlineCertificateChainProvider());
+            providers.add(new OnlineCertificateChainProvider(aiaSource));
         }
         
         // Yerel dosya sağlayıcı (yedek)
@@ -93,6 +110,22 @@ public class SignatureConfiguration {
         return providers;
     }
 
+    /**
+     * AIA issuer kaynağını sağlar; indirilen ara sertifikalar bellekte ve diskte saklanır,
+     * zincir sağlayıcıları ve DSS doğrulayıcısı tarafından paylaşılır. İndirmeler ağ
+     * sınırlayıcısı altında yapılır.
+     */
+    @Bean
+    public AIASource aiaSource(ConcurrencyLimiter networkLimiter, MeterRegistry meterRegistry) {
+        CommonsDataLoader dataLoader = new CommonsDataLoader();
+        dataLoader.setTimeoutConnection(config.getAiaConnectTimeoutMs());
+        dataLoader.setTimeoutConnectionRequest(config.getAiaConnectTimeoutMs());
+        dataLoader.setTimeoutResponse(config.getAiaReadTimeoutMs());
+        dataLoader.setTimeoutSocket(config.getAiaReadTimeoutMs());
+        return new CachingAIASource(new NetworkLimitedDataLoader(dataLoader, networkLimiter),
+            Paths.get(config.getAiaCacheDirectory()), meterRegistry);
+    }
+
     /**
      * Uygulama için ana imzalama materyalini sağlar.
      * Başlangıçta bir kez oluşturulur ve tüm imzalama işlemleri için tekrar kullanılır.
@@ -147,18 +180,149 @@ public class SignatureConfiguration {
     }
 
     /**
-     * Eşzamanlı imza işlemlerini kontrol etmek için semaphore sağlar.
+     * Private key işlemlerini (HSM oturumları) sınırlayan limiter'ı sağlar.
+     */
+    @Bean
+    public ConcurrencyLimiter hsmLimiter(MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiter("hsm", config.getHsmMaxConcurrency(), meterRegistry);
+    }
+
+    /**
+     * İptal (OCSP/CRL) ve zaman damgası ağ çağrılarını sınırlayan limiter'ı sağlar.
+     */
+    @Bean
+    public ConcurrencyLimiter networkLimiter(MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiter("network", config.getNetworkMaxConcurrency(), meterRegistry);
+    }
+
+    /**
+     * CPU yoğun DOM işlemlerini (SignedInfo oluşturma, kanonikleştirme, serileştirme) sınırlayan limiter'ı sağlar.
+     */
+    @Bean
+    public ConcurrencyLimiter cpuLimiter(MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiter("cpu", config.getCpuMaxConcurrency(), meterRegistry);
+    }
+
+    /**
+     * Toplu imzalamada belge hazırlığını (ayrıştırma, parametre oluşturma) paralel
+     * yürüten iş parçacığı havuzunu sağlar. HSM erişimi yine hsmLimiter ile sınırlıdır.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchSigningExecutor() {
+        return Executors.newFixedThreadPool(config.getBatchWorkerCount(),
+            new CustomizableThreadFactory("batch-sign-"));
+    }
+
+    /**
+     * Asenkron imza işlerinin seviye yükseltmesini (XAdES-A) yürüten iş parçacığı havuzunu sağlar.
+     * Kuyruk ASYNC_JOB_QUEUE_CAPACITY ile sınırlıdır; dolu kuyruğun reddi yeni işi JOB_QUEUE_FULL
+     * ile geri çevirir. Kapanışta bekleyen işler diskte kalır ve yeniden başlatmada devam eder.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor asyncSigningExecutor() {
+        return new ThreadPoolExecutor(config.getAsyncJobWorkerCount(), config.getAsyncJobWorkerCount(),
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(config.getAsyncJobQueueCapacity()),
+            new CustomizableThreadFactory("async-sign-"));
+    }
+
+    /**
+     * CRL'leri diskte saklayan ve nextUpdate öncesinde arka planda yenileyen CRL kaynağını sağlar.
+     * İndirmeler ağ sınırlayıcısı altında yapılır.
      */
     @Bean
-    public Semaphore signatureSemaphore() {
-        return new Semaphore(config.getMaxSessionCount());
+    public CachingCRLSource crlSource(ConcurrencyLimiter networkLimiter, MeterRegistry meterRegistry) {
+        CommonsDataLoader dataLoader = new CommonsDataLoader();
+        applyResponderTimeouts(dataLoader);
+        return new CachingCRLSource(new NetworkLimitedDataLoader(dataLoader, networkLimiter),
+            Paths.get(config.getCrlCacheDirectory()),
+            TimeUnit.SECONDS.toMillis(config.getCrlCacheRefreshAheadSeconds()),
+            TimeUnit.SECONDS.toMillis(config.getCrlCacheDefaultTtlSeconds()), meterRegistry);
     }
 
     /**
-     * Tam yapılandırılmış DSS sertifika doğrulayıcısını sağlar.
+     * İptal verisi tazelik sınırlarını belirleyen doğrulayıcıyı sağlar.
      */
     @Bean
-    public CertificateVerifier certificateVerifier() {
+    public RevocationDataVerifier revocationDataVerifier() {
+        RevocationDataVerifier revocationVerifier = 
+            RevocationDataVerifier.createDefaultRevocationDataVerifier();
+        Long fiveMinutes = 5 * 60 * 1000L;
+        revocationVerifier.setCheckRevocationFreshnessNextUpdate(true);
+        revocationVerifier.setSignatureMaximumRevocationFreshness(fiveMinutes);
+        revocationVerifier.setTimestampMaximumRevocationFreshness(fiveMinutes);
+        revocationVerifier.setRevocationMaximumRevocationFreshness(fiveMinutes);
+        return revocationVerifier;
+    }
+
+    /**
+     * OCSP kaynağını sağlar; yanıtlar CertID'ye göre tüm imzalar arasında paylaşılır.
+     * Sorgular önbelleğin altında, ağ sınırlayıcısı altında yapılır.
+     */
+    @Bean
+    public OCSPSource ocspSource(RevocationDataVerifier revocationDataVerifier,
+                                 ConcurrencyLimiter networkLimiter,
+                                 MeterRegistry meterRegistry) {
+        OCSPDataLoader dataLoader = new OCSPDataLoader();
+        applyResponderTimeouts(dataLoader);
+        OCSPSource ocspSource = new OnlineOCSPSource(new NetworkLimitedDataLoader(dataLoader, networkLimiter));
+        if (config.getOcspCacheMaxEntries() > 0) {
+            ocspSource = new CachingOCSPSource(ocspSource, revocationDataVerifier,
+                config.getOcspCacheMaxEntries(), meterRegistry);
+        }
+        return ocspSource;
+    }
+
+    /**
+     * OCSP/CRL sorguları için sınırlı havuz. Havuz doluysa sorgu reddedilir; strateji sorguyu
+     * çağıran iş parçacığında yapar.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor revocationFetchExecutor() {
+        return new ThreadPoolExecutor(config.getRevocationFetchThreads(), config.getRevocationFetchThreads(),
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(config.getRevocationFetchThreads() * 4),
+            new CustomizableThreadFactory("revocation-fetch-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Zincir sertifikalarının iptal verisini paralel, yedekli (OCSP/CRL yarışı) ve
+     * yanıtlayıcı başına devre kesici ile alan DSS yükleme stratejisini sağlar.
+     */
+    @Bean
+    public ConcurrentRevocationFetcher revocationFetcher(ThreadPoolExecutor revocationFetchExecutor,
+                                                         MeterRegistry meterRegistry) {
+        return new ConcurrentRevocationFetcher(revocationFetchExecutor,
+            config.getRevocationHedgeDelayMs(),
+            config.getRevocationResponderTimeoutMs(),
+            config.getRevocationCircuitFailureThreshold(),
+            TimeUnit.SECONDS.toMillis(config.getRevocationCircuitOpenSeconds()),
+            meterRegistry);
+    }
+
+    /**
+     * Tam yapılandırılmış DSS sertifika doğrulayıcısının anlık görüntülerini sağlar.
+     * Güvenilir kökler yenilendiğinde yeni bir anlık görüntü oluşturulup atomik olarak yayınlanır.
+     */
+    @Bean
+    public CertificateVerifierProvider certificateVerifierProvider(RevocationDataVerifier revocationDataVerifier,
+                                                                   OCSPSource ocspSource,
+                                                                   CachingCRLSource crlSource,
+                                                                   AIASource aiaSource,
+                                                                   ConcurrentRevocationFetcher revocationFetcher,
+                                                                   SigningMaterial signingMaterial) {
+        return new CertificateVerifierProvider(() -> createCertificateVerifier(revocationDataVerifier,
+            ocspSource, crlSource, aiaSource, revocationFetcher, signingMaterial));
+    }
+
+    /**
+     * Güncel güvenilir kökler ve imzalama zinciri ile yeni bir doğrulayıcı oluşturur.
+     * Oluşturulan doğrulayıcı yayınlandıktan sonra değiştirilmez.
+     */
+    private CertificateVerifier createCertificateVerifier(RevocationDataVerifier revocationDataVerifier,
+                                                          OCSPSource ocspSource,
+                                                          CachingCRLSource crlSource,
+                                                          AIASource aiaSource,
+                                                          ConcurrentRevocationFetcher revocationFetcher,
+                                                          SigningMaterial signingMaterial) {
         CommonCertificateVerifier verifier = new CommonCertificateVerifier();
         
         // Güvenilir sertifika kaynaklarını yapılandır
@@ -167,43 +331,41 @@ public class SignatureConfiguration {
             .forEach(trustedSource::addCertificate);
         verifier.setTrustedCertSources(trustedSource);
 
+        // İmzalama sertifika zincirini önceden ekle (istek başına doğrulayıcı değiştirilmez)
+        CommonCertificateSource adjunctSource = new CommonCertificateSource();
+        signingMaterial.getCertificateTokens()
+            .forEach(adjunctSource::addCertificate);
+        verifier.setAdjunctCertSources(adjunctSource);
+
         // Güvenilmeyen zincirler için iptal kontrolünü etkinleştir
         verifier.setCheckRevocationForUntrustedChains(true);
 
         // İptal verisi doğrulayıcısını yapılandır
-        RevocationDataVerifier revocationVerifier = 
-            RevocationDataVerifier.createDefaultRevocationDataVerifier();
-        Long fiveMinutes = 5 * 60 * 1000L;
-        revocationVerifier.setCheckRevocationFreshnessNextUpdate(true);
-        revocationVerifier.setSignatureMaximumRevocationFreshness(fiveMinutes);
-        revocationVerifier.setTimestampMaximumRevocationFreshness(fiveMinutes);
-        revocationVerifier.setRevocationMaximumRevocationFreshness(fiveMinutes);
-        verifier.setRevocationDataVerifier(revocationVerifier);
+        verifier.setRevocationDataVerifier(revocationDataVerifier);
 
         // İptal yedeklemeyi etkinleştir
         verifier.setRevocationFallback(true);
 
-        // OCSP kaynağını yapılandır
-        OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+        // OCSP ve CRL'i paralel, zaman aşımı ve devre kesici ile sorgula
+        verifier.setRevocationDataLoadingStrategyFactory(revocationFetcher);
+
+        // OCSP kaynağını yapılandır (paylaşılan önbellek, arka planda ön yüklenir)
         verifier.setOcspSource(ocspSource);
 
-        // Zincir oluşturma için AIA kaynağını yapılandır
-        DefaultAIASource aiaSource = new DefaultAIASource();
+        // Zincir oluşturma için AIA kaynağını yapılandır (bellekte ve diskte saklanır)
         verifier.setAIASource(aiaSource);
 
-        // CRL kaynağını yapılandır
-        OnlineCRLSource crlSource = new OnlineCRLSource();
+        // CRL kaynağını yapılandır (diskte saklanır, nextUpdate öncesinde arka planda yenilenir)
         verifier.setCrlSource(crlSource);
 
         return verifier;
     }
 
-    /**
-     * Sertifika doğrulayıcı ile yapılandırılmış XAdES servisini sağlar.
-     */
-    @Bean
-    public eu.europa.esig.dss.xades.signature.XAdESService xadesService(CertificateVerifier certificateVerifier) {
-        return new eu.europa.esig.dss.xades.signature.XAdESService(certificateVerifier);
+    private void applyResponderTimeouts(CommonsDataLoader dataLoader) {
+        dataLoader.setTimeoutConnection(config.getRevocationResponderTimeoutMs());
+        dataLoader.setTimeoutConnectionRequest(config.getRevocationResponderTimeoutMs());
+        dataLoader.setTimeoutResponse(config.getRevocationResponderTimeoutMs());
+        dataLoader.setTimeoutSocket(config.getRevocationResponderTimeoutMs());
     }
 }
 
@@ -0,0 +1,123 @@
+package io.mersel.dss.signer.api.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchSignEntry;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.signature.batch.BatchSignatureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.mersel.dss.signer.api.dtos.SignBatchDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+
+/**
+ * Toplu imzalama işlemleri için REST controller.
+ * Birden fazla XML/PDF belgesini tek istekte imzalar ve sonuçları ZIP olarak döner.
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class BatchSignController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchSignController.class);
+
+    private final BatchSignatureService batchSignatureService;
+    private final SigningMaterial signingMaterial;
+
+    public BatchSignController(BatchSignatureService batchSignatureService,
+                               SigningMaterial signingMaterial) {
+        this.batchSignatureService = batchSignatureService;
+        this.signingMaterial = signingMaterial;
+    }
+
+    @Operation(
+        summary = "Birden fazla belgeyi tek istekte imzalar",
+        description = "ZIP arşivi veya çoklu dosya olarak gönderilen belgeleri girdi başına belge tipiyle imzalar. " +
+            "PDF girdileri PAdES, diğerleri XAdES ile imzalanır. İmzalanan belgeler tamamlandıkça ZIP olarak " +
+            "akıtılır; girdi başına sonuçlar arşivin sonundaki " + BatchSignatureService.REPORT_ENTRY_NAME +
+            " dosyasında raporlanır."
+    )
+    @RequestMapping(value = "/v1/batchsign", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> signBatch(@ModelAttribute SignBatchDto dto) {
+        try {
+            boolean hasArchive = dto.getArchive() != null && !dto.getArchive().isEmpty();
+            boolean hasDocuments = dto.getDocuments() != null && !dto.getDocuments().isEmpty();
+            if (hasArchive == hasDocuments) {
+                LOGGER.warn("Geçersiz toplu imza isteği: arşiv veya belge listesinden yalnızca biri verilmeli");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "ZIP arşivi veya belge listesinden yalnızca biri zorunludur"));
+            }
+
+            // Girdiler akış başlamadan okunur (multipart dosyaları istek sonunda silinir)
+            List<BatchSignEntry> entries;
+            if (hasArchive) {
+                entries = batchSignatureService.readZipEntries(
+                    dto.getArchive().getInputStream(),
+                    dto.getDocumentTypes(),
+                    dto.getDefaultDocumentType());
+            } else {
+                batchSignatureService.assertWithinLimit(dto.getDocuments().size());
+                entries = new ArrayList<>(dto.getDocuments().size());
+                for (int i = 0; i < dto.getDocuments().size(); i++) {
+                    MultipartFile document = dto.getDocuments().get(i);
+                    entries.add(new BatchSignEntry(
+                        document.getOriginalFilename(),
+                        document.getBytes(),
+                        batchSignatureService.resolveDocumentType(
+                            dto.getDocumentTypes(), i, dto.getDefaultDocumentType())));
+                }
+            }
+
+            if (entries.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "İmzalanacak belge bulunamadı"));
+            }
+
+            LOGGER.info("Toplu imzalama isteği alındı. Girdi sayısı: {}", entries.size());
+
+            StreamingResponseBody body = outputStream ->
+                batchSignatureService.signBatch(entries, signingMaterial, outputStream);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header("Content-Disposition",
+                    "attachment; filename=\"signed-batch-" + UUID.randomUUID() + ".zip\"")
+                .body(body);
+
+        } catch (SignatureException e) {
+            LOGGER.warn("Toplu imza isteği reddedildi: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("Toplu imzalama başlatılırken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
+}
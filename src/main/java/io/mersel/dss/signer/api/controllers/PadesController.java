@@ -1,9 +1,18 @@
 package io.mersel.dss.signer.api.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.UUID;
 
+import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.PadesSignatureLevel;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
 import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
+import io.mersel.dss.signer.api.services.util.SpoolFileService;
+import io.mersel.dss.signer.api.util.SpoolFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -13,7 +22,10 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -35,17 +47,25 @@ public class PadesController {
     private static final Logger LOGGER = LoggerFactory.getLogger(PadesController.class);
 
     private final PAdESSignatureService padesSignatureService;
+    private final SpoolFileService spoolFileService;
     private final SigningMaterial signingMaterial;
+    private final long streamingThresholdBytes;
 
     public PadesController(PAdESSignatureService padesSignatureService,
-                          SigningMaterial signingMaterial) {
+                          SpoolFileService spoolFileService,
+                          SigningMaterial signingMaterial,
+                          SignatureServiceConfiguration config) {
         this.padesSignatureService = padesSignatureService;
+        this.spoolFileService = spoolFileService;
         this.signingMaterial = signingMaterial;
+        this.streamingThresholdBytes = config.getPadesStreamingThresholdBytes();
     }
 
     @Operation(
         summary = "PDF belgelerini PAdES imzası ile imzalar",
-        description = "PDF belgelerine gömülü CAdES imzası oluşturur"
+        description = "PDF belgelerine gömülü CAdES imzası oluşturur. PADES_STREAMING_THRESHOLD_BYTES " +
+            "üzerindeki belgeler diske alınarak imzalanır ve istemciye dosyadan akış olarak aktarılır. " +
+            "SignatureLevel (B, T, LT, LTA) verilmezse PADES_SIGNATURE_LEVEL kullanılır."
     )
     @RequestMapping(value = "/v1/padessign", method = RequestMethod.POST,
         consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
@@ -69,12 +89,18 @@ public class PadesController {
                 ? dto.getAttachment().getBytes() 
                 : null;
 
+            if (dto.getDocument().getSize() > streamingThresholdBytes) {
+                return signPadesStreaming(dto.getDocument(), attachment,
+                    dto.getAttachmentFileName(), appendMode, dto.getSignatureLevel());
+            }
+
             SignResponse result = padesSignatureService.signPdf(
                 dto.getDocument().getInputStream(),
                 attachment,
                 dto.getAttachmentFileName(),
                 appendMode,
-                signingMaterial
+                signingMaterial,
+                dto.getSignatureLevel()
             );
 
             LOGGER.info("PAdES imzası başarıyla oluşturuldu (ekleme modu: {})", appendMode);
@@ -90,4 +116,145 @@ public class PadesController {
                 .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
         }
     }
+
+    @Operation(
+        summary = "Ham istek gövdesindeki PDF belgesini PAdES imzası ile imzalar",
+        description = "PDF multipart yerine doğrudan istek gövdesi (application/pdf) olarak gönderilir. " +
+            "Gövde ve imzalı çıktı bellekte biriktirilmeden geçici dosyaya yazılır; imzalı belge " +
+            "istemciye dosyadan akış olarak aktarılır. Dosya eki bu endpoint'te desteklenmez. " +
+            "signatureLevel (B, T, LT, LTA) verilmezse PADES_SIGNATURE_LEVEL kullanılır."
+    )
+    @RequestMapping(value = "/v1/padessign/raw", method = RequestMethod.POST,
+        consumes = {MediaType.APPLICATION_PDF_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "413",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> signPadesRaw(
+            @RequestParam(value = "appendMode", required = false) Boolean appendMode,
+            @RequestParam(value = "signatureLevel", required = false) PadesSignatureLevel signatureLevel,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "İmzalanacak PDF belgesi",
+                required = true,
+                content = @Content(mediaType = MediaType.APPLICATION_PDF_VALUE,
+                    schema = @Schema(type = "string", format = "binary"))
+            )
+            InputStream document) {
+        SpoolFile input = null;
+        SpoolFile output = null;
+        try {
+            boolean append = Boolean.TRUE.equals(appendMode);
+
+            input = spoolFileService.spool(document, ".pdf");
+            output = spoolFileService.createFile(".pdf");
+
+            padesSignatureService.signPdf(
+                input.getPath(),
+                null,
+                null,
+                append,
+                signingMaterial,
+                signatureLevel,
+                output.getPath()
+            );
+
+            LOGGER.info("PAdES imzası başarıyla oluşturuldu (ham gövde, ekleme modu: {})", append);
+
+            SpoolFile signed = output;
+            output = null;
+            return streamSignedPdf(signed);
+
+        } catch (SignatureException e) {
+            if (SpoolFileService.isPayloadTooLarge(e)) {
+                LOGGER.warn("PAdES isteği reddedildi: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ErrorModel(SpoolFileService.PAYLOAD_TOO_LARGE, e.getMessage()));
+            }
+            LOGGER.error("PAdES imzası oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("PAdES imzası oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } finally {
+            if (input != null) {
+                input.close();
+            }
+            if (output != null) {
+                output.close();
+            }
+        }
+    }
+
+    /**
+     * Eşik üzerindeki multipart belgeyi diske alır ve dosya tabanlı akış modunda imzalar.
+     */
+    private ResponseEntity<?> signPadesStreaming(MultipartFile document,
+                                                 byte[] attachment,
+                                                 String attachmentFileName,
+                                                 boolean appendMode,
+                                                 PadesSignatureLevel signatureLevel) throws IOException {
+        SpoolFile input = spoolFileService.createFile(".pdf");
+        SpoolFile output = null;
+        try {
+            try (InputStream inputStream = document.getInputStream()) {
+                Files.copy(inputStream, input.getPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            output = spoolFileService.createFile(".pdf");
+
+            padesSignatureService.signPdf(
+                input.getPath(),
+                attachment,
+                attachmentFileName,
+                appendMode,
+                signingMaterial,
+                signatureLevel,
+                output.getPath()
+            );
+
+            LOGGER.info("PAdES imzası başarıyla oluşturuldu (akış modu, {} bayt, ekleme modu: {})",
+                document.getSize(), appendMode);
+
+            SpoolFile signed = output;
+            output = null;
+            return streamSignedPdf(signed);
+        } finally {
+            input.close();
+            if (output != null) {
+                output.close();
+            }
+        }
+    }
+
+    /**
+     * İmzalı PDF'i geçici dosyadan istemciye akış olarak aktaran yanıtı oluşturur.
+     * Geçici dosya yanıt yazıldıktan sonra silinir.
+     */
+    private ResponseEntity<StreamingResponseBody> streamSignedPdf(SpoolFile signed) throws IOException {
+        long size;
+        try {
+            size = signed.size();
+        } catch (IOException e) {
+            signed.close();
+            throw e;
+        }
+        StreamingResponseBody body = outputStream -> {
+            try {
+                signed.writeTo(outputStream);
+            } finally {
+                signed.close();
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_PDF)
+            .contentLength(size)
+            .header("Content-Disposition",
+                "attachment; filename=\"signed-" + UUID.randomUUID() + ".pdf\"")
+            .body(body);
+    }
 }
@@ -0,0 +1,175 @@
+package io.mersel.dss.signer.api.controllers;
+
+import java.net.URI;
+import java.util.UUID;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SignatureJob;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.signature.async.AsyncSignatureJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.mersel.dss.signer.api.dtos.SignXadesAsyncDto;
+import io.mersel.dss.signer.api.dtos.SignatureJobDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+/**
+ * Asenkron imza işleri için REST controller.
+ * Uzun süren seviye yükseltmelerini (e-Arşiv Raporu için XAdES-A) HTTP isteğinden ayırır.
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class SignatureJobController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignatureJobController.class);
+
+    private final AsyncSignatureJobService asyncSignatureJobService;
+    private final SigningMaterial signingMaterial;
+
+    public SignatureJobController(AsyncSignatureJobService asyncSignatureJobService,
+                                  SigningMaterial signingMaterial) {
+        this.asyncSignatureJobService = asyncSignatureJobService;
+        this.signingMaterial = signingMaterial;
+    }
+
+    @Operation(
+        summary = "XML belgesini asenkron iş olarak imzalar",
+        description = "Belge istek sırasında XAdES-B seviyesinde imzalanır ve iş kimliği hemen döner. " +
+            "e-Arşiv Raporları için XAdES-A yükseltmesi arka planda yapılır; sonuç /v1/jobs/{jobId} " +
+            "üzerinden sorgulanır veya CallbackUrl verilmişse iş bitince bu adrese POST edilir."
+    )
+    @RequestMapping(value = "/v1/xadessign/async", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE},
+        produces = {MediaType.APPLICATION_JSON_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "202",
+            content = @Content(schema = @Schema(implementation = SignatureJobDto.class))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "503",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> submit(@ModelAttribute SignXadesAsyncDto dto) {
+        try {
+            if (dto.getDocument() == null || dto.getDocumentType() == DocumentType.None) {
+                LOGGER.warn("Geçersiz istek: belge veya belge tipi eksik");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "Belge ve belge tipi zorunludur"));
+            }
+
+            SignatureJob job = asyncSignatureJobService.submit(
+                dto.getDocument().getInputStream(),
+                dto.getDocumentType(),
+                dto.getSignatureId(),
+                Boolean.TRUE.equals(dto.getZipFile()),
+                dto.getCallbackUrl(),
+                signingMaterial
+            );
+
+            return ResponseEntity.accepted()
+                .location(URI.create("/v1/jobs/" + job.getJobId()))
+                .body(SignatureJobDto.from(job));
+
+        } catch (SignatureException e) {
+            if ("INVALID_CALLBACK_URL".equals(e.getErrorCode())) {
+                LOGGER.warn("Geçersiz istek: {}", e.getMessage());
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            if ("JOB_QUEUE_FULL".equals(e.getErrorCode())) {
+                LOGGER.warn("Asenkron imza işi reddedildi: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            LOGGER.error("Asenkron imza işi oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("Asenkron imza işi oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Asenkron imza işinin durumunu döner",
+        description = "İş durumu PENDING, RUNNING, COMPLETED veya FAILED olabilir"
+    )
+    @RequestMapping(value = "/v1/jobs/{jobId}", method = RequestMethod.GET,
+        produces = {MediaType.APPLICATION_JSON_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(implementation = SignatureJobDto.class))),
+        @ApiResponse(responseCode = "404",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> getJob(@PathVariable("jobId") String jobId) {
+        try {
+            return ResponseEntity.ok(SignatureJobDto.from(asyncSignatureJobService.getJob(jobId)));
+        } catch (SignatureException e) {
+            if ("JOB_NOT_FOUND".equals(e.getErrorCode())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            LOGGER.error("İş durumu okunurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Tamamlanan asenkron imza işinin imzalı belgesini döner",
+        description = "İş henüz tamamlanmadıysa veya başarısız olduysa 409 döner"
+    )
+    @RequestMapping(value = "/v1/jobs/{jobId}/result", method = RequestMethod.GET)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "404",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "409",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> getResult(@PathVariable("jobId") String jobId) {
+        try {
+            byte[] result = asyncSignatureJobService.getResult(jobId);
+            SignatureJob job = asyncSignatureJobService.getJob(jobId);
+
+            return ResponseEntity.ok()
+                .header("x-signature-value", job.getSignatureValue())
+                .header("Content-Disposition",
+                    "attachment; filename=\"signed-" + UUID.randomUUID() + ".xml\"")
+                .body(result);
+
+        } catch (SignatureException e) {
+            if ("JOB_NOT_FOUND".equals(e.getErrorCode())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            if ("JOB_NOT_COMPLETED".equals(e.getErrorCode()) || "JOB_FAILED".equals(e.getErrorCode())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            LOGGER.error("İş sonucu okunurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+        }
+    }
+}
@@ -21,6 +21,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+
 /**
  * Zaman damgası (timestamp) işlemleri için REST controller.
  * RFC 3161 standardına uygun TSQ, TSR ve validasyon endpoint'leri sağlar.
@@ -109,18 +111,84 @@ public class TimestampController {
 
             LOGGER.info("Zaman damgası başarıyla alındı. Tarih: {}", response.getTimestamp());
             
-            // Timestamp token'ı binary olarak dön, metadata header'larda
-            byte[] timestampToken = java.util.Base64.getDecoder().decode(response.getTimestampToken());
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header("Content-Disposition", "attachment; filename=timestamp.tst")
-                    .header("X-Timestamp-Time", response.getTimestamp())
-                    .header("X-Timestamp-TSA", response.getTsaName() != null ? response.getTsaName() : "")
-                    .header("X-Timestamp-Serial", response.getSerialNumber())
-                    .header("X-Timestamp-Hash-Algorithm", response.getHashAlgorithm())
-                    .header("X-Timestamp-Nonce", response.getNonce() != null ? response.getNonce() : "")
-                    .body(timestampToken);
+            return toTokenResponse(response);
+
+        } catch (TimestampException e) {
+            LOGGER.error("Zaman damgası alma hatası: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorModel("TIMESTAMP_ERROR", e.getMessage()));
+
+        } catch (Exception e) {
+            LOGGER.error("Beklenmeyen hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorModel("INTERNAL_ERROR", "Zaman damgası alınamadı: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Ham istek gövdesi için zaman damgası al",
+        description = "Belge multipart yerine doğrudan istek gövdesi olarak gönderilir ve belleğe alınmadan " +
+                     "okunurken hash'lenir. Yanıt /api/timestamp/get ile aynıdır: binary timestamp token ve " +
+                     "X-Timestamp-* header'ları."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Zaman damgası başarıyla alındı (binary .tst dosyası)",
+            content = @Content(mediaType = "application/octet-stream")
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Geçersiz istek veya timestamp servisi yapılandırılmamış",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Zaman damgası alınamadı",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))
+        )
+    })
+    @PostMapping(
+        value = "/get/raw",
+        consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.APPLICATION_PDF_VALUE,
+            MediaType.APPLICATION_XML_VALUE, MediaType.TEXT_XML_VALUE, "application/zip"},
+        produces = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.APPLICATION_JSON_VALUE}
+    )
+    public ResponseEntity<?> getTimestampRaw(
+            @RequestParam(value = "hashAlgorithm", defaultValue = "SHA256")
+            @io.swagger.v3.oas.annotations.Parameter(
+                description = "Hash algoritması",
+                example = "SHA256"
+            )
+            String hashAlgorithm,
+
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Zaman damgası alınacak belge",
+                required = true,
+                content = @Content(schema = @Schema(type = "string", format = "binary"))
+            )
+            InputStream document) {
+
+        try {
+            LOGGER.info("Zaman damgası alma isteği alındı (ham gövde). Hash: {}", hashAlgorithm);
+
+            if (!timestampConfigurationService.isAvailable()) {
+                LOGGER.warn("Timestamp servisi yapılandırılmamış");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ErrorModel(
+                        "TIMESTAMP_NOT_CONFIGURED",
+                        "Zaman damgası servisi yapılandırılmamış. TS_SERVER_HOST property'sini ayarlayın."
+                    ));
+            }
+
+            TimestampResponseDto response = timestampService.getTimestamp(document, hashAlgorithm);
+
+            LOGGER.info("Zaman damgası başarıyla alındı. Tarih: {}", response.getTimestamp());
+
+            return toTokenResponse(response);
 
         } catch (TimestampException e) {
             LOGGER.error("Zaman damgası alma hatası: {}", e.getMessage());
@@ -239,5 +307,21 @@ public class TimestampController {
         
         return ResponseEntity.ok(status);
     }
-}
 
+    /**
+     * Timestamp token'ı binary olarak döner; metadata header'larda taşınır.
+     */
+    private ResponseEntity<byte[]> toTokenResponse(TimestampResponseDto response) {
+        byte[] timestampToken = java.util.Base64.getDecoder().decode(response.getTimestampToken());
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("Content-Disposition", "attachment; filename=timestamp.tst")
+                .header("X-Timestamp-Time", response.getTimestamp())
+                .header("X-Timestamp-TSA", response.getTsaName() != null ? response.getTsaName() : "")
+                .header("X-Timestamp-Serial", response.getSerialNumber())
+                .header("X-Timestamp-Hash-Algorithm", response.getHashAlgorithm())
+                .header("X-Timestamp-Nonce", response.getNonce() != null ? response.getNonce() : "")
+                .body(timestampToken);
+    }
+}
@@ -1,20 +1,27 @@
 package io.mersel.dss.signer.api.controllers;
 
+import java.io.InputStream;
 import java.util.UUID;
 
+import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
 import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.util.SpoolFileService;
+import io.mersel.dss.signer.api.util.SpoolFile;
 import io.mersel.dss.signer.api.util.Utilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.w3c.dom.Document;
 
@@ -38,20 +45,24 @@ import io.mersel.dss.signer.api.models.enums.DocumentType;
 public class XadesController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XadesController.class);
+    private static final String APPLICATION_ZIP_VALUE = "application/zip";
 
     private final XAdESSignatureService xadesSignatureService;
     private final WsSecuritySignatureService wsSecuritySignatureService;
+    private final SpoolFileService spoolFileService;
     private final SigningMaterial signingMaterial;
     private final String signingAlias;
     private final char[] signingPin;
 
     public XadesController(XAdESSignatureService xadesSignatureService,
                           WsSecuritySignatureService wsSecuritySignatureService,
+                          SpoolFileService spoolFileService,
                           SigningMaterial signingMaterial,
                           String signingAlias,
                           char[] signingPin) {
         this.xadesSignatureService = xadesSignatureService;
         this.wsSecuritySignatureService = wsSecuritySignatureService;
+        this.spoolFileService = spoolFileService;
         this.signingMaterial = signingMaterial;
         this.signingAlias = signingAlias;
         this.signingPin = signingPin;
@@ -104,6 +115,94 @@ public class XadesController {
         }
     }
 
+    @Operation(
+        summary = "Ham istek gövdesindeki XML belgesini XAdES imzası ile imzalar",
+        description = "Belge multipart yerine doğrudan istek gövdesi olarak gönderilir (application/xml, " +
+            "text/xml veya tek girdili application/zip). Gövde imzalamadan önce geçici dosyaya yazılır ve " +
+            "STREAM_MAX_BODY_BYTES ile sınırlanır. XML imzalama bellek sınırlı değildir: belge imzalama " +
+            "sırasında DOM olarak, imzalı çıktı da yanıt yazılana kadar bellekte tutulur. ZIP girdide " +
+            "çıktı da ZIP olarak döner. İmza değeri x-signature-value header'ında döner."
+    )
+    @RequestMapping(value = "/v1/xadessign/raw", method = RequestMethod.POST,
+        consumes = {MediaType.APPLICATION_XML_VALUE, MediaType.TEXT_XML_VALUE, APPLICATION_ZIP_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "413",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> signXadesRaw(
+            @RequestParam("documentType") DocumentType documentType,
+            @RequestParam(value = "signatureId", required = false) String signatureId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "İmzalanacak XML belgesi veya tek girdili ZIP arşivi",
+                required = true,
+                content = @Content(schema = @Schema(type = "string", format = "binary"))
+            )
+            InputStream document) {
+        SpoolFile input = null;
+        try {
+            if (documentType == DocumentType.None) {
+                LOGGER.warn("Geçersiz istek: belge tipi eksik");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "Belge tipi zorunludur"));
+            }
+
+            boolean zipped = MediaType.parseMediaType(contentType)
+                .isCompatibleWith(MediaType.parseMediaType(APPLICATION_ZIP_VALUE));
+            String extension = zipped ? ".zip" : ".xml";
+
+            // Gövde imzalamadan önce diske alınır (boyut sınırı); imzalama sırasında belge DOM
+            // olarak, imzalı çıktı bayt dizisi olarak bellekte tutulur
+            input = spoolFileService.spool(document, extension);
+
+            SignResponse result;
+            try (InputStream inputStream = input.openInputStream()) {
+                result = xadesSignatureService.signXml(
+                    inputStream,
+                    documentType,
+                    signatureId,
+                    zipped,
+                    signingMaterial
+                );
+            }
+
+            LOGGER.info("XAdES imzası başarıyla oluşturuldu (ham gövde). Belge tipi: {}", documentType);
+
+            byte[] signedDocument = result.getSignedDocument();
+            return ResponseEntity.ok()
+                .contentType(zipped ? MediaType.parseMediaType(APPLICATION_ZIP_VALUE) : MediaType.APPLICATION_XML)
+                .contentLength(signedDocument.length)
+                .header("x-signature-value", result.getSignatureValue())
+                .header("Content-Disposition",
+                    "attachment; filename=\"signed-" + UUID.randomUUID() + extension + "\"")
+                .body(signedDocument);
+
+        } catch (SignatureException e) {
+            if (SpoolFileService.isPayloadTooLarge(e)) {
+                LOGGER.warn("XAdES isteği reddedildi: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ErrorModel(SpoolFileService.PAYLOAD_TOO_LARGE,
+                        "İstek gövdesi en fazla " + spoolFileService.getMaxBodyBytes() + " bayt olabilir"));
+            }
+            LOGGER.error("XAdES imzası oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("XAdES imzası oluşturulurken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } finally {
+            if (input != null) {
+                input.close();
+            }
+        }
+    }
+
     @Operation(
         summary = "SOAP zarfını WS-Security ile imzalar",
         description = "SOAP 1.1/1.2 mesajları için WS-Security imzası oluşturur"
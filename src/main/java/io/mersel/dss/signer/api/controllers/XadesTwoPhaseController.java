@@ -0,0 +1,173 @@
+package io.mersel.dss.signer.api.controllers;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESTwoPhaseSignatureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.mersel.dss.signer.api.dtos.FinalizeXadesDto;
+import io.mersel.dss.signer.api.dtos.SignXadesDto;
+import io.mersel.dss.signer.api.dtos.XadesPrepareResponseDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+/**
+ * İki aşamalı XAdES imzalama işlemleri için REST controller.
+ * Hazırlık (SignedInfo oluşturma) ve tamamlama (SignatureValue ekleme) adımlarını ayırır.
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class XadesTwoPhaseController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XadesTwoPhaseController.class);
+    private static final String APPLICATION_ZIP_VALUE = "application/zip";
+
+    private final XAdESTwoPhaseSignatureService twoPhaseSignatureService;
+    private final SigningMaterial signingMaterial;
+
+    public XadesTwoPhaseController(XAdESTwoPhaseSignatureService twoPhaseSignatureService,
+                                   SigningMaterial signingMaterial) {
+        this.twoPhaseSignatureService = twoPhaseSignatureService;
+        this.signingMaterial = signingMaterial;
+    }
+
+    @Operation(
+        summary = "XAdES imzasını hazırlar (1. aşama)",
+        description = "Belgeyi ayrıştırır, imzayı hedef konuma yerleştirir ve imzalanacak veriyi (SignedInfo) " +
+            "ile özetini döner. Hazırlanan durum sınırlı bir süre sunucuda tutulur ve dönen tanıtıcı ile " +
+            "/v1/xadessign/finalize üzerinden tamamlanır."
+    )
+    @RequestMapping(value = "/v1/xadessign/prepare", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE},
+        produces = {MediaType.APPLICATION_JSON_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(implementation = XadesPrepareResponseDto.class))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "503",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> prepare(@ModelAttribute SignXadesDto dto) {
+        try {
+            if (dto.getDocument() == null || dto.getDocumentType() == DocumentType.None) {
+                LOGGER.warn("Geçersiz istek: belge veya belge tipi eksik");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "Belge ve belge tipi zorunludur"));
+            }
+
+            XadesPrepareResponseDto result = twoPhaseSignatureService.prepare(
+                dto.getDocument().getInputStream(),
+                dto.getDocumentType(),
+                dto.getSignatureId(),
+                Boolean.TRUE.equals(dto.getZipFile()),
+                signingMaterial
+            );
+
+            return ResponseEntity.ok(result);
+
+        } catch (SignatureException e) {
+            if ("PENDING_LIMIT_EXCEEDED".equals(e.getErrorCode())) {
+                LOGGER.warn("XAdES imzası hazırlanamadı: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            LOGGER.error("XAdES imzası hazırlanırken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("XAdES imzası hazırlanırken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Hazırlanan XAdES imzasını tamamlar (2. aşama)",
+        description = "SignatureValue verilirse imzalama sertifikasıyla doğrulanıp belgeye eklenir; verilmezse " +
+            "sunucudaki anahtarla hesaplanır. İmza değeri belgeye eklenmeden önce oluşan hatalarda aynı " +
+            "tanıtıcıyla tekrar denenebilir. Hazırlık ZIP ile yapıldıysa imzalı belge application/zip " +
+            "olarak, aksi halde application/xml olarak döner."
+    )
+    @RequestMapping(value = "/v1/xadessign/finalize", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.APPLICATION_FORM_URLENCODED_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(type = "string", format = "binary")),
+            @Content(mediaType = APPLICATION_ZIP_VALUE, schema = @Schema(type = "string", format = "binary"))}),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "404",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> finalizeSignature(@ModelAttribute FinalizeXadesDto dto) {
+        try {
+            if (dto.getHandle() == null || dto.getHandle().trim().isEmpty()) {
+                LOGGER.warn("Geçersiz istek: imza tanıtıcısı eksik");
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "İmza tanıtıcısı zorunludur"));
+            }
+
+            byte[] signatureValue = null;
+            if (dto.getSignatureValue() != null && !dto.getSignatureValue().trim().isEmpty()) {
+                try {
+                    signatureValue = Base64.getMimeDecoder().decode(dto.getSignatureValue().trim());
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest()
+                        .body(new ErrorModel("INVALID_INPUT", "İmza değeri geçerli bir Base64 değil"));
+                }
+            }
+
+            SignResponse result = twoPhaseSignatureService.finalizeSignature(
+                dto.getHandle().trim(), signatureValue);
+
+            // Hazırlanan durum ZIP ise çıktı da ZIP paketidir
+            boolean zipped = result.isZipped();
+            return ResponseEntity.ok()
+                .contentType(zipped ? MediaType.parseMediaType(APPLICATION_ZIP_VALUE) : MediaType.APPLICATION_XML)
+                .header("x-signature-value", result.getSignatureValue())
+                .header("Content-Disposition",
+                    "attachment; filename=\"signed-" + UUID.randomUUID() + (zipped ? ".zip" : ".xml") + "\"")
+                .body(result.getSignedDocument());
+
+        } catch (SignatureException e) {
+            if ("SIGNING_STATE_NOT_FOUND".equals(e.getErrorCode())) {
+                LOGGER.warn("XAdES imzası tamamlanamadı: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            if ("INVALID_SIGNATURE_VALUE".equals(e.getErrorCode())) {
+                LOGGER.warn("XAdES imzası tamamlanamadı: {}", e.getMessage());
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel(e.getErrorCode(), e.getMessage()));
+            }
+            LOGGER.error("XAdES imzası tamamlanırken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("XAdES imzası tamamlanırken hata", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
+}
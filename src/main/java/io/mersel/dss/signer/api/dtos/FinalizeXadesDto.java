@@ -0,0 +1,29 @@
+package io.mersel.dss.signer.api.dtos;
+
+import javax.validation.constraints.NotBlank;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class FinalizeXadesDto {
+    private String Handle;
+    private String SignatureValue;
+
+    public String getHandle() {
+        return Handle;
+    }
+
+    @NotBlank
+    @Schema(description = "Hazırlık aşamasında dönen imza tanıtıcısı")
+    public void setHandle(String handle) {
+        Handle = handle;
+    }
+
+    public String getSignatureValue() {
+        return SignatureValue;
+    }
+
+    @Schema(description = "Dışarıda hesaplanmış imza değeri (Base64). Verilmezse sunucudaki anahtarla imzalanır.")
+    public void setSignatureValue(String signatureValue) {
+        SignatureValue = signatureValue;
+    }
+}
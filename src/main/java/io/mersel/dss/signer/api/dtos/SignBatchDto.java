@@ -0,0 +1,51 @@
+package io.mersel.dss.signer.api.dtos;
+
+import java.util.List;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+public class SignBatchDto {
+    private MultipartFile Archive;
+    private List<MultipartFile> Documents;
+    private List<DocumentType> DocumentTypes;
+    private DocumentType DefaultDocumentType;
+
+    public MultipartFile getArchive() {
+        return Archive;
+    }
+
+    @Schema(description = "İmzalanacak belgeleri içeren ZIP arşivi (Documents ile birlikte kullanılamaz)")
+    public void setArchive(MultipartFile archive) {
+        Archive = archive;
+    }
+
+    public List<MultipartFile> getDocuments() {
+        return Documents;
+    }
+
+    @Schema(description = "İmzalanacak belgeler (Archive ile birlikte kullanılamaz)")
+    public void setDocuments(List<MultipartFile> documents) {
+        Documents = documents;
+    }
+
+    public List<DocumentType> getDocumentTypes() {
+        return DocumentTypes;
+    }
+
+    @Schema(description = "Girdi sırasıyla belge tipleri; PDF girdilerinde dikkate alınmaz")
+    public void setDocumentTypes(List<DocumentType> documentTypes) {
+        DocumentTypes = documentTypes;
+    }
+
+    public DocumentType getDefaultDocumentType() {
+        return DefaultDocumentType;
+    }
+
+    @Schema(enumAsRef = true, description = "Belge tipi verilmeyen girdiler için varsayılan tip")
+    public void setDefaultDocumentType(DocumentType defaultDocumentType) {
+        DefaultDocumentType = defaultDocumentType;
+    }
+}
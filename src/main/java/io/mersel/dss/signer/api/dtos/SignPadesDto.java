@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.dtos;
 
 import javax.validation.constraints.NotBlank;
 
+import io.mersel.dss.signer.api.models.enums.PadesSignatureLevel;
 import org.springframework.web.multipart.MultipartFile;
 
 public class SignPadesDto {
@@ -9,6 +10,7 @@ public class SignPadesDto {
     private MultipartFile Attachment;
     private String AttachmentFileName;
     private Boolean AppendMode;
+    private PadesSignatureLevel SignatureLevel;
 
     public MultipartFile getDocument() {
         return Document;
@@ -42,4 +44,12 @@ public class SignPadesDto {
     public void setAppendMode(Boolean appendMode) {
         AppendMode = appendMode;
     }
+
+    public PadesSignatureLevel getSignatureLevel() {
+        return SignatureLevel;
+    }
+
+    public void setSignatureLevel(PadesSignatureLevel signatureLevel) {
+        SignatureLevel = signatureLevel;
+    }
 }
@@ -0,0 +1,17 @@
+package io.mersel.dss.signer.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class SignXadesAsyncDto extends SignXadesDto {
+    private String CallbackUrl;
+
+    public String getCallbackUrl() {
+        return CallbackUrl;
+    }
+
+    @Schema(description = "İş tamamlandığında durumun JSON olarak POST edileceği http(s) adresi (isteğe bağlı)",
+        example = "https://example.com/signature-callback")
+    public void setCallbackUrl(String callbackUrl) {
+        CallbackUrl = callbackUrl;
+    }
+}
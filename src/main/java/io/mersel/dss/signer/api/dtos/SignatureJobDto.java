@@ -0,0 +1,117 @@
+package io.mersel.dss.signer.api.dtos;
+
+import io.mersel.dss.signer.api.models.SignatureJob;
+import io.mersel.dss.signer.api.models.enums.SignatureJobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Asenkron imza işinin durumu için DTO.
+ * Durum sorgusunda ve geri çağrı (callback) isteğinin gövdesinde kullanılır.
+ */
+@Schema(description = "Asenkron imza işi durumu")
+public class SignatureJobDto {
+
+    @Schema(
+        description = "İş tanımlayıcısı",
+        example = "0b6f1a52-3c1e-4d4b-9a57-5f3e2c8d7b10"
+    )
+    private String jobId;
+
+    @Schema(
+        description = "İş durumu",
+        allowableValues = {"PENDING", "RUNNING", "COMPLETED", "FAILED"},
+        example = "PENDING"
+    )
+    private String status;
+
+    @Schema(description = "Belge tipi", example = "EArchiveReport")
+    private String documentType;
+
+    @Schema(
+        description = "Belgeye yazılan imza kimliği (ds:Signature/@Id)",
+        example = "Signature_ABC2024000000001"
+    )
+    private String signatureId;
+
+    @Schema(description = "İmza değeri - Base64 kodlu")
+    private String signatureValue;
+
+    @Schema(description = "İşin oluşturulma zamanı (ISO 8601 formatında)", example = "2025-11-07T14:30:00Z")
+    private String createdAt;
+
+    @Schema(description = "İşin tamamlanma zamanı (ISO 8601 formatında)", example = "2025-11-07T14:30:04Z")
+    private String completedAt;
+
+    @Schema(description = "Sonucun indirileceği adres (yalnızca COMPLETED durumunda)",
+        example = "/v1/jobs/0b6f1a52-3c1e-4d4b-9a57-5f3e2c8d7b10/result")
+    private String resultUrl;
+
+    @Schema(description = "Hata kodu (yalnızca FAILED durumunda)")
+    private String errorCode;
+
+    @Schema(description = "Hata mesajı (yalnızca FAILED durumunda)")
+    private String errorMessage;
+
+    public static SignatureJobDto from(SignatureJob job) {
+        SignatureJobDto dto = new SignatureJobDto();
+        dto.jobId = job.getJobId();
+        dto.status = job.getStatus().name();
+        dto.documentType = job.getDocumentType() != null ? job.getDocumentType().name() : null;
+        dto.signatureId = job.getSignatureId();
+        dto.signatureValue = job.getSignatureValue();
+        dto.createdAt = toIsoString(job.getCreatedAt());
+        dto.completedAt = toIsoString(job.getCompletedAt());
+        if (job.getStatus() == SignatureJobStatus.COMPLETED) {
+            dto.resultUrl = "/v1/jobs/" + job.getJobId() + "/result";
+        }
+        dto.errorCode = job.getErrorCode();
+        dto.errorMessage = job.getErrorMessage();
+        return dto;
+    }
+
+    private static String toIsoString(long epochMillis) {
+        return epochMillis > 0 ? Instant.ofEpochMilli(epochMillis).toString() : null;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public String getSignatureId() {
+        return signatureId;
+    }
+
+    public String getSignatureValue() {
+        return signatureValue;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getCompletedAt() {
+        return completedAt;
+    }
+
+    public String getResultUrl() {
+        return resultUrl;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,102 @@
+package io.mersel.dss.signer.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * İki aşamalı XAdES imzasının hazırlık yanıtı için DTO.
+ */
+@Schema(description = "İki aşamalı XAdES imzası hazırlık yanıtı")
+public class XadesPrepareResponseDto {
+
+    @Schema(
+        description = "İmzayı tamamlarken kullanılacak tanıtıcı",
+        example = "5f0c6c1e-8a0b-4f57-9d0e-2b6f7c1d9a34"
+    )
+    private String handle;
+
+    @Schema(
+        description = "Belgeye yazılan imza kimliği (ds:Signature/@Id)",
+        example = "Signature_ABC2024000000001"
+    )
+    private String signatureId;
+
+    @Schema(description = "İmzalanacak veri (kanonikleştirilmiş SignedInfo) - Base64 kodlu")
+    private String dataToSign;
+
+    @Schema(description = "İmzalanacak verinin özeti (ham hash imzalayan HSM'ler için) - Base64 kodlu")
+    private String digest;
+
+    @Schema(
+        description = "Özet algoritması",
+        example = "SHA256"
+    )
+    private String digestAlgorithm;
+
+    @Schema(
+        description = "Beklenen imza algoritması",
+        example = "RSA_SHA256"
+    )
+    private String signatureAlgorithm;
+
+    @Schema(
+        description = "Hazırlanan imzanın geçerlilik sonu (ISO 8601 formatında)",
+        example = "2025-11-07T14:35:00Z"
+    )
+    private String expiresAt;
+
+    public String getHandle() {
+        return handle;
+    }
+
+    public void setHandle(String handle) {
+        this.handle = handle;
+    }
+
+    public String getSignatureId() {
+        return signatureId;
+    }
+
+    public void setSignatureId(String signatureId) {
+        this.signatureId = signatureId;
+    }
+
+    public String getDataToSign() {
+        return dataToSign;
+    }
+
+    public void setDataToSign(String dataToSign) {
+        this.dataToSign = dataToSign;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public String getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    public void setDigestAlgorithm(String digestAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+    }
+
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public void setSignatureAlgorithm(String signatureAlgorithm) {
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    public String getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(String expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
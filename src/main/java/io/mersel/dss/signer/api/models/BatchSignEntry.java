@@ -0,0 +1,76 @@
+package io.mersel.dss.signer.api.models;
+
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+/**
+ * Toplu imzalama isteğindeki tek bir belge.
+ * PDF girdileri PAdES, diğerleri belge tipine göre XAdES ile imzalanır.
+ */
+public final class BatchSignEntry {
+
+    private final String name;
+    private final byte[] content;
+    private final DocumentType documentType;
+    private final String errorCode;
+    private final String errorMessage;
+
+    public BatchSignEntry(String name, byte[] content, DocumentType documentType) {
+        this(name, content, documentType, null, null);
+    }
+
+    private BatchSignEntry(String name, byte[] content, DocumentType documentType,
+                           String errorCode, String errorMessage) {
+        this.name = name;
+        this.content = content;
+        this.documentType = documentType;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * İmzalanmadan hatalı olarak raporlanacak bir girdi oluşturur
+     * (ör. arşivde aynı adla birden fazla bulunan girdi).
+     */
+    public static BatchSignEntry rejected(String name, DocumentType documentType,
+                                          String errorCode, String errorMessage) {
+        return new BatchSignEntry(name, null, documentType, errorCode, errorMessage);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public DocumentType getDocumentType() {
+        return documentType;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Girdinin imzalanmadan hatalı olarak raporlanıp raporlanmayacağını belirtir.
+     */
+    public boolean isRejected() {
+        return errorCode != null;
+    }
+
+    /**
+     * Girdinin PDF olup olmadığını dosya uzantısı veya içerik imzasından belirler.
+     */
+    public boolean isPdf() {
+        if (name != null && name.toLowerCase().endsWith(".pdf")) {
+            return true;
+        }
+        return content != null && content.length >= 4
+            && content[0] == '%' && content[1] == 'P' && content[2] == 'D' && content[3] == 'F';
+    }
+}
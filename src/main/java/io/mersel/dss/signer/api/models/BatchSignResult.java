@@ -0,0 +1,64 @@
+package io.mersel.dss.signer.api.models;
+
+/**
+ * Toplu imzalamada tek bir girdinin sonucu.
+ * Başarısız girdiler tüm toplu işlemi durdurmaz; hata kodu ve mesajı burada raporlanır.
+ */
+public class BatchSignResult {
+    private String name;
+    private String documentType;
+    private boolean success;
+    private String signatureId;
+    private String signatureValue;
+    private String errorCode;
+    private String errorMessage;
+
+    public static BatchSignResult success(String name, String documentType, SignResponse response) {
+        BatchSignResult result = new BatchSignResult();
+        result.name = name;
+        result.documentType = documentType;
+        result.success = true;
+        result.signatureId = response.getSignatureId();
+        result.signatureValue = response.getSignatureValue();
+        return result;
+    }
+
+    public static BatchSignResult failure(String name, String documentType,
+                                          String errorCode, String errorMessage) {
+        BatchSignResult result = new BatchSignResult();
+        result.name = name;
+        result.documentType = documentType;
+        result.success = false;
+        result.errorCode = errorCode;
+        result.errorMessage = errorMessage;
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getSignatureId() {
+        return signatureId;
+    }
+
+    public String getSignatureValue() {
+        return signatureValue;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -5,10 +5,22 @@ import javax.validation.constraints.NotBlank;
 public class SignResponse {
     private byte[] SignedDocument;
     private String SignatureValue;
+    private String SignatureId;
+    private boolean Zipped;
 
     public SignResponse(byte[] signedDocument, String signatureValue) {
+        this(signedDocument, signatureValue, null);
+    }
+
+    public SignResponse(byte[] signedDocument, String signatureValue, String signatureId) {
         SignedDocument = signedDocument;
         SignatureValue = signatureValue;
+        SignatureId = signatureId;
+    }
+
+    public SignResponse(byte[] signedDocument, String signatureValue, String signatureId, boolean zipped) {
+        this(signedDocument, signatureValue, signatureId);
+        Zipped = zipped;
     }
 
     public byte[] getSignedDocument() {
@@ -27,4 +39,27 @@ public class SignResponse {
     public void setSignatureValue(String SignatureValue) {
         this.SignatureValue = SignatureValue;
     }
+
+    /**
+     * İmza elemanının XML Id değeri (ds:Signature/@Id). İmza tipi bunu
+     * üretmiyorsa {@code null} döner.
+     */
+    public String getSignatureId() {
+        return SignatureId;
+    }
+
+    public void setSignatureId(String SignatureId) {
+        this.SignatureId = SignatureId;
+    }
+
+    /**
+     * İmzalı belgenin ZIP paketi olarak dönüp dönmediği.
+     */
+    public boolean isZipped() {
+        return Zipped;
+    }
+
+    public void setZipped(boolean Zipped) {
+        this.Zipped = Zipped;
+    }
 }
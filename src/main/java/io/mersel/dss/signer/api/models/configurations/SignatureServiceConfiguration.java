@@ -3,6 +3,10 @@ package io.mersel.dss.signer.api.models.configurations;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
 @Component
 public class SignatureServiceConfiguration {
 
@@ -57,6 +61,102 @@ public class SignatureServiceConfiguration {
     @Value("${MAX_SESSION_COUNT:5}")
     private int maxSessionCount;
 
+    @Value("${HSM_MAX_CONCURRENCY:${MAX_SESSION_COUNT:5}}")
+    private int hsmMaxConcurrency;
+
+    @Value("${NETWORK_MAX_CONCURRENCY:16}")
+    private int networkMaxConcurrency;
+
+    @Value("${CPU_MAX_CONCURRENCY:0}")
+    private int cpuMaxConcurrency;
+
+    @Value("${BATCH_WORKER_COUNT:4}")
+    private int batchWorkerCount;
+
+    @Value("${BATCH_MAX_ENTRIES:500}")
+    private int batchMaxEntries;
+
+    @Value("${BATCH_MAX_ENTRY_BYTES:52428800}")
+    private long batchMaxEntryBytes;
+
+    @Value("${BATCH_MAX_TOTAL_BYTES:209715200}")
+    private long batchMaxTotalBytes;
+
+    @Value("${TWO_PHASE_TTL_SECONDS:300}")
+    private long twoPhaseTtlSeconds;
+
+    @Value("${TWO_PHASE_MAX_PENDING:1000}")
+    private int twoPhaseMaxPending;
+
+    @Value("${ASYNC_JOB_DIRECTORY:./jobs}")
+    private String asyncJobDirectory;
+
+    @Value("${ASYNC_JOB_WORKER_COUNT:2}")
+    private int asyncJobWorkerCount;
+
+    @Value("${ASYNC_JOB_QUEUE_CAPACITY:500}")
+    private int asyncJobQueueCapacity;
+
+    @Value("${ASYNC_JOB_RETENTION_SECONDS:86400}")
+    private long asyncJobRetentionSeconds;
+
+    @Value("${ASYNC_JOB_CALLBACK_TIMEOUT_MS:10000}")
+    private int asyncJobCallbackTimeoutMs;
+
+    @Value("${ASYNC_JOB_CALLBACK_ALLOWED_HOSTS:}")
+    private String asyncJobCallbackAllowedHosts;
+
+    @Value("${STREAM_SPOOL_DIRECTORY:${java.io.tmpdir}}")
+    private String streamSpoolDirectory;
+
+    @Value("${STREAM_MAX_BODY_BYTES:209715200}")
+    private long streamMaxBodyBytes;
+
+    @Value("${PADES_STREAMING_THRESHOLD_BYTES:10485760}")
+    private long padesStreamingThresholdBytes;
+
+    @Value("${OCSP_CACHE_MAX_ENTRIES:1000}")
+    private int ocspCacheMaxEntries;
+
+    @Value("${CRL_CACHE_DIRECTORY:./crl-cache}")
+    private String crlCacheDirectory;
+
+    @Value("${CRL_CACHE_REFRESH_AHEAD_SECONDS:600}")
+    private long crlCacheRefreshAheadSeconds;
+
+    @Value("${CRL_CACHE_DEFAULT_TTL_SECONDS:3600}")
+    private long crlCacheDefaultTtlSeconds;
+
+    @Value("${AIA_CACHE_DIRECTORY:./aia-cache}")
+    private String aiaCacheDirectory;
+
+    @Value("${AIA_CONNECT_TIMEOUT_MS:5000}")
+    private int aiaConnectTimeoutMs;
+
+    @Value("${AIA_READ_TIMEOUT_MS:10000}")
+    private int aiaReadTimeoutMs;
+
+    @Value("${REVOCATION_FETCH_THREADS:8}")
+    private int revocationFetchThreads;
+
+    @Value("${REVOCATION_HEDGE_DELAY_MS:1500}")
+    private long revocationHedgeDelayMs;
+
+    @Value("${REVOCATION_RESPONDER_TIMEOUT_MS:5000}")
+    private int revocationResponderTimeoutMs;
+
+    @Value("${REVOCATION_CIRCUIT_FAILURE_THRESHOLD:5}")
+    private int revocationCircuitFailureThreshold;
+
+    @Value("${REVOCATION_CIRCUIT_OPEN_SECONDS:30}")
+    private long revocationCircuitOpenSeconds;
+
+    @Value("${REVOCATION_PREFETCH_ENABLED:true}")
+    private boolean revocationPrefetchEnabled;
+
+    @Value("${REVOCATION_PREFETCH_REFRESH_AGE_SECONDS:180}")
+    private long revocationPrefetchRefreshAgeSeconds;
+
 
     @Value("${CERTSTORE_PATH:SertifikaDeposu.svt}")
     private String certStorePath;
@@ -129,6 +229,154 @@ public class SignatureServiceConfiguration {
         return maxSessionCount;
     }
 
+    public int getHsmMaxConcurrency() {
+        return hsmMaxConcurrency;
+    }
+
+    public int getNetworkMaxConcurrency() {
+        return networkMaxConcurrency;
+    }
+
+    /**
+     * CPU yoğun DOM işlemleri için eşzamanlılık sınırı; yapılandırılmamışsa işlemci sayısı.
+     */
+    public int getCpuMaxConcurrency() {
+        return cpuMaxConcurrency > 0 ? cpuMaxConcurrency : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getBatchWorkerCount() {
+        return batchWorkerCount;
+    }
+
+    public int getBatchMaxEntries() {
+        return batchMaxEntries;
+    }
+
+    public long getBatchMaxEntryBytes() {
+        return batchMaxEntryBytes;
+    }
+
+    public long getBatchMaxTotalBytes() {
+        return batchMaxTotalBytes;
+    }
+
+    public long getTwoPhaseTtlSeconds() {
+        return twoPhaseTtlSeconds;
+    }
+
+    public int getTwoPhaseMaxPending() {
+        return twoPhaseMaxPending;
+    }
+
+    public String getAsyncJobDirectory() {
+        return asyncJobDirectory;
+    }
+
+    public int getAsyncJobWorkerCount() {
+        return asyncJobWorkerCount;
+    }
+
+    public int getAsyncJobQueueCapacity() {
+        return asyncJobQueueCapacity;
+    }
+
+    public long getAsyncJobRetentionSeconds() {
+        return asyncJobRetentionSeconds;
+    }
+
+    public int getAsyncJobCallbackTimeoutMs() {
+        return asyncJobCallbackTimeoutMs;
+    }
+
+    /**
+     * Geri çağrı gönderilebilecek sunucu adları (küçük harf). Boşsa iç ağ dışındaki tüm sunuculara izin verilir.
+     */
+    public Set<String> getAsyncJobCallbackAllowedHosts() {
+        Set<String> hosts = new HashSet<>();
+        if (asyncJobCallbackAllowedHosts != null) {
+            for (String host : asyncJobCallbackAllowedHosts.split(",")) {
+                if (!host.trim().isEmpty()) {
+                    hosts.add(host.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return hosts;
+    }
+
+    public String getStreamSpoolDirectory() {
+        return streamSpoolDirectory;
+    }
+
+    public long getStreamMaxBodyBytes() {
+        return streamMaxBodyBytes;
+    }
+
+    /**
+     * Bu boyutun üzerindeki multipart PDF'ler diske alınıp dosya tabanlı akış modunda imzalanır.
+     */
+    public long getPadesStreamingThresholdBytes() {
+        return padesStreamingThresholdBytes;
+    }
+
+    /**
+     * Paylaşılan OCSP yanıt önbelleğindeki en fazla kayıt sayısı; 0 önbelleği kapatır.
+     */
+    public int getOcspCacheMaxEntries() {
+        return ocspCacheMaxEntries;
+    }
+
+    public String getCrlCacheDirectory() {
+        return crlCacheDirectory;
+    }
+
+    public long getCrlCacheRefreshAheadSeconds() {
+        return crlCacheRefreshAheadSeconds;
+    }
+
+    public long getCrlCacheDefaultTtlSeconds() {
+        return crlCacheDefaultTtlSeconds;
+    }
+
+    public String getAiaCacheDirectory() {
+        return aiaCacheDirectory;
+    }
+
+    public int getAiaConnectTimeoutMs() {
+        return aiaConnectTimeoutMs;
+    }
+
+    public int getAiaReadTimeoutMs() {
+        return aiaReadTimeoutMs;
+    }
+
+    public int getRevocationFetchThreads() {
+        return revocationFetchThreads;
+    }
+
+    public long getRevocationHedgeDelayMs() {
+        return revocationHedgeDelayMs;
+    }
+
+    public int getRevocationResponderTimeoutMs() {
+        return revocationResponderTimeoutMs;
+    }
+
+    public int getRevocationCircuitFailureThreshold() {
+        return revocationCircuitFailureThreshold;
+    }
+
+    public long getRevocationCircuitOpenSeconds() {
+        return revocationCircuitOpenSeconds;
+    }
+
+    public boolean isRevocationPrefetchEnabled() {
+        return revocationPrefetchEnabled;
+    }
+
+    public long getRevocationPrefetchRefreshAgeSeconds() {
+        return revocationPrefetchRefreshAgeSeconds;
+    }
+
     public boolean isTubitakTsp() {
         return isTubitakTsp;
     }
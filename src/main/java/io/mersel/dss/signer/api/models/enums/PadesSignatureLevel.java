@@ -0,0 +1,22 @@
+package io.mersel.dss.signer.api.models.enums;
+
+/**
+ * PAdES baseline imza seviyeleri.
+ */
+public enum PadesSignatureLevel {
+    /** PAdES-BASELINE-B: yalnızca CAdES tabanlı imza. */
+    B,
+    /** PAdES-BASELINE-T: imza zaman damgası eklenir. */
+    T,
+    /** PAdES-BASELINE-LT: doğrulama verisi belge güvenlik deposuna (DSS) yazılır. */
+    LT,
+    /** PAdES-BASELINE-LTA: DSS belge zaman damgası ile korunur. */
+    LTA;
+
+    /**
+     * Seviye verilen seviyeyi kapsıyorsa true (örn. LTA, T'yi kapsar).
+     */
+    public boolean includes(PadesSignatureLevel level) {
+        return compareTo(level) >= 0;
+    }
+}
@@ -0,0 +1,18 @@
+package io.mersel.dss.signer.api.models.enums;
+
+/**
+ * Asenkron imza işi durumları.
+ */
+public enum SignatureJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    /**
+     * İş tamamlandıysa veya başarısız olduysa true; bu durumdaki işler yeniden çalıştırılmaz.
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.services;
 
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import io.mersel.dss.signer.api.util.XmlUtils;
 import org.apache.commons.io.IOUtils;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.slf4j.Logger;
@@ -10,8 +11,6 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
 import java.security.Security;
 import java.security.cert.CertificateFactory;
@@ -48,10 +47,7 @@ public abstract class AbstractKamuSMXmlDepoResolver implements TrustedRootCertif
      * XML içeriğinden sertifikaları parse eder
      */
     protected List<X509Certificate> parseCertificates(String xmlBody) throws Exception {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(false);
-        DocumentBuilder builder = dbf.newDocumentBuilder();
-        Document document = builder.parse(new ByteArrayInputStream(xmlBody.getBytes()));
+        Document document = XmlUtils.parse(new ByteArrayInputStream(xmlBody.getBytes()), false);
 
         List<String> values = new ArrayList<String>();
 
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -27,14 +28,17 @@ public class KamusmRootCertificateService {
     private static final Logger LOGGER = LoggerFactory.getLogger(KamusmRootCertificateService.class);
     
     private final TrustedRootCertificateResolver resolver;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public KamusmRootCertificateService(
+            ApplicationEventPublisher eventPublisher,
             @Value("${trusted.root.resolver.type:kamusm-online}") String resolverType,
             @Qualifier("kamuSMXmlDepoOnlineResolver") TrustedRootCertificateResolver onlineResolver,
             @Qualifier("kamuSMXmlDepoOfflineResolver") TrustedRootCertificateResolver offlineResolver,
             @Qualifier("certificateFolderResolver") TrustedRootCertificateResolver folderResolver) {
-        
+        this.eventPublisher = eventPublisher;
+
         switch (resolverType.toLowerCase()) {
             case "kamusm-online":
                 LOGGER.info("Using KamuSM XML Depo Online Resolver");
@@ -63,6 +67,8 @@ public class KamusmRootCertificateService {
     @Scheduled(cron = "${trusted.root.refresh-cron:0 15 3 * * *}")
     public void refreshTrustedRoots() {
         resolver.refreshTrustedRoots();
+        // Kökleri kopyalayan doğrulayıcı anlık görüntüsü yeni köklerle yeniden oluşturulur
+        eventPublisher.publishEvent(new TrustedRootsRefreshedEvent(this, resolver.getTrustedRootTokens().size()));
     }
 
     public List<X509Certificate> getTrustedRoots() {
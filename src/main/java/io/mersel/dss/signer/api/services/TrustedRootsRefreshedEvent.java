@@ -0,0 +1,24 @@
+package io.mersel.dss.signer.api.services;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Güvenilir kök sertifikalar yenilendikten sonra yayınlanan olay.
+ * Kökleri kopyalayarak kullanan bileşenler (ör. sertifika doğrulayıcı anlık görüntüsü)
+ * bu olayla yeni kökleri yeniden başlatma gerekmeden uygular.
+ */
+public class TrustedRootsRefreshedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int trustedRootCount;
+
+    public TrustedRootsRefreshedEvent(Object source, int trustedRootCount) {
+        super(source);
+        this.trustedRootCount = trustedRootCount;
+    }
+
+    public int getTrustedRootCount() {
+        return trustedRootCount;
+    }
+}
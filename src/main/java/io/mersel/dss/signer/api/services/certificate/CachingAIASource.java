@@ -0,0 +1,180 @@
+package io.mersel.dss.signer.api.services.certificate;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.aia.DefaultAIASource;
+import eu.europa.esig.dss.utils.Utils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AIA (Authority Information Access) üzerinden indirilen issuer sertifikalarını bellekte
+ * ve diskte saklayan kaynak.
+ *
+ * <p>Ara sertifikalar yıllarca geçerlidir; buna rağmen {@link DefaultAIASource} her zincir
+ * oluşturmada (başlangıç, doğrulama, XAdES-C/XL yükseltmesi) bunları KamuSM'den zaman aşımı
+ * olmadan yeniden indirir. Bu kaynak yanıtları iki seviyede saklar:
+ * <ul>
+ *   <li>Sertifika özetine ({@link CertificateToken#getDSSIdAsString()}) göre çözülmüş
+ *       issuer listesi; tekrar eden aramalar AIA uzantısını ayrıştırmadan döner</li>
+ *   <li>AIA adresine göre ham yanıt; aynı CA'ya bağlı farklı sertifikalar tek indirmeyi
+ *       paylaşır ve yanıt {@code <sha256(url)>.cer} dosyası olarak diske yazılır, yeniden
+ *       başlatmada diskten yüklenir</li>
+ * </ul>
+ * İndirme, bağlantı ve okuma zaman aşımları yapılandırılmış {@link DataLoader} ile yapılır.
+ * Boş sonuçlar saklanmaz; bir sonraki aramada yeniden denenir.
+ *
+ * <p>İstek sayıları {@code signer.aia.cache} ({@code result=hit|miss}) metriğinde raporlanır.
+ */
+public class CachingAIASource extends DefaultAIASource {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingAIASource.class);
+
+    /** Sertifika özetine göre saklanan en fazla issuer listesi sayısı. */
+    private static final int MAX_CERTIFICATE_ENTRIES = 1000;
+
+    private final transient Path directory;
+    private final transient Map<String, byte[]> responses = new ConcurrentHashMap<>();
+    private final transient Map<String, Set<CertificateToken>> issuersByCertificate =
+        new LinkedHashMap<String, Set<CertificateToken>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Set<CertificateToken>> eldest) {
+                return size() > MAX_CERTIFICATE_ENTRIES;
+            }
+        };
+    private final transient Counter hits;
+    private final transient Counter misses;
+
+    /**
+     * @param dataLoader Zaman aşımları yapılandırılmış loader
+     * @param directory AIA yanıtlarının saklandığı klasör
+     * @param meterRegistry Metriklerin kaydedileceği registry
+     */
+    public CachingAIASource(DataLoader dataLoader, Path directory, MeterRegistry meterRegistry) {
+        super(dataLoader);
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("AIA klasörü oluşturulamadı: " + directory, e);
+        }
+
+        this.hits = Counter.builder("signer.aia.cache")
+            .description("AIA issuer önbelleği istek sayısı")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("signer.aia.cache")
+            .description("AIA issuer önbelleği istek sayısı")
+            .tag("result", "miss")
+            .register(meterRegistry);
+
+        LOGGER.info("AIA deposu klasörü: {}", directory.toAbsolutePath());
+    }
+
+    @Override
+    public Set<CertificateToken> getCertificatesByAIA(CertificateToken certificateToken) {
+        String key = certificateToken.getDSSIdAsString();
+        synchronized (issuersByCertificate) {
+            Set<CertificateToken> cached = issuersByCertificate.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        Set<CertificateToken> issuers = super.getCertificatesByAIA(certificateToken);
+        if (Utils.isCollectionEmpty(issuers)) {
+            return issuers;
+        }
+        issuers = Collections.unmodifiableSet(new LinkedHashSet<>(issuers));
+        synchronized (issuersByCertificate) {
+            issuersByCertificate.put(key, issuers);
+        }
+        return issuers;
+    }
+
+    @Override
+    protected byte[] executeCAIssuersRequest(String url) {
+        byte[] content = responses.get(url);
+        if (content != null) {
+            return content;
+        }
+
+        content = load(url);
+        if (content == null) {
+            content = super.executeCAIssuersRequest(url);
+            if (!isParsable(content)) {
+                return content;
+            }
+            store(url, content);
+        }
+        responses.put(url, content);
+        return content;
+    }
+
+    private byte[] load(String url) {
+        Path file = fileFor(url);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file);
+            if (isParsable(content)) {
+                LOGGER.debug("AIA yanıtı diskten yüklendi: {}", url);
+                return content;
+            }
+            LOGGER.warn("Diskteki AIA yanıtı geçersiz, yeniden indirilecek: {}", file);
+        } catch (IOException e) {
+            LOGGER.warn("Diskteki AIA yanıtı okunamadı, yeniden indirilecek: {} - {}", file, e.getMessage());
+        }
+        return null;
+    }
+
+    private void store(String url, byte[] content) {
+        Path file = fileFor(url);
+        try {
+            Path temp = Files.createTempFile(directory, "aia-", ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("AIA yanıtı diske yazılamadı: {} - {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileFor(String url) {
+        byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, url.getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(Utils.toHex(digest) + ".cer");
+    }
+
+    private static boolean isParsable(byte[] content) {
+        try {
+            return !DSSUtils.loadCertificateFromP7c(new ByteArrayInputStream(content)).isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
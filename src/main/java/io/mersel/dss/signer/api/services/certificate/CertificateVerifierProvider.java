@@ -0,0 +1,74 @@
+package io.mersel.dss.signer.api.services.certificate;
+
+import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import io.mersel.dss.signer.api.services.TrustedRootsRefreshedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * İmzalama ve doğrulama isteklerinin kullandığı DSS sertifika doğrulayıcısının güncel
+ * anlık görüntüsünü sağlar.
+ *
+ * <p>Her anlık görüntü güvenilir kökler ve imzalama zinciri önceden eklenmiş olarak bir kez
+ * oluşturulur ve yayınlandıktan sonra değiştirilmez; istekler {@link #get()} ile
+ * {@link AtomicReference}'tan kilitsiz okur ve işlem boyunca aynı anlık görüntüyü kullanır.
+ * Güvenilir kökler yenilendiğinde ({@link TrustedRootsRefreshedEvent}) yeni anlık görüntü
+ * oluşturulup atomik olarak yayınlanır; devam eden istekler başladıkları anlık görüntüyle
+ * tamamlanır, yeni kökler yeniden başlatma gerekmeden uygulanır.
+ */
+public class CertificateVerifierProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificateVerifierProvider.class);
+
+    private final Supplier<CertificateVerifier> snapshotFactory;
+    private final AtomicReference<CertificateVerifier> current;
+
+    /**
+     * @param snapshotFactory Güncel güvenilir köklerle yeni bir doğrulayıcı oluşturan fabrika
+     */
+    public CertificateVerifierProvider(Supplier<CertificateVerifier> snapshotFactory) {
+        this.snapshotFactory = Objects.requireNonNull(snapshotFactory, "snapshotFactory");
+        this.current = new AtomicReference<>(Objects.requireNonNull(snapshotFactory.get(), "certificateVerifier"));
+    }
+
+    /**
+     * Her zaman aynı doğrulayıcıyı döndüren sağlayıcı oluşturur; yenileme anlık görüntüyü değiştirmez.
+     */
+    public static CertificateVerifierProvider of(CertificateVerifier certificateVerifier) {
+        Objects.requireNonNull(certificateVerifier, "certificateVerifier");
+        return new CertificateVerifierProvider(() -> certificateVerifier);
+    }
+
+    /**
+     * Güncel doğrulayıcı anlık görüntüsünü döner. Bir işlem boyunca tek kez okunmalıdır.
+     */
+    public CertificateVerifier get() {
+        return current.get();
+    }
+
+    /**
+     * Güncel güvenilir köklerle yeni bir anlık görüntü oluşturup yayınlar.
+     *
+     * @return Yayınlanan anlık görüntü
+     */
+    public CertificateVerifier refresh() {
+        CertificateVerifier snapshot = Objects.requireNonNull(snapshotFactory.get(), "certificateVerifier");
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    @EventListener
+    public void onTrustedRootsRefreshed(TrustedRootsRefreshedEvent event) {
+        try {
+            refresh();
+            LOGGER.info("Sertifika doğrulayıcı {} güvenilir kök ile yenilendi", event.getTrustedRootCount());
+        } catch (RuntimeException e) {
+            LOGGER.error("Sertifika doğrulayıcı yenilenemedi, önceki anlık görüntü kullanılmaya devam ediyor", e);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 
 import java.security.PrivateKey;
 import java.security.Signature;
+import java.security.cert.X509Certificate;
 
 /**
  * Düşük seviye kriptografik imzalama servisi.
@@ -59,5 +60,37 @@ public class CryptoSignerService {
             throw new SignatureException("İmza oluşturulamadı", e);
         }
     }
-}
 
+    /**
+     * Dışarıda hesaplanmış imza değerini imzalama sertifikasının public key'i ile doğrular.
+     *
+     * @param dataToSign İmzalanan veri
+     * @param signatureValue Doğrulanacak imza değeri
+     * @param certificate İmzalama sertifikası
+     * @param digestAlgorithm Kullanılan digest algoritması
+     * @return İmza değeri veriyle eşleşiyorsa true
+     */
+    public boolean verify(ToBeSigned dataToSign,
+                          byte[] signatureValue,
+                          X509Certificate certificate,
+                          DigestAlgorithm digestAlgorithm) {
+        try {
+            SignatureAlgorithm signatureAlgorithm =
+                algorithmResolver.determineSignatureAlgorithm(certificate.getPublicKey(), digestAlgorithm);
+
+            Signature signature = Signature.getInstance(signatureAlgorithm.getJCEId());
+            signature.initVerify(certificate.getPublicKey());
+            signature.update(dataToSign.getBytes());
+            return signature.verify(signatureValue);
+
+        } catch (java.security.SignatureException e) {
+            // Bozuk veya yanlış formatlı imza değeri
+            LOGGER.debug("İmza değeri doğrulanamadı: {}", e.getMessage());
+            return false;
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SignatureException("İmza değeri doğrulanamadı", e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import io.mersel.dss.signer.api.exceptions.SignatureException;
 import org.springframework.stereotype.Service;
 
 import java.security.PrivateKey;
+import java.security.PublicKey;
 
 /**
  * Anahtar tipi ve digest algoritmasına göre imza algoritmalarını çözümleme servisi.
@@ -23,8 +24,25 @@ public class SignatureAlgorithmResolverService {
      */
     public SignatureAlgorithm determineSignatureAlgorithm(PrivateKey privateKey, 
                                                           DigestAlgorithm digestAlgorithm) {
-        String keyAlgorithm = privateKey.getAlgorithm();
+        return determineSignatureAlgorithm(privateKey.getAlgorithm(), digestAlgorithm);
+    }
+
+    /**
+     * Public key tipi ve istenen digest algoritmasına göre uygun imza algoritmasını belirler.
+     * Dışarıda hesaplanan imza değerlerinin doğrulanmasında kullanılır.
+     *
+     * @param publicKey İmzayı doğrulayacak public key
+     * @param digestAlgorithm Kullanılacak digest algoritması
+     * @return Eşleşen imza algoritması
+     * @throws SignatureException Kombinasyon desteklenmiyorsa
+     */
+    public SignatureAlgorithm determineSignatureAlgorithm(PublicKey publicKey,
+                                                          DigestAlgorithm digestAlgorithm) {
+        return determineSignatureAlgorithm(publicKey.getAlgorithm(), digestAlgorithm);
+    }
 
+    private SignatureAlgorithm determineSignatureAlgorithm(String keyAlgorithm,
+                                                           DigestAlgorithm digestAlgorithm) {
         if ("RSA".equalsIgnoreCase(keyAlgorithm)) {
             return resolveRSAAlgorithm(digestAlgorithm);
         }
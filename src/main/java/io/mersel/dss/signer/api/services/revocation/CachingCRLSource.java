@@ -0,0 +1,324 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.crl.CRLBinary;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.CertificateExtensionsUtils;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.utils.Utils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * CRL'leri yerel klasörde saklayan ve {@code nextUpdate} öncesinde arka planda yenileyen kaynak.
+ *
+ * <p>KamuSM CRL'leri birkaç MB boyutundadır; OCSP başarısız olduğunda her istekte indirilip
+ * ayrıştırılmaları imza süresini uzatır. Bu kaynak her CRL'i dağıtım noktası adresine göre
+ * bir kez indirir, imzasını bir kez doğrular ({@code dss-crl-parser-stream} ile, ASN.1
+ * ağacı oluşturmadan) ve diske yazar; yeniden başlatmada CRL diskten yüklenir. İmzası
+ * doğrulanamayan CRL ne önbelleğe alınır ne de döndürülür. Her çağırana saklanan CRL
+ * sürümünden yeni bir {@link CRLToken} üretilir; DSS token'ın kaynak adresi ve kökeni
+ * gibi alanlarını değiştirdiğinden token'lar istekler arasında paylaşılmaz.
+ *
+ * <p>CRL'ler {@link #refresh()} ile {@code CRL_CACHE_REFRESH_AHEAD_SECONDS} kadar önce
+ * yenilenir; yenileme başarısız olursa mevcut CRL {@code nextUpdate} zamanına kadar
+ * kullanılmaya devam eder. {@code nextUpdate} içermeyen CRL'ler indirildikleri andan
+ * itibaren {@code CRL_CACHE_DEFAULT_TTL_SECONDS} boyunca kullanılır.
+ *
+ * <p>İstek sayıları {@code signer.revocation.cache} ({@code result=hit|miss}), CRL sayısı
+ * {@code signer.revocation.cache.size}, yenilemeler {@code signer.revocation.refresh}
+ * ({@code result=success|failure}) metriğinde {@code type=crl} etiketiyle raporlanır.
+ */
+public class CachingCRLSource implements CRLSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingCRLSource.class);
+
+    /** Aynı dağıtım noktasının eşzamanlı indirilmesini önleyen kilit sayısı. */
+    private static final int LOCK_STRIPES = 64;
+
+    private final DataLoader dataLoader;
+    private final transient Path directory;
+    private final long refreshAheadMillis;
+    private final long defaultTtlMillis;
+    private final transient LongSupplier clock;
+    private final transient Map<String, CachedCrl> crls = new ConcurrentHashMap<>();
+    private final transient Object[] locks = new Object[LOCK_STRIPES];
+    private final transient Counter hits;
+    private final transient Counter misses;
+    private final transient Counter refreshSuccesses;
+    private final transient Counter refreshFailures;
+
+    /**
+     * @param dataLoader CRL'lerin indirildiği loader
+     * @param directory CRL'lerin saklandığı klasör
+     * @param refreshAheadMillis CRL'in {@code nextUpdate} zamanından ne kadar önce yenileneceği
+     * @param defaultTtlMillis {@code nextUpdate} içermeyen CRL'lerin indirildikten sonra kullanılacağı süre
+     * @param meterRegistry Metriklerin kaydedileceği registry
+     */
+    public CachingCRLSource(DataLoader dataLoader, Path directory, long refreshAheadMillis,
+                            long defaultTtlMillis, MeterRegistry meterRegistry) {
+        this(dataLoader, directory, refreshAheadMillis, defaultTtlMillis, meterRegistry,
+            System::currentTimeMillis);
+    }
+
+    CachingCRLSource(DataLoader dataLoader, Path directory, long refreshAheadMillis,
+                     long defaultTtlMillis, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.dataLoader = dataLoader;
+        this.directory = directory;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.clock = clock;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("CRL klasörü oluşturulamadı: " + directory, e);
+        }
+
+        this.hits = Counter.builder("signer.revocation.cache")
+            .description("İptal verisi önbelleği istek sayısı")
+            .tag("type", "crl")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("signer.revocation.cache")
+            .description("İptal verisi önbelleği istek sayısı")
+            .tag("type", "crl")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.refreshSuccesses = Counter.builder("signer.revocation.refresh")
+            .description("Arka plan iptal verisi yenileme sayısı")
+            .tag("type", "crl")
+            .tag("result", "success")
+            .register(meterRegistry);
+        this.refreshFailures = Counter.builder("signer.revocation.refresh")
+            .description("Arka plan iptal verisi yenileme sayısı")
+            .tag("type", "crl")
+            .tag("result", "failure")
+            .register(meterRegistry);
+        Gauge.builder("signer.revocation.cache.size", crls, Map::size)
+            .description("İptal verisi önbelleğindeki kayıt sayısı")
+            .tag("type", "crl")
+            .register(meterRegistry);
+
+        LOGGER.info("CRL deposu klasörü: {}, yenileme öne alma süresi: {} ms",
+            directory.toAbsolutePath(), refreshAheadMillis);
+    }
+
+    @Override
+    public CRLToken getRevocationToken(CertificateToken certificateToken,
+                                       CertificateToken issuerCertificateToken) {
+        List<String> urls = CertificateExtensionsUtils.getCRLAccessUrls(certificateToken);
+        if (Utils.isCollectionEmpty(urls)) {
+            LOGGER.debug("Sertifikada CRL dağıtım noktası yok: {}", certificateToken.getDSSIdAsString());
+            return null;
+        }
+
+        for (String url : urls) {
+            try {
+                CachedCrl crl = getCrl(url, issuerCertificateToken);
+                if (crl != null) {
+                    return crl.getToken(certificateToken);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("CRL alınamadı: {} - {}", url, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code nextUpdate} zamanı yaklaşan CRL'leri yeniler. Aynı CRL yeniden yayınlanmamışsa
+     * sonraki deneme öne alma süresinin dörtte biri kadar ertelenir.
+     */
+    @Scheduled(fixedDelayString = "${CRL_CACHE_REFRESH_INTERVAL_MS:60000}",
+               initialDelayString = "${CRL_CACHE_REFRESH_INTERVAL_MS:60000}")
+    public void refresh() {
+        long now = clock.getAsLong();
+        for (CachedCrl crl : crls.values()) {
+            if (now < crl.refreshAt) {
+                continue;
+            }
+            synchronized (lockFor(crl.url)) {
+                if (crls.get(crl.url) != crl) {
+                    continue;
+                }
+                try {
+                    CachedCrl refreshed = download(crl.url, crl.issuer);
+                    // nextUpdate içermeyen CRL yeniden indirildiğinde süresi indirme anından uzar
+                    if (refreshed.thisUpdate > crl.thisUpdate || refreshed.nextUpdate > crl.nextUpdate) {
+                        crls.put(crl.url, refreshed);
+                        LOGGER.info("CRL yenilendi: {}", crl.url);
+                    } else {
+                        crl.refreshAt = now + Math.max(refreshAheadMillis / 4, 1L);
+                    }
+                    refreshSuccesses.increment();
+                } catch (Exception e) {
+                    crl.refreshAt = now + Math.max(refreshAheadMillis / 4, 1L);
+                    refreshFailures.increment();
+                    LOGGER.warn("CRL yenilenemedi, mevcut CRL nextUpdate zamanına kadar kullanılacak: {} - {}",
+                        crl.url, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Bellekteki CRL sayısını döner.
+     */
+    public int size() {
+        return crls.size();
+    }
+
+    private CachedCrl getCrl(String url, CertificateToken issuer) throws IOException {
+        CachedCrl crl = crls.get(url);
+        if (crl != null && crl.isUsable(clock.getAsLong(), issuer)) {
+            hits.increment();
+            return crl;
+        }
+        misses.increment();
+
+        synchronized (lockFor(url)) {
+            long now = clock.getAsLong();
+            crl = crls.get(url);
+            if (crl != null && crl.isUsable(now, issuer)) {
+                return crl;
+            }
+            if (crl == null) {
+                crl = load(url, issuer);
+                if (crl != null && crl.isUsable(now, issuer)) {
+                    crls.put(url, crl);
+                    return crl;
+                }
+            }
+            crl = download(url, issuer);
+            if (crl.isUsable(now, issuer)) {
+                crls.put(url, crl);
+            }
+            return crl;
+        }
+    }
+
+    private CachedCrl download(String url, CertificateToken issuer) throws IOException {
+        byte[] content = dataLoader.get(url);
+        if (Utils.isArrayEmpty(content)) {
+            throw new IOException("CRL boş döndü");
+        }
+        CRLBinary binary = CRLUtils.buildCRLBinary(content);
+        CachedCrl crl = new CachedCrl(url, issuer, CRLUtils.buildCRLValidity(binary, issuer),
+            RevocationOrigin.EXTERNAL, clock.getAsLong() + defaultTtlMillis, refreshAheadMillis);
+        if (!crl.validity.isSignatureIntact()) {
+            throw new IOException("CRL imzası doğrulanamadı: " + crl.validity.getSignatureInvalidityReason());
+        }
+        store(url, binary.getBinaries());
+        return crl;
+    }
+
+    private CachedCrl load(String url, CertificateToken issuer) {
+        Path file = fileFor(url);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            CRLBinary binary = CRLUtils.buildCRLBinary(Files.readAllBytes(file));
+            LOGGER.debug("CRL diskten yüklendi: {}", url);
+            // Dosyanın yazılma zamanı CRL'in indirildiği andır
+            return new CachedCrl(url, issuer, CRLUtils.buildCRLValidity(binary, issuer),
+                RevocationOrigin.CACHED, Files.getLastModifiedTime(file).toMillis() + defaultTtlMillis,
+                refreshAheadMillis);
+        } catch (Exception e) {
+            LOGGER.warn("Diskteki CRL okunamadı, yeniden indirilecek: {} - {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String url, byte[] der) {
+        Path file = fileFor(url);
+        try {
+            Path temp = Files.createTempFile(directory, "crl-", ".tmp");
+            try {
+                Files.write(temp, der);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("CRL diske yazılamadı: {} - {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileFor(String url) {
+        byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, url.getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(Utils.toHex(digest) + ".crl");
+    }
+
+    private Object lockFor(String url) {
+        return locks[(url.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    /**
+     * Bir dağıtım noktasının doğrulanmış CRL sürümü.
+     */
+    private static final class CachedCrl {
+
+        private final String url;
+        private final CertificateToken issuer;
+        private final CRLValidity validity;
+        private final RevocationOrigin origin;
+        private final long thisUpdate;
+        private final long nextUpdate;
+        private volatile long refreshAt;
+
+        private CachedCrl(String url, CertificateToken issuer, CRLValidity validity,
+                          RevocationOrigin origin, long defaultNextUpdate, long refreshAheadMillis) {
+            this.url = url;
+            this.issuer = issuer;
+            this.validity = validity;
+            this.origin = origin;
+            this.thisUpdate = validity.getThisUpdate() != null ? validity.getThisUpdate().getTime() : 0L;
+            this.nextUpdate = validity.getNextUpdate() != null
+                ? validity.getNextUpdate().getTime() : defaultNextUpdate;
+            this.refreshAt = nextUpdate - refreshAheadMillis;
+        }
+
+        /**
+         * CRL, imzası doğrulanmış, aynı yayıncıya ait ve {@code nextUpdate} geçmemişse kullanılabilir.
+         */
+        private boolean isUsable(long now, CertificateToken requestedIssuer) {
+            return validity.isSignatureIntact() && now < nextUpdate && issuer.equals(requestedIssuer);
+        }
+
+        /**
+         * Çağırana ait yeni bir token üretir; CRL yeniden indirilmez ve imzası yeniden doğrulanmaz.
+         */
+        private CRLToken getToken(CertificateToken certificateToken) {
+            CRLToken token = new CRLToken(certificateToken, validity);
+            token.setSourceURL(url);
+            token.setExternalOrigin(origin);
+            return token;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.Context;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.validation.RevocationDataVerifier;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.utils.Utils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.LongSupplier;
+
+/**
+ * OCSP yanıtlarını süreç genelinde, sertifika kimliğine (CertID) göre paylaşan önbellek.
+ *
+ * <p>İmzalama sertifikası ve zinciri binlerce imza için aynıdır; bu kaynak sayesinde
+ * OCSP trafiği imza sayısıyla değil sertifika sayısıyla ölçeklenir. Bir yanıt yalnızca
+ * {@code thisUpdate}/{@code nextUpdate} aralığında ve {@link RevocationDataVerifier}
+ * tazelik sınırı içindeyken kullanılır; süresi geçen kayıt okunurken silinir ve yanıt
+ * yeniden alınır. Kayıt sayısı sınırlıdır, dolunca en az kullanılan kayıt çıkarılır.
+ *
+ * <p>Aynı sertifika için eşzamanlı gelen istekler tek bir OCSP çağrısını bekler. Her
+ * çağırana aynı yanıt baytlarından oluşturulmuş ayrı bir {@link OCSPToken} döner; böylece
+ * C seviyesindeki OCSPRef özeti ile XL seviyesinde gömülen yanıtın özeti eşleşir.
+ *
+ * <p>İstek sayıları {@code signer.revocation.cache} ({@code result=hit|miss}), kayıt sayısı
+ * {@code signer.revocation.cache.size}, {@link #prefetch} ile ön yüklenen sertifikalara ait
+ * istekler {@code signer.revocation.prefetch.requests} metriğinde {@code type=ocsp}
+ * etiketiyle raporlanır.
+ */
+public class CachingOCSPSource implements OCSPSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingOCSPSource.class);
+
+    private final OCSPSource delegate;
+    private final transient RevocationDataVerifier revocationDataVerifier;
+    private final int maxEntries;
+    private final transient LongSupplier clock;
+    private final transient Map<String, OCSPToken> entries;
+    private final transient ConcurrentHashMap<String, FutureTask<OCSPToken>> inFlight = new ConcurrentHashMap<>();
+    private final transient Set<String> prefetchedKeys = ConcurrentHashMap.newKeySet();
+    private final transient Counter hits;
+    private final transient Counter misses;
+    private final transient Counter prefetchHits;
+    private final transient Counter prefetchMisses;
+
+    /**
+     * @param delegate Önbellekte bulunmayan yanıtların alındığı kaynak (örn. OnlineOCSPSource)
+     * @param revocationDataVerifier Tazelik sınırlarını belirleyen doğrulayıcı
+     * @param maxEntries En fazla kayıt sayısı
+     * @param meterRegistry Metriklerin kaydedileceği registry
+     */
+    public CachingOCSPSource(OCSPSource delegate,
+                             RevocationDataVerifier revocationDataVerifier,
+                             int maxEntries,
+                             MeterRegistry meterRegistry) {
+        this(delegate, revocationDataVerifier, maxEntries, meterRegistry, System::currentTimeMillis);
+    }
+
+    CachingOCSPSource(OCSPSource delegate,
+                      RevocationDataVerifier revocationDataVerifier,
+                      int maxEntries,
+                      MeterRegistry meterRegistry,
+                      LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries pozitif olmalı");
+        }
+        this.delegate = delegate;
+        this.revocationDataVerifier = revocationDataVerifier;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, OCSPToken>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OCSPToken> eldest) {
+                return size() > CachingOCSPSource.this.maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("signer.revocation.cache")
+            .description("İptal verisi önbelleği istek sayısı")
+            .tag("type", "ocsp")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("signer.revocation.cache")
+            .description("İptal verisi önbelleği istek sayısı")
+            .tag("type", "ocsp")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.prefetchHits = Counter.builder("signer.revocation.prefetch.requests")
+            .description("Ön yüklenen sertifikalar için istek yolundaki önbellek sonuçları")
+            .tag("type", "ocsp")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.prefetchMisses = Counter.builder("signer.revocation.prefetch.requests")
+            .description("Ön yüklenen sertifikalar için istek yolundaki önbellek sonuçları")
+            .tag("type", "ocsp")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("signer.revocation.cache.size", this, CachingOCSPSource::size)
+            .description("İptal verisi önbelleğindeki kayıt sayısı")
+            .tag("type", "ocsp")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public OCSPToken getRevocationToken(CertificateToken certificateToken,
+                                        CertificateToken issuerCertificateToken) {
+        String key = getCertIdKey(certificateToken, issuerCertificateToken);
+
+        OCSPToken cached = getFresh(key);
+        boolean prefetchedKey = prefetchedKeys.contains(key);
+        if (cached != null) {
+            hits.increment();
+            if (prefetchedKey) {
+                prefetchHits.increment();
+            }
+            return copy(cached, certificateToken, issuerCertificateToken);
+        }
+        misses.increment();
+        if (prefetchedKey) {
+            prefetchMisses.increment();
+        }
+        return load(key, certificateToken, issuerCertificateToken);
+    }
+
+    /**
+     * Yanıtı önbellekteki kayda bakmadan kaynaktan alır ve önbelleğe yazar. Arka plan
+     * ön yüklemesi tarafından, kayıt tazelik sınırına ulaşmadan önce çağrılır; bu
+     * sertifika için istek yolundaki isabetler ön yükleme isabeti olarak da sayılır.
+     *
+     * @return Alınan yanıt veya yanıt alınamadıysa null
+     */
+    public OCSPToken prefetch(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        String key = getCertIdKey(certificateToken, issuerCertificateToken);
+        prefetchedKeys.add(key);
+        return load(key, certificateToken, issuerCertificateToken);
+    }
+
+    /**
+     * Önbellekteki taze yanıtın {@code thisUpdate} zamanını döner, kayıt yoksa -1.
+     */
+    public long getThisUpdate(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        OCSPToken cached = getFresh(getCertIdKey(certificateToken, issuerCertificateToken));
+        return cached != null && cached.getThisUpdate() != null ? cached.getThisUpdate().getTime() : -1;
+    }
+
+    /**
+     * Yanıtı kaynaktan alır; aynı CertID için devam eden bir sorgu varsa onun sonucu beklenir.
+     */
+    private OCSPToken load(String key, CertificateToken certificateToken,
+                           CertificateToken issuerCertificateToken) {
+        FutureTask<OCSPToken> task = new FutureTask<>(
+            () -> fetch(key, certificateToken, issuerCertificateToken));
+        FutureTask<OCSPToken> running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+        }
+
+        OCSPToken token = await(running);
+        if (token == null || running == task) {
+            return token;
+        }
+        return copy(token, certificateToken, issuerCertificateToken);
+    }
+
+    /**
+     * Önbellekteki kayıt sayısını döner.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Tüm kayıtları siler (örn. güvenilir kök listesi değiştiğinde).
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private OCSPToken fetch(String key, CertificateToken certificateToken,
+                            CertificateToken issuerCertificateToken) {
+        OCSPToken token = delegate.getRevocationToken(certificateToken, issuerCertificateToken);
+        if (token != null && isFresh(token, new Date(clock.getAsLong()))) {
+            synchronized (this) {
+                entries.put(key, token);
+            }
+        } else if (token != null) {
+            LOGGER.debug("OCSP yanıtı tazelik sınırı dışında, önbelleğe alınmadı: {}",
+                certificateToken.getDSSIdAsString());
+        }
+        return token;
+    }
+
+    private synchronized OCSPToken getFresh(String key) {
+        OCSPToken token = entries.get(key);
+        if (token != null && !isFresh(token, new Date(clock.getAsLong()))) {
+            entries.remove(key);
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * Yanıtın geçerlilik aralığında ve imza bağlamı tazelik sınırı içinde olup olmadığını döner.
+     */
+    private boolean isFresh(OCSPToken token, Date now) {
+        return revocationDataVerifier.isAfterThisUpdateAndBeforeNextUpdate(token, now)
+            && revocationDataVerifier.isRevocationDataFresh(token, now, Context.SIGNATURE);
+    }
+
+    /**
+     * Önbellekteki yanıttan çağırana özel bir token oluşturur. BouncyCastle yanıt
+     * nesneleri değişmez olduğundan paylaşılabilir; DSS'in token üzerinde tuttuğu
+     * durum ise her çağırana ayrıdır.
+     */
+    private static OCSPToken copy(OCSPToken token, CertificateToken certificateToken,
+                                  CertificateToken issuerCertificateToken) {
+        OCSPToken copy = new OCSPToken(token.getBasicOCSPResp(), token.getLatestSingleResp(),
+            certificateToken, issuerCertificateToken);
+        copy.setSourceURL(token.getSourceURL());
+        copy.setExternalOrigin(RevocationOrigin.CACHED);
+        return copy;
+    }
+
+    private static OCSPToken await(FutureTask<OCSPToken> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("OCSP yanıtı alınamadı", cause);
+        }
+    }
+
+    /**
+     * RFC 6960 CertID alanlarından (issuerNameHash, issuerKeyHash, serialNumber) anahtar üretir.
+     */
+    static String getCertIdKey(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(
+            certificateToken, issuerCertificateToken, DigestAlgorithm.SHA1);
+        return Utils.toHex(certId.getIssuerNameHash()) + ':'
+            + Utils.toHex(certId.getIssuerKeyHash()) + ':'
+            + certId.getSerialNumber().toString(16);
+    }
+}
@@ -0,0 +1,298 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.revocation.ocsp.OCSP;
+import eu.europa.esig.dss.spi.CertificateExtensionsUtils;
+import eu.europa.esig.dss.spi.validation.RevocationDataLoadingStrategy;
+import eu.europa.esig.dss.spi.validation.RevocationDataLoadingStrategyFactory;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import eu.europa.esig.dss.utils.Utils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * İptal verisini sınırlı bir havuzda eş zamanlı ve yedekli (hedged) olarak alan DSS
+ * yükleme stratejisi fabrikası.
+ *
+ * <p>DSS, XAdES-C yükseltmesinde zincirdeki her sertifika için önce OCSP'yi, başarısız
+ * olursa CRL'i sırayla sorgular; yavaş bir yanıtlayıcının gecikmesi sertifika sayısıyla
+ * çarpılır. Bu fabrikanın ürettiği {@link HedgedRevocationDataLoadingStrategy}:
+ * <ul>
+ *   <li>OCSP'yi havuzda başlatır, {@code REVOCATION_HEDGE_DELAY_MS} içinde kabul edilebilir
+ *       yanıt gelmezse CRL'i de başlatır ve ilk kabul edilebilir sonucu döner</li>
+ *   <li>Her yanıtlayıcı için en fazla {@code REVOCATION_RESPONDER_TIMEOUT_MS} bekler</li>
+ *   <li>Art arda {@code REVOCATION_CIRCUIT_FAILURE_THRESHOLD} kez başarısız olan yanıtlayıcıyı
+ *       {@code REVOCATION_CIRCUIT_OPEN_SECONDS} boyunca atlar (devre kesici); süre dolunca
+ *       tek bir deneme isteğine izin verilir</li>
+ * </ul>
+ * Havuz doluysa sorgu reddedilir ve strateji DSS'in sıralı OCSP/CRL sorgusuna, çağıran
+ * iş parçacığında geri döner.
+ * {@link #prefetch(Collection, RevocationSource)} zincirdeki tüm sertifikaların OCSP sorgularını
+ * paralel başlatır; {@link CachingOCSPSource} aynı CertID için devam eden sorguyu paylaştığından
+ * DSS'in sıralı istekleri bu sorgulara katılır.
+ *
+ * <p>Sorgu sonuçları {@code signer.revocation.fetch} ({@code type=ocsp|crl},
+ * {@code result=success|failure|timeout|circuit_open|rejected}), CRL'in OCSP ile yarıştırıldığı
+ * istekler {@code signer.revocation.hedge} metriğinde raporlanır.
+ */
+public class ConcurrentRevocationFetcher implements RevocationDataLoadingStrategyFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentRevocationFetcher.class);
+
+    static final String OCSP_TYPE = "ocsp";
+    static final String CRL_TYPE = "crl";
+
+    private final ExecutorService executor;
+    private final long hedgeDelayMillis;
+    private final long timeoutMillis;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fetches = new ConcurrentHashMap<>();
+    private final Counter hedges;
+
+    /**
+     * @param executor Sorguların çalıştırıldığı sınırlı havuz
+     * @param hedgeDelayMillis OCSP yanıtı beklenirken CRL'in başlatılacağı süre
+     * @param timeoutMillis Bir yanıtlayıcı için en fazla bekleme süresi
+     * @param failureThreshold Devre kesicinin açılması için art arda hata sayısı
+     * @param openMillis Devre kesicinin açık kalacağı süre
+     * @param meterRegistry Metriklerin kaydedileceği registry
+     */
+    public ConcurrentRevocationFetcher(ExecutorService executor, long hedgeDelayMillis, long timeoutMillis,
+                                       int failureThreshold, long openMillis, MeterRegistry meterRegistry) {
+        this(executor, hedgeDelayMillis, timeoutMillis, failureThreshold, openMillis, meterRegistry,
+            System::currentTimeMillis);
+    }
+
+    ConcurrentRevocationFetcher(ExecutorService executor, long hedgeDelayMillis, long timeoutMillis,
+                                int failureThreshold, long openMillis, MeterRegistry meterRegistry,
+                                LongSupplier clock) {
+        this.executor = executor;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.hedges = Counter.builder("signer.revocation.hedge")
+            .description("OCSP gecikince CRL ile yarıştırılan istek sayısı")
+            .register(meterRegistry);
+
+        LOGGER.info("Eş zamanlı iptal verisi sorgusu: hedge {} ms, zaman aşımı {} ms, devre kesici {} hata / {} ms",
+            hedgeDelayMillis, timeoutMillis, failureThreshold, openMillis);
+    }
+
+    @Override
+    public RevocationDataLoadingStrategy create() {
+        return new HedgedRevocationDataLoadingStrategy(this);
+    }
+
+    /**
+     * Zincirdeki her sertifikanın OCSP sorgusunu arka planda başlatır, sonucu beklemez.
+     * Yalnızca paylaşılan {@link CachingOCSPSource} ile anlamlıdır; diğer kaynaklarda
+     * sorgular DSS'in kendi isteğiyle tekrarlanacağından hiçbir şey yapılmaz.
+     */
+    public void prefetch(Collection<CertificateToken> certificates, RevocationSource<OCSP> ocspSource) {
+        if (!(ocspSource instanceof CachingOCSPSource)) {
+            return;
+        }
+        CachingOCSPSource cachingOcspSource = (CachingOCSPSource) ocspSource;
+        for (CertificateToken certificate : certificates) {
+            if (certificate.isSelfSigned()) {
+                continue;
+            }
+            for (CertificateToken candidate : certificates) {
+                if (candidate != certificate && certificate.isSignedBy(candidate)) {
+                    try {
+                        submit(null, OCSP_TYPE, getOcspResponder(certificate),
+                            () -> cachingOcspSource.getRevocationToken(certificate, candidate));
+                    } catch (RejectedExecutionException e) {
+                        // Ön yükleme isteğe bağlıdır; DSS sorguyu kendisi yapar
+                        return;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Tek bir sertifikanın OCSP/CRL sorgularının yarıştırılacağı kuyruğu oluşturur.
+     */
+    <T> CompletionService<T> newRace() {
+        return new ExecutorCompletionService<>(executor);
+    }
+
+    void hedged() {
+        hedges.increment();
+    }
+
+    /**
+     * Sorguyu havuzda başlatır; sonuç yanıtlayıcının devre kesicisine işlenir.
+     *
+     * @param completionService Sonucun ekleneceği yarış kuyruğu, yoksa doğrudan havuz kullanılır
+     * @return Başlatılan sorgu veya yanıtlayıcının devresi açıksa null
+     * @throws RejectedExecutionException Havuz doluysa
+     */
+    <T extends RevocationToken<?>> Future<T> submit(CompletionService<T> completionService, String type,
+                                                   String responder, Callable<T> call) {
+        CircuitBreaker breaker = responder != null ? breaker(type, responder) : null;
+        if (breaker != null && !breaker.allowRequest(now())) {
+            count(type, "circuit_open");
+            LOGGER.debug("Devre açık, {} yanıtlayıcısı atlanıyor: {}", type, responder);
+            return null;
+        }
+
+        Callable<T> task = () -> {
+            long start = now();
+            T token = null;
+            try {
+                token = call.call();
+                return token;
+            } finally {
+                record(type, responder, breaker, token != null, now() - start);
+            }
+        };
+        try {
+            return completionService != null ? completionService.submit(task) : executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            if (breaker != null) {
+                breaker.release();
+            }
+            count(type, "rejected");
+            LOGGER.debug("İptal verisi havuzu dolu, {} sorgusu reddedildi", type);
+            throw e;
+        }
+    }
+
+    /**
+     * Sertifikanın ilk OCSP adresi (devre kesici anahtarı) veya null.
+     */
+    static String getOcspResponder(CertificateToken certificate) {
+        List<String> urls = CertificateExtensionsUtils.getOCSPAccessUrls(certificate);
+        return Utils.isCollectionNotEmpty(urls) ? urls.get(0) : null;
+    }
+
+    /**
+     * Sertifikanın ilk CRL dağıtım noktası (devre kesici anahtarı) veya null.
+     */
+    static String getCrlResponder(CertificateToken certificate) {
+        List<String> urls = CertificateExtensionsUtils.getCRLAccessUrls(certificate);
+        return Utils.isCollectionNotEmpty(urls) ? urls.get(0) : null;
+    }
+
+    /**
+     * Yanıtlayıcının devre kesicisinin açık olup olmadığını döner (test ve izleme için).
+     */
+    boolean isOpen(String type, String responder) {
+        CircuitBreaker breaker = breakers.get(type + ":" + responder);
+        return breaker != null && breaker.isOpen(now());
+    }
+
+    private void record(String type, String responder, CircuitBreaker breaker, boolean received, long elapsed) {
+        boolean timedOut = elapsed > timeoutMillis;
+        count(type, timedOut ? "timeout" : received ? "success" : "failure");
+        if (breaker == null) {
+            return;
+        }
+        if (received && !timedOut) {
+            breaker.recordSuccess();
+        } else if (breaker.recordFailure(now())) {
+            LOGGER.warn("{} yanıtlayıcısı art arda {} kez başarısız oldu, {} ms boyunca atlanacak: {}",
+                type, failureThreshold, openMillis, responder);
+        }
+    }
+
+    private void count(String type, String result) {
+        fetches.computeIfAbsent(type + ":" + result, key -> Counter.builder("signer.revocation.fetch")
+            .description("İptal verisi sorgu sayısı")
+            .tag("type", type)
+            .tag("result", result)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    private CircuitBreaker breaker(String type, String responder) {
+        return breakers.computeIfAbsent(type + ":" + responder, key -> new CircuitBreaker());
+    }
+
+    /**
+     * Tek bir yanıtlayıcı için art arda hata sayan devre kesici.
+     * Açık süre dolduğunda tek bir deneme isteğine izin verilir (yarı açık); deneme
+     * başarılıysa devre kapanır, başarısızsa yeniden açılır.
+     */
+    private final class CircuitBreaker {
+
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean trialInProgress;
+
+        synchronized boolean allowRequest(long now) {
+            if (consecutiveFailures < failureThreshold) {
+                return true;
+            }
+            if (now < openUntil || trialInProgress) {
+                return false;
+            }
+            trialInProgress = true;
+            return true;
+        }
+
+        synchronized boolean isOpen(long now) {
+            return consecutiveFailures >= failureThreshold && now < openUntil;
+        }
+
+        synchronized void release() {
+            trialInProgress = false;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            trialInProgress = false;
+        }
+
+        /**
+         * @return Devre bu hatayla açıldıysa true
+         */
+        synchronized boolean recordFailure(long now) {
+            trialInProgress = false;
+            consecutiveFailures++;
+            if (consecutiveFailures >= failureThreshold) {
+                boolean opened = now >= openUntil;
+                openUntil = now + openMillis;
+                return opened;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.validation.RevocationDataLoadingStrategy;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OCSP'yi öncelikli sorgulayan, gecikme durumunda CRL'i yarıştıran yükleme stratejisi.
+ *
+ * <p>DSS'in {@code OCSPFirstRevocationDataLoadingStrategy} davranışıyla aynı sonucu
+ * üretir (kabul edilebilir OCSP, yoksa kabul edilebilir CRL, yedekleme açıksa ilk alınan
+ * token); farkı sorguların {@link ConcurrentRevocationFetcher} havuzunda zaman aşımı ve
+ * devre kesici ile çalıştırılmasıdır. Havuz sorguyu reddederse sorgular çağıran iş
+ * parçacığında DSS'in sıralamasıyla yapılır. Her sertifika için DSS yeni bir örnek oluşturur.
+ */
+class HedgedRevocationDataLoadingStrategy extends RevocationDataLoadingStrategy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgedRevocationDataLoadingStrategy.class);
+
+    private final ConcurrentRevocationFetcher fetcher;
+
+    HedgedRevocationDataLoadingStrategy(ConcurrentRevocationFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public RevocationToken getRevocationToken(CertificateToken certificateToken,
+                                              CertificateToken issuerCertificateToken) {
+        long deadline = fetcher.now() + fetcher.getTimeoutMillis();
+        CompletionService<RevocationToken<?>> race = fetcher.newRace();
+
+        Future<RevocationToken<?>> ocsp;
+        try {
+            ocsp = fetcher.submit(race, ConcurrentRevocationFetcher.OCSP_TYPE,
+                ConcurrentRevocationFetcher.getOcspResponder(certificateToken),
+                () -> checkOCSP(certificateToken, issuerCertificateToken));
+        } catch (RejectedExecutionException e) {
+            return loadInline(certificateToken, issuerCertificateToken);
+        }
+        int pending = ocsp != null ? 1 : 0;
+        RevocationToken<?> ocspToken = null;
+        RevocationToken<?> crlToken = null;
+
+        if (ocsp != null) {
+            Future<RevocationToken<?>> done = poll(race, Math.min(fetcher.getHedgeDelayMillis(),
+                deadline - fetcher.now()));
+            if (done != null) {
+                pending--;
+                ocspToken = get(done);
+                if (isAcceptable(ocspToken)) {
+                    return ocspToken;
+                }
+            }
+        }
+
+        Future<RevocationToken<?>> crl;
+        try {
+            crl = fetcher.submit(race, ConcurrentRevocationFetcher.CRL_TYPE,
+                ConcurrentRevocationFetcher.getCrlResponder(certificateToken),
+                () -> checkCRL(certificateToken, issuerCertificateToken));
+        } catch (RejectedExecutionException e) {
+            crl = null;
+            crlToken = checkCRL(certificateToken, issuerCertificateToken);
+            if (isAcceptable(crlToken)) {
+                return crlToken;
+            }
+        }
+        if (crl != null) {
+            pending++;
+            if (pending == 2) {
+                fetcher.hedged();
+                LOGGER.debug("OCSP {} ms içinde yanıt vermedi, CRL yarıştırılıyor: {}",
+                    fetcher.getHedgeDelayMillis(), certificateToken.getDSSIdAsString());
+            }
+        }
+
+        while (pending > 0) {
+            Future<RevocationToken<?>> done = poll(race, deadline - fetcher.now());
+            if (done == null) {
+                LOGGER.warn("İptal verisi {} ms içinde alınamadı: {}",
+                    fetcher.getTimeoutMillis(), certificateToken.getDSSIdAsString());
+                break;
+            }
+            pending--;
+            RevocationToken<?> token = get(done);
+            if (done == ocsp) {
+                ocspToken = token;
+            } else {
+                crlToken = token;
+            }
+            if (isAcceptable(token)) {
+                return token;
+            }
+        }
+
+        if (fallbackEnabled) {
+            return ocspToken != null ? ocspToken : crlToken;
+        }
+        return null;
+    }
+
+    /**
+     * Havuz doluyken DSS'in {@code OCSPFirstRevocationDataLoadingStrategy} sıralamasıyla
+     * sorguları çağıran iş parçacığında yapar.
+     */
+    private RevocationToken<?> loadInline(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        LOGGER.debug("İptal verisi havuzu dolu, sorgu çağıran iş parçacığında yapılıyor: {}",
+            certificateToken.getDSSIdAsString());
+        RevocationToken<?> ocspToken = checkOCSP(certificateToken, issuerCertificateToken);
+        if (isAcceptable(ocspToken)) {
+            return ocspToken;
+        }
+        RevocationToken<?> crlToken = checkCRL(certificateToken, issuerCertificateToken);
+        if (isAcceptable(crlToken)) {
+            return crlToken;
+        }
+        if (fallbackEnabled) {
+            return ocspToken != null ? ocspToken : crlToken;
+        }
+        return null;
+    }
+
+    private boolean isAcceptable(RevocationToken<?> token) {
+        return token != null && isAcceptableToken(token);
+    }
+
+    private static Future<RevocationToken<?>> poll(CompletionService<RevocationToken<?>> race, long timeoutMillis) {
+        try {
+            return race.poll(Math.max(0L, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static RevocationToken<?> get(Future<RevocationToken<?>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            LOGGER.warn("İptal verisi sorgusu başarısız: {}", e.getCause().getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.signature.AdvancedSignature;
+import eu.europa.esig.dss.spi.validation.ValidationData;
+import eu.europa.esig.dss.spi.validation.ValidationDataContainer;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.spi.x509.tsp.TimestampToken;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * XAdES-C/XL seviyelerinde imzaya hangi iptal verisinin ekleneceğini belirleyen politika.
+ *
+ * <p>KamuSM CRL'leri megabaytlar boyutundadır; XL seviyesinde base64 olarak gömüldüklerinde
+ * e-Arşiv raporları büyür ve kodlama sırasında bellek kullanımı sıçrar. {@link Mode#OCSP_PREFERRED}
+ * ile bir CRL, kapsadığı sertifikaların tamamı için OCSP yanıtı varsa imzaya eklenmez; CRL
+ * yalnızca OCSP yanıtı olmayan sertifikalar için yedek olarak kalır. {@code maxEmbeddedCrlBytes}
+ * sıfırdan büyükse bu boyutu aşan CRL'ler, kapsadıkları sertifikaların tamamı için OCSP yanıtı
+ * varsa eklenmez. Boyutu aşan CRL bir sertifikanın tek iptal verisiyse CRL çıkarılmaz,
+ * yükseltme {@code REVOCATION_DATA_TOO_LARGE} hatasıyla durdurulur; iptal verisi eksik
+ * uzun süreli imza üretilmez.
+ *
+ * <p>Politika C seviyesinde toplanan {@link ValidationDataContainer} üzerinde uygulanır; C
+ * referansları, XL değerleri ve zaman damgası doğrulama verileri aynı container'dan
+ * üretildiği için referanslarla gömülen değerler tutarlı kalır.
+ */
+public final class RevocationInclusionPolicy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationInclusionPolicy.class);
+
+    /**
+     * İptal verisi ekleme modu.
+     */
+    public enum Mode {
+        /** DSS'in topladığı tüm OCSP ve CRL verileri eklenir. */
+        ALL,
+        /** OCSP ile kapsanan sertifikaların CRL'leri eklenmez. */
+        OCSP_PREFERRED
+    }
+
+    private final Mode mode;
+    private final long maxEmbeddedCrlBytes;
+
+    /**
+     * @param mode                İptal verisi ekleme modu
+     * @param maxEmbeddedCrlBytes Gömülebilecek en büyük CRL boyutu (bayt); 0 veya negatif ise sınır yok
+     */
+    public RevocationInclusionPolicy(Mode mode, long maxEmbeddedCrlBytes) {
+        this.mode = mode != null ? mode : Mode.OCSP_PREFERRED;
+        this.maxEmbeddedCrlBytes = maxEmbeddedCrlBytes;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getMaxEmbeddedCrlBytes() {
+        return maxEmbeddedCrlBytes;
+    }
+
+    /**
+     * Container'daki imzaların ve zaman damgalarının doğrulama verisine politikayı uygular.
+     * Container'daki {@link ValidationData} nesneleri yerinde güncellenir.
+     */
+    public void apply(ValidationDataContainer validationDataContainer) {
+        if (validationDataContainer == null) {
+            return;
+        }
+        for (AdvancedSignature signature : validationDataContainer.getSignatures()) {
+            apply(validationDataContainer.getValidationData(signature));
+            for (TimestampToken timestampToken : signature.getAllTimestamps()) {
+                apply(validationDataContainer.getValidationData(timestampToken));
+            }
+        }
+        for (TimestampToken timestampToken : validationDataContainer.getDetachedTimestamps()) {
+            apply(validationDataContainer.getValidationData(timestampToken));
+        }
+    }
+
+    /**
+     * Tek bir doğrulama verisine politikayı uygular; eklenmeyecek CRL'ler yerinde çıkarılır.
+     *
+     * @throws SignatureException Boyut sınırını aşan CRL bir sertifikanın tek iptal verisiyse
+     */
+    public void apply(ValidationData validationData) {
+        if (validationData == null || validationData.getCrlTokens().isEmpty()) {
+            return;
+        }
+
+        Set<String> ocspCoveredCertificates = new HashSet<>();
+        for (OCSPToken ocspToken : validationData.getOcspTokens()) {
+            if (ocspToken.getRelatedCertificateId() != null) {
+                ocspCoveredCertificates.add(ocspToken.getRelatedCertificateId());
+            }
+        }
+
+        List<CRLToken> excluded = new ArrayList<>();
+        for (CRLToken crlToken : validationData.getCrlTokens()) {
+            boolean coveredByOcsp = isCoveredByOcsp(crlToken, validationData, ocspCoveredCertificates);
+            if (mode == Mode.OCSP_PREFERRED && coveredByOcsp) {
+                LOGGER.debug("CRL imzaya eklenmiyor, kapsadığı sertifikalar için OCSP yanıtı mevcut: {}",
+                        crlToken.getIssuerX500Principal());
+                excluded.add(crlToken);
+            } else if (maxEmbeddedCrlBytes > 0 && crlToken.getEncoded().length > maxEmbeddedCrlBytes) {
+                if (!coveredByOcsp) {
+                    throw new SignatureException("REVOCATION_DATA_TOO_LARGE", String.format(
+                            "CRL boyutu sınırı aşıyor (%d > %d bayt) ve sertifikanın tek iptal verisi, "
+                                    + "imza yükseltilemedi: %s. XADES_MAX_EMBEDDED_CRL_BYTES artırılmalı veya "
+                                    + "sertifika için OCSP erişimi sağlanmalıdır.",
+                            crlToken.getEncoded().length, maxEmbeddedCrlBytes, crlToken.getIssuerX500Principal()));
+                }
+                LOGGER.warn("CRL imzaya eklenmiyor, boyutu sınırı aşıyor ({} > {} bayt): {}",
+                        crlToken.getEncoded().length, maxEmbeddedCrlBytes, crlToken.getIssuerX500Principal());
+                excluded.add(crlToken);
+            }
+        }
+        if (!excluded.isEmpty()) {
+            validationData.excludeCRLTokensCollection(excluded);
+        }
+    }
+
+    /**
+     * CRL'in kapsadığı sertifikaların (aynı yayıncıya ait, kendinden imzalı olmayan) tamamı için
+     * OCSP yanıtı olup olmadığını döner. Kapsadığı bir sertifika bulunamazsa CRL korunur.
+     */
+    private static boolean isCoveredByOcsp(CRLToken crlToken, ValidationData validationData,
+                                           Set<String> ocspCoveredCertificates) {
+        boolean covers = false;
+        String relatedCertificateId = crlToken.getRelatedCertificateId();
+        if (relatedCertificateId != null) {
+            if (!ocspCoveredCertificates.contains(relatedCertificateId)) {
+                return false;
+            }
+            covers = true;
+        }
+        for (CertificateToken certificate : validationData.getCertificateTokens()) {
+            if (certificate.isSelfSigned()
+                    || !crlToken.getIssuerX500Principal().equals(certificate.getIssuerX500Principal())) {
+                continue;
+            }
+            if (!ocspCoveredCertificates.contains(certificate.getDSSIdAsString())) {
+                return false;
+            }
+            covers = true;
+        }
+        return covers;
+    }
+}
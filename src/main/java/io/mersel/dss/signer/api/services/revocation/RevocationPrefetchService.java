@@ -0,0 +1,176 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * İmzalama sertifikası zinciri için iptal verisini arka planda hazır tutan servis.
+ *
+ * <p>Servis başlangıçta bilinen tek bir {@link SigningMaterial} ile imzalar; bu zincirin
+ * OCSP yanıtları tazelik sınırı (5 dk) dolduğunda ilk e-Arşiv XAdES-A yükseltmesi
+ * içinde yeniden alınırsa birkaç dakikada bir gecikme sıçraması oluşur. Bu servis her
+ * zincir sertifikasının OCSP yanıtını, paylaşılan {@link CachingOCSPSource} içinde
+ * {@code REVOCATION_PREFETCH_REFRESH_AGE_SECONDS} yaşına ulaştığında yeniler. XAdES-C/XL
+ * seviyeleri yanıtları doğrulayıcının OCSP kaynağından aldığından ön yüklenen veri
+ * doğrudan kullanılır. OCSP yanıtı alınamayan sertifikalar için CRL deposu ısıtılır.
+ *
+ * <p>Ön yükleme sonuçları {@code signer.revocation.prefetch} ({@code result=success|failure}),
+ * zincirdeki en eski OCSP yanıtının yaşı {@code signer.revocation.prefetch.age} (saniye)
+ * metriğinde raporlanır; istek yolundaki isabet oranı {@link CachingOCSPSource} tarafından
+ * {@code signer.revocation.prefetch.requests} metriğinde izlenir.
+ */
+@Service
+public class RevocationPrefetchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationPrefetchService.class);
+
+    private final List<CertificateToken[]> chain;
+    private final CachingOCSPSource ocspSource;
+    private final CRLSource crlSource;
+    private final long refreshAgeMillis;
+    private final LongSupplier clock;
+    private final Counter successes;
+    private final Counter failures;
+    private volatile long oldestThisUpdate = -1;
+
+    public RevocationPrefetchService(SigningMaterial signingMaterial,
+                                     OCSPSource ocspSource,
+                                     CachingCRLSource crlSource,
+                                     SignatureServiceConfiguration config,
+                                     MeterRegistry meterRegistry) {
+        this(config.isRevocationPrefetchEnabled() ? signingMaterial.getCertificateTokens() : new ArrayList<>(),
+            ocspSource instanceof CachingOCSPSource ? (CachingOCSPSource) ocspSource : null,
+            crlSource,
+            TimeUnit.SECONDS.toMillis(config.getRevocationPrefetchRefreshAgeSeconds()),
+            meterRegistry,
+            System::currentTimeMillis);
+    }
+
+    RevocationPrefetchService(List<CertificateToken> certificates,
+                              CachingOCSPSource ocspSource,
+                              CRLSource crlSource,
+                              long refreshAgeMillis,
+                              MeterRegistry meterRegistry,
+                              LongSupplier clock) {
+        this.chain = ocspSource != null ? toIssuerPairs(certificates) : new ArrayList<>();
+        this.ocspSource = ocspSource;
+        this.crlSource = crlSource;
+        this.refreshAgeMillis = refreshAgeMillis;
+        this.clock = clock;
+
+        this.successes = Counter.builder("signer.revocation.prefetch")
+            .description("Arka plan iptal verisi ön yükleme sayısı")
+            .tag("result", "success")
+            .register(meterRegistry);
+        this.failures = Counter.builder("signer.revocation.prefetch")
+            .description("Arka plan iptal verisi ön yükleme sayısı")
+            .tag("result", "failure")
+            .register(meterRegistry);
+        Gauge.builder("signer.revocation.prefetch.age", this, RevocationPrefetchService::getDataAgeSeconds)
+            .description("Zincirdeki en eski ön yüklenmiş OCSP yanıtının yaşı (saniye)")
+            .register(meterRegistry);
+
+        if (chain.isEmpty()) {
+            LOGGER.info("İptal verisi ön yükleme kapalı");
+        } else {
+            LOGGER.info("İptal verisi ön yükleme etkin: {} sertifika, yenileme yaşı {} ms",
+                chain.size(), refreshAgeMillis);
+        }
+    }
+
+    /**
+     * Yenileme yaşına ulaşan veya önbellekte bulunmayan OCSP yanıtlarını yeniden alır.
+     */
+    @Scheduled(fixedDelayString = "${REVOCATION_PREFETCH_INTERVAL_MS:60000}")
+    public void prefetch() {
+        if (chain.isEmpty()) {
+            return;
+        }
+        long oldest = Long.MAX_VALUE;
+        for (CertificateToken[] pair : chain) {
+            long thisUpdate = prefetch(pair[0], pair[1]);
+            if (thisUpdate < 0) {
+                oldest = -1;
+            } else if (oldest >= 0) {
+                oldest = Math.min(oldest, thisUpdate);
+            }
+        }
+        oldestThisUpdate = oldest;
+    }
+
+    /**
+     * Zincirdeki en eski OCSP yanıtının yaşını saniye olarak döner; yanıtı olmayan
+     * sertifika varsa veya ön yükleme henüz çalışmadıysa NaN.
+     */
+    double getDataAgeSeconds() {
+        long oldest = oldestThisUpdate;
+        if (oldest < 0) {
+            return Double.NaN;
+        }
+        return (clock.getAsLong() - oldest) / 1000.0;
+    }
+
+    /**
+     * @return Önbellekteki OCSP yanıtının thisUpdate zamanı, yanıt yoksa -1
+     */
+    private long prefetch(CertificateToken certificate, CertificateToken issuer) {
+        long thisUpdate = ocspSource.getThisUpdate(certificate, issuer);
+        if (thisUpdate >= 0 && clock.getAsLong() - thisUpdate < refreshAgeMillis) {
+            return thisUpdate;
+        }
+        try {
+            OCSPToken token = ocspSource.prefetch(certificate, issuer);
+            if (token == null) {
+                // OCSP yoksa DSS CRL'e düşer; CRL deposunu istek yolundan önce ısıt
+                crlSource.getRevocationToken(certificate, issuer);
+                failures.increment();
+                LOGGER.warn("OCSP yanıtı ön yüklenemedi, CRL deposu kullanılacak: {}",
+                    certificate.getSubject().getPrettyPrintRFC2253());
+                return -1;
+            }
+            successes.increment();
+            return ocspSource.getThisUpdate(certificate, issuer);
+        } catch (Exception e) {
+            failures.increment();
+            LOGGER.warn("İptal verisi ön yüklenemedi: {} - {}",
+                certificate.getSubject().getPrettyPrintRFC2253(), e.getMessage());
+            return thisUpdate;
+        }
+    }
+
+    /**
+     * Zincirdeki her sertifikayı yayıncısıyla eşler; kendinden imzalı kök sertifikalar
+     * ve yayıncısı zincirde bulunmayan sertifikalar atlanır.
+     */
+    private static List<CertificateToken[]> toIssuerPairs(List<CertificateToken> certificates) {
+        List<CertificateToken[]> pairs = new ArrayList<>();
+        for (CertificateToken certificate : certificates) {
+            if (certificate.isSelfSigned()) {
+                continue;
+            }
+            for (CertificateToken candidate : certificates) {
+                if (candidate != certificate && certificate.isSignedBy(candidate)) {
+                    pairs.add(new CertificateToken[] { certificate, candidate });
+                    break;
+                }
+            }
+        }
+        return pairs;
+    }
+}
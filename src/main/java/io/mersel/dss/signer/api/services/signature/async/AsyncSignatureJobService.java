@@ -0,0 +1,451 @@
+package io.mersel.dss.signer.api.services.signature.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.MimeType;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.spi.DSSUtils;
+import io.mersel.dss.signer.api.dtos.SignatureJobDto;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SignatureJob;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.SignatureJobStatus;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESLevelUpgradeService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seviye yükseltmesi uzun süren XAdES imzaları için asenkron iş servisi.
+ *
+ * <p>e-Arşiv Raporlarının XAdES-A yükseltmesi TSA, OCSP ve CRL çağrıları nedeniyle
+ * saniyeler sürebilir. Bu servis belgeyi istek sırasında XAdES-B seviyesinde imzalar
+ * (HSM adımı), sonucu diskteki iş deposuna yazar ve hemen bir iş kimliği döner.
+ * Yükseltme, boyutu sınırlı bir iş parçacığı havuzunda HTTP isteğinden ve
+ * HSM sınırlayıcısından (hsmLimiter) bağımsız olarak yürütülür. İstemci sonucu iş kimliği ile
+ * sorgular veya kaydettiği adrese geri çağrı (callback) alır.
+ *
+ * <p>İş kayıtları diskte tutulduğundan yeniden başlatmada yarım kalan işler
+ * kuyruğa yeniden alınır.
+ */
+@Service
+public class AsyncSignatureJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncSignatureJobService.class);
+    private static final String ZIP_ENTRY_NAME = "signedcontent.xml";
+    private static final String DEFAULT_XML_NAME = "document.xml";
+    private static final int CALLBACK_ATTEMPTS = 3;
+    private static final long CALLBACK_RETRY_DELAY_MS = 1000L;
+
+    private final XAdESSignatureService xadesSignatureService;
+    private final XAdESLevelUpgradeService levelUpgradeService;
+    private final DigestAlgorithmResolverService digestAlgorithmResolver;
+    private final CompressionService compressionService;
+    private final SignatureJobStore jobStore;
+    private final ThreadPoolExecutor executor;
+    private final SignatureServiceConfiguration config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Timer completedLatency;
+    private final Timer failedLatency;
+    private final Timer executionTime;
+    private final Counter rejectedJobs;
+
+    public AsyncSignatureJobService(XAdESSignatureService xadesSignatureService,
+                                    XAdESLevelUpgradeService levelUpgradeService,
+                                    DigestAlgorithmResolverService digestAlgorithmResolver,
+                                    CompressionService compressionService,
+                                    SignatureJobStore jobStore,
+                                    ThreadPoolExecutor asyncSigningExecutor,
+                                    SignatureServiceConfiguration config,
+                                    MeterRegistry meterRegistry) {
+        this.xadesSignatureService = xadesSignatureService;
+        this.levelUpgradeService = levelUpgradeService;
+        this.digestAlgorithmResolver = digestAlgorithmResolver;
+        this.compressionService = compressionService;
+        this.jobStore = jobStore;
+        this.executor = asyncSigningExecutor;
+        this.config = config;
+
+        Gauge.builder("signer.async.jobs.queue.depth", asyncSigningExecutor, e -> e.getQueue().size())
+            .description("Çalışmayı bekleyen asenkron imza işi sayısı")
+            .register(meterRegistry);
+        Gauge.builder("signer.async.jobs.running", asyncSigningExecutor, ThreadPoolExecutor::getActiveCount)
+            .description("Çalışan asenkron imza işi sayısı")
+            .register(meterRegistry);
+        this.completedLatency = Timer.builder("signer.async.jobs.latency")
+            .description("İşin kabulünden tamamlanmasına kadar geçen süre")
+            .tag("status", "completed")
+            .register(meterRegistry);
+        this.failedLatency = Timer.builder("signer.async.jobs.latency")
+            .description("İşin kabulünden tamamlanmasına kadar geçen süre")
+            .tag("status", "failed")
+            .register(meterRegistry);
+        this.executionTime = Timer.builder("signer.async.jobs.execution")
+            .description("Seviye yükseltmesinin çalışma süresi (kuyruk beklemesi hariç)")
+            .register(meterRegistry);
+        this.rejectedJobs = Counter.builder("signer.async.jobs.rejected")
+            .description("Kuyruk dolu olduğu için reddedilen iş sayısı")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Belgeyi XAdES-B seviyesinde imzalar ve seviye yükseltmesini asenkron iş olarak kuyruğa alır.
+     *
+     * @param xmlInputStream XML belgesi içeren input stream
+     * @param documentType   Belge tipi
+     * @param signatureId    İsteğe bağlı imza tanımlayıcısı
+     * @param zipped         Belgenin ZIP formatında olup olmadığı (sonuç da ZIP'lenir)
+     * @param callbackUrl    İş bitince durumun POST edileceği adres (isteğe bağlı)
+     * @param material       İmzalama sertifikası ve private key içeren materyal
+     * @return Kuyruğa alınan iş
+     * @throws SignatureException Geri çağrı adresi geçersizse veya iç ağa yönelikse
+     *                            (INVALID_CALLBACK_URL) ya da kuyruk doluysa (JOB_QUEUE_FULL)
+     */
+    public SignatureJob submit(InputStream xmlInputStream,
+                               DocumentType documentType,
+                               String signatureId,
+                               boolean zipped,
+                               String callbackUrl,
+                               SigningMaterial material) {
+        validateCallbackUrl(callbackUrl);
+
+        SignResponse signed = xadesSignatureService.signXmlWithoutUpgrade(
+            xmlInputStream, documentType, signatureId, zipped, material);
+
+        SignatureJob job = new SignatureJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(SignatureJobStatus.PENDING);
+        job.setDocumentType(documentType == null || documentType == DocumentType.None
+            ? DocumentType.OtherXmlDocument : documentType);
+        job.setSignatureId(signed.getSignatureId());
+        job.setSignatureValue(signed.getSignatureValue());
+        job.setDigestAlgorithm(digestAlgorithmResolver
+            .resolveDigestAlgorithm(material.getSigningCertificate()).getName());
+        job.setZipped(zipped);
+        job.setCallbackUrl(StringUtils.hasText(callbackUrl) ? callbackUrl.trim() : null);
+        job.setCreatedAt(System.currentTimeMillis());
+
+        // Ara belge kayıttan önce yazılır: kayıt varsa girdisi de vardır
+        jobStore.writeInput(job.getJobId(), signed.getSignedDocument());
+        jobStore.save(job);
+
+        // Kapasite kontrolü yalnızca sınırlı kuyruğun reddidir; önceden yapılan bir boyut
+        // kontrolü eşzamanlı isteklerde yarışa açıktır
+        try {
+            executor.execute(() -> runJob(job.getJobId()));
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                // Uygulama kapanıyor: iş diskte PENDING kalır ve yeniden başlatmada devam eder
+                LOGGER.warn("Asenkron imza işi kuyruğa alınamadı, yeniden başlatmada devam edecek: {}",
+                    job.getJobId());
+                return job;
+            }
+            jobStore.delete(job.getJobId());
+            rejectedJobs.increment();
+            throw new SignatureException("JOB_QUEUE_FULL",
+                "Asenkron iş kuyruğu dolu, daha sonra tekrar deneyin");
+        }
+
+        LOGGER.info("Asenkron imza işi kuyruğa alındı. İş: {}, belge tipi: {}",
+            job.getJobId(), job.getDocumentType());
+
+        return job;
+    }
+
+    /**
+     * İş kaydını döner.
+     *
+     * @throws SignatureException İş bulunamazsa (JOB_NOT_FOUND)
+     */
+    public SignatureJob getJob(String jobId) {
+        SignatureJob job = jobStore.load(jobId);
+        if (job == null) {
+            throw new SignatureException("JOB_NOT_FOUND", "İş bulunamadı: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Tamamlanan işin imzalı belgesini döner.
+     *
+     * @throws SignatureException İş bulunamazsa (JOB_NOT_FOUND), henüz tamamlanmadıysa
+     *                            (JOB_NOT_COMPLETED) veya başarısız olduysa (JOB_FAILED)
+     */
+    public byte[] getResult(String jobId) {
+        SignatureJob job = getJob(jobId);
+        if (job.getStatus() == SignatureJobStatus.FAILED) {
+            throw new SignatureException("JOB_FAILED", "İş başarısız oldu: " + job.getErrorMessage());
+        }
+        byte[] result = job.getStatus() == SignatureJobStatus.COMPLETED ? jobStore.readResult(jobId) : null;
+        if (result == null) {
+            throw new SignatureException("JOB_NOT_COMPLETED", "İş henüz tamamlanmadı: " + jobId);
+        }
+        return result;
+    }
+
+    /**
+     * Uygulama başlarken yarım kalan (bekleyen veya çalışırken kesilen) işleri kuyruğa yeniden alır.
+     * Yeni işler yalnızca kuyrukta yer varken kabul edildiğinden yarım kalan işler boş kuyruğa sığar;
+     * kapasite yeniden başlatmalar arasında düşürüldüyse sığmayanlar sonraki başlatmaya kadar
+     * PENDING kalır.
+     */
+    @PostConstruct
+    public void recoverPendingJobs() {
+        int recovered = 0;
+        for (SignatureJob job : jobStore.loadAll()) {
+            if (job.getStatus().isFinished()) {
+                continue;
+            }
+            if (job.getStatus() == SignatureJobStatus.RUNNING) {
+                job.setStatus(SignatureJobStatus.PENDING);
+                job.setStartedAt(0);
+                jobStore.save(job);
+            }
+            enqueue(job.getJobId());
+            recovered++;
+        }
+        if (recovered > 0) {
+            LOGGER.info("{} yarım kalmış asenkron imza işi kuyruğa yeniden alındı", recovered);
+        }
+    }
+
+    /**
+     * Saklama süresi dolan tamamlanmış ve başarısız işleri diskten siler.
+     */
+    @Scheduled(fixedDelayString = "${ASYNC_JOB_PURGE_INTERVAL_MS:600000}")
+    public void purgeFinishedJobs() {
+        long threshold = System.currentTimeMillis() - config.getAsyncJobRetentionSeconds() * 1000L;
+        int removed = 0;
+        for (SignatureJob job : jobStore.loadAll()) {
+            if (job.getStatus().isFinished() && job.getCompletedAt() < threshold) {
+                jobStore.delete(job.getJobId());
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            LOGGER.debug("Saklama süresi dolan {} asenkron imza işi silindi", removed);
+        }
+    }
+
+    /**
+     * Çalışmayı bekleyen iş sayısını döner.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void enqueue(String jobId) {
+        try {
+            executor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            // İş diskte PENDING kalır ve yeniden başlatmada devam eder
+            LOGGER.warn("Asenkron imza işi kuyruğa alınamadı, yeniden başlatmada devam edecek: {}", jobId);
+        }
+    }
+
+    /**
+     * İşin seviye yükseltmesini yürütür ve sonucu depoya yazar.
+     */
+    void runJob(String jobId) {
+        SignatureJob job = jobStore.load(jobId);
+        if (job == null || job.getStatus().isFinished()) {
+            return;
+        }
+
+        job.setStatus(SignatureJobStatus.RUNNING);
+        job.setStartedAt(System.currentTimeMillis());
+        jobStore.save(job);
+
+        try {
+            byte[] input = jobStore.readInput(jobId);
+            if (input == null) {
+                throw new SignatureException("JOB_INPUT_MISSING", "İşin imzalı ara belgesi bulunamadı");
+            }
+
+            DSSDocument signedDocument = new InMemoryDocument(input, DEFAULT_XML_NAME,
+                MimeType.fromFileExtension("xml"));
+            DSSDocument upgraded = levelUpgradeService.upgrade(signedDocument, job.getDocumentType(),
+                DigestAlgorithm.forName(job.getDigestAlgorithm()));
+
+            byte[] result = upgraded == signedDocument ? input : DSSUtils.toByteArray(upgraded);
+            if (job.isZipped()) {
+                result = compressionService.zipBytes(ZIP_ENTRY_NAME, result);
+            }
+
+            jobStore.writeResult(jobId, result);
+            job.setStatus(SignatureJobStatus.COMPLETED);
+            job.setCompletedAt(System.currentTimeMillis());
+            jobStore.save(job);
+            jobStore.deleteInput(jobId);
+
+            completedLatency.record(job.getCompletedAt() - job.getCreatedAt(), TimeUnit.MILLISECONDS);
+            LOGGER.info("Asenkron imza işi tamamlandı. İş: {}, süre: {} ms",
+                jobId, job.getCompletedAt() - job.getCreatedAt());
+
+        } catch (Exception e) {
+            if (executor.isShutdown()) {
+                // Kapanış sırasında kesilen iş başarısız sayılmaz; yeniden başlatmada devam eder
+                LOGGER.warn("Asenkron imza işi kapanış nedeniyle kesildi: {}", jobId);
+                return;
+            }
+            LOGGER.error("Asenkron imza işi başarısız. İş: {}", jobId, e);
+            job.setStatus(SignatureJobStatus.FAILED);
+            job.setCompletedAt(System.currentTimeMillis());
+            job.setErrorCode(e instanceof SignatureException
+                ? ((SignatureException) e).getErrorCode() : "UPGRADE_FAILED");
+            job.setErrorMessage(e.getMessage());
+            jobStore.save(job);
+
+            failedLatency.record(job.getCompletedAt() - job.getCreatedAt(), TimeUnit.MILLISECONDS);
+
+        } finally {
+            executionTime.record(System.currentTimeMillis() - job.getStartedAt(), TimeUnit.MILLISECONDS);
+        }
+
+        if (job.getCallbackUrl() != null) {
+            notifyCallback(job);
+        }
+    }
+
+    /**
+     * İşin son durumunu kayıtlı adrese POST eder. Başarısız teslimat işi etkilemez;
+     * istemci durumu her zaman sorgulayabilir.
+     */
+    private void notifyCallback(SignatureJob job) {
+        int timeout = config.getAsyncJobCallbackTimeoutMs();
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(timeout)
+            .setConnectionRequestTimeout(timeout)
+            .setSocketTimeout(timeout)
+            .build();
+
+        // Adres kabulden sonra farklı bir IP'ye çözümlenebilir; gönderimden önce yeniden denetlenir
+        if (!isAllowedCallbackHost(URI.create(job.getCallbackUrl()).getHost())) {
+            LOGGER.warn("Geri çağrı adresi iç ağa çözümlendiği için gönderilmedi. İş: {}", job.getJobId());
+            return;
+        }
+
+        try (CloseableHttpClient httpClient = HttpClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .disableRedirectHandling()
+                .build()) {
+            byte[] body = objectMapper.writeValueAsBytes(SignatureJobDto.from(job));
+
+            for (int attempt = 1; attempt <= CALLBACK_ATTEMPTS; attempt++) {
+                HttpPost post = new HttpPost(job.getCallbackUrl());
+                post.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+                try (CloseableHttpResponse response = httpClient.execute(post)) {
+                    int statusCode = response.getStatusLine().getStatusCode();
+                    if (statusCode >= 200 && statusCode < 300) {
+                        LOGGER.debug("Geri çağrı iletildi. İş: {}", job.getJobId());
+                        return;
+                    }
+                    LOGGER.warn("Geri çağrı başarısız (HTTP {}). İş: {}, deneme: {}/{}",
+                        statusCode, job.getJobId(), attempt, CALLBACK_ATTEMPTS);
+                } catch (Exception e) {
+                    LOGGER.warn("Geri çağrı gönderilemedi. İş: {}, deneme: {}/{}: {}",
+                        job.getJobId(), attempt, CALLBACK_ATTEMPTS, e.getMessage());
+                }
+                if (attempt < CALLBACK_ATTEMPTS) {
+                    Thread.sleep(CALLBACK_RETRY_DELAY_MS * attempt);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.warn("Geri çağrı hazırlanamadı. İş: {}", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * Geri çağrı adresinin mutlak bir http(s) adresi olduğunu ve iç ağa yönelmediğini doğrular.
+     */
+    private void validateCallbackUrl(String callbackUrl) {
+        if (!StringUtils.hasText(callbackUrl)) {
+            return;
+        }
+        String host = null;
+        try {
+            URI uri = URI.create(callbackUrl.trim());
+            String scheme = uri.getScheme();
+            if ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) {
+                host = uri.getHost();
+            }
+        } catch (IllegalArgumentException e) {
+            // Aşağıda geçersiz adres hatası fırlatılır
+        }
+        if (host == null) {
+            throw new SignatureException("INVALID_CALLBACK_URL",
+                "Geri çağrı adresi geçerli bir http(s) adresi olmalıdır: " + callbackUrl);
+        }
+        if (!isAllowedCallbackHost(host)) {
+            throw new SignatureException("INVALID_CALLBACK_URL",
+                "Geri çağrı adresi izin verilmeyen bir sunucuya yönelik: " + host);
+        }
+    }
+
+    /**
+     * ASYNC_JOB_CALLBACK_ALLOWED_HOSTS tanımlıysa yalnızca listedeki sunuculara izin verir.
+     * Tanımlı değilse adres çözümlenir; loopback, link-local (169.254.169.254 dahil),
+     * özel ağ (RFC 1918, fc00::/7), joker ve multicast adreslerine çözümlenen sunucular reddedilir.
+     */
+    private boolean isAllowedCallbackHost(String host) {
+        Set<String> allowedHosts = config.getAsyncJobCallbackAllowedHosts();
+        if (!allowedHosts.isEmpty()) {
+            return allowedHosts.contains(host.toLowerCase(Locale.ROOT));
+        }
+        try {
+            for (InetAddress address : InetAddress.getAllByName(host)) {
+                if (isInternalAddress(address)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static boolean isInternalAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+            || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        // IPv6 benzersiz yerel adresleri (fc00::/7) isSiteLocalAddress kapsamında değildir
+        byte[] bytes = address.getAddress();
+        return bytes.length == 16 && (bytes[0] & 0xFE) == 0xFC;
+    }
+}
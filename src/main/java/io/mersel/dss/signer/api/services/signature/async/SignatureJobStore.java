@@ -0,0 +1,203 @@
+package io.mersel.dss.signer.api.services.signature.async;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SignatureJob;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Asenkron imza işlerini diskte saklayan depo.
+ *
+ * <p>Her iş için klasörde üç dosya tutulur: iş kaydı ({@code <id>.json}), seviye
+ * yükseltmesini bekleyen XAdES-B belge ({@code <id>.input}) ve tamamlanan işin sonucu
+ * ({@code <id>.result}). Dosyalar önce geçici bir dosyaya yazılıp yerine taşınır;
+ * böylece yazma sırasında kesilen bir süreç yarım kayıt bırakmaz ve yeniden başlatmada
+ * bekleyen işler kaldığı yerden devam eder.
+ */
+@Service
+public class SignatureJobStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignatureJobStore.class);
+    private static final String JOB_SUFFIX = ".json";
+    private static final String INPUT_SUFFIX = ".input";
+    private static final String RESULT_SUFFIX = ".result";
+    private static final Pattern JOB_ID_PATTERN = Pattern.compile("[0-9a-fA-F-]{36}");
+
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public SignatureJobStore(SignatureServiceConfiguration config) {
+        this(Paths.get(config.getAsyncJobDirectory()));
+    }
+
+    SignatureJobStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("İş klasörü oluşturulamadı: " + directory, e);
+        }
+        LOGGER.info("Asenkron imza iş klasörü: {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Tanımlayıcının depo tarafından üretilebilecek bir iş kimliği olup olmadığını döner.
+     * Yol oluşturmadan önce kontrol edilir (klasör dışına erişim önlenir).
+     */
+    public boolean isValidJobId(String jobId) {
+        return jobId != null && JOB_ID_PATTERN.matcher(jobId).matches();
+    }
+
+    /**
+     * İş kaydını yazar (varsa üzerine).
+     */
+    public void save(SignatureJob job) {
+        try {
+            writeAtomically(resolve(job.getJobId(), JOB_SUFFIX), objectMapper.writeValueAsBytes(job));
+        } catch (IOException e) {
+            throw new SignatureException("JOB_STORE_ERROR", "İş kaydı yazılamadı: " + job.getJobId(), e);
+        }
+    }
+
+    /**
+     * İş kaydını okur.
+     *
+     * @return İş kaydı veya iş bulunamazsa null
+     */
+    public SignatureJob load(String jobId) {
+        if (!isValidJobId(jobId)) {
+            return null;
+        }
+        Path path = resolve(jobId, JOB_SUFFIX);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(Files.readAllBytes(path), SignatureJob.class);
+        } catch (IOException e) {
+            throw new SignatureException("JOB_STORE_ERROR", "İş kaydı okunamadı: " + jobId, e);
+        }
+    }
+
+    /**
+     * Klasördeki tüm iş kayıtlarını okur. Okunamayan kayıtlar atlanır.
+     */
+    public List<SignatureJob> loadAll() {
+        List<SignatureJob> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + JOB_SUFFIX)) {
+            for (Path path : stream) {
+                try {
+                    jobs.add(objectMapper.readValue(Files.readAllBytes(path), SignatureJob.class));
+                } catch (IOException e) {
+                    LOGGER.warn("İş kaydı okunamadı, atlanıyor: {}", path.getFileName(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new SignatureException("JOB_STORE_ERROR", "İş klasörü okunamadı: " + directory, e);
+        }
+        return jobs;
+    }
+
+    public void writeInput(String jobId, byte[] content) {
+        write(jobId, INPUT_SUFFIX, content);
+    }
+
+    public byte[] readInput(String jobId) {
+        return read(jobId, INPUT_SUFFIX);
+    }
+
+    public void writeResult(String jobId, byte[] content) {
+        write(jobId, RESULT_SUFFIX, content);
+    }
+
+    /**
+     * @return İşin sonucu veya sonuç yoksa null
+     */
+    public byte[] readResult(String jobId) {
+        return read(jobId, RESULT_SUFFIX);
+    }
+
+    /**
+     * Yükseltme tamamlandıktan sonra artık gerekmeyen ara belgeyi siler.
+     */
+    public void deleteInput(String jobId) {
+        deleteQuietly(resolve(jobId, INPUT_SUFFIX));
+    }
+
+    /**
+     * İşe ait tüm dosyaları siler.
+     */
+    public void delete(String jobId) {
+        deleteQuietly(resolve(jobId, INPUT_SUFFIX));
+        deleteQuietly(resolve(jobId, RESULT_SUFFIX));
+        deleteQuietly(resolve(jobId, JOB_SUFFIX));
+    }
+
+    private void write(String jobId, String suffix, byte[] content) {
+        try {
+            writeAtomically(resolve(jobId, suffix), content);
+        } catch (IOException e) {
+            throw new SignatureException("JOB_STORE_ERROR", "İş dosyası yazılamadı: " + jobId + suffix, e);
+        }
+    }
+
+    private byte[] read(String jobId, String suffix) {
+        if (!isValidJobId(jobId)) {
+            return null;
+        }
+        Path path = resolve(jobId, suffix);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new SignatureException("JOB_STORE_ERROR", "İş dosyası okunamadı: " + jobId + suffix, e);
+        }
+    }
+
+    private Path resolve(String jobId, String suffix) {
+        if (!isValidJobId(jobId)) {
+            throw new SignatureException("JOB_NOT_FOUND", "Geçersiz iş tanımlayıcısı: " + jobId);
+        }
+        return directory.resolve(jobId + suffix);
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("İş dosyası silinemedi: {}", path.getFileName(), e);
+        }
+    }
+}
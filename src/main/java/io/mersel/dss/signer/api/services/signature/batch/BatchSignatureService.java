@@ -0,0 +1,274 @@
+package io.mersel.dss.signer.api.services.signature.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchSignEntry;
+import io.mersel.dss.signer.api.models.BatchSignResult;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Birden fazla belgeyi tek istekte imzalayan servis.
+ *
+ * <p>Belgeler iş parçacığı havuzunda paralel hazırlanır (ayrıştırma, parametre oluşturma);
+ * HSM imzalama adımı {@link XAdESSignatureService} ve {@link PAdESSignatureService}
+ * içindeki ortak hsmLimiter ile sınırlı kalır. İmzalanan her girdi tamamlandığı
+ * anda ZIP çıktısına yazılır. Hatalı girdiler toplu işlemi durdurmaz; tüm girdilerin
+ * sonucu arşivin sonuna eklenen {@value #REPORT_ENTRY_NAME} dosyasında raporlanır.
+ * ZIP veya multipart ile gönderilen girdilerde aynı ad tekrar ederse ilk girdi imzalanır,
+ * sonrakiler {@code DUPLICATE_ENTRY} hatasıyla raporlanır.
+ */
+@Service
+public class BatchSignatureService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchSignatureService.class);
+    public static final String REPORT_ENTRY_NAME = "batch-report.json";
+    private static final String PDF_DOCUMENT_TYPE = "Pdf";
+
+    private final XAdESSignatureService xadesSignatureService;
+    private final PAdESSignatureService padesSignatureService;
+    private final CompressionService compressionService;
+    private final SignatureServiceConfiguration config;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BatchSignatureService(XAdESSignatureService xadesSignatureService,
+                                 PAdESSignatureService padesSignatureService,
+                                 CompressionService compressionService,
+                                 SignatureServiceConfiguration config,
+                                 ExecutorService batchSigningExecutor) {
+        this.xadesSignatureService = xadesSignatureService;
+        this.padesSignatureService = padesSignatureService;
+        this.compressionService = compressionService;
+        this.config = config;
+        this.executor = batchSigningExecutor;
+    }
+
+    /**
+     * ZIP arşivindeki girdileri toplu imza girdilerine dönüştürür.
+     * Arşivde aynı adla tekrar eden girdiler imzalanmaz, hatalı girdi olarak raporlanır.
+     *
+     * @param zipInputStream ZIP arşivi
+     * @param documentTypes Arşiv sırasıyla girdi başına belge tipleri (isteğe bağlı)
+     * @param defaultDocumentType Belge tipi verilmeyen girdiler için varsayılan tip
+     * @return Toplu imza girdileri
+     */
+    public List<BatchSignEntry> readZipEntries(InputStream zipInputStream,
+                                               List<DocumentType> documentTypes,
+                                               DocumentType defaultDocumentType) {
+        List<Map.Entry<String, byte[]>> zipEntries = compressionService.unzipEntries(
+            zipInputStream, config.getBatchMaxEntries(),
+            config.getBatchMaxEntryBytes(), config.getBatchMaxTotalBytes());
+
+        List<BatchSignEntry> entries = new ArrayList<>(zipEntries.size());
+        int index = 0;
+        for (Map.Entry<String, byte[]> zipEntry : zipEntries) {
+            DocumentType documentType = resolveDocumentType(documentTypes, index++, defaultDocumentType);
+            entries.add(new BatchSignEntry(zipEntry.getKey(), zipEntry.getValue(), documentType));
+        }
+        return rejectDuplicateNames(entries);
+    }
+
+    /**
+     * Aynı adla tekrar eden girdileri {@code DUPLICATE_ENTRY} hatasıyla reddedilmiş girdilere
+     * dönüştürür; her addan ilk girdi korunur. Adı olmayan ve zaten reddedilmiş girdiler
+     * karşılaştırılmaz.
+     */
+    private List<BatchSignEntry> rejectDuplicateNames(List<BatchSignEntry> entries) {
+        List<BatchSignEntry> checked = new ArrayList<>(entries.size());
+        Set<String> names = new HashSet<>();
+        for (BatchSignEntry entry : entries) {
+            String name = entry.getName();
+            if (entry.isRejected() || name == null || name.isEmpty() || names.add(name)) {
+                checked.add(entry);
+            } else {
+                checked.add(BatchSignEntry.rejected(name, entry.getDocumentType(),
+                    "DUPLICATE_ENTRY", "Toplu imza isteğinde aynı adla birden fazla girdi var: " + name));
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * Girdi sırasına göre belge tipini çözümler.
+     */
+    public DocumentType resolveDocumentType(List<DocumentType> documentTypes,
+                                            int index,
+                                            DocumentType defaultDocumentType) {
+        if (documentTypes != null && index < documentTypes.size()
+                && documentTypes.get(index) != null
+                && documentTypes.get(index) != DocumentType.None) {
+            return documentTypes.get(index);
+        }
+        if (defaultDocumentType != null && defaultDocumentType != DocumentType.None) {
+            return defaultDocumentType;
+        }
+        return DocumentType.OtherXmlDocument;
+    }
+
+    /**
+     * Girdi sayısının yapılandırılmış üst sınırı aşmadığını doğrular.
+     *
+     * @throws SignatureException Girdi sayısı BATCH_MAX_ENTRIES değerini aşarsa
+     */
+    public void assertWithinLimit(int entryCount) {
+        if (entryCount > config.getBatchMaxEntries()) {
+            throw new SignatureException("BATCH_TOO_LARGE",
+                "Toplu imza isteği en fazla " + config.getBatchMaxEntries() + " belge içerebilir");
+        }
+    }
+
+    /**
+     * Girdileri paralel imzalar ve tamamlanan her girdiyi ZIP olarak çıktıya yazar.
+     *
+     * @param entries İmzalanacak girdiler
+     * @param material İmzalama sertifikası ve private key içeren materyal
+     * @param outputStream ZIP çıktısının yazılacağı stream
+     * @return Girdi sırasıyla imza sonuçları
+     */
+    public List<BatchSignResult> signBatch(List<BatchSignEntry> entries,
+                                           SigningMaterial material,
+                                           OutputStream outputStream) {
+        assertWithinLimit(entries.size());
+        List<BatchSignEntry> checkedEntries = rejectDuplicateNames(entries);
+
+        CompletionService<EntryOutcome> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<EntryOutcome>> futures = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            final int index = i;
+            final BatchSignEntry entry = checkedEntries.get(i);
+            futures.add(completionService.submit(() -> signEntry(index, entry, material)));
+        }
+
+        BatchSignResult[] results = new BatchSignResult[entries.size()];
+        Set<String> usedNames = new HashSet<>();
+        int failed = 0;
+
+        try {
+            ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+            for (int i = 0; i < entries.size(); i++) {
+                EntryOutcome outcome = completionService.take().get();
+                results[outcome.index] = outcome.result;
+                if (outcome.signedContent != null) {
+                    compressionService.writeEntry(zipOutputStream,
+                        entryName(outcome.result.getName(), outcome.index, usedNames),
+                        outcome.signedContent);
+                } else {
+                    failed++;
+                }
+            }
+
+            compressionService.writeEntry(zipOutputStream, REPORT_ENTRY_NAME,
+                objectMapper.writeValueAsBytes(Arrays.asList(results)));
+            zipOutputStream.finish();
+            zipOutputStream.flush();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures);
+            throw new SignatureException("BATCH_INTERRUPTED", "Toplu imzalama kesildi", e);
+        } catch (ExecutionException | IOException | RuntimeException e) {
+            cancelAll(futures);
+            throw new SignatureException("BATCH_FAILED", "Toplu imza çıktısı yazılamadı", e);
+        }
+
+        LOGGER.info("Toplu imzalama tamamlandı. Toplam: {}, başarılı: {}, hatalı: {}",
+            entries.size(), entries.size() - failed, failed);
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Tek bir girdiyi imzalar. Hatalar yakalanarak sonuç olarak döner.
+     */
+    private EntryOutcome signEntry(int index, BatchSignEntry entry, SigningMaterial material) {
+        String documentType = entry.isPdf() ? PDF_DOCUMENT_TYPE : String.valueOf(entry.getDocumentType());
+        if (entry.isRejected()) {
+            LOGGER.warn("Toplu imzada girdi reddedildi: {} - {}", entry.getName(), entry.getErrorMessage());
+            return new EntryOutcome(index,
+                BatchSignResult.failure(entry.getName(), documentType, entry.getErrorCode(), entry.getErrorMessage()),
+                null);
+        }
+        try {
+            SignResponse response;
+            if (entry.isPdf()) {
+                response = padesSignatureService.signPdf(
+                    new ByteArrayInputStream(entry.getContent()), null, null, false, material);
+            } else {
+                response = xadesSignatureService.signXml(
+                    new ByteArrayInputStream(entry.getContent()),
+                    entry.getDocumentType(), null, false, material);
+            }
+            return new EntryOutcome(index,
+                BatchSignResult.success(entry.getName(), documentType, response),
+                response.getSignedDocument());
+
+        } catch (SignatureException e) {
+            LOGGER.warn("Toplu imzada girdi imzalanamadı: {} - {}", entry.getName(), e.getMessage());
+            return new EntryOutcome(index,
+                BatchSignResult.failure(entry.getName(), documentType, e.getErrorCode(), e.getMessage()),
+                null);
+        } catch (Exception e) {
+            LOGGER.warn("Toplu imzada girdi imzalanamadı: {}", entry.getName(), e);
+            return new EntryOutcome(index,
+                BatchSignResult.failure(entry.getName(), documentType, "SIGNATURE_FAILED", e.getMessage()),
+                null);
+        }
+    }
+
+    /**
+     * Çıktıdaki girdi adı. Adı olmayan girdilere sıra numaralı ad verilir; bu ad başka bir
+     * girdiyle çakışırsa sıra numarası öne eklenir.
+     */
+    private String entryName(String name, int index, Set<String> usedNames) {
+        String candidate = (name == null || name.isEmpty()) ? "document-" + index : name;
+        if (!usedNames.add(candidate)) {
+            candidate = index + "-" + candidate;
+            usedNames.add(candidate);
+        }
+        return candidate;
+    }
+
+    private void cancelAll(List<Future<EntryOutcome>> futures) {
+        for (Future<EntryOutcome> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static final class EntryOutcome {
+        private final int index;
+        private final BatchSignResult result;
+        private final byte[] signedContent;
+
+        private EntryOutcome(int index, BatchSignResult result, byte[] signedContent) {
+            this.index = index;
+            this.result = result;
+            this.signedContent = signedContent;
+        }
+    }
+}
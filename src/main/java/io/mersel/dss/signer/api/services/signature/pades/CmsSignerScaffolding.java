@@ -0,0 +1,148 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.util.CryptoUtils;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.asn1.ess.ESSCertIDv2;
+import org.bouncycastle.asn1.ess.SigningCertificateV2;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuerSerial;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
+import org.bouncycastle.cms.SignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DefaultDigestAlgorithmIdentifierFinder;
+import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.CollectionStore;
+import org.bouncycastle.util.Store;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bir imzalama materyali için PAdES CMS imzasının istekten bağımsız parçaları.
+ *
+ * <p>SigningCertificateV2 özniteliği (sertifika özeti ve issuer/serial), imzacı sertifikası
+ * holder'ı, sertifika deposu, özet hesaplayıcı sağlayıcısı ve içerik imzalayıcı builder'ı
+ * materyal başına bir kez oluşturulur. Bu nesneler değişmez olduğundan eşzamanlı istekler
+ * tarafından paylaşılır; {@link ContentSigner} ve {@link DigestCalculator} durum tuttuğu
+ * için her istekte yeniden oluşturulur.
+ *
+ * <p>Private key tutulmaz; {@link SigningMaterial} önbellekte zayıf referansla anahtar
+ * olarak kalabilsin diye imzalayıcı oluşturulurken parametre olarak verilir.
+ */
+final class CmsSignerScaffolding {
+
+    private final Attribute signingCertificateAttribute;
+    private final X509CertificateHolder signingCertificateHolder;
+    private final Store<X509CertificateHolder> certificates;
+    private final DigestCalculatorProvider digestCalculatorProvider;
+    private final JcaContentSignerBuilder contentSignerBuilder;
+    private final AlgorithmIdentifier digestAlgorithm;
+
+    CmsSignerScaffolding(SigningMaterial material) throws GeneralSecurityException, OperatorCreationException {
+        X509Certificate signingCertificate = material.getSigningCertificate();
+        this.signingCertificateAttribute = createSigningCertificateAttribute(signingCertificate);
+        this.signingCertificateHolder = new JcaX509CertificateHolder(signingCertificate);
+        this.certificates = createCertificateStore(material.getCertificateChain());
+        this.digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+
+        // Dinamik algoritma seçimi (RSA veya EC key'e göre)
+        String signatureAlgorithm = CryptoUtils.getSignatureAlgorithm(material.getPrivateKey());
+        this.contentSignerBuilder = new JcaContentSignerBuilder(signatureAlgorithm);
+        this.digestAlgorithm = new DefaultDigestAlgorithmIdentifierFinder().find(
+            new DefaultSignatureAlgorithmIdentifierFinder().find(signatureAlgorithm));
+    }
+
+    /**
+     * İmza algoritmasının özet algoritması için yeni bir özet hesaplayıcı oluşturur.
+     */
+    DigestCalculator createDigestCalculator() throws OperatorCreationException {
+        return digestCalculatorProvider.get(digestAlgorithm);
+    }
+
+    /**
+     * İstek için yeni bir içerik imzalayıcı oluşturur.
+     */
+    ContentSigner createContentSigner(PrivateKey privateKey) throws OperatorCreationException {
+        return contentSignerBuilder.build(privateKey);
+    }
+
+    /**
+     * Hazır içerik özetiyle (messageDigest) CMS SignedData üreteci oluşturur.
+     *
+     * @param contentSigner İstek için oluşturulan içerik imzalayıcı
+     * @param contentDigest İmzalanan içeriğin {@link #createDigestCalculator()} ile hesaplanan özeti
+     */
+    CMSSignedDataGenerator createGenerator(ContentSigner contentSigner, byte[] contentDigest)
+            throws CMSException, OperatorCreationException {
+        ASN1EncodableVector signedAttributes = new ASN1EncodableVector();
+        signedAttributes.add(signingCertificateAttribute);
+        signedAttributes.add(new Attribute(
+            CMSAttributes.messageDigest,
+            new DERSet(new DEROctetString(contentDigest))));
+
+        CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+        generator.addSignerInfoGenerator(
+            new SignerInfoGeneratorBuilder(digestCalculatorProvider)
+                .setSignedAttributeGenerator(
+                    new DefaultSignedAttributeTableGenerator(new AttributeTable(signedAttributes)))
+                .build(contentSigner, signingCertificateHolder));
+        generator.addCertificates(certificates);
+        return generator;
+    }
+
+    /**
+     * Zincirdeki sertifikaları CMS'e eklenecek tipli bir depoya dönüştürür.
+     * {@code JcaCertStore} BC 1.70'te ham tip olduğundan kullanılmaz.
+     */
+    private static Store<X509CertificateHolder> createCertificateStore(List<X509Certificate> chain)
+            throws GeneralSecurityException {
+        List<X509CertificateHolder> holders = new ArrayList<>(chain.size());
+        for (X509Certificate certificate : chain) {
+            holders.add(new JcaX509CertificateHolder(certificate));
+        }
+        return new CollectionStore<>(holders);
+    }
+
+    /**
+     * SHA-256 sertifika özeti ve issuer/serial ile SigningCertificateV2 özniteliğini oluşturur.
+     */
+    private static Attribute createSigningCertificateAttribute(X509Certificate certificate)
+            throws GeneralSecurityException {
+        byte[] certificateHash = MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded());
+
+        GeneralNames generalNames = new GeneralNames(new GeneralName(
+            X500Name.getInstance(certificate.getIssuerX500Principal().getEncoded())));
+        IssuerSerial issuerSerial = new IssuerSerial(generalNames, certificate.getSerialNumber());
+
+        ESSCertIDv2 essCert = new ESSCertIDv2(
+            new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256),
+            certificateHash, issuerSerial);
+        return new Attribute(
+            PKCSObjectIdentifiers.id_aa_signingCertificateV2,
+            new DERSet(new SigningCertificateV2(new ESSCertIDv2[]{essCert})));
+    }
+}
@@ -0,0 +1,398 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import com.itextpdf.text.io.RASInputStream;
+import com.itextpdf.text.io.RandomAccessSource;
+import com.itextpdf.text.io.RandomAccessSourceFactory;
+import com.itextpdf.text.pdf.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mevcut bir PDF'e imza alanını artımlı güncelleme (incremental update) olarak ekleyen yazıcı.
+ *
+ * <p>iText'in ekleme modu özgün belgeyi 8 KB'lık tamponla heap üzerinden çıktıya kopyalar.
+ * Burada özgün baytlar {@link FileChannel#transferTo} ile dosyadan dosyaya aktarılır; bellekte
+ * yalnızca imza sözlüğü, imza alanı, değişen sayfa/AcroForm nesneleri, xref bölümü ve trailer
+ * oluşturulur. Özgün belge xref stream kullanıyorsa yeni bölüm de xref stream olarak yazılır.
+ *
+ * <p>Kullanım sırası: {@link #addSignature} → {@link #write()} → {@link #getRangeStream()} ile
+ * özet hesaplama → {@link #setContents(byte[])}. Şifreli veya onarılarak açılmış belgeler
+ * desteklenmez ({@link #isSupported(PdfReader)}).
+ */
+final class IncrementalPdfUpdate implements Closeable {
+
+    private static final int BYTE_RANGE_SIZE = 80;
+    private static final int SIGNATURE_FIELD_FLAGS = PdfAnnotation.FLAGS_PRINT | PdfAnnotation.FLAGS_LOCKED;
+    private static final int SIGNATURES_EXIST_APPEND_ONLY = 3;
+
+    private final PdfReader reader;
+    private final Path originalFile;
+    private final Path outputFile;
+    private final FileChannel output;
+    private final long originalLength;
+    private final ByteArrayOutputStream increment = new ByteArrayOutputStream();
+    private final OutputStreamCounter counter = new OutputStreamCounter(increment);
+    private final Map<Integer, Long> offsets = new TreeMap<>();
+    private final Map<Integer, Integer> generations = new TreeMap<>();
+    private int nextObjectNumber;
+
+    private PdfLiteral byteRange;
+    private PdfLiteral contents;
+    private long[] ranges;
+    private RandomAccessSource rangeSource;
+
+    /**
+     * @param reader Özgün belgenin okuyucusu (yalnızca yapı okunur)
+     * @param originalFile Özgün PDF dosyası
+     * @param outputFile Güncellenmiş belgenin yazılacağı dosya (içeriği değiştirilir)
+     */
+    IncrementalPdfUpdate(PdfReader reader, Path originalFile, Path outputFile) throws IOException {
+        this.reader = reader;
+        this.originalFile = originalFile;
+        this.outputFile = outputFile;
+        this.output = FileChannel.open(outputFile, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try (FileChannel original = FileChannel.open(originalFile, StandardOpenOption.READ)) {
+            this.originalLength = original.size();
+        }
+        this.nextObjectNumber = reader.getXrefSize();
+        // Özgün dosya satır sonu ile bitmeyebilir
+        counter.write('\n');
+    }
+
+    /**
+     * Belge artımlı güncelleme ile imzalanabiliyorsa true.
+     */
+    static boolean isSupported(PdfReader reader) {
+        return !reader.isEncrypted() && !reader.isRebuilt();
+    }
+
+    /**
+     * Görünmez imza alanını ilk sayfaya ekler. /ByteRange ve /Contents için yer ayrılır;
+     * değerleri {@link #write()} ve {@link #setContents(byte[])} ile doldurulur.
+     *
+     * @param signatureDictionary İmza sözlüğü (/Filter, /SubFilter, /M vb.)
+     * @param contentsSize /Contents için ayrılan alan ({@code <} ve {@code >} dahil, bayt)
+     */
+    void addSignature(PdfDictionary signatureDictionary, int contentsSize) throws IOException {
+        byteRange = new PdfLiteral(BYTE_RANGE_SIZE);
+        contents = new PdfLiteral(contentsSize);
+        signatureDictionary.put(PdfName.BYTERANGE, byteRange);
+        signatureDictionary.put(PdfName.CONTENTS, contents);
+        PdfIndirectReference signature = add(signatureDictionary);
+
+        PdfStream appearance = new PdfStream(new byte[0]);
+        appearance.put(PdfName.TYPE, PdfName.XOBJECT);
+        appearance.put(PdfName.SUBTYPE, PdfName.FORM);
+        appearance.put(PdfName.BBOX, new PdfArray(new int[] {0, 0, 0, 0}));
+        PdfDictionary appearances = new PdfDictionary();
+        appearances.put(PdfName.N, add(appearance));
+
+        PRIndirectReference page = reader.getPageOrigRef(1);
+        PdfDictionary field = new PdfDictionary();
+        field.put(PdfName.FT, PdfName.SIG);
+        field.put(PdfName.T, new PdfString(getNewSignatureName()));
+        field.put(PdfName.V, signature);
+        field.put(PdfName.TYPE, PdfName.ANNOT);
+        field.put(PdfName.SUBTYPE, PdfName.WIDGET);
+        field.put(PdfName.RECT, new PdfArray(new int[] {0, 0, 0, 0}));
+        field.put(PdfName.F, new PdfNumber(SIGNATURE_FIELD_FLAGS));
+        field.put(PdfName.P, page);
+        field.put(PdfName.AP, appearances);
+        PdfIndirectReference fieldReference = add(field);
+
+        PdfDictionary pageDictionary = copy(reader.getPageN(1));
+        pageDictionary.put(PdfName.ANNOTS, append(pageDictionary, PdfName.ANNOTS, fieldReference));
+        replace(page, pageDictionary);
+
+        PRIndirectReference catalogReference = (PRIndirectReference) reader.getTrailer().get(PdfName.ROOT);
+        PdfDictionary catalog = reader.getCatalog();
+        PdfObject acroFormObject = catalog.get(PdfName.ACROFORM);
+        PdfDictionary acroForm = copy(catalog.getAsDict(PdfName.ACROFORM));
+        acroForm.put(PdfName.FIELDS, append(acroForm, PdfName.FIELDS, fieldReference));
+        acroForm.put(PdfName.SIGFLAGS, new PdfNumber(SIGNATURES_EXIST_APPEND_ONLY));
+        if (acroFormObject instanceof PdfIndirectReference) {
+            replace((PdfIndirectReference) acroFormObject, acroForm);
+        } else {
+            PdfDictionary updatedCatalog = copy(catalog);
+            updatedCatalog.put(PdfName.ACROFORM, acroForm);
+            replace(catalogReference, updatedCatalog);
+        }
+    }
+
+    /**
+     * Özgün belgeyi hedef dosyaya aktarır, ardından xref bölümü ve trailer ile birlikte
+     * artımlı güncellemeyi yazar. /ByteRange bu aşamada doldurulur.
+     */
+    void write() throws IOException {
+        writeCrossReference();
+
+        long contentsStart = originalLength + contents.getPosition();
+        long contentsEnd = contentsStart + contents.getPosLength();
+        long fileLength = originalLength + counter.getCounter();
+        ranges = new long[] {0, contentsStart, contentsEnd, fileLength - contentsEnd};
+
+        byte[] bytes = increment.toByteArray();
+        StringBuilder byteRangeValue = new StringBuilder("[");
+        for (long range : ranges) {
+            byteRangeValue.append(range).append(' ');
+        }
+        byteRangeValue.setCharAt(byteRangeValue.length() - 1, ']');
+        byte[] byteRangeBytes = byteRangeValue.toString().getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(byteRangeBytes, 0, bytes, (int) byteRange.getPosition(), byteRangeBytes.length);
+
+        try (FileChannel original = FileChannel.open(originalFile, StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < originalLength) {
+                transferred += original.transferTo(transferred, originalLength - transferred, output);
+            }
+        }
+        writeFully(ByteBuffer.wrap(bytes), originalLength);
+    }
+
+    /**
+     * İmzalanan bayt aralıklarını (/Contents hariç tüm dosya) okuyan stream'i döner.
+     */
+    InputStream getRangeStream() throws IOException {
+        output.force(false);
+        rangeSource = new RandomAccessSourceFactory().createRanged(
+            new RandomAccessSourceFactory().createBestSource(outputFile.toString()), ranges);
+        return new RASInputStream(rangeSource);
+    }
+
+    /**
+     * İmza değerini onaltılık olarak /Contents alanına yazar.
+     *
+     * @param signature Dolgulu imza ({@code (contentsSize - 2) / 2} bayt)
+     */
+    void setContents(byte[] signature) throws IOException {
+        byte[] hex = new byte[contents.getPosLength()];
+        Arrays.fill(hex, (byte) '0');
+        hex[0] = '<';
+        hex[hex.length - 1] = '>';
+        for (int i = 0; i < signature.length; i++) {
+            int value = signature[i] & 0xFF;
+            hex[1 + i * 2] = (byte) Character.toUpperCase(Character.forDigit(value >> 4, 16));
+            hex[2 + i * 2] = (byte) Character.toUpperCase(Character.forDigit(value & 0x0F, 16));
+        }
+        writeFully(ByteBuffer.wrap(hex), ranges[1]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rangeSource != null) {
+                // Bellek eşlemesini serbest bırakır
+                rangeSource.close();
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private PdfIndirectReference add(PdfObject object) throws IOException {
+        Reference reference = new Reference(nextObjectNumber++);
+        replace(reference, object);
+        return reference;
+    }
+
+    private void replace(PdfIndirectReference reference, PdfObject object) throws IOException {
+        offsets.put(reference.getNumber(), originalLength + counter.getCounter());
+        generations.put(reference.getNumber(), reference.getGeneration());
+        write(reference.getNumber() + " " + reference.getGeneration() + " obj\n");
+        writeObject(object);
+        write("\nendobj\n");
+    }
+
+    /**
+     * Özgün belge xref stream kullanıyorsa yeni bölümü de xref stream olarak, aksi halde
+     * klasik xref tablosu olarak yazar.
+     */
+    private void writeCrossReference() throws IOException {
+        PdfDictionary trailer = new PdfDictionary();
+        trailer.put(PdfName.ROOT, reader.getTrailer().get(PdfName.ROOT));
+        putIfPresent(trailer, PdfName.INFO);
+        putIfPresent(trailer, PdfName.ID);
+        trailer.put(PdfName.PREV, new PdfNumber(reader.getLastXref()));
+
+        if (reader.isNewXrefType()) {
+            int xrefNumber = nextObjectNumber++;
+            offsets.put(xrefNumber, originalLength + counter.getCounter());
+            generations.put(xrefNumber, 0);
+            ByteArrayOutputStream entries = new ByteArrayOutputStream();
+            PdfArray index = new PdfArray();
+            for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+                index.add(new PdfNumber(entry.getKey()));
+                index.add(new PdfNumber(1));
+                long offset = entry.getValue();
+                entries.write(1);
+                for (int shift = 32; shift >= 0; shift -= 8) {
+                    entries.write((int) (offset >> shift));
+                }
+                int generation = generations.get(entry.getKey());
+                entries.write(generation >> 8);
+                entries.write(generation);
+            }
+            PdfStream xref = new PdfStream(entries.toByteArray());
+            xref.putAll(trailer);
+            xref.put(PdfName.TYPE, PdfName.XREF);
+            xref.put(PdfName.SIZE, new PdfNumber(nextObjectNumber));
+            xref.put(PdfName.INDEX, index);
+            xref.put(PdfName.W, new PdfArray(new int[] {1, 5, 2}));
+            long xrefOffset = counter.getCounter();
+            write(xrefNumber + " 0 obj\n");
+            writeObject(xref);
+            write("\nendobj\nstartxref\n" + (originalLength + xrefOffset) + "\n%%EOF\n");
+            return;
+        }
+
+        long xrefOffset = counter.getCounter();
+        write("xref\n");
+        Integer sectionStart = null;
+        StringBuilder section = new StringBuilder();
+        int previous = -2;
+        for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+            if (entry.getKey() != previous + 1 && sectionStart != null) {
+                writeSection(sectionStart, previous - sectionStart + 1, section);
+                section.setLength(0);
+                sectionStart = null;
+            }
+            if (sectionStart == null) {
+                sectionStart = entry.getKey();
+            }
+            section.append(String.format("%010d %05d n\r\n", entry.getValue(), generations.get(entry.getKey())));
+            previous = entry.getKey();
+        }
+        writeSection(sectionStart, previous - sectionStart + 1, section);
+
+        trailer.put(PdfName.SIZE, new PdfNumber(nextObjectNumber));
+        write("trailer\n");
+        writeObject(trailer);
+        write("\nstartxref\n" + (originalLength + xrefOffset) + "\n%%EOF\n");
+    }
+
+    private void writeSection(int start, int count, CharSequence entries) throws IOException {
+        write(start + " " + count + "\n");
+        write(entries.toString());
+    }
+
+    /**
+     * PDF nesnesini yazar. Okuyucudan gelen dolaylı referanslar yeniden numaralanmadan
+     * özgün nesne numaralarıyla yazılır.
+     */
+    private void writeObject(PdfObject object) throws IOException {
+        if (object == null) {
+            write("null");
+        } else if (object instanceof PdfIndirectReference) {
+            PdfIndirectReference reference = (PdfIndirectReference) object;
+            write(reference.getNumber() + " " + reference.getGeneration() + " R");
+        } else if (object instanceof PdfStream) {
+            PdfStream stream = (PdfStream) object;
+            byte[] bytes = stream.getBytes();
+            stream.put(PdfName.LENGTH, new PdfNumber(bytes.length));
+            writeDictionary(stream);
+            write("\nstream\n");
+            counter.write(bytes);
+            write("\nendstream");
+        } else if (object instanceof PdfDictionary) {
+            writeDictionary((PdfDictionary) object);
+        } else if (object instanceof PdfArray) {
+            write("[");
+            PdfArray array = (PdfArray) object;
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) {
+                    write(" ");
+                }
+                writeObject(array.getPdfObject(i));
+            }
+            write("]");
+        } else {
+            object.toPdf(null, counter);
+        }
+    }
+
+    private void writeDictionary(PdfDictionary dictionary) throws IOException {
+        write("<<");
+        for (PdfName key : dictionary.getKeys()) {
+            key.toPdf(null, counter);
+            write(" ");
+            writeObject(dictionary.get(key));
+        }
+        write(">>");
+    }
+
+    private void write(String text) throws IOException {
+        counter.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += output.write(buffer, position);
+        }
+    }
+
+    private void putIfPresent(PdfDictionary trailer, PdfName key) {
+        PdfObject value = reader.getTrailer().get(key);
+        if (value != null) {
+            trailer.put(key, value);
+        }
+    }
+
+    /**
+     * Mevcut alan adlarıyla çakışmayan "SignatureN" adını döner.
+     */
+    private String getNewSignatureName() {
+        AcroFields fields = reader.getAcroFields();
+        int step = 1;
+        while (fields.getFieldItem("Signature" + step) != null) {
+            step++;
+        }
+        return "Signature" + step;
+    }
+
+    /**
+     * Sözlüğün değerleri paylaşan kopyasını döner (null ise boş sözlük).
+     */
+    private static PdfDictionary copy(PdfDictionary dictionary) {
+        PdfDictionary copy = new PdfDictionary();
+        if (dictionary != null) {
+            copy.putAll(dictionary);
+        }
+        return copy;
+    }
+
+    /**
+     * Dizinin sonuna referans eklenmiş kopyasını döner.
+     */
+    private static PdfArray append(PdfDictionary dictionary, PdfName key, PdfIndirectReference reference) {
+        PdfArray array = new PdfArray();
+        PdfArray existing = dictionary.getAsArray(key);
+        if (existing != null) {
+            for (int i = 0; i < existing.size(); i++) {
+                array.add(existing.getPdfObject(i));
+            }
+        }
+        array.add(reference);
+        return array;
+    }
+
+    /**
+     * Artımlı güncellemede yeni oluşturulan nesnelerin referansı (nesil 0).
+     */
+    private static final class Reference extends PdfIndirectReference {
+        private Reference(int number) {
+            super(INDIRECT, number);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import com.itextpdf.text.pdf.*;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.utils.Utils;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.PadesSignatureLevel;
+import io.mersel.dss.signer.api.services.revocation.CachingCRLSource;
+import io.mersel.dss.signer.api.services.revocation.CachingOCSPSource;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.SignerInformationStore;
+import org.bouncycastle.tsp.TSPException;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PAdES imzalarını B-T, B-LT ve B-LTA seviyelerine taşıyan servis.
+ *
+ * <ul>
+ *   <li>B-T: CMS imzasına imza zaman damgası (signature-time-stamp) imzasız özniteliği eklenir</li>
+ *   <li>B-LT: imzacı ve TSA zincirlerinin sertifikaları, OCSP yanıtları ve CRL'leri artımlı
+ *       güncelleme ile belge güvenlik deposuna (DSS) ve imzaya ait VRI kaydına yazılır</li>
+ *   <li>B-LTA: DSS ile aynı revizyona, DSS'i de kapsayan belge zaman damgası eklenir</li>
+ * </ul>
+ *
+ * <p>İptal verisi XAdES yükseltmesiyle paylaşılan {@link CachingOCSPSource} ve
+ * {@link CachingCRLSource} üzerinden alınır; imzacı zinciri ön yükleme servisi tarafından
+ * sıcak tutulduğundan yüksek hacimde belge başına OCSP/CRL isteği yapılmaz. CRL yalnızca
+ * OCSP yanıtı alınamayan sertifikalar için eklenir. Zaman damgaları
+ * {@link TimestampConfigurationService} ile yapılandırılan TSA'dan alınır; TSA ve iptal
+ * verisi çağrıları ağ sınırlayıcısı altında yapılır (HSM izni tutulmaz).
+ */
+@Service
+public class PAdESLevelUpgradeService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PAdESLevelUpgradeService.class);
+
+    /** Zaman damgası token'ı için ayrılan alan (bayt). */
+    static final int TIMESTAMP_SIZE_ESTIMATE = 16384;
+
+    private static final PdfDeveloperExtension ESIC_1_7_EXTENSIONLEVEL5 =
+        new PdfDeveloperExtension(new PdfName("ESIC"), PdfWriter.PDF_VERSION_1_7, 5);
+
+    private final TimestampConfigurationService timestampService;
+    private final OCSPSource ocspSource;
+    private final CRLSource crlSource;
+    private final ConcurrencyLimiter networkLimiter;
+
+    public PAdESLevelUpgradeService(TimestampConfigurationService timestampService,
+                                    OCSPSource ocspSource,
+                                    CRLSource crlSource,
+                                    ConcurrencyLimiter networkLimiter) {
+        this.timestampService = timestampService;
+        this.ocspSource = ocspSource;
+        this.crlSource = crlSource;
+        this.networkLimiter = networkLimiter;
+    }
+
+    /**
+     * CMS imzasına imza zaman damgası ekler (PAdES-BASELINE-T).
+     *
+     * @param cmsSignature DER kodlu CMS SignedData (dolgusuz)
+     * @return İmza zaman damgası imzasız özniteliği eklenmiş CMS SignedData
+     */
+    public byte[] addSignatureTimestamp(byte[] cmsSignature) {
+        try {
+            CMSSignedData signedData = new CMSSignedData(cmsSignature);
+            SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+
+            byte[] timestampToken = requestTimestamp(
+                DSSUtils.digest(DigestAlgorithm.SHA256, signer.getSignature()));
+            AttributeTable unsignedAttributes = signer.getUnsignedAttributes() != null
+                ? signer.getUnsignedAttributes()
+                : new AttributeTable(new ASN1EncodableVector());
+            unsignedAttributes = unsignedAttributes.add(
+                PKCSObjectIdentifiers.id_aa_signatureTimeStampToken,
+                ASN1Primitive.fromByteArray(timestampToken));
+
+            SignerInformation timestamped = SignerInformation.replaceUnsignedAttributes(signer, unsignedAttributes);
+            return CMSSignedData.replaceSigners(signedData, new SignerInformationStore(timestamped))
+                .getEncoded(ASN1Encoding.DER);
+        } catch (IOException | CMSException e) {
+            throw new SignatureException("PAdES imza zaman damgası eklenemedi", e);
+        }
+    }
+
+    /**
+     * İmzalı PDF'e doğrulama verisini artımlı güncelleme olarak ekler ve sonucu stream'e yazar.
+     *
+     * @param reader İmzalı PDF okuyucusu
+     * @param signatureContents İmza sözlüğündeki /Contents değeri (dolgu dahil)
+     * @param level {@link PadesSignatureLevel#LT} veya {@link PadesSignatureLevel#LTA}
+     * @param material İmzalama materyali
+     * @param outputStream Çıktı stream'i
+     */
+    public void extend(PdfReader reader,
+                       byte[] signatureContents,
+                       PadesSignatureLevel level,
+                       SigningMaterial material,
+                       OutputStream outputStream) {
+        extend(reader, signatureContents, level, material, outputStream, null);
+    }
+
+    /**
+     * İmzalı PDF'e doğrulama verisini artımlı güncelleme olarak ekler ve sonucu doğrudan
+     * hedef dosyaya yazar; özgün revizyon bellekte biriktirilmez.
+     *
+     * @param reader İmzalı PDF okuyucusu
+     * @param signatureContents İmza sözlüğündeki /Contents değeri (dolgu dahil)
+     * @param level {@link PadesSignatureLevel#LT} veya {@link PadesSignatureLevel#LTA}
+     * @param material İmzalama materyali
+     * @param outputFile Çıktı dosyası (içeriği değiştirilir)
+     */
+    public void extend(PdfReader reader,
+                       byte[] signatureContents,
+                       PadesSignatureLevel level,
+                       SigningMaterial material,
+                       Path outputFile) {
+        if (level == PadesSignatureLevel.LTA) {
+            // Çıktı stream'i verilmediğinde iText belge zaman damgalı çıktıyı doğrudan dosyaya yazar
+            extend(reader, signatureContents, level, material, null, outputFile.toFile());
+            return;
+        }
+        try (OutputStream outputStream = Files.newOutputStream(outputFile)) {
+            extend(reader, signatureContents, level, material, outputStream, null);
+        } catch (IOException e) {
+            throw new SignatureException("PAdES doğrulama verisi yazılamadı", e);
+        }
+    }
+
+    private void extend(PdfReader reader,
+                        byte[] signatureContents,
+                        PadesSignatureLevel level,
+                        SigningMaterial material,
+                        OutputStream outputStream,
+                        File outputFile) {
+        ValidationMaterial validationMaterial = collectValidationMaterial(material, signatureContents);
+        PdfStamper stamper = null;
+        boolean completed = false;
+        try {
+            if (level == PadesSignatureLevel.LTA) {
+                stamper = PdfStamper.createSignature(reader, outputStream, '\0', outputFile, true);
+                writeDss(stamper, reader, validationMaterial, signatureContents);
+                addDocumentTimestamp(stamper);
+            } else {
+                stamper = new PdfStamper(reader, outputStream, '\0', true);
+                writeDss(stamper, reader, validationMaterial, signatureContents);
+                stamper.close();
+            }
+            completed = true;
+            LOGGER.info("PAdES imzası {} seviyesine yükseltildi ({} sertifika, {} OCSP, {} CRL)", level,
+                validationMaterial.certificates.size(), validationMaterial.ocspResponses.size(),
+                validationMaterial.crls.size());
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SignatureException("PAdES imzası " + level + " seviyesine yükseltilemedi", e);
+        } finally {
+            if (!completed && stamper != null) {
+                release(stamper, outputFile, TIMESTAMP_SIZE_ESTIMATE);
+            }
+        }
+    }
+
+    /**
+     * İmzalama veya yükseltme başarısız olduğunda iText'in çıktı dosyası üzerinde açık bıraktığı
+     * kaynakları kapatır. İmza ön kapatmadan (preClose) sonra başarısız olduysa dosya üzerindeki
+     * RandomAccessFile yalnızca {@code close} ile bırakıldığından /Contents sıfır dolgu ile
+     * yazılır; yarım kalan çıktı çağıran tarafından kullanılmaz. Stream'e yazan stamper'ın
+     * kapatılacak kaynağı yoktur, stream'i çağıran kapatır.
+     *
+     * @param contentsSize /Contents için ayrılan alan (bayt)
+     */
+    static void release(PdfStamper stamper, File outputFile, int contentsSize) {
+        if (outputFile == null) {
+            return;
+        }
+        try {
+            PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+            if (appearance.isPreClosed()) {
+                PdfDictionary dictionary = new PdfDictionary();
+                dictionary.put(PdfName.CONTENTS,
+                    new PdfString(new byte[contentsSize]).setHexWriting(true));
+                appearance.close(dictionary);
+            } else {
+                stamper.getWriter().getOs().close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Yarım kalan PAdES çıktısı kapatılamadı: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * İmzacı zinciri ve imza zaman damgası TSA sertifikaları için sertifika ve iptal verisini
+     * paylaşılan önbelleklerden toplar. Yayıncısı bulunamayan sertifikalar için iptal verisi
+     * eklenmez.
+     */
+    private ValidationMaterial collectValidationMaterial(SigningMaterial material, byte[] signatureContents) {
+        List<CertificateToken> certificates = new ArrayList<>(material.getCertificateTokens());
+        certificates.addAll(getTimestampCertificates(signatureContents));
+
+        ValidationMaterial validationMaterial = new ValidationMaterial();
+        // OCSP/CRL kaynakları ağ sınırlayıcısını yalnızca indirme sırasında tutar
+        for (CertificateToken certificate : certificates) {
+            validationMaterial.certificates.add(ByteBuffer.wrap(certificate.getEncoded()));
+            if (certificate.isSelfSigned()) {
+                continue;
+            }
+            CertificateToken issuer = findIssuer(certificate, certificates);
+            if (issuer == null) {
+                LOGGER.warn("Sertifikanın yayıncısı bulunamadı, iptal verisi eklenmiyor: {}",
+                    certificate.getSubject().getPrettyPrintRFC2253());
+                continue;
+            }
+            addRevocationData(validationMaterial, certificate, issuer);
+        }
+        return validationMaterial;
+    }
+
+    /**
+     * Sertifika için OCSP yanıtını, alınamazsa CRL'i ekler.
+     */
+    private void addRevocationData(ValidationMaterial validationMaterial,
+                                   CertificateToken certificate,
+                                   CertificateToken issuer) {
+        try {
+            OCSPToken ocspToken = ocspSource.getRevocationToken(certificate, issuer);
+            if (ocspToken != null) {
+                validationMaterial.ocspResponses.add(ByteBuffer.wrap(DSSRevocationUtils.getEncoded(
+                    DSSRevocationUtils.fromBasicToResp(ocspToken.getBasicOCSPResp()))));
+                return;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("OCSP yanıtı alınamadı, CRL denenecek: {} - {}",
+                certificate.getSubject().getPrettyPrintRFC2253(), e.getMessage());
+        }
+
+        try {
+            CRLToken crlToken = crlSource.getRevocationToken(certificate, issuer);
+            if (crlToken != null) {
+                validationMaterial.crls.add(ByteBuffer.wrap(crlToken.getEncoded()));
+                return;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("CRL alınamadı: {} - {}",
+                certificate.getSubject().getPrettyPrintRFC2253(), e.getMessage());
+        }
+        LOGGER.warn("Sertifika için iptal verisi bulunamadı: {}", certificate.getSubject().getPrettyPrintRFC2253());
+    }
+
+    /**
+     * Belge güvenlik deposunu (DSS) ve imzanın VRI kaydını yazar. Belgede önceki imzalardan
+     * kalan bir DSS varsa mevcut kayıtlar korunur.
+     */
+    private static void writeDss(PdfStamper stamper,
+                                 PdfReader reader,
+                                 ValidationMaterial validationMaterial,
+                                 byte[] signatureContents) throws IOException {
+        PdfWriter writer = stamper.getWriter();
+        PdfArray certificates = addStreams(writer, validationMaterial.certificates);
+        PdfArray ocspResponses = addStreams(writer, validationMaterial.ocspResponses);
+        PdfArray crls = addStreams(writer, validationMaterial.crls);
+
+        PdfDictionary vri = new PdfDictionary();
+        putIfNotEmpty(vri, PdfName.CERT, certificates);
+        putIfNotEmpty(vri, PdfName.OCSP, ocspResponses);
+        putIfNotEmpty(vri, PdfName.CRL, crls);
+
+        PdfDictionary catalog = reader.getCatalog();
+        PdfDictionary existingDss = catalog.getAsDict(PdfName.DSS);
+        PdfDictionary dss = new PdfDictionary();
+        putIfNotEmpty(dss, PdfName.CERTS, merge(existingDss, PdfName.CERTS, certificates));
+        putIfNotEmpty(dss, PdfName.OCSPS, merge(existingDss, PdfName.OCSPS, ocspResponses));
+        putIfNotEmpty(dss, PdfName.CRLS, merge(existingDss, PdfName.CRLS, crls));
+
+        PdfDictionary vris = new PdfDictionary();
+        PdfDictionary existingVris = existingDss != null ? existingDss.getAsDict(PdfName.VRI) : null;
+        if (existingVris != null) {
+            vris.putAll(existingVris);
+        }
+        vris.put(new PdfName(getVriKey(signatureContents)), writer.addToBody(vri, false).getIndirectReference());
+        dss.put(PdfName.VRI, writer.addToBody(vris, false).getIndirectReference());
+
+        catalog.put(PdfName.DSS, writer.addToBody(dss, false).getIndirectReference());
+        writer.addDeveloperExtension(ESIC_1_7_EXTENSIONLEVEL5);
+        stamper.markUsed(catalog);
+    }
+
+    /**
+     * DSS'i de kapsayan belge zaman damgasını (ETSI.RFC3161) ekler ve stamper'ı kapatır.
+     */
+    private void addDocumentTimestamp(PdfStamper stamper) throws Exception {
+        PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+        PdfSignature documentTimestamp = new PdfSignature(PdfName.ADOBE_PPKLITE, PdfName.ETSI_RFC3161);
+        documentTimestamp.put(PdfName.TYPE, PdfName.DOCTIMESTAMP);
+        appearance.setCryptoDictionary(documentTimestamp);
+
+        HashMap<PdfName, Integer> exclusionSizes = new HashMap<>();
+        exclusionSizes.put(PdfName.CONTENTS, TIMESTAMP_SIZE_ESTIMATE * 2 + 2);
+        appearance.preClose(exclusionSizes);
+
+        byte[] digest;
+        try (InputStream rangeStream = appearance.getRangeStream()) {
+            digest = DSSUtils.digest(DigestAlgorithm.SHA256, rangeStream);
+        }
+        byte[] timestampToken = requestTimestamp(digest);
+        if (timestampToken.length > TIMESTAMP_SIZE_ESTIMATE) {
+            throw new SignatureException(
+                "Timestamp size exceeds reserved space: " +
+                timestampToken.length + " > " + TIMESTAMP_SIZE_ESTIMATE);
+        }
+        byte[] paddedTimestamp = new byte[TIMESTAMP_SIZE_ESTIMATE];
+        System.arraycopy(timestampToken, 0, paddedTimestamp, 0, timestampToken.length);
+
+        PdfDictionary dictionary = new PdfDictionary();
+        dictionary.put(PdfName.CONTENTS, new PdfString(paddedTimestamp).setHexWriting(true));
+        appearance.close(dictionary);
+    }
+
+    /**
+     * Yapılandırılmış TSA'dan SHA-256 özeti için zaman damgası token'ı alır.
+     */
+    private byte[] requestTimestamp(byte[] digest) {
+        if (!timestampService.isAvailable()) {
+            throw new SignatureException(
+                "PAdES-T ve üzeri seviyeler için zaman damgası sunucusu yapılandırılmalıdır (TS_SERVER_HOST)");
+        }
+        try {
+            return networkLimiter.call(() ->
+                timestampService.getTspSource().getTimeStampResponse(DigestAlgorithm.SHA256, digest).getBytes());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SignatureException("Zaman damgası isteği kesildi", e);
+        }
+    }
+
+    /**
+     * İmza zaman damgası token'larındaki TSA sertifikalarını döner.
+     */
+    private static List<CertificateToken> getTimestampCertificates(byte[] signatureContents) {
+        List<CertificateToken> certificates = new ArrayList<>();
+        try {
+            CMSSignedData signedData = new CMSSignedData(signatureContents);
+            for (SignerInformation signer : signedData.getSignerInfos().getSigners()) {
+                if (signer.getUnsignedAttributes() == null) {
+                    continue;
+                }
+                ASN1EncodableVector timestamps = signer.getUnsignedAttributes()
+                    .getAll(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken);
+                for (int i = 0; i < timestamps.size(); i++) {
+                    Attribute attribute = Attribute.getInstance(timestamps.get(i));
+                    TimeStampToken timestampToken = new TimeStampToken(new CMSSignedData(
+                        attribute.getAttrValues().getObjectAt(0).toASN1Primitive().getEncoded()));
+                    for (X509CertificateHolder holder : timestampToken.getCertificates().getMatches(null)) {
+                        certificates.add(DSSUtils.loadCertificate(holder.getEncoded()));
+                    }
+                }
+            }
+        } catch (IOException | CMSException | TSPException e) {
+            LOGGER.warn("İmza zaman damgası sertifikaları okunamadı: {}", e.getMessage());
+        }
+        return certificates;
+    }
+
+    private static CertificateToken findIssuer(CertificateToken certificate, List<CertificateToken> candidates) {
+        for (CertificateToken candidate : candidates) {
+            if (!candidate.equals(certificate) && certificate.isSignedBy(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * VRI anahtarı: imza /Contents değerinin büyük harfli onaltılık SHA-1 özeti.
+     */
+    static String getVriKey(byte[] signatureContents) {
+        return Utils.toHex(DSSUtils.digest(DigestAlgorithm.SHA1, signatureContents)).toUpperCase();
+    }
+
+    private static PdfArray addStreams(PdfWriter writer, Set<ByteBuffer> contents) throws IOException {
+        PdfArray references = new PdfArray();
+        for (ByteBuffer content : contents) {
+            PdfStream stream = new PdfStream(content.array());
+            stream.flateCompress();
+            references.add(writer.addToBody(stream, false).getIndirectReference());
+        }
+        return references;
+    }
+
+    private static PdfArray merge(PdfDictionary existingDss, PdfName key, PdfArray added) {
+        PdfArray existing = existingDss != null ? existingDss.getAsArray(key) : null;
+        if (existing == null) {
+            return added;
+        }
+        PdfArray merged = new PdfArray();
+        for (int i = 0; i < existing.size(); i++) {
+            merged.add(existing.getPdfObject(i));
+        }
+        for (int i = 0; i < added.size(); i++) {
+            merged.add(added.getPdfObject(i));
+        }
+        return merged;
+    }
+
+    private static void putIfNotEmpty(PdfDictionary dictionary, PdfName key, PdfArray array) {
+        if (array.size() > 0) {
+            dictionary.put(key, array);
+        }
+    }
+
+    /**
+     * DSS'e yazılacak, içeriğe göre tekilleştirilmiş doğrulama verisi.
+     */
+    private static final class ValidationMaterial {
+        private final Set<ByteBuffer> certificates = new LinkedHashSet<>();
+        private final Set<ByteBuffer> ocspResponses = new LinkedHashSet<>();
+        private final Set<ByteBuffer> crls = new LinkedHashSet<>();
+    }
+}
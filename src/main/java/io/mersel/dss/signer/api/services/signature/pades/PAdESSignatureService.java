@@ -1,43 +1,35 @@
 package io.mersel.dss.signer.api.services.signature.pades;
 
+import com.itextpdf.text.io.RandomAccessSourceFactory;
 import com.itextpdf.text.pdf.*;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
-import io.mersel.dss.signer.api.util.CryptoUtils;
+import io.mersel.dss.signer.api.models.enums.PadesSignatureLevel;
+import io.mersel.dss.signer.api.services.util.SpoolFileService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.mersel.dss.signer.api.util.SpoolFile;
 import org.apache.commons.io.IOUtils;
-import org.bouncycastle.asn1.ASN1EncodableVector;
-import org.bouncycastle.asn1.DERSet;
-import org.bouncycastle.asn1.cms.Attribute;
-import org.bouncycastle.asn1.cms.AttributeTable;
-import org.bouncycastle.asn1.ess.ESSCertIDv2;
-import org.bouncycastle.asn1.ess.SigningCertificateV2;
-import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
-import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
-import org.bouncycastle.asn1.x500.X500Name;
-import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
-import org.bouncycastle.asn1.x509.GeneralName;
-import org.bouncycastle.asn1.x509.GeneralNames;
-import org.bouncycastle.asn1.x509.IssuerSerial;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.CMSProcessableByteArray;
-import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSAbsentContent;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
-import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
-import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
 import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.operator.DigestCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.InputStream;
-import java.security.MessageDigest;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.concurrent.Semaphore;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * PAdES (PDF İleri Seviye Elektronik İmza) imzaları oluşturan servis.
@@ -48,7 +40,10 @@ import java.util.concurrent.Semaphore;
  *   <li>Gömülü CAdES imzası</li>
  *   <li>Dosya eki desteği</li>
  *   <li>Çoklu imza için ekleme modu</li>
+ *   <li>Büyük belgeler için dosya tabanlı akış modu</li>
+ *   <li>Dosya tabanlı ekleme modunda özgün baytları kopyalamayan artımlı güncelleme</li>
  *   <li>SigningCertificateV2 özniteliği</li>
+ *   <li>PAdES-BASELINE B, T, LT ve LTA seviyeleri ({@link PAdESLevelUpgradeService})</li>
  * </ul>
  */
 @Service
@@ -56,11 +51,31 @@ public class PAdESSignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PAdESSignatureService.class);
     private static final int SIGNATURE_SIZE_ESTIMATE = 8192;
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    private static final String SIGNATURE_LOCATION = "Turkey";
 
-    private final Semaphore semaphore;
+    private final ConcurrencyLimiter hsmLimiter;
+    private final PAdESLevelUpgradeService levelUpgradeService;
+    private final SpoolFileService spoolFileService;
+    private final PadesSignatureLevel defaultLevel;
+    private final Map<SigningMaterial, CmsSignerScaffolding> scaffoldingByMaterial = new WeakHashMap<>();
 
-    public PAdESSignatureService(Semaphore signatureSemaphore) {
-        this.semaphore = signatureSemaphore;
+    /**
+     * Yalnızca PAdES-BASELINE-B imzası üreten servis oluşturur.
+     */
+    public PAdESSignatureService(ConcurrencyLimiter hsmLimiter) {
+        this(hsmLimiter, null, null, PadesSignatureLevel.B);
+    }
+
+    @Autowired
+    public PAdESSignatureService(ConcurrencyLimiter hsmLimiter,
+                                 PAdESLevelUpgradeService levelUpgradeService,
+                                 SpoolFileService spoolFileService,
+                                 @Value("${PADES_SIGNATURE_LEVEL:B}") PadesSignatureLevel defaultLevel) {
+        this.hsmLimiter = hsmLimiter;
+        this.levelUpgradeService = levelUpgradeService;
+        this.spoolFileService = spoolFileService;
+        this.defaultLevel = defaultLevel;
     }
 
     /**
@@ -78,48 +93,95 @@ public class PAdESSignatureService {
                                String attachmentFileName,
                                boolean appendMode,
                                SigningMaterial material) {
+        return signPdf(pdfInputStream, attachment, attachmentFileName, appendMode, material,
+            (PadesSignatureLevel) null);
+    }
+
+    /**
+     * PDF belgesini verilen PAdES seviyesinde imzalar.
+     *
+     * @param pdfInputStream PDF belgesi içeren input stream
+     * @param attachment İsteğe bağlı dosya eki içeriği
+     * @param attachmentFileName İsteğe bağlı ek dosya adı
+     * @param appendMode İmzanın eklenmesi (true) veya yeni revizyon (false)
+     * @param material İmzalama sertifikası ve private key içeren materyal
+     * @param level İmza seviyesi (null ise PADES_SIGNATURE_LEVEL)
+     * @return İmzalanmış PDF içeren yanıt
+     */
+    public SignResponse signPdf(InputStream pdfInputStream,
+                               byte[] attachment,
+                               String attachmentFileName,
+                               boolean appendMode,
+                               SigningMaterial material,
+                               PadesSignatureLevel level) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        signPdf(pdfInputStream, attachment, attachmentFileName, appendMode, material, level, outputStream);
+        return new SignResponse(outputStream.toByteArray(), null);
+    }
+
+    /**
+     * PDF belgesini PAdES imzası ile imzalar ve imzalı belgeyi verilen stream'e yazar.
+     * Ham gövdeli endpoint'lerde çıktı bellekte biriktirilmeden geçici dosyaya üretilir.
+     * 
+     * @param pdfInputStream PDF belgesi içeren input stream
+     * @param attachment İsteğe bağlı dosya eki içeriği
+     * @param attachmentFileName İsteğe bağlı ek dosya adı
+     * @param appendMode İmzanın eklenmesi (true) veya yeni revizyon (false)
+     * @param material İmzalama sertifikası ve private key içeren materyal
+     * @param outputStream İmzalı PDF'in yazılacağı stream
+     */
+    public void signPdf(InputStream pdfInputStream,
+                        byte[] attachment,
+                        String attachmentFileName,
+                        boolean appendMode,
+                        SigningMaterial material,
+                        OutputStream outputStream) {
+        signPdf(pdfInputStream, attachment, attachmentFileName, appendMode, material, null, outputStream);
+    }
+
+    /**
+     * PDF belgesini verilen PAdES seviyesinde imzalar ve imzalı belgeyi verilen stream'e yazar.
+     * LT ve üzeri seviyelerde imzalı revizyon {@code STREAM_SPOOL_DIRECTORY} altında geçici bir
+     * dosyaya yazılır, doğrulama verisi bu dosya bellek eşlemeli okunarak artımlı güncelleme
+     * olarak eklenir.
+     *
+     * @param pdfInputStream PDF belgesi içeren input stream
+     * @param attachment İsteğe bağlı dosya eki içeriği
+     * @param attachmentFileName İsteğe bağlı ek dosya adı
+     * @param appendMode İmzanın eklenmesi (true) veya yeni revizyon (false)
+     * @param material İmzalama sertifikası ve private key içeren materyal
+     * @param level İmza seviyesi (null ise PADES_SIGNATURE_LEVEL)
+     * @param outputStream İmzalı PDF'in yazılacağı stream
+     */
+    public void signPdf(InputStream pdfInputStream,
+                        byte[] attachment,
+                        String attachmentFileName,
+                        boolean appendMode,
+                        SigningMaterial material,
+                        PadesSignatureLevel level,
+                        OutputStream outputStream) {
+        PadesSignatureLevel signatureLevel = resolveLevel(level);
         try {
             PdfReader reader = new PdfReader(pdfInputStream);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            PdfStamper stamper = PdfStamper.createSignature(
-                reader, outputStream, '\0', null, appendMode);
-
-            // Dosya eki varsa ekle
-            if (attachment != null && attachment.length > 0 && attachmentFileName != null) {
-                stamper.addFileAttachment(null, attachment, null, attachmentFileName);
+            if (!signatureLevel.includes(PadesSignatureLevel.LT)) {
+                PdfStamper stamper = PdfStamper.createSignature(
+                    reader, outputStream, '\0', null, appendMode);
+                sign(stamper, attachment, attachmentFileName, material, signatureLevel);
+                return;
             }
 
-            // İmza görünümünü yapılandır
-            PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
-            appearance.setLocation("Turkey");
-            appearance.setSignDate(Calendar.getInstance());
-
-            // İmza sözlüğünü oluştur
-            PdfSignature pdfSignature = new PdfSignature(
-                PdfName.ADOBE_PPKLITE, PdfName.ETSI_CADES_DETACHED);
-            pdfSignature.setReason(appearance.getReason());
-            pdfSignature.setLocation(appearance.getLocation());
-            pdfSignature.setContact(appearance.getContact());
-            pdfSignature.setDate(new PdfDate(appearance.getSignDate()));
-            appearance.setCryptoDictionary(pdfSignature);
-
-            // İmza için yer ayır
-            HashMap<PdfName, Integer> exclusionSizes = new HashMap<>();
-            exclusionSizes.put(PdfName.CONTENTS, SIGNATURE_SIZE_ESTIMATE * 2 + 2);
-            appearance.preClose(exclusionSizes);
-
-            // CMS imzasını oluştur
-            byte[] signatureBytes = createCMSSignature(
-                appearance, material);
-
-            // İmzayı göm
-            PdfDictionary dictionary = new PdfDictionary();
-            dictionary.put(PdfName.CONTENTS, 
-                new PdfString(signatureBytes).setHexWriting(true));
-            appearance.close(dictionary);
-
-            LOGGER.info("PAdES imzası başarıyla oluşturuldu");
-            return new SignResponse(outputStream.toByteArray(), null);
+            try (SpoolFile signedFile = spoolFileService.createFile(".pdf")) {
+                byte[] signatureContents = signToFile(reader, signedFile.getPath().toFile(), attachment,
+                    attachmentFileName, appendMode, material, signatureLevel);
+
+                PdfReader signedReader = openMapped(signedFile.getPath());
+                try {
+                    levelUpgradeService.extend(signedReader, signatureContents, signatureLevel, material, outputStream);
+                } finally {
+                    // Bellek eşlemesini serbest bırakır
+                    signedReader.close();
+                }
+            }
 
         } catch (Exception e) {
             LOGGER.error("PAdES imzası oluşturulurken hata", e);
@@ -128,84 +190,293 @@ public class PAdESSignatureService {
     }
 
     /**
-     * PDF içeriği için CMS imzası oluşturur.
-     * SigningCertificateV2 özniteliği ile SHA-256 hash kullanır.
+     * Diskteki PDF belgesini PAdES imzası ile imzalar ve imzalı belgeyi hedef dosyaya yazar.
+     *
+     * <p>Büyük belgeler için akış modu: belge bellek eşlemeli (memory-mapped) rastgele erişimli
+     * kaynak üzerinden açılır ve PDF nesneleri yalnızca gerektiğinde okunur. İmzalı çıktı
+     * bellekte biriktirilmeden doğrudan hedef dosyaya yazılır, imza alanı dosya üzerinde
+     * doldurulur. Böylece istek başına heap kullanımı belge boyutuyla büyümez.
+     *
+     * @param pdfFile İmzalanacak PDF dosyası
+     * @param attachment İsteğe bağlı dosya eki içeriği
+     * @param attachmentFileName İsteğe bağlı ek dosya adı
+     * @param appendMode İmzanın eklenmesi (true) veya yeni revizyon (false)
+     * @param material İmzalama sertifikası ve private key içeren materyal
+     * @param outputFile İmzalı PDF'in yazılacağı dosya (içeriği değiştirilir)
      */
-    private byte[] createCMSSignature(PdfSignatureAppearance appearance,
-                                     SigningMaterial material) throws Exception {
-        // SigningCertificateV2 için sertifika hash'i hesapla
-        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-        byte[] certificateHash = messageDigest.digest(
-            material.getSigningCertificate().getEncoded());
-
-        // Issuer serial oluştur
-        GeneralName generalName = new GeneralName(
-            X500Name.getInstance(material.getSigningCertificate()
-                .getIssuerX500Principal().getEncoded()));
-        GeneralNames generalNames = new GeneralNames(generalName);
-        IssuerSerial issuerSerial = new IssuerSerial(
-            generalNames, material.getSigningCertificate().getSerialNumber());
-
-        // Create SigningCertificateV2 attribute
-        ESSCertIDv2 essCert = new ESSCertIDv2(
-            new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256),
-            certificateHash, issuerSerial);
-        SigningCertificateV2 signingCertificateV2 = new SigningCertificateV2(
-            new ESSCertIDv2[]{essCert});
-        Attribute signingCertAttr = new Attribute(
-            PKCSObjectIdentifiers.id_aa_signingCertificateV2,
-            new DERSet(signingCertificateV2));
-
-        // Build signed attributes
-        ASN1EncodableVector signedAttributes = new ASN1EncodableVector();
-        signedAttributes.add(signingCertAttr);
-        AttributeTable attributeTable = new AttributeTable(signedAttributes);
-
-        // Create signer
-        JcaSignerInfoGeneratorBuilder signerInfoGeneratorBuilder = 
-            new JcaSignerInfoGeneratorBuilder(
-                new JcaDigestCalculatorProviderBuilder().build())
-                .setSignedAttributeGenerator(
-                    new DefaultSignedAttributeTableGenerator(attributeTable));
-
-        // Dinamik algoritma seçimi (RSA veya EC key'e göre)
-        String signatureAlgorithm = CryptoUtils.getSignatureAlgorithm(material.getPrivateKey());
-        ContentSigner contentSigner = new JcaContentSignerBuilder(signatureAlgorithm)
-            .build(material.getPrivateKey());
-
-        // Generate CMS signed data
-        CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
-        generator.addSignerInfoGenerator(
-            signerInfoGeneratorBuilder.build(contentSigner, 
-                material.getSigningCertificate()));
-        generator.addCertificates(new JcaCertStore(material.getCertificateChain()));
-
-        // Sign PDF content
-        InputStream rangeStream = appearance.getRangeStream();
-        byte[] rangeBytes = IOUtils.toByteArray(rangeStream);
-
-        semaphore.acquire();
+    public void signPdf(Path pdfFile,
+                        byte[] attachment,
+                        String attachmentFileName,
+                        boolean appendMode,
+                        SigningMaterial material,
+                        Path outputFile) {
+        signPdf(pdfFile, attachment, attachmentFileName, appendMode, material, null, outputFile);
+    }
+
+    /**
+     * Diskteki PDF belgesini verilen PAdES seviyesinde imzalar ve imzalı belgeyi hedef dosyaya
+     * yazar. LT ve üzeri seviyelerde imzalı revizyon hedefin yanında geçici bir dosyaya
+     * yazılır ve doğrulama verisi bu dosya bellek eşlemeli okunarak eklenir.
+     *
+     * <p>Ekleme modunda (dosya eki yoksa) imza {@link IncrementalPdfUpdate} ile eklenir: özgün
+     * baytlar {@code FileChannel.transferTo} ile aktarılır, bellekte yalnızca yeni revizyon
+     * oluşturulur.
+     *
+     * @param pdfFile İmzalanacak PDF dosyası
+     * @param attachment İsteğe bağlı dosya eki içeriği
+     * @param attachmentFileName İsteğe bağlı ek dosya adı
+     * @param appendMode İmzanın eklenmesi (true) veya yeni revizyon (false)
+     * @param material İmzalama sertifikası ve private key içeren materyal
+     * @param level İmza seviyesi (null ise PADES_SIGNATURE_LEVEL)
+     * @param outputFile İmzalı PDF'in yazılacağı dosya (içeriği değiştirilir)
+     */
+    public void signPdf(Path pdfFile,
+                        byte[] attachment,
+                        String attachmentFileName,
+                        boolean appendMode,
+                        SigningMaterial material,
+                        PadesSignatureLevel level,
+                        Path outputFile) {
+        PadesSignatureLevel signatureLevel = resolveLevel(level);
+        Path signedFile = null;
+        PdfReader reader = null;
         try {
-            CMSSignedData signedData = generator.generate(
-                new CMSProcessableByteArray(rangeBytes), false);
-            byte[] encodedSignature = signedData.getEncoded();
-
-            if (encodedSignature.length > SIGNATURE_SIZE_ESTIMATE) {
-                throw new SignatureException(
-                    "Signature size exceeds reserved space: " + 
-                    encodedSignature.length + " > " + SIGNATURE_SIZE_ESTIMATE);
+            if (signatureLevel.includes(PadesSignatureLevel.LT)) {
+                signedFile = Files.createTempFile(outputFile.toAbsolutePath().getParent(), "pades-signed-", ".pdf");
             }
+            reader = openMapped(pdfFile);
 
-            // Pad signature to reserved size
-            byte[] paddedSignature = new byte[SIGNATURE_SIZE_ESTIMATE];
-            System.arraycopy(encodedSignature, 0, paddedSignature, 0, 
-                encodedSignature.length);
+            Path target = signedFile != null ? signedFile : outputFile;
+            byte[] signatureContents;
+            if (appendMode && !hasAttachment(attachment, attachmentFileName)
+                    && IncrementalPdfUpdate.isSupported(reader)) {
+                signatureContents = signIncremental(reader, pdfFile, material, signatureLevel, target);
+            } else {
+                signatureContents = signToFile(reader, target.toFile(), attachment, attachmentFileName,
+                    appendMode, material, signatureLevel);
+            }
 
-            return paddedSignature;
+            if (signedFile != null) {
+                reader.close();
+                reader = openMapped(signedFile);
+                levelUpgradeService.extend(reader, signatureContents, signatureLevel, material, outputFile);
+            }
+
+        } catch (Exception e) {
+            LOGGER.error("PAdES imzası oluşturulurken hata", e);
+            throw new SignatureException("PAdES imzası oluşturulamadı", e);
+        } finally {
+            if (reader != null) {
+                // Bellek eşlemesini serbest bırakır
+                reader.close();
+            }
+            if (signedFile != null) {
+                signedFile.toFile().delete();
+            }
+        }
+    }
 
+    /**
+     * İmzalı belgeyi iText ile doğrudan hedef dosyaya yazar. İmzalama başarısız olursa iText'in
+     * dosya üzerinde açık bıraktığı stream veya RandomAccessFile kapatılır.
+     *
+     * @return İmza sözlüğüne yazılan /Contents değeri (dolgu dahil)
+     */
+    private byte[] signToFile(PdfReader reader,
+                              File target,
+                              byte[] attachment,
+                              String attachmentFileName,
+                              boolean appendMode,
+                              SigningMaterial material,
+                              PadesSignatureLevel level) throws Exception {
+        // Çıktı stream'i verilmediğinde iText imzalı belgeyi doğrudan hedef dosyaya yazar
+        PdfStamper stamper = PdfStamper.createSignature(reader, null, '\0', target, appendMode);
+        boolean completed = false;
+        try {
+            byte[] signatureContents = sign(stamper, attachment, attachmentFileName, material, level);
+            completed = true;
+            return signatureContents;
         } finally {
-            semaphore.release();
+            if (!completed) {
+                PAdESLevelUpgradeService.release(stamper, target, getReservedSize(level));
+            }
+        }
+    }
+
+    /**
+     * PDF dosyasını bellek eşlemeli kaynak üzerinden, nesneleri gerektiğinde okuyacak şekilde açar.
+     */
+    private static PdfReader openMapped(Path pdfFile) throws Exception {
+        return new PdfReader(new RandomAccessFileOrArray(
+            new RandomAccessSourceFactory().createBestSource(pdfFile.toString())), null);
+    }
+
+    /**
+     * İstenen seviyeyi döner; verilmemişse yapılandırılmış varsayılan seviye kullanılır.
+     */
+    private PadesSignatureLevel resolveLevel(PadesSignatureLevel level) {
+        PadesSignatureLevel resolved = level != null ? level : defaultLevel;
+        if (resolved != PadesSignatureLevel.B && levelUpgradeService == null) {
+            throw new SignatureException("PAdES-" + resolved + " seviyesi için seviye yükseltme servisi yapılandırılmamış");
+        }
+        return resolved;
+    }
+
+    /**
+     * İmzayı özgün belgeyi kopyalamadan artımlı güncelleme olarak ekler.
+     *
+     * @return İmza sözlüğüne yazılan /Contents değeri (dolgu dahil)
+     */
+    private byte[] signIncremental(PdfReader reader,
+                                   Path pdfFile,
+                                   SigningMaterial material,
+                                   PadesSignatureLevel level,
+                                   Path outputFile) throws Exception {
+        PdfSignature pdfSignature = new PdfSignature(
+            PdfName.ADOBE_PPKLITE, PdfName.ETSI_CADES_DETACHED);
+        pdfSignature.setLocation(SIGNATURE_LOCATION);
+        pdfSignature.setDate(new PdfDate(Calendar.getInstance()));
+
+        int reservedSize = getReservedSize(level);
+        try (IncrementalPdfUpdate update = new IncrementalPdfUpdate(reader, pdfFile, outputFile)) {
+            update.addSignature(pdfSignature, reservedSize * 2 + 2);
+            update.write();
+
+            byte[] signatureBytes;
+            try (InputStream rangeStream = update.getRangeStream()) {
+                signatureBytes = createCMSSignature(rangeStream, material, level, reservedSize);
+            }
+            update.setContents(signatureBytes);
+
+            LOGGER.info("PAdES imzası artımlı güncelleme ile başarıyla oluşturuldu");
+            return signatureBytes;
+        }
+    }
+
+    /**
+     * İmza sözlüğünü oluşturur, CMS imzasını hesaplar ve ayrılan alana gömer.
+     *
+     * @return İmza sözlüğüne yazılan /Contents değeri (dolgu dahil)
+     */
+    private byte[] sign(PdfStamper stamper,
+                        byte[] attachment,
+                        String attachmentFileName,
+                        SigningMaterial material,
+                        PadesSignatureLevel level) throws Exception {
+        // Dosya eki varsa ekle
+        if (hasAttachment(attachment, attachmentFileName)) {
+            stamper.addFileAttachment(null, attachment, null, attachmentFileName);
+        }
+
+        // İmza görünümünü yapılandır
+        PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+        appearance.setLocation(SIGNATURE_LOCATION);
+        appearance.setSignDate(Calendar.getInstance());
+
+        // İmza sözlüğünü oluştur
+        PdfSignature pdfSignature = new PdfSignature(
+            PdfName.ADOBE_PPKLITE, PdfName.ETSI_CADES_DETACHED);
+        pdfSignature.setReason(appearance.getReason());
+        pdfSignature.setLocation(appearance.getLocation());
+        pdfSignature.setContact(appearance.getContact());
+        pdfSignature.setDate(new PdfDate(appearance.getSignDate()));
+        appearance.setCryptoDictionary(pdfSignature);
+
+        // İmza için yer ayır
+        int reservedSize = getReservedSize(level);
+        HashMap<PdfName, Integer> exclusionSizes = new HashMap<>();
+        exclusionSizes.put(PdfName.CONTENTS, reservedSize * 2 + 2);
+        appearance.preClose(exclusionSizes);
+
+        // CMS imzasını oluştur
+        byte[] signatureBytes;
+        try (InputStream rangeStream = appearance.getRangeStream()) {
+            signatureBytes = createCMSSignature(rangeStream, material, level, reservedSize);
+        }
+
+        // İmzayı göm
+        PdfDictionary dictionary = new PdfDictionary();
+        dictionary.put(PdfName.CONTENTS, 
+            new PdfString(signatureBytes).setHexWriting(true));
+        appearance.close(dictionary);
+
+        LOGGER.info("PAdES imzası başarıyla oluşturuldu");
+        return signatureBytes;
+    }
+
+    private static boolean hasAttachment(byte[] attachment, String attachmentFileName) {
+        return attachment != null && attachment.length > 0 && attachmentFileName != null;
+    }
+
+    /**
+     * /Contents için ayrılan imza alanı (bayt); T ve üzeri seviyelerde zaman damgası token'ı da sığmalı.
+     */
+    private static int getReservedSize(PadesSignatureLevel level) {
+        int reservedSize = SIGNATURE_SIZE_ESTIMATE;
+        if (level.includes(PadesSignatureLevel.T)) {
+            reservedSize += PAdESLevelUpgradeService.TIMESTAMP_SIZE_ESTIMATE;
         }
+        return reservedSize;
+    }
+
+    /**
+     * Materyale ait CMS parçalarını döner, yoksa oluşturur. Önbellek {@link SigningMaterial}
+     * örneğine zayıf referansla bağlıdır; materyal yeniden yüklendiğinde eski parçalar bırakılır.
+     */
+    private synchronized CmsSignerScaffolding getScaffolding(SigningMaterial material) throws Exception {
+        CmsSignerScaffolding scaffolding = scaffoldingByMaterial.get(material);
+        if (scaffolding == null) {
+            scaffolding = new CmsSignerScaffolding(material);
+            scaffoldingByMaterial.put(material, scaffolding);
+        }
+        return scaffolding;
+    }
+
+    /**
+     * PDF içeriği için CMS imzası oluşturur.
+     * SigningCertificateV2 özniteliği ile SHA-256 hash kullanır; öznitelik ve diğer
+     * değişmez CMS parçaları materyal başına önbellekten alınır.
+     *
+     * <p>İmzalanan bayt aralıkları belleğe kopyalanmaz: özet, aralık stream'i okunurken
+     * hesaplanır ve {@code messageDigest} imzalı özniteliği olarak verilir; CMS yapısı
+     * içeriksiz (detached) üretilir. Özet HSM semaforu alınmadan önce hesaplanır; T ve üzeri
+     * seviyelerde imza zaman damgası HSM izni bırakıldıktan sonra alınır.
+     */
+    private byte[] createCMSSignature(InputStream rangeStream,
+                                     SigningMaterial material,
+                                     PadesSignatureLevel level,
+                                     int reservedSize) throws Exception {
+        CmsSignerScaffolding scaffolding = getScaffolding(material);
+        ContentSigner contentSigner = scaffolding.createContentSigner(material.getPrivateKey());
+
+        // PDF bayt aralıklarının özetini stream üzerinden hesapla
+        DigestCalculator digestCalculator = scaffolding.createDigestCalculator();
+        try (OutputStream digestStream = digestCalculator.getOutputStream()) {
+            IOUtils.copyLarge(rangeStream, digestStream, new byte[DIGEST_BUFFER_SIZE]);
+        }
+        CMSSignedDataGenerator generator = scaffolding.createGenerator(
+            contentSigner, digestCalculator.getDigest());
+
+        // Sign PDF content (messageDigest hazır olduğundan içerik verilmez)
+        byte[] encodedSignature = hsmLimiter.call(() ->
+            generator.generate(new CMSAbsentContent(), false).getEncoded());
+
+        if (level.includes(PadesSignatureLevel.T)) {
+            encodedSignature = levelUpgradeService.addSignatureTimestamp(encodedSignature);
+        }
+
+        if (encodedSignature.length > reservedSize) {
+            throw new SignatureException(
+                "Signature size exceeds reserved space: " + 
+                encodedSignature.length + " > " + reservedSize);
+        }
+
+        // Pad signature to reserved size
+        byte[] paddedSignature = new byte[reservedSize];
+        System.arraycopy(encodedSignature, 0, paddedSignature, 0, 
+            encodedSignature.length);
+
+        return paddedSignature;
     }
 }
 
@@ -4,22 +4,17 @@ import io.mersel.dss.signer.api.constants.XmlConstants;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.util.XmlUtils;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
-import java.util.concurrent.Semaphore;
 
 /**
  * SOAP mesajları için WS-Security imzaları oluşturan servis.
@@ -30,10 +25,10 @@ public class WsSecuritySignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WsSecuritySignatureService.class);
 
-    private final Semaphore semaphore;
+    private final ConcurrencyLimiter hsmLimiter;
 
-    public WsSecuritySignatureService(Semaphore signatureSemaphore) {
-        this.semaphore = signatureSemaphore;
+    public WsSecuritySignatureService(ConcurrencyLimiter hsmLimiter) {
+        this.hsmLimiter = hsmLimiter;
     }
 
     /**
@@ -253,8 +248,7 @@ public class WsSecuritySignatureService {
                              char[] pin,
                              String bstReference) throws Exception {
         
-        semaphore.acquire();
-        try {
+        hsmLimiter.run(() -> {
             // XML Signature factory oluştur
             javax.xml.crypto.dsig.XMLSignatureFactory sigFactory = 
                 javax.xml.crypto.dsig.XMLSignatureFactory.getInstance("DOM");
@@ -359,9 +353,7 @@ public class WsSecuritySignatureService {
             // İmzala
             signature.sign(signContext);
             
-        } finally {
-            semaphore.release();
-        }
+        });
     }
     
     /**
@@ -425,14 +417,7 @@ public class WsSecuritySignatureService {
      * Document'i byte dizisine dönüştürür.
      */
     private byte[] documentToBytes(Document document) throws Exception {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-        
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        transformer.transform(new DOMSource(document), new StreamResult(outputStream));
-        return outputStream.toByteArray();
+        return XmlUtils.toBytes(document);
     }
 }
 
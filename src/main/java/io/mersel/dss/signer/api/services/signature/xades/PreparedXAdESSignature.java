@@ -0,0 +1,107 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.signature.XAdESSignatureBuilder;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import org.w3c.dom.Document;
+
+/**
+ * SignedInfo'su oluşturulmuş, SignatureValue bekleyen XAdES imza durumu.
+ *
+ * <p>{@link XAdESSignatureService#prepareSignature} tarafından üretilir ve
+ * {@link XAdESSignatureService#completeSignature} ile tamamlanır. İmza, ana belge
+ * DOM'undaki hedef konuma yazılmış durumdadır; tamamlama adımı yalnızca imza değerini
+ * ekler. Durum tek kullanımlıktır: imza değeri DOM'a eklendikten sonra tekrar
+ * tamamlanamaz.
+ */
+public final class PreparedXAdESSignature {
+
+    private final Document document;
+    private final XAdESSignatureParameters parameters;
+    private final XAdESSignatureBuilder signatureBuilder;
+    private final ToBeSigned dataToSign;
+    private final String signatureId;
+    private final DocumentType documentType;
+    private final boolean zipped;
+    private final SigningMaterial material;
+    private volatile boolean consumed;
+
+    PreparedXAdESSignature(Document document,
+                           XAdESSignatureParameters parameters,
+                           XAdESSignatureBuilder signatureBuilder,
+                           ToBeSigned dataToSign,
+                           String signatureId,
+                           DocumentType documentType,
+                           boolean zipped,
+                           SigningMaterial material) {
+        this.document = document;
+        this.parameters = parameters;
+        this.signatureBuilder = signatureBuilder;
+        this.dataToSign = dataToSign;
+        this.signatureId = signatureId;
+        this.documentType = documentType;
+        this.zipped = zipped;
+        this.material = material;
+    }
+
+    /**
+     * İmzalanacak veri (kanonikleştirilmiş SignedInfo).
+     */
+    public ToBeSigned getDataToSign() {
+        return dataToSign;
+    }
+
+    public DigestAlgorithm getDigestAlgorithm() {
+        return parameters.getDigestAlgorithm();
+    }
+
+    public SignatureAlgorithm getSignatureAlgorithm() {
+        return parameters.getSignatureAlgorithm();
+    }
+
+    /**
+     * ds:Signature/@Id olarak yazılan imza kimliği.
+     */
+    public String getSignatureId() {
+        return signatureId;
+    }
+
+    public DocumentType getDocumentType() {
+        return documentType;
+    }
+
+    /**
+     * İmza değeri DOM'a eklendiyse true; bu durumda imza yeniden tamamlanamaz.
+     */
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    Document getDocument() {
+        return document;
+    }
+
+    XAdESSignatureParameters getParameters() {
+        return parameters;
+    }
+
+    XAdESSignatureBuilder getSignatureBuilder() {
+        return signatureBuilder;
+    }
+
+    boolean isZipped() {
+        return zipped;
+    }
+
+    SigningMaterial getMaterial() {
+        return material;
+    }
+
+    void markConsumed() {
+        consumed = true;
+    }
+}
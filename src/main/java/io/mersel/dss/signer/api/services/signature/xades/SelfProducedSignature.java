@@ -0,0 +1,46 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.signature.AdvancedSignature;
+
+import java.util.Objects;
+
+/**
+ * Servisin az önce ürettiği imzaya ait, imzalama sırasında doğrulanmış bilgiler.
+ *
+ * <p>İmza hazırlanırken imzalama sertifikasının süresi ve iptal durumu kontrol edilir,
+ * imza değeri ya servisin kendi anahtarıyla hesaplanır ya da SignedInfo ve sertifika ile
+ * doğrulandıktan sonra eklenir. Seviye yükseltmesi bu bilgileri taşıyarak aynı imzanın
+ * DSS tarafından yeniden tam doğrulanmasını atlar; bilgiler yalnızca
+ * {@link #matches(AdvancedSignature)} ile eşleşen imza için geçerlidir.
+ */
+public final class SelfProducedSignature {
+
+    private final String signatureId;
+    private final CertificateToken signingCertificate;
+
+    /**
+     * @param signatureId        Üretilen imzanın {@code ds:Signature/@Id} değeri
+     * @param signingCertificate İmzalama sırasında doğrulanan imzalama sertifikası
+     */
+    public SelfProducedSignature(String signatureId, CertificateToken signingCertificate) {
+        this.signatureId = Objects.requireNonNull(signatureId, "signatureId");
+        this.signingCertificate = Objects.requireNonNull(signingCertificate, "signingCertificate");
+    }
+
+    public String getSignatureId() {
+        return signatureId;
+    }
+
+    public CertificateToken getSigningCertificate() {
+        return signingCertificate;
+    }
+
+    /**
+     * Uzatılan imzanın bu bilgilerin ait olduğu imza olup olmadığını döner.
+     */
+    public boolean matches(AdvancedSignature signature) {
+        return signatureId.equals(signature.getDAIdentifier())
+                && signingCertificate.equals(signature.getSigningCertificateToken());
+    }
+}
@@ -0,0 +1,65 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.signature.AbstractSignatureParameters;
+import eu.europa.esig.dss.signature.SignatureRequirementsChecker;
+import eu.europa.esig.dss.spi.signature.AdvancedSignature;
+import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+/**
+ * Servisin ürettiği imza için tam doğrulamayı atlayan {@link SignatureRequirementsChecker}.
+ *
+ * <p>DSS seviye uzatmasında imzanın kriptografik bütünlüğünü (tüm referans özetleri ve
+ * imza değeri) ve imzalama sertifikasının geçerliliğini (iptal verisi ile tam doğrulama
+ * bağlamı) yeniden kontrol eder. Uzatılan imzaların tamamı {@link SelfProducedSignature}
+ * ile eşleşiyorsa bu iki kontrol atlanır; aksi halde DSS davranışı aynen uygulanır.
+ * Seviye yapısı ve sertifika zinciri kontrolleri her durumda çalışır.
+ */
+public class SelfProducedSignatureRequirementsChecker extends SignatureRequirementsChecker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SelfProducedSignatureRequirementsChecker.class);
+
+    private final SelfProducedSignature selfProducedSignature;
+
+    public SelfProducedSignatureRequirementsChecker(CertificateVerifier certificateVerifier,
+                                                    AbstractSignatureParameters<?> signatureParameters,
+                                                    SelfProducedSignature selfProducedSignature) {
+        super(certificateVerifier, signatureParameters);
+        this.selfProducedSignature = selfProducedSignature;
+    }
+
+    @Override
+    public void assertSignaturesValid(Collection<AdvancedSignature> signatures) {
+        if (isSelfProduced(signatures)) {
+            LOGGER.debug("İmza servis tarafından üretildi, kriptografik doğrulama atlanıyor: {}",
+                    selfProducedSignature.getSignatureId());
+            return;
+        }
+        super.assertSignaturesValid(signatures);
+    }
+
+    @Override
+    public void assertSigningCertificateIsValid(Collection<AdvancedSignature> signatures) {
+        if (isSelfProduced(signatures)) {
+            LOGGER.debug("İmzalama sertifikası imzalama sırasında doğrulandı, tekrar doğrulanmıyor: {}",
+                    selfProducedSignature.getSignatureId());
+            return;
+        }
+        super.assertSigningCertificateIsValid(signatures);
+    }
+
+    private boolean isSelfProduced(Collection<AdvancedSignature> signatures) {
+        if (signatures.isEmpty()) {
+            return false;
+        }
+        for (AdvancedSignature signature : signatures) {
+            if (!selfProducedSignature.matches(signature)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -16,27 +16,27 @@ import org.w3c.dom.NodeList;
 public class XAdESDocumentPlacementService {
 
     /**
-     * İmza elemanını belge tipine göre uygun konuma yerleştirir.
-     * 
+     * İmzanın yerleştirileceği üst elemanın konumsal XPath ifadesini döner.
+     * DSS bu ifadeyi {@code XAdESSignatureParameters#setXPathLocationString}
+     * üzerinden kullanarak imzayı doğrudan hedef elemana yazar; böylece
+     * imza sonrası belgeyi yeniden ayrıştırıp taşımaya gerek kalmaz.
+     *
      * @param document Ana XML belgesi
-     * @param signatureElement Yerleştirilecek imza elemanı
      * @param documentType Belge tipi
+     * @return Hedef elemanın XPath ifadesi; hedef kök eleman ise {@code null}
      */
-    public void placeSignatureElement(Document document, 
-                                     Element signatureElement,
-                                     DocumentType documentType) {
-        // İmzayı mevcut üst elemanından kaldır
-        Node parent = signatureElement.getParentNode();
-        if (parent != null) {
-            parent.removeChild(signatureElement);
-        }
-
-        // Belge tipine göre hedef konumu belirle
+    public String resolveSignatureParentXPath(Document document, DocumentType documentType) {
         Node target = resolveTargetNode(document, documentType);
+        if (target == document.getDocumentElement()) {
+            return null;
+        }
 
-        // İmzayı import et ve ekle
-        Node importedSignature = document.importNode(signatureElement, true);
-        target.appendChild(importedSignature);
+        StringBuilder xpath = new StringBuilder();
+        for (Node node = target; node != null && node.getNodeType() == Node.ELEMENT_NODE;
+             node = node.getParentNode()) {
+            xpath.insert(0, "/*[" + getElementPosition(node) + "]");
+        }
+        return xpath.toString();
     }
 
     /**
@@ -136,6 +136,17 @@ public class XAdESDocumentPlacementService {
         return signatureNode != null ? signatureNode : applicationArea;
     }
 
+    private int getElementPosition(Node element) {
+        int position = 1;
+        for (Node sibling = element.getPreviousSibling(); sibling != null;
+             sibling = sibling.getPreviousSibling()) {
+            if (sibling.getNodeType() == Node.ELEMENT_NODE) {
+                position++;
+            }
+        }
+        return position;
+    }
+
     private Node getFirstElementByTagName(Document document, String tagName) {
         NodeList nodeList = document.getElementsByTagName(tagName);
         return (nodeList != null && nodeList.getLength() > 0) ? nodeList.item(0) : null;
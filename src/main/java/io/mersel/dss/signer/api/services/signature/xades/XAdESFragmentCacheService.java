@@ -0,0 +1,36 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.xades.signature.XAdESCertificateFragments;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * İmzalama materyali başına XAdES sertifika parçaları önbelleğini yönetir.
+ *
+ * <p>İmzacı sertifikası ve zinciri uygulama boyunca değişmediğinden KeyInfo
+ * (X509Data, KeyValue) ve SigningCertificate/CertDigest içerikleri her istekte
+ * yeniden üretilmez; imza builder'ı bu önbellekteki parçaları klonlar. Sıcak yolda
+ * yalnızca SigningTime ve referans özetleri gibi isteğe özgü veriler hesaplanır.
+ *
+ * <p>Önbellek {@link SigningMaterial} örneğine zayıf referansla bağlıdır; materyal
+ * yeniden yüklendiğinde eski parçalar kendiliğinden bırakılır.
+ */
+@Service
+public class XAdESFragmentCacheService {
+
+    private final Map<SigningMaterial, XAdESCertificateFragments> fragmentsByMaterial = new WeakHashMap<>();
+
+    /**
+     * Materyale ait parça önbelleğini döner, yoksa oluşturur.
+     *
+     * @param material İmzalama materyali
+     * @return Materyalin imzacı sertifikasına ait parça önbelleği
+     */
+    public synchronized XAdESCertificateFragments getFragments(SigningMaterial material) {
+        return fragmentsByMaterial.computeIfAbsent(material,
+            m -> new XAdESCertificateFragments(m.getPrimaryCertificateToken()));
+    }
+}
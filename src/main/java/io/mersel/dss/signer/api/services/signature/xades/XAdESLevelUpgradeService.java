@@ -1,87 +1,227 @@
 package io.mersel.dss.signer.api.services.signature.xades;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.model.DSSDocument;
-import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
 import eu.europa.esig.dss.xades.XAdESSignatureParameters;
 import eu.europa.esig.dss.xades.XAdESTimestampParameters;
 import eu.europa.esig.dss.xades.signature.XAdESLevelA;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
+import io.mersel.dss.signer.api.services.revocation.RevocationInclusionPolicy;
 import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.w3c.dom.Document;
 
 import javax.xml.crypto.dsig.CanonicalizationMethod;
 
 /**
  * XAdES imza seviyelerini yükselten servis.
  * e-Arşiv Raporları için XAdES-B'den XAdES-A'ya yükseltme yapar.
+ *
+ * <p>İmzalama akışında az önce üretilen imza için {@link SelfProducedSignature} bilgileri
+ * verilirse DSS'in uzatma öncesi tam doğrulaması (imza bütünlüğü ve imzalama sertifikası)
+ * atlanır. {@code XADES_UPGRADE_STRICT_VALIDATION=true} ile her yükseltmede tam doğrulama
+ * yapılır.
+ *
+ * <p>Hangi OCSP/CRL verisinin imzaya ekleneceği {@link RevocationInclusionPolicy} ile belirlenir;
+ * varsayılan olarak OCSP ile kapsanan sertifikaların CRL'leri gömülmez
+ * ({@code XADES_REVOCATION_INCLUSION}, {@code XADES_MAX_EMBEDDED_CRL_BYTES}).
  */
 @Service
 public class XAdESLevelUpgradeService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XAdESLevelUpgradeService.class);
 
-    private final CertificateVerifier certificateVerifier;
+    private final CertificateVerifierProvider certificateVerifierProvider;
     private final TimestampConfigurationService timestampService;
+    private final ConcurrencyLimiter networkLimiter;
+    private final boolean strictValidation;
+    private final RevocationInclusionPolicy revocationInclusionPolicy;
 
-    public XAdESLevelUpgradeService(CertificateVerifier certificateVerifier,
-                                   TimestampConfigurationService timestampService) {
-        this.certificateVerifier = certificateVerifier;
+    public XAdESLevelUpgradeService(CertificateVerifierProvider certificateVerifierProvider,
+                                   TimestampConfigurationService timestampService,
+                                   ConcurrencyLimiter networkLimiter) {
+        this(certificateVerifierProvider, timestampService, networkLimiter, false);
+    }
+
+    public XAdESLevelUpgradeService(CertificateVerifierProvider certificateVerifierProvider,
+                                   TimestampConfigurationService timestampService,
+                                   ConcurrencyLimiter networkLimiter,
+                                   boolean strictValidation) {
+        this(certificateVerifierProvider, timestampService, networkLimiter, strictValidation,
+                RevocationInclusionPolicy.Mode.OCSP_PREFERRED, 0);
+    }
+
+    @Autowired
+    public XAdESLevelUpgradeService(CertificateVerifierProvider certificateVerifierProvider,
+                                   TimestampConfigurationService timestampService,
+                                   ConcurrencyLimiter networkLimiter,
+                                   @Value("${XADES_UPGRADE_STRICT_VALIDATION:false}") boolean strictValidation,
+                                   @Value("${XADES_REVOCATION_INCLUSION:OCSP_PREFERRED}") RevocationInclusionPolicy.Mode revocationInclusion,
+                                   @Value("${XADES_MAX_EMBEDDED_CRL_BYTES:0}") long maxEmbeddedCrlBytes) {
+        this.certificateVerifierProvider = certificateVerifierProvider;
         this.timestampService = timestampService;
+        this.networkLimiter = networkLimiter;
+        this.strictValidation = strictValidation;
+        this.revocationInclusionPolicy = new RevocationInclusionPolicy(revocationInclusion, maxEmbeddedCrlBytes);
+        if (strictValidation) {
+            LOGGER.info("XAdES seviye yükseltmesinde katı doğrulama açık: üretilen imzalar yeniden doğrulanacak");
+        }
+        LOGGER.info("XAdES iptal verisi ekleme politikası: {}, en büyük gömülü CRL: {}",
+                revocationInclusionPolicy.getMode(),
+                maxEmbeddedCrlBytes > 0 ? maxEmbeddedCrlBytes + " bayt" : "sınırsız");
     }
 
     /**
      * Belge tipine göre imza seviyesini yükseltir.
      * Şu an sadece e-Arşiv Raporları için XAdES-A yükseltmesi yapılır.
-     * 
-     * @param signedDocument İmzalanmış belge
+     *
+     * <p>İmzalama sırasında oluşturulan DOM yerinde yükseltilir; imzalı belge
+     * serileştirilip yeniden ayrıştırılmaz ve tüm seviyeler tek analiz ile uzatılır.
+     * Hata durumunda DOM kısmen değişmiş olabilir, çağıran yükseltme öncesi
+     * serileştirdiği XAdES-B çıktısını kullanmalıdır.
+     *
+     * @param signedDocument İmzalanmış belgenin DOM'u (yerinde güncellenir)
      * @param documentType Belge tipi
      * @param baseParameters Temel imza parametreleri
-     * @return Seviyesi yükseltilmiş belge (veya değişiklik yapılmamışsa orijinal)
+     * @param selfProducedSignature İmzalama sırasında doğrulanan imza bilgileri; null ise
+     *                              veya katı doğrulama açıksa imza DSS tarafından tam doğrulanır
+     * @return Yükseltilmiş DOM veya yükseltme yapılmadıysa/başarısız olduysa null
+     */
+    public Document upgradeIfNeeded(Document signedDocument,
+                                    DocumentType documentType,
+                                    XAdESSignatureParameters baseParameters,
+                                    SelfProducedSignature selfProducedSignature) {
+        try {
+            return upgrade(signedDocument, documentType, baseParameters, selfProducedSignature);
+        } catch (Exception ex) {
+            LOGGER.error("XAdES seviye yükseltme başarısız. XAdES-B seviyesi korunuyor.", ex);
+            // Hata durumunda çağıran XAdES-B çıktısını kullanır
+            return null;
+        }
+    }
+
+    /**
+     * Daha önce imzalanmış bir belgenin seviyesini, imzalama parametreleri olmadan
+     * yükseltir. Asenkron işlerde imza ile yükseltme farklı zamanlarda (yeniden
+     * başlatma sonrasında da) yapıldığından parametreler belgeden bağımsız oluşturulur.
+     *
+     * @param signedDocument İmzalanmış belge (XAdES-B)
+     * @param documentType Belge tipi
+     * @param tokenReferencesDigestAlgorithm Sertifika ve iptal referansları için özet algoritması
+     * @return Seviyesi yükseltilmiş belge (veya yükseltme gerekmiyorsa orijinal)
+     * @throws eu.europa.esig.dss.model.DSSException Yükseltme başarısız olursa
+     */
+    public DSSDocument upgrade(DSSDocument signedDocument,
+                               DocumentType documentType,
+                               DigestAlgorithm tokenReferencesDigestAlgorithm) {
+        XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+        parameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_B);
+        parameters.setTokenReferencesDigestAlgorithm(tokenReferencesDigestAlgorithm);
+        return upgrade(signedDocument, documentType, parameters);
+    }
+
+    /**
+     * Belge tipine göre imza seviyesini yükseltir; {@link #upgradeIfNeeded} aksine
+     * yükseltme hatasını çağırana iletir.
+     */
+    private DSSDocument upgrade(DSSDocument signedDocument,
+                                DocumentType documentType,
+                                XAdESSignatureParameters baseParameters) {
+        XAdESLevelA levelA = createLevelA(documentType, baseParameters);
+        if (levelA == null) {
+            return signedDocument;
+        }
+
+        // Ağ izni yalnızca TSA, OCSP ve CRL çağrıları süresince tutulur
+        DSSDocument upgradedDocument = levelA.extendSignatures(signedDocument, baseParameters);
+
+        LOGGER.info("e-Arşiv Raporu başarıyla XAdES-A seviyesine yükseltildi");
+        return upgradedDocument;
+    }
+
+    /**
+     * DOM'u yerinde yükseltir; {@link #upgradeIfNeeded(Document, DocumentType, XAdESSignatureParameters,
+     * SelfProducedSignature)} aksine yükseltme hatasını çağırana iletir.
+     */
+    private Document upgrade(Document signedDocument,
+                             DocumentType documentType,
+                             XAdESSignatureParameters baseParameters,
+                             SelfProducedSignature selfProducedSignature) {
+        XAdESLevelA levelA = createLevelA(documentType, baseParameters);
+        if (levelA == null) {
+            return null;
+        }
+        if (!strictValidation) {
+            levelA.setSelfProducedSignature(selfProducedSignature);
+        }
+
+        // Ağ izni yalnızca TSA, OCSP ve CRL çağrıları süresince tutulur
+        Document upgradedDocument = levelA.extendSignatures(signedDocument, baseParameters);
+
+        LOGGER.info("e-Arşiv Raporu başarıyla XAdES-A seviyesine yükseltildi");
+        return upgradedDocument;
+    }
+
+    /**
+     * Belge tipi ve timestamp servisi yükseltmeye uygunsa parametreleri hazırlayıp
+     * XAdES-A uzatma profilini oluşturur.
+     *
+     * @return Uzatma profili veya yükseltme gerekmiyorsa null
      */
-    public DSSDocument upgradeIfNeeded(DSSDocument signedDocument,
-                                      DocumentType documentType,
-                                      XAdESSignatureParameters baseParameters) {
+    private XAdESLevelA createLevelA(DocumentType documentType, XAdESSignatureParameters baseParameters) {
         // Sadece e-Arşiv Raporları için upgrade yap
         if (documentType != DocumentType.EArchiveReport) {
-            return signedDocument;
+            return null;
         }
 
         // Timestamp servis yoksa upgrade yapılamaz
         if (!timestampService.isAvailable()) {
             LOGGER.warn("Timestamp servisi yapılandırılmamış. e-Arşiv Raporu için XAdES-A yükseltmesi atlanıyor.");
-            return signedDocument;
+            return null;
         }
 
-        try {
-            LOGGER.info("e-Arşiv Raporu için XAdES-A seviyesine yükseltiliyor...");
-
-            // Timestamp parametrelerini yapılandır
-            XAdESTimestampParameters tsParams = new XAdESTimestampParameters();
-            tsParams.setCanonicalizationMethod(CanonicalizationMethod.INCLUSIVE_WITH_COMMENTS);
-            tsParams.setDigestAlgorithm(DigestAlgorithm.SHA256);
+        LOGGER.info("e-Arşiv Raporu için XAdES-A seviyesine yükseltiliyor...");
 
-            baseParameters.setArchiveTimestampParameters(tsParams);
-            baseParameters.setSignatureTimestampParameters(tsParams);
-            baseParameters.setContentTimestampParameters(tsParams);
-            baseParameters.setEn319132(false);
+        // Timestamp parametrelerini yapılandır
+        XAdESTimestampParameters tsParams = new XAdESTimestampParameters();
+        tsParams.setCanonicalizationMethod(CanonicalizationMethod.INCLUSIVE_WITH_COMMENTS);
+        tsParams.setDigestAlgorithm(DigestAlgorithm.SHA256);
 
-            // XAdES-A seviyesine yükselt
-            XAdESLevelA levelA = new XAdESLevelA(certificateVerifier);
-            levelA.setTspSource(timestampService.getTspSource());
-            
-            DSSDocument upgradedDocument = levelA.extendSignatures(signedDocument, baseParameters);
+        baseParameters.setArchiveTimestampParameters(tsParams);
+        baseParameters.setSignatureTimestampParameters(tsParams);
+        baseParameters.setContentTimestampParameters(tsParams);
+        baseParameters.setEn319132(false);
 
-            LOGGER.info("e-Arşiv Raporu başarıyla XAdES-A seviyesine yükseltildi");
-            return upgradedDocument;
+        // XAdES-A seviyesine yükselt
+        // Yükseltme boyunca tek bir doğrulayıcı anlık görüntüsü kullanılır
+        XAdESLevelA levelA = new XAdESLevelA(certificateVerifierProvider.get());
+        levelA.setTspSource(networkLimitedTspSource(timestampService.getTspSource()));
+        levelA.setRevocationInclusionPolicy(revocationInclusionPolicy);
+        return levelA;
+    }
 
-        } catch (Exception ex) {
-            LOGGER.error("XAdES seviye yükseltme başarısız. XAdES-B seviyesi korunuyor.", ex);
-            // Hata durumunda orijinal belgeyi döndür (XAdES-B)
-            return signedDocument;
-        }
+    /**
+     * Zaman damgası isteklerini ağ sınırlayıcısı altında yapan TSP kaynağı döner. OCSP, CRL ve
+     * AIA kaynakları ağ sınırlayıcısını kendi loader'larında kullanır; uzatmanın geri kalanı
+     * (kanonikleştirme, özetler, DOM güncellemesi) izin tutmadan çalışır.
+     */
+    private TSPSource networkLimitedTspSource(TSPSource tspSource) {
+        return (digestAlgorithm, digest) -> {
+            try {
+                return networkLimiter.call(() -> tspSource.getTimeStampResponse(digestAlgorithm, digest));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SignatureException("Zaman damgası isteği kesildi", e);
+            }
+        };
     }
 }
-
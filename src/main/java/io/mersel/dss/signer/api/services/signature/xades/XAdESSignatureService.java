@@ -1,35 +1,29 @@
 package io.mersel.dss.signer.api.services.signature.xades;
 
 import eu.europa.esig.dss.enumerations.MimeType;
+import eu.europa.esig.dss.enumerations.SigningOperation;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.InMemoryDocument;
-import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.signature.SignatureRequirementsChecker;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
-import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
-import eu.europa.esig.dss.spi.x509.CertificateSource;
-import eu.europa.esig.dss.spi.x509.CommonCertificateSource;
 import eu.europa.esig.dss.xades.XAdESSignatureParameters;
 import eu.europa.esig.dss.xades.reference.DSSReference;
-import eu.europa.esig.dss.xades.signature.XAdESLevelC;
-import eu.europa.esig.dss.xades.signature.XAdESService;
 import eu.europa.esig.dss.xades.signature.XAdESSignatureBuilder;
-import eu.europa.esig.dss.validation.SignedDocumentValidator;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
-import eu.europa.esig.dss.model.x509.CertificateToken;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 import java.io.InputStream;
 import java.util.Base64;
-import java.util.concurrent.Semaphore;
 
 /**
  * XAdES imzaları oluşturan servis.
@@ -55,34 +49,37 @@ public class XAdESSignatureService {
     private static final String ZIP_ENTRY_NAME = "signedcontent.xml";
     private static final String SIGNED_PROPERTIES_TYPE = "http://uri.etsi.org/01903#SignedProperties";
 
-    private final XAdESService xadesService;
     private final XAdESParametersBuilderService parametersBuilder;
     private final XmlProcessingService xmlProcessor;
     private final XAdESDocumentPlacementService documentPlacement;
     private final XAdESLevelUpgradeService levelUpgradeService;
+    private final XAdESFragmentCacheService fragmentCache;
     private final CryptoSignerService cryptoSigner;
-    private final CertificateVerifier certificateVerifier;
+    private final CertificateVerifierProvider certificateVerifierProvider;
     private final io.mersel.dss.signer.api.services.util.CompressionService compressionService;
-    private final Semaphore semaphore;
+    private final ConcurrencyLimiter hsmLimiter;
+    private final ConcurrencyLimiter cpuLimiter;
 
-    public XAdESSignatureService(XAdESService xadesService,
-            XAdESParametersBuilderService parametersBuilder,
+    public XAdESSignatureService(XAdESParametersBuilderService parametersBuilder,
             XmlProcessingService xmlProcessor,
             XAdESDocumentPlacementService documentPlacement,
             XAdESLevelUpgradeService levelUpgradeService,
+            XAdESFragmentCacheService fragmentCache,
             CryptoSignerService cryptoSigner,
-            CertificateVerifier certificateVerifier,
+            CertificateVerifierProvider certificateVerifierProvider,
             io.mersel.dss.signer.api.services.util.CompressionService compressionService,
-            Semaphore signatureSemaphore) {
-        this.xadesService = xadesService;
+            ConcurrencyLimiter hsmLimiter,
+            ConcurrencyLimiter cpuLimiter) {
         this.parametersBuilder = parametersBuilder;
         this.xmlProcessor = xmlProcessor;
         this.documentPlacement = documentPlacement;
         this.levelUpgradeService = levelUpgradeService;
+        this.fragmentCache = fragmentCache;
         this.cryptoSigner = cryptoSigner;
-        this.certificateVerifier = certificateVerifier;
+        this.certificateVerifierProvider = certificateVerifierProvider;
         this.compressionService = compressionService;
-        this.semaphore = signatureSemaphore;
+        this.hsmLimiter = hsmLimiter;
+        this.cpuLimiter = cpuLimiter;
     }
 
     /**
@@ -100,6 +97,63 @@ public class XAdESSignatureService {
             String signatureId,
             boolean zipped,
             SigningMaterial material) {
+        PreparedXAdESSignature prepared = prepareSignature(
+                xmlInputStream, documentType, signatureId, zipped, material);
+        return completeSignature(prepared, null);
+    }
+
+    /**
+     * XML belgesini XAdES-B seviyesinde imzalar; belge tipine bağlı seviye yükseltmesi
+     * (e-Arşiv Raporu için XAdES-A) yapılmaz. Yükseltme, TSA ve iptal sorguları
+     * HTTP isteğini ve HSM iznini bekletmesin diye çağıran tarafından (asenkron iş)
+     * ayrıca yürütülür.
+     *
+     * @param xmlInputStream XML belgesi içeren input stream
+     * @param documentType   Belge tipi (e-Fatura, e-Arşiv vb.)
+     * @param signatureId    İsteğe bağlı imza tanımlayıcısı
+     * @param zipped         Girdinin ZIP formatında olup olmadığı (çıktı ZIP'lenmez)
+     * @param material       İmzalama sertifikası ve private key içeren materyal
+     * @return XAdES-B imzalı belge ve imza değeri içeren yanıt
+     */
+    public SignResponse signXmlWithoutUpgrade(InputStream xmlInputStream,
+            DocumentType documentType,
+            String signatureId,
+            boolean zipped,
+            SigningMaterial material) {
+        PreparedXAdESSignature prepared = prepareSignature(
+                xmlInputStream, documentType, signatureId, zipped, material);
+        try {
+            SignResponse response = createSignature(prepared, null, false);
+
+            LOGGER.info("XAdES-B imzası oluşturuldu. Belge tipi: {}", prepared.getDocumentType());
+
+            return response;
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("XAdES imzası oluşturulurken hata", e);
+            throw new SignatureException("XAdES imzası oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * İmzanın ilk aşaması: belgeyi ayrıştırır, imzayı hedef konuma yerleştirir ve
+     * SignedInfo'yu oluşturur. Dönen durumdaki {@link PreparedXAdESSignature#getDataToSign()}
+     * imzalanacak veridir; imza {@link #completeSignature} ile tamamlanır.
+     *
+     * @param xmlInputStream XML belgesi içeren input stream
+     * @param documentType   Belge tipi (e-Fatura, e-Arşiv vb.)
+     * @param signatureId    İsteğe bağlı imza tanımlayıcısı
+     * @param zipped         Belgenin ZIP formatında olup olmadığı
+     * @param material       İmzalama sertifikası ve private key içeren materyal
+     * @return SignatureValue bekleyen imza durumu
+     */
+    public PreparedXAdESSignature prepareSignature(InputStream xmlInputStream,
+            DocumentType documentType,
+            String signatureId,
+            boolean zipped,
+            SigningMaterial material) {
         try {
             // 1. XML byte'larını çıkar
             byte[] xmlBytes = extractXmlBytes(xmlInputStream, zipped);
@@ -116,20 +170,51 @@ public class XAdESSignatureService {
             XAdESSignatureParameters parameters = parametersBuilder.buildParameters(
                     document, documentType, signatureId, material);
 
-            // 4. İmzalama sertifika zincirini doğrulayıcıya ekle
-            addSigningCertificateChainToVerifier(material);
+            // İmzanın belge tipine göre hedef konumu (DSS imzayı doğrudan buraya yazar)
+            parameters.setXPathLocationString(
+                    documentPlacement.resolveSignatureParentXPath(document, documentType));
 
-            // 5. İmzayı oluştur
-            SignResponse response = createSignature(document, dssDocument, parameters,
-                    documentType, material);
+            // 4. SignedInfo'yu oluştur (imzalama zinciri parametrelerde ve doğrulayıcı
+            // anlık görüntüsünde bulunur, doğrulayıcı istek başına değiştirilmez)
+            return buildSignedInfo(document, dssDocument, parameters, documentType, zipped, material,
+                    certificateVerifierProvider.get());
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("XAdES imzası hazırlanırken hata", e);
+            throw new SignatureException("XAdES imzası oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * İmzanın ikinci aşaması: imza değerini ekler, belgeyi serileştirir ve gerekirse
+     * seviye yükseltmesi yapar.
+     *
+     * @param prepared       {@link #prepareSignature} ile hazırlanmış imza durumu
+     * @param signatureValue Dışarıda hesaplanmış imza değeri; null ise imzalama
+     *                       materyalindeki private key ile hesaplanır
+     * @return İmzalanmış belge ve imza değeri içeren yanıt
+     * @throws SignatureException Verilen imza değeri SignedInfo ile eşleşmezse
+     *                            (INVALID_SIGNATURE_VALUE) veya durum daha önce
+     *                            tamamlandıysa (SIGNING_STATE_CONSUMED)
+     */
+    public SignResponse completeSignature(PreparedXAdESSignature prepared, byte[] signatureValue) {
+        if (prepared.isConsumed()) {
+            throw new SignatureException("SIGNING_STATE_CONSUMED", "İmza durumu daha önce tamamlanmış");
+        }
+        try {
+            // 5. İmzayı tamamla
+            SignResponse response = createSignature(prepared, signatureValue, true);
 
             // 6. Gerekirse ZIP'le
-            if (zipped) {
+            if (prepared.isZipped()) {
                 byte[] zippedBytes = compressionService.zipBytes(ZIP_ENTRY_NAME, response.getSignedDocument());
-                return new SignResponse(zippedBytes, response.getSignatureValue());
+                return new SignResponse(zippedBytes, response.getSignatureValue(),
+                        response.getSignatureId(), true);
             }
 
-            LOGGER.info("XAdES imzası başarıyla oluşturuldu. Belge tipi: {}", documentType);
+            LOGGER.info("XAdES imzası başarıyla oluşturuldu. Belge tipi: {}", prepared.getDocumentType());
 
             return response;
 
@@ -142,127 +227,126 @@ public class XAdESSignatureService {
     }
 
     /**
-     * İmzalama sürecini orkestre ederek imzayı oluşturur.
-     * Semaphore ile eşzamanlı imza sayısını kontrol eder.
+     * İmza oluşturucuyu hazırlar ve SignedInfo'yu tek seferde oluşturur.
+     * Sertifika iptal kontrolü ağ, SignedInfo oluşturma CPU sınırlayıcısı altında yürütülür.
      */
-    private SignResponse createSignature(Document mainDocument,
+    private PreparedXAdESSignature buildSignedInfo(Document mainDocument,
             DSSDocument dssDocument,
             XAdESSignatureParameters parameters,
             DocumentType documentType,
-            SigningMaterial material) throws Exception {
-
-        // OCSP cache cleanup için signature ID'yi takip et
-        String actualSignatureId = null;
-        SignatureValue capturedSignatureValue = null;
-
-        semaphore.acquire();
-        try {
-            // Referanslar için içerik ayarla
-            if (parameters.getReferences() != null) {
-                for (DSSReference reference : parameters.getReferences()) {
-                    if (reference.getContents() == null &&
-                            (reference.getType() == null ||
-                                    !SIGNED_PROPERTIES_TYPE.equals(reference.getType()))) {
-                        reference.setContents(dssDocument);
-                    }
+            boolean zipped,
+            SigningMaterial material,
+            CertificateVerifier certificateVerifier) throws Exception {
+
+        // Referanslar için içerik ayarla
+        if (parameters.getReferences() != null) {
+            for (DSSReference reference : parameters.getReferences()) {
+                if (reference.getContents() == null &&
+                        (reference.getType() == null ||
+                                !SIGNED_PROPERTIES_TYPE.equals(reference.getType()))) {
+                    reference.setContents(dssDocument);
                 }
             }
+        }
+
+        // İmzalama sertifikasının geçerliliğini HSM'e gitmeden önce kontrol et
+        // (OCSP/CRL çağrıları ağ sınırlayıcısını kaynakların loader'larında alır)
+        assertSigningCertificateValid(parameters, certificateVerifier);
 
+        return cpuLimiter.call(() -> {
             // İmza oluşturucuyu hazırla
             XAdESSignatureBuilder signatureBuilder = XAdESSignatureBuilder.getSignatureBuilder(
                     parameters, dssDocument, certificateVerifier);
+            // Sertifikaya bağlı KeyInfo ve SigningCertificate parçaları önbellekten klonlanır
+            signatureBuilder.setCertificateFragments(fragmentCache.getFragments(material));
             parameters.getContext().setBuilder(signatureBuilder);
+            parameters.getContext().setOperationKind(SigningOperation.SIGN);
 
+            // SignedInfo'yu tek seferde oluştur (referans kanonikleştirme ve özetleri burada hesaplanır)
             ToBeSigned dataToSign = new ToBeSigned(signatureBuilder.build());
 
-            // Veriyi imzala
-            SignatureValue signatureValue = cryptoSigner.sign(
-                    dataToSign,
-                    material.getPrivateKey(),
-                    parameters.getDigestAlgorithm());
-            
-            // SignatureValue'yu yakala (response için)
-            capturedSignatureValue = signatureValue;
-
-            // İmzalı belgeyi oluştur
-            DSSDocument signedDocument = xadesService.signDocument(
-                    dssDocument, parameters, signatureValue);
-
-            // e-Arşiv Raporu ise XAdES-A seviyesine yükselt
-            signedDocument = levelUpgradeService.upgradeIfNeeded(
-                    signedDocument, documentType, parameters);
-
-            // Signature ID'yi yakala (cache cleanup için)
-            SignedDocumentValidator tempValidator = SignedDocumentValidator.fromDocument(signedDocument);
-            if (tempValidator.getSignatures() != null && !tempValidator.getSignatures().isEmpty()) {
-                actualSignatureId = tempValidator.getSignatures().get(0).getId();
-            }
-
-            // Son işleme: İmzayı doğru konuma yerleştir
-            byte[] signedBytes = xmlProcessor.dssDocumentToBytes(signedDocument);
-            Document signedDom = xmlProcessor.parseDocument(signedBytes);
-            Element signatureElement = xmlProcessor.findSignatureElement(signedDom);
-
-            byte[] finalSignedBytes;
-            if (signatureElement != null) {
-                documentPlacement.placeSignatureElement(
-                        mainDocument, signatureElement, documentType);
-                finalSignedBytes = xmlProcessor.documentToBytes(mainDocument);
-            } else {
-                finalSignedBytes = signedBytes;
-            }
+            // Builder'ın ds:Signature/@Id olarak yazdığı deterministik ID
+            // (reinit() bağlamı sıfırlamadan önce alınmalı)
+            String signatureId = parameters.getDeterministicId();
 
-            // SignatureValue'yu Base64 string'e çevir
-            String encodedSignature = capturedSignatureValue != null 
-                ? Base64.getEncoder().encodeToString(capturedSignatureValue.getValue())
-                : null;
-
-            return new SignResponse(finalSignedBytes, encodedSignature);
-
-        } finally {
-            semaphore.release();
-
-            // OCSP cache cleanup (memory leak önleme)
-            if (actualSignatureId != null) {
-                // 1. Bu imzaya özel cache'i temizle (her imza için)
-                XAdESLevelC.cleanupOcspCache(actualSignatureId);
-
-                // 2. Eski genel cache'leri temizle (sadece e-Arşiv Raporu/XAdES-A upgrade yapıldıysa)
-                // Çünkü XAdES-A upgrade sırasında çok fazla OCSP/CRL cache'i oluşur
-                if (documentType == DocumentType.EArchiveReport) {
-                    XAdESLevelC.cleanupOldCaches(5 * 60 * 1000L);
-                }
-            }
-        }
+            return new PreparedXAdESSignature(mainDocument, parameters, signatureBuilder,
+                    dataToSign, signatureId, documentType, zipped, material);
+        });
     }
 
     /**
-     * İmzalama sertifika zincirini doğrulayıcının yardımcı kaynağına ekler.
-     * Bu, DSS doğrulayıcısının zinciri çevrimiçi bulabilmesini sağlar.
+     * İmza değerini ekleyerek imzayı tamamlar.
+     * Her adım yalnızca ihtiyaç duyduğu sınırlayıcıyı tutar: private key işlemi HSM,
+     * DOM güncelleme ve serileştirme CPU sınırlayıcısı altında yürütülür. Seviye
+     * yükseltmesinde ağ sınırlayıcısı yalnızca TSA, OCSP ve CRL çağrıları süresince
+     * tutulur ({@link XAdESLevelUpgradeService}).
      */
-    private void addSigningCertificateChainToVerifier(SigningMaterial material) {
-        if (!(certificateVerifier instanceof CommonCertificateVerifier)) {
-            return;
-        }
-
-        CommonCertificateVerifier commonVerifier = (CommonCertificateVerifier) certificateVerifier;
-        CertificateSource adjunctSource = commonVerifier.getAdjunctCertSources();
-
-        CommonCertificateSource adjunct;
-        if (adjunctSource instanceof CommonCertificateSource) {
-            adjunct = (CommonCertificateSource) adjunctSource;
+    private SignResponse createSignature(PreparedXAdESSignature prepared,
+            byte[] suppliedSignatureValue,
+            boolean upgradeLevel) throws Exception {
+
+        XAdESSignatureParameters parameters = prepared.getParameters();
+        DocumentType documentType = prepared.getDocumentType();
+        SigningMaterial material = prepared.getMaterial();
+
+        String signatureId = prepared.getSignatureId();
+
+        byte[] signatureValue;
+        if (suppliedSignatureValue != null) {
+            // Dışarıda hesaplanan imza değeri, DOM'a eklenmeden önce doğrulanır (public key işlemi)
+            boolean valid = cpuLimiter.call(() -> cryptoSigner.verify(prepared.getDataToSign(),
+                    suppliedSignatureValue, material.getSigningCertificate(), parameters.getDigestAlgorithm()));
+            if (!valid) {
+                throw new SignatureException("INVALID_SIGNATURE_VALUE",
+                        "İmza değeri imzalanacak veri ve imzalama sertifikası ile eşleşmiyor");
+            }
+            signatureValue = suppliedSignatureValue;
         } else {
-            adjunct = new CommonCertificateSource();
-            commonVerifier.setAdjunctCertSources(adjunct);
+            // Veriyi imzala
+            signatureValue = hsmLimiter.call(() -> cryptoSigner.sign(
+                    prepared.getDataToSign(),
+                    material.getPrivateKey(),
+                    parameters.getDigestAlgorithm()).getValue());
         }
 
-        // İmzalama zincirindeki tüm sertifikaları ekle
-        for (CertificateToken cert : material.getCertificateTokens()) {
-            adjunct.addCertificate(cert);
+        byte[] signedBytes = cpuLimiter.call(() -> {
+            // SignatureValue'yu ekle: imza build() sırasında ana belgedeki hedef konuma
+            // yazıldığından DOM yeniden kullanılır, taşıma veya yeniden ayrıştırma gerekmez
+            prepared.markConsumed();
+            prepared.getSignatureBuilder().appendSignatureValue(signatureValue);
+            parameters.reinit();
+
+            // İmzalı belgeyi tek seferde serileştir
+            return xmlProcessor.documentToBytes(prepared.getDocument());
+        });
+        // e-Arşiv Raporu ise XAdES-A seviyesine yükselt: imzalı DOM yeniden ayrıştırılmadan
+        // yerinde uzatılır, yükseltme başarısız olursa yukarıdaki XAdES-B çıktısı kullanılır.
+        // İmza değeri burada üretildiği/doğrulandığı ve sertifika hazırlıkta kontrol edildiği
+        // için bu bilgiler taşınır, uzatmada imza yeniden tam doğrulanmaz.
+        byte[] finalSignedBytes = signedBytes;
+        if (upgradeLevel) {
+            Document upgradedDocument = levelUpgradeService.upgradeIfNeeded(
+                    prepared.getDocument(), documentType, parameters,
+                    new SelfProducedSignature(signatureId, parameters.getSigningCertificate()));
+            if (upgradedDocument != null) {
+                finalSignedBytes = cpuLimiter.call(() -> xmlProcessor.documentToBytes(upgradedDocument));
+            }
         }
 
-        LOGGER.debug("Doğrulayıcıya {} adet sertifika eklendi",
-                material.getCertificateTokens().size());
+        // SignatureValue'yu Base64 string'e çevir
+        String encodedSignature = Base64.getEncoder().encodeToString(signatureValue);
+
+        return new SignResponse(finalSignedBytes, encodedSignature, signatureId);
+    }
+
+    /**
+     * İmzalama sertifikasının süresi, geçerlilik başlangıcı ve iptal durumunu
+     * doğrulayıcının uyarı ayarlarına göre kontrol eder.
+     */
+    private void assertSigningCertificateValid(XAdESSignatureParameters parameters,
+            CertificateVerifier certificateVerifier) {
+        new SignatureRequirementsChecker(certificateVerifier, parameters)
+                .assertSigningCertificateIsValid(parameters.getSigningCertificate());
     }
 
     /**
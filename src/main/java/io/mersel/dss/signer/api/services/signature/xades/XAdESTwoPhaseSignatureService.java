@@ -0,0 +1,145 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.spi.DSSUtils;
+import io.mersel.dss.signer.api.dtos.XadesPrepareResponseDto;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.util.BoundedTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * İki aşamalı XAdES imza servisi.
+ *
+ * <p>İlk aşamada belge hazırlanır (ayrıştırma, imza yerleşimi, SignedInfo) ve
+ * hazırlanan durum bir tanıtıcı ile sunucuda, boyutu ve süresi sınırlı bir önbellekte
+ * tutulur. İkinci aşamada imza değeri istemciden alınır ya da sunucudaki anahtarla
+ * hesaplanır ve imzalı belge döner. Böylece istemciler hazırlık ile HSM imzalamayı
+ * ardışık düzende yürütebilir ve ucuz olan ikinci aşamayı pahalı hazırlığı tekrarlamadan
+ * yeniden deneyebilir.
+ */
+@Service
+public class XAdESTwoPhaseSignatureService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAdESTwoPhaseSignatureService.class);
+
+    private final XAdESSignatureService xadesSignatureService;
+    private final BoundedTtlCache<String, PreparedXAdESSignature> pendingSignatures;
+
+    public XAdESTwoPhaseSignatureService(XAdESSignatureService xadesSignatureService,
+                                         SignatureServiceConfiguration config) {
+        this(xadesSignatureService, new BoundedTtlCache<>(
+            config.getTwoPhaseMaxPending(), config.getTwoPhaseTtlSeconds() * 1000L));
+    }
+
+    XAdESTwoPhaseSignatureService(XAdESSignatureService xadesSignatureService,
+                                  BoundedTtlCache<String, PreparedXAdESSignature> pendingSignatures) {
+        this.xadesSignatureService = xadesSignatureService;
+        this.pendingSignatures = pendingSignatures;
+    }
+
+    /**
+     * Birinci aşama: imzayı hazırlar ve imzalanacak veriyi döner.
+     *
+     * @param xmlInputStream XML belgesi içeren input stream
+     * @param documentType   Belge tipi
+     * @param signatureId    İsteğe bağlı imza tanımlayıcısı
+     * @param zipped         Belgenin ZIP formatında olup olmadığı
+     * @param material       İmzalama sertifikası ve private key içeren materyal
+     * @return İmza tanıtıcısı ve imzalanacak veri
+     * @throws SignatureException Bekleyen imza sayısı sınırı aşılırsa (PENDING_LIMIT_EXCEEDED)
+     */
+    public XadesPrepareResponseDto prepare(InputStream xmlInputStream,
+                                           DocumentType documentType,
+                                           String signatureId,
+                                           boolean zipped,
+                                           SigningMaterial material) {
+        PreparedXAdESSignature prepared = xadesSignatureService.prepareSignature(
+            xmlInputStream, documentType, signatureId, zipped, material);
+
+        String handle = UUID.randomUUID().toString();
+        long expiresAt = pendingSignatures.put(handle, prepared);
+        if (expiresAt < 0) {
+            throw new SignatureException("PENDING_LIMIT_EXCEEDED",
+                "Bekleyen imza sayısı sınırına ulaşıldı, daha sonra tekrar deneyin");
+        }
+
+        byte[] dataToSign = prepared.getDataToSign().getBytes();
+
+        XadesPrepareResponseDto response = new XadesPrepareResponseDto();
+        response.setHandle(handle);
+        response.setSignatureId(prepared.getSignatureId());
+        response.setDataToSign(Base64.getEncoder().encodeToString(dataToSign));
+        response.setDigest(Base64.getEncoder().encodeToString(
+            DSSUtils.digest(prepared.getDigestAlgorithm(), dataToSign)));
+        response.setDigestAlgorithm(prepared.getDigestAlgorithm().getName());
+        response.setSignatureAlgorithm(prepared.getSignatureAlgorithm() != null
+            ? prepared.getSignatureAlgorithm().name() : null);
+        response.setExpiresAt(Instant.ofEpochMilli(expiresAt).toString());
+
+        LOGGER.info("XAdES imzası hazırlandı. Tanıtıcı: {}, belge tipi: {}",
+            handle, prepared.getDocumentType());
+
+        return response;
+    }
+
+    /**
+     * İkinci aşama: imza değerini ekleyerek imzayı tamamlar.
+     *
+     * <p>İmza değeri belgeye eklenmeden önce oluşan hatalarda (geçersiz imza değeri,
+     * HSM hatası) hazırlanan durum korunur ve istek aynı tanıtıcıyla tekrarlanabilir.
+     * Başarılı tamamlamadan sonra tanıtıcı geçersizdir.
+     *
+     * @param handle         Birinci aşamada dönen tanıtıcı
+     * @param signatureValue Dışarıda hesaplanmış imza değeri; null ise sunucudaki anahtarla hesaplanır
+     * @return İmzalanmış belge ve imza değeri içeren yanıt
+     * @throws SignatureException Tanıtıcı bulunamazsa veya süresi dolduysa (SIGNING_STATE_NOT_FOUND)
+     */
+    public SignResponse finalizeSignature(String handle, byte[] signatureValue) {
+        // Eşzamanlı tamamlama isteklerinden yalnızca biri durumu alabilir
+        long expiresAt = pendingSignatures.getExpiresAt(handle);
+        PreparedXAdESSignature prepared = pendingSignatures.remove(handle);
+        if (prepared == null) {
+            throw new SignatureException("SIGNING_STATE_NOT_FOUND",
+                "İmza tanıtıcısı bulunamadı veya süresi doldu: " + handle);
+        }
+
+        try {
+            return xadesSignatureService.completeSignature(prepared, signatureValue);
+        } catch (RuntimeException e) {
+            if (!prepared.isConsumed()) {
+                // Belge değişmedi: aynı tanıtıcıyla yeniden denenebilir (süresi uzatılmaz)
+                pendingSignatures.put(handle, prepared, expiresAt);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Süresi dolan hazırlanmış imzaları bellekten temizler.
+     */
+    @Scheduled(fixedDelayString = "${TWO_PHASE_PURGE_INTERVAL_MS:60000}")
+    public void purgeExpired() {
+        int removed = pendingSignatures.purgeExpired();
+        if (removed > 0) {
+            LOGGER.debug("Süresi dolan {} hazırlanmış imza temizlendi", removed);
+        }
+    }
+
+    /**
+     * Bekleyen hazırlanmış imza sayısını döner.
+     */
+    public int getPendingCount() {
+        return pendingSignatures.size();
+    }
+}
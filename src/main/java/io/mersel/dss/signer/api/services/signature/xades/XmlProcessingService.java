@@ -1,25 +1,13 @@
 package io.mersel.dss.signer.api.services.signature.xades;
 
-import eu.europa.esig.dss.model.DSSDocument;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.util.XmlUtils;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.xml.crypto.dsig.XMLSignature;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 /**
@@ -29,23 +17,14 @@ import java.io.IOException;
 @Service
 public class XmlProcessingService {
 
-    private final DocumentBuilderFactory documentBuilderFactory;
-
-    public XmlProcessingService() {
-        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        this.documentBuilderFactory.setNamespaceAware(true);
-    }
-
     /**
      * XML byte'larını DOM Document'e ayrıştırır.
+     * Thread'e bağlı, güvenli işleme ayarlı parser kullanılır ({@link XmlUtils}).
      */
     public Document parseDocument(byte[] xmlBytes) {
-        try {
-            DocumentBuilder builder = documentBuilderFactory.newDocumentBuilder();
-            try (ByteArrayInputStream inputStream = new ByteArrayInputStream(xmlBytes)) {
-                return builder.parse(inputStream);
-            }
-        } catch (ParserConfigurationException | SAXException | IOException e) {
+        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(xmlBytes)) {
+            return XmlUtils.parse(inputStream);
+        } catch (SAXException | IOException e) {
             throw new SignatureException("XML belgesi ayrıştırılamadı", e);
         }
     }
@@ -55,50 +34,9 @@ public class XmlProcessingService {
      */
     public byte[] documentToBytes(Document document) {
         try {
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-            
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            transformer.transform(new DOMSource(document), new StreamResult(outputStream));
-            return outputStream.toByteArray();
-            
+            return XmlUtils.toBytes(document);
         } catch (TransformerException e) {
             throw new SignatureException("Belge byte dizisine dönüştürülemedi", e);
         }
     }
-
-    /**
-     * DSS document'ten byte dizisi çıkarır.
-     */
-    public byte[] dssDocumentToBytes(DSSDocument document) {
-        try {
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            document.writeTo(outputStream);
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            throw new SignatureException("DSS document'ten byte'lar çıkarılamadı", e);
-        }
-    }
-
-    /**
-     * XML belgesinde Signature elemanını bulur.
-     */
-    public Element findSignatureElement(Document document) {
-        // Önce namespace ile dene
-        NodeList nodeList = document.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
-        
-        // Yerel isim ile yedekleme
-        if (nodeList == null || nodeList.getLength() == 0) {
-            nodeList = document.getElementsByTagName("ds:Signature");
-        }
-        
-        if (nodeList != null && nodeList.getLength() > 0) {
-            return (Element) nodeList.item(0);
-        }
-        
-        return null;
-    }
 }
-
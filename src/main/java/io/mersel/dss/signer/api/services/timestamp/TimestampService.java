@@ -19,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.InputStream;
 import java.security.MessageDigest;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -32,6 +33,7 @@ import java.util.*;
 public class TimestampService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TimestampService.class);
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
     private static final SimpleDateFormat ISO_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
     
     static {
@@ -84,31 +86,31 @@ public class TimestampService {
             // Belgenin hash'ini hesapla
             byte[] digest = computeDigest(documentData, digestAlgorithm);
             
-            // TSP source'u al
-            OnlineTSPSource tspSource = timestampConfigurationService.getTspSource();
-            
-            // DSS ile timestamp al
-            TimestampBinary timestampBinary = tspSource.getTimeStampResponse(digestAlgorithm, digest);
-            byte[] timestampBytes = timestampBinary.getBytes();
-            
-            // DSS'den gelen TimestampToken'ı kullan
-            eu.europa.esig.dss.spi.x509.tsp.TimestampToken dssToken = new eu.europa.esig.dss.spi.x509.tsp.TimestampToken(
-                    timestampBytes, eu.europa.esig.dss.enumerations.TimestampType.CONTENT_TIMESTAMP);
-            
-            // Response DTO'yu oluştur
-            TimestampResponseDto response = new TimestampResponseDto();
-            response.setTimestampToken(Base64.getEncoder().encodeToString(timestampBytes));
-            response.setTimestamp(ISO_DATE_FORMAT.format(dssToken.getGenerationTime()));
-            response.setHashAlgorithm(digestAlgorithm.getName());
-            response.setSerialNumber(dssToken.getDSSIdAsString());
-            
-            // TSA bilgisini al
-            if (dssToken.getIssuerX500Principal() != null) {
-                response.setTsaName(dssToken.getIssuerX500Principal().getName());
-            }
-            
-            LOGGER.info("Zaman damgası başarıyla alındı. Tarih: {}", response.getTimestamp());
-            return response;
+            return requestTimestamp(digestAlgorithm, digest);
+
+        } catch (Exception e) {
+            LOGGER.error("Zaman damgası alınırken hata oluştu", e);
+            throw new TimestampException("Zaman damgası alınamadı: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stream olarak okunan belge için zaman damgası alır.
+     * Belge belleğe alınmaz; hash okuma sırasında hesaplanır.
+     * 
+     * @param documentStream Belge içeriği
+     * @param hashAlgorithm Hash algoritması (null ise SHA256 kullanılır)
+     * @return Zaman damgası yanıtı
+     * @throws TimestampException Zaman damgası alınamadığında
+     */
+    public TimestampResponseDto getTimestamp(InputStream documentStream, String hashAlgorithm) {
+        try {
+            LOGGER.info("Zaman damgası talebi alındı (stream). Hash algoritması: {}", hashAlgorithm);
+
+            DigestAlgorithm digestAlgorithm = getDigestAlgorithm(hashAlgorithm);
+            byte[] digest = computeDigest(documentStream, digestAlgorithm);
+
+            return requestTimestamp(digestAlgorithm, digest);
 
         } catch (Exception e) {
             LOGGER.error("Zaman damgası alınırken hata oluştu", e);
@@ -116,6 +118,37 @@ public class TimestampService {
         }
     }
 
+    /**
+     * Hesaplanmış hash için TSA'dan zaman damgası alır.
+     */
+    private TimestampResponseDto requestTimestamp(DigestAlgorithm digestAlgorithm, byte[] digest) throws Exception {
+        // TSP source'u al
+        OnlineTSPSource tspSource = timestampConfigurationService.getTspSource();
+        
+        // DSS ile timestamp al
+        TimestampBinary timestampBinary = tspSource.getTimeStampResponse(digestAlgorithm, digest);
+        byte[] timestampBytes = timestampBinary.getBytes();
+        
+        // DSS'den gelen TimestampToken'ı kullan
+        eu.europa.esig.dss.spi.x509.tsp.TimestampToken dssToken = new eu.europa.esig.dss.spi.x509.tsp.TimestampToken(
+                timestampBytes, eu.europa.esig.dss.enumerations.TimestampType.CONTENT_TIMESTAMP);
+        
+        // Response DTO'yu oluştur
+        TimestampResponseDto response = new TimestampResponseDto();
+        response.setTimestampToken(Base64.getEncoder().encodeToString(timestampBytes));
+        response.setTimestamp(ISO_DATE_FORMAT.format(dssToken.getGenerationTime()));
+        response.setHashAlgorithm(digestAlgorithm.getName());
+        response.setSerialNumber(dssToken.getDSSIdAsString());
+        
+        // TSA bilgisini al
+        if (dssToken.getIssuerX500Principal() != null) {
+            response.setTsaName(dssToken.getIssuerX500Principal().getName());
+        }
+        
+        LOGGER.info("Zaman damgası başarıyla alındı. Tarih: {}", response.getTimestamp());
+        return response;
+    }
+
     /**
      * Zaman damgasını doğrular (DTO versiyonu - geriye dönük uyumluluk için).
      * 
@@ -377,6 +410,23 @@ public class TimestampService {
         }
     }
 
+    /**
+     * Stream içeriğinin hash'ini okuma sırasında hesaplar.
+     */
+    private byte[] computeDigest(InputStream data, DigestAlgorithm algorithm) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(algorithm.getJavaName());
+            byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+            int read;
+            while ((read = data.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (Exception e) {
+            throw new TimestampException("Hash hesaplanamadı: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Hash algoritmasını string'den DigestAlgorithm'a çevirir.
      */
@@ -7,6 +7,10 @@ import org.springframework.stereotype.Service;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -57,5 +61,77 @@ public class CompressionService {
             throw new SignatureException("ZIP içeriği çıkarılamadı", e);
         }
     }
-}
 
+    /**
+     * ZIP input stream'deki tüm dosya girdilerini arşivdeki sırayla çıkarır.
+     * Klasör girdileri atlanır. Aynı adı taşıyan girdiler ayıklanmaz; hepsi sırasıyla döner.
+     * Açılan boyut, ZIP başlığındaki değere güvenilmeden okuma sırasında sayılır.
+     * 
+     * @param inputStream ZIP input stream
+     * @param maxEntries İzin verilen en fazla girdi sayısı
+     * @param maxEntryBytes Tek girdinin açılmış halinin en fazla boyutu (byte)
+     * @param maxTotalBytes Tüm girdilerin açılmış halinin en fazla toplam boyutu (byte)
+     * @return Girdi adı - içerik çiftleri (arşiv sırasıyla)
+     * @throws SignatureException Girdi sayısı veya açılan boyut sınırı aşılırsa
+     */
+    public List<Map.Entry<String, byte[]>> unzipEntries(InputStream inputStream,
+                                                        int maxEntries,
+                                                        long maxEntryBytes,
+                                                        long maxTotalBytes) {
+        List<Map.Entry<String, byte[]>> entries = new ArrayList<>();
+        long totalBytes = 0;
+        try (ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
+            ZipEntry entry;
+            byte[] buffer = new byte[8192];
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (entries.size() >= maxEntries) {
+                    throw new SignatureException("ZIP_TOO_LARGE",
+                        "ZIP arşivi en fazla " + maxEntries + " girdi içerebilir");
+                }
+
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                int read;
+                while ((read = zipInputStream.read(buffer)) != -1) {
+                    totalBytes += read;
+                    if (content.size() + read > maxEntryBytes) {
+                        throw new SignatureException("ZIP_TOO_LARGE",
+                            "ZIP girdisi açıldığında en fazla " + maxEntryBytes
+                                + " byte olabilir: " + entry.getName());
+                    }
+                    if (totalBytes > maxTotalBytes) {
+                        throw new SignatureException("ZIP_TOO_LARGE",
+                            "ZIP arşivi açıldığında en fazla " + maxTotalBytes + " byte olabilir");
+                    }
+                    content.write(buffer, 0, read);
+                }
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getName(), content.toByteArray()));
+            }
+        } catch (IOException e) {
+            throw new SignatureException("ZIP içeriği çıkarılamadı", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Açık bir ZIP çıktısına tek bir girdi yazar.
+     * 
+     * @param zipOutputStream Hedef ZIP stream
+     * @param filename ZIP dosyasındaki girdi adı
+     * @param content Girdi içeriği
+     */
+    public void writeEntry(ZipOutputStream zipOutputStream, String filename, byte[] content) {
+        try {
+            ZipEntry entry = new ZipEntry(filename);
+            entry.setSize(content.length);
+            zipOutputStream.putNextEntry(entry);
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+            zipOutputStream.flush();
+        } catch (IOException e) {
+            throw new SignatureException("ZIP girdisi yazılamadı: " + filename, e);
+        }
+    }
+}
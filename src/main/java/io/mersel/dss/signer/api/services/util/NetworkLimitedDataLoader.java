@@ -0,0 +1,69 @@
+package io.mersel.dss.signer.api.services.util;
+
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+
+import java.util.List;
+
+/**
+ * Her isteği ağ sınırlayıcısından izin alarak yapan {@link DataLoader}.
+ *
+ * <p>OCSP, CRL ve AIA kaynakları önbelleklerinin altında bu loader ile yapılandırılır;
+ * böylece ağ izni yalnızca gerçek HTTP çağrısı süresince tutulur. Önbellekten dönen
+ * yanıtlar ve imza uzatmasının CPU işleri izin beklemez. İzin bu loader'ın içinde
+ * alındığından çağıranlar ağ sınırlayıcısını ayrıca tutmamalıdır (izinler iç içe alınmaz).
+ */
+public class NetworkLimitedDataLoader implements DataLoader {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DataLoader delegate;
+    private final transient ConcurrencyLimiter networkLimiter;
+
+    /**
+     * @param delegate Zaman aşımları yapılandırılmış asıl loader
+     * @param networkLimiter Ağ çağrılarını sınırlayan limiter
+     */
+    public NetworkLimitedDataLoader(DataLoader delegate, ConcurrencyLimiter networkLimiter) {
+        this.delegate = delegate;
+        this.networkLimiter = networkLimiter;
+    }
+
+    @Override
+    public byte[] get(String url) {
+        try {
+            return networkLimiter.call(() -> delegate.get(url));
+        } catch (InterruptedException e) {
+            throw interrupted(url, e);
+        }
+    }
+
+    @Override
+    public DataAndUrl get(List<String> urlStrings) {
+        try {
+            return networkLimiter.call(() -> delegate.get(urlStrings));
+        } catch (InterruptedException e) {
+            throw interrupted(String.valueOf(urlStrings), e);
+        }
+    }
+
+    @Override
+    public byte[] post(String url, byte[] content) {
+        try {
+            return networkLimiter.call(() -> delegate.post(url, content));
+        } catch (InterruptedException e) {
+            throw interrupted(url, e);
+        }
+    }
+
+    @Override
+    public void setContentType(String contentType) {
+        delegate.setContentType(contentType);
+    }
+
+    private static DSSExternalResourceException interrupted(String url, InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new DSSExternalResourceException("Ağ izni beklenirken istek kesildi: " + url, e);
+    }
+}
@@ -0,0 +1,173 @@
+package io.mersel.dss.signer.api.services.util;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.util.SpoolFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Ham gövdeli (raw) imza endpoint'leri için istek ve yanıt içeriklerini diske alan servis.
+ *
+ * <p>Büyük belgeler istek süresince heap'te tutulmaz: gövde boyutu sınırlı bir stream
+ * üzerinden geçici dosyaya yazılır, imzalı çıktı da geçici dosyaya üretilip istemciye
+ * dosyadan aktarılır. Böylece istek başına bellek kullanımı belge boyutuyla büyümez.
+ */
+@Service
+public class SpoolFileService {
+
+    public static final String PAYLOAD_TOO_LARGE = "PAYLOAD_TOO_LARGE";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpoolFileService.class);
+    private static final String FILE_PREFIX = "signer-spool-";
+
+    private final Path directory;
+    private final long maxBodyBytes;
+
+    @Autowired
+    public SpoolFileService(SignatureServiceConfiguration config) {
+        this(Paths.get(config.getStreamSpoolDirectory()), config.getStreamMaxBodyBytes());
+    }
+
+    /**
+     * @param directory Geçici dosyaların oluşturulacağı klasör
+     * @param maxBodyBytes Diske alınan gövdenin en fazla boyutu (bayt)
+     */
+    public SpoolFileService(Path directory, long maxBodyBytes) {
+        this.directory = directory;
+        this.maxBodyBytes = maxBodyBytes;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Geçici dosya klasörü oluşturulamadı: " + directory, e);
+        }
+        LOGGER.info("Ham gövde geçici dosya klasörü: {}, en fazla gövde boyutu: {} bayt",
+            directory.toAbsolutePath(), maxBodyBytes);
+    }
+
+    /**
+     * Stream içeriğini geçici dosyaya yazar.
+     *
+     * @param inputStream İstek gövdesi
+     * @param suffix Dosya uzantısı (örn. ".pdf")
+     * @return İçeriği tutan geçici dosya; çağıran kapatmalıdır
+     * @throws SignatureException Gövde {@code STREAM_MAX_BODY_BYTES} sınırını aşarsa
+     *                            ({@value #PAYLOAD_TOO_LARGE}) veya yazılamazsa
+     */
+    public SpoolFile spool(InputStream inputStream, String suffix) {
+        SpoolFile spoolFile = createFile(suffix);
+        try {
+            Files.copy(limit(inputStream), spoolFile.getPath(), StandardCopyOption.REPLACE_EXISTING);
+            return spoolFile;
+        } catch (IOException e) {
+            spoolFile.close();
+            throw new SignatureException("İstek gövdesi geçici dosyaya yazılamadı", e);
+        } catch (RuntimeException e) {
+            spoolFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Boş bir geçici dosya oluşturur.
+     *
+     * @param suffix Dosya uzantısı (örn. ".pdf")
+     * @return Geçici dosya; çağıran kapatmalıdır
+     */
+    public SpoolFile createFile(String suffix) {
+        try {
+            return new SpoolFile(Files.createTempFile(directory, FILE_PREFIX, suffix));
+        } catch (IOException e) {
+            throw new SignatureException("Geçici dosya oluşturulamadı", e);
+        }
+    }
+
+    /**
+     * Stream'i, {@code STREAM_MAX_BODY_BYTES} sınırı aşıldığında
+     * {@value #PAYLOAD_TOO_LARGE} hatası fırlatan bir stream ile sarar.
+     * Diske alınan gövdeler bu stream üzerinden okunur.
+     */
+    public InputStream limit(InputStream inputStream) {
+        return new SizeLimitedInputStream(inputStream, maxBodyBytes);
+    }
+
+    public long getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * Hatanın veya sarmaladığı nedenlerden birinin gövde boyutu sınırından kaynaklanıp
+     * kaynaklanmadığını döner (ayrıştırıcılar hatayı kendi exception'larıyla sarabilir).
+     */
+    public static boolean isPayloadTooLarge(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof SignatureException
+                && PAYLOAD_TOO_LARGE.equals(((SignatureException) current).getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Okunan toplam bayt sayısı sınırı aştığında hata fırlatan stream.
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        SizeLimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) {
+            count += n;
+            if (count > maxBytes) {
+                throw new SignatureException(PAYLOAD_TOO_LARGE,
+                    "İstek gövdesi en fazla " + maxBytes + " bayt olabilir");
+            }
+        }
+    }
+}
@@ -6,10 +6,10 @@ import eu.europa.esig.dss.diagnostic.DiagnosticData;
 import eu.europa.esig.dss.enumerations.Indication;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.simplereport.SimpleReport;
-import eu.europa.esig.dss.spi.validation.CertificateVerifier;
 import eu.europa.esig.dss.validation.SignedDocumentValidator;
 import eu.europa.esig.dss.validation.reports.Reports;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -25,10 +25,10 @@ public class SignatureValidationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SignatureValidationService.class);
 
-    private final CertificateVerifier certificateVerifier;
+    private final CertificateVerifierProvider certificateVerifierProvider;
 
-    public SignatureValidationService(CertificateVerifier certificateVerifier) {
-        this.certificateVerifier = certificateVerifier;
+    public SignatureValidationService(CertificateVerifierProvider certificateVerifierProvider) {
+        this.certificateVerifierProvider = certificateVerifierProvider;
     }
 
     /**
@@ -39,7 +39,7 @@ public class SignatureValidationService {
      */
     public Reports validateDocument(DSSDocument signedDocument) {
         SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
-        validator.setCertificateVerifier(certificateVerifier);
+        validator.setCertificateVerifier(certificateVerifierProvider.get());
         return validator.validateDocument();
     }
 
@@ -0,0 +1,151 @@
+package io.mersel.dss.signer.api.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Boyutu sınırlı, süreli (TTL) ve thread-safe anahtar-değer deposu.
+ *
+ * <p>Her kayıt eklendiği anda bir son kullanma zamanı alır; süresi dolan kayıtlar
+ * okunurken veya {@link #purgeExpired()} çağrıldığında silinir. Depo doluysa önce
+ * süresi dolan kayıtlar temizlenir; yer açılmazsa yeni kayıt reddedilir ve mevcut
+ * kayıtlar korunur.
+ *
+ * @param <K> Anahtar tipi
+ * @param <V> Değer tipi
+ */
+public final class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries = new LinkedHashMap<>();
+
+    public BoundedTtlCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param maxEntries En fazla kayıt sayısı
+     * @param ttlMillis Kayıt ömrü (milisaniye)
+     * @param clock Zaman kaynağı (milisaniye)
+     */
+    public BoundedTtlCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxEntries ve ttlMillis pozitif olmalı");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Kaydı varsayılan ömürle ekler.
+     *
+     * @return Kayıt için son kullanma zamanı (epoch milisaniye) veya depo doluysa -1
+     */
+    public long put(K key, V value) {
+        return put(key, value, clock.getAsLong() + ttlMillis);
+    }
+
+    /**
+     * Kaydı verilen son kullanma zamanıyla ekler.
+     *
+     * @return Kayıt için son kullanma zamanı (epoch milisaniye) veya depo doluysa ya da
+     *         zaman zaten geçmişse -1
+     */
+    public synchronized long put(K key, V value, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        if (expiresAtMillis <= now) {
+            return -1;
+        }
+        if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+            purgeExpired(now);
+            if (entries.size() >= maxEntries) {
+                return -1;
+            }
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+        return expiresAtMillis;
+    }
+
+    /**
+     * Süresi dolmamış kaydı döner.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = liveEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Süresi dolmamış kaydın son kullanma zamanını döner, kayıt yoksa -1.
+     */
+    public synchronized long getExpiresAt(K key) {
+        Entry<V> entry = liveEntry(key);
+        return entry != null ? entry.expiresAtMillis : -1;
+    }
+
+    /**
+     * Kaydı depodan çıkarır ve süresi dolmamışsa değerini döner.
+     */
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null || entry.expiresAtMillis <= clock.getAsLong()) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Süresi dolan kayıtları siler.
+     *
+     * @return Silinen kayıt sayısı
+     */
+    public synchronized int purgeExpired() {
+        return purgeExpired(clock.getAsLong());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    private Entry<V> liveEntry(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private int purgeExpired(long now) {
+        int removed = 0;
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAtMillis <= now) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtMillis;
+
+        private Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package io.mersel.dss.signer.api.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Belirli bir kaynak türüne (HSM, ağ, CPU) erişen eşzamanlı işlem sayısını sınırlar.
+ *
+ * <p>İmza hattının her adımı yalnızca ihtiyaç duyduğu sınırlayıcıyı, yalnızca o adım
+ * süresince tutar. Böylece yavaş TSA veya OCSP yanıtları, HSM'e yalnızca birkaç
+ * milisaniye ihtiyaç duyan imzaları bekletmez. Sınırlayıcılar iç içe alınmaz.
+ *
+ * <p>Her sınırlayıcı için bekleme süresi ({@code signer.limiter.wait}), kullanımdaki
+ * izin sayısı ({@code signer.limiter.in.use}) ve bekleyen iş parçacığı sayısı
+ * ({@code signer.limiter.waiting}) {@code limiter} etiketiyle raporlanır.
+ *
+ * <pre>
+ * byte[] signatureValue = hsmLimiter.call(() -> signer.sign(data));
+ * </pre>
+ */
+public final class ConcurrencyLimiter {
+
+    private final String name;
+    private final int maxPermits;
+    private final Semaphore semaphore;
+    private final Timer waitTimer;
+
+    /**
+     * @param name Sınırlayıcı adı (metriklerde {@code limiter} etiketi)
+     * @param maxPermits Aynı anda izin verilen en fazla işlem sayısı
+     * @param meterRegistry Metriklerin kaydedileceği registry
+     */
+    public ConcurrencyLimiter(String name, int maxPermits, MeterRegistry meterRegistry) {
+        if (maxPermits <= 0) {
+            throw new IllegalArgumentException("İzin sayısı pozitif olmalıdır: " + name + "=" + maxPermits);
+        }
+        this.name = name;
+        this.maxPermits = maxPermits;
+        this.semaphore = new Semaphore(maxPermits, true);
+
+        this.waitTimer = Timer.builder("signer.limiter.wait")
+            .description("İzin için beklenen süre")
+            .tag("limiter", name)
+            .register(meterRegistry);
+        Gauge.builder("signer.limiter.in.use", this, l -> l.maxPermits - l.semaphore.availablePermits())
+            .description("Kullanımdaki izin sayısı")
+            .tag("limiter", name)
+            .register(meterRegistry);
+        Gauge.builder("signer.limiter.waiting", semaphore, Semaphore::getQueueLength)
+            .description("İzin bekleyen iş parçacığı sayısı")
+            .tag("limiter", name)
+            .register(meterRegistry);
+        Gauge.builder("signer.limiter.permits", this, l -> l.maxPermits)
+            .description("Toplam izin sayısı")
+            .tag("limiter", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Bir izin alır; izin yoksa serbest kalana kadar bekler.
+     *
+     * @return try-with-resources ile bırakılacak izin
+     * @throws InterruptedException Beklerken iş parçacığı kesilirse
+     */
+    public Permit acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        semaphore.acquire();
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit();
+    }
+
+    /**
+     * Bir izin alıp işlemi çalıştırır; izin işlem bittiğinde, hata durumunda da bırakılır.
+     *
+     * @param action İzin tutulurken çalıştırılacak işlem
+     * @return İşlemin sonucu
+     * @throws InterruptedException İzin beklenirken iş parçacığı kesilirse
+     * @throws E İşlemin fırlattığı hata
+     */
+    public <T, E extends Exception> T call(LimitedCall<T, E> action) throws InterruptedException, E {
+        Permit permit = acquire();
+        try {
+            return action.call();
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Sonuç dönmeyen işlemler için {@link #call(LimitedCall)}.
+     */
+    public <E extends Exception> void run(LimitedRunnable<E> action) throws InterruptedException, E {
+        Permit permit = acquire();
+        try {
+            action.run();
+        } finally {
+            permit.close();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    public int getAvailablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    /**
+     * İzin tutulurken çalıştırılan, sonuç dönen işlem.
+     */
+    @FunctionalInterface
+    public interface LimitedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * İzin tutulurken çalıştırılan, sonuç dönmeyen işlem.
+     */
+    @FunctionalInterface
+    public interface LimitedRunnable<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Alınmış bir izin. {@link #close()} izni bir kez bırakır; tekrar çağrılması etkisizdir.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private boolean released;
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.mersel.dss.signer.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * İstek gövdesinin veya imzalı çıktının bellekte tutulmak yerine yazıldığı geçici dosya.
+ * {@link #close()} dosyayı siler; tekrar çağrılması etkisizdir.
+ */
+public final class SpoolFile implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpoolFile.class);
+
+    private final Path path;
+    private volatile boolean deleted;
+
+    public SpoolFile(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long size() throws IOException {
+        return Files.size(path);
+    }
+
+    public InputStream openInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    public OutputStream openOutputStream() throws IOException {
+        return Files.newOutputStream(path);
+    }
+
+    /**
+     * Dosya içeriğini verilen stream'e kopyalar (içerik belleğe alınmaz).
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Files.copy(path, outputStream);
+    }
+
+    @Override
+    public void close() {
+        if (deleted) {
+            return;
+        }
+        deleted = true;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Geçici dosya silinemedi: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.mersel.dss.signer.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * XML ayrıştırma ve serileştirme için ortak altyapı.
+ *
+ * <p>JAXP factory'leri sınıf yüklenirken bir kez, güvenli işleme ayarlarıyla
+ * oluşturulur: DOCTYPE ve dahili entity'ler kabul edilir, harici entity/DTD erişimi
+ * kapalıdır ve entity açılımı güvenli işleme limitleriyle sınırlanır. {@link DocumentBuilder}
+ * ve {@link Transformer} nesneleri thread-safe olmadığından her thread kendi
+ * örneğini {@link ThreadLocal} üzerinden yeniden kullanır; böylece her çağrıda
+ * JAXP servis araması ve nesne oluşturma maliyeti ödenmez.
+ */
+public final class XmlUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XmlUtils.class);
+
+    private static final DocumentBuilderFactory NAMESPACE_AWARE_FACTORY = createDocumentBuilderFactory(true);
+    private static final DocumentBuilderFactory PLAIN_FACTORY = createDocumentBuilderFactory(false);
+    private static final TransformerFactory TRANSFORMER_FACTORY = createTransformerFactory();
+
+    /**
+     * Hataları stderr'e yazmak yerine exception olarak ileten handler.
+     */
+    private static final ErrorHandler THROWING_ERROR_HANDLER = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException exception) {
+            LOGGER.debug("XML ayrıştırma uyarısı: {}", exception.getMessage());
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            throw exception;
+        }
+    };
+
+    private static final ThreadLocal<DocumentBuilder> NAMESPACE_AWARE_BUILDER =
+        ThreadLocal.withInitial(() -> newDocumentBuilder(NAMESPACE_AWARE_FACTORY));
+    private static final ThreadLocal<DocumentBuilder> PLAIN_BUILDER =
+        ThreadLocal.withInitial(() -> newDocumentBuilder(PLAIN_FACTORY));
+    private static final ThreadLocal<Transformer> TRANSFORMER =
+        ThreadLocal.withInitial(XmlUtils::newTransformer);
+
+    private XmlUtils() {
+        // Utility class - instantiation engellendi
+    }
+
+    /**
+     * XML stream'ini namespace-aware olarak DOM Document'e ayrıştırır.
+     *
+     * @param inputStream XML içeriği
+     * @return Ayrıştırılmış belge
+     */
+    public static Document parse(InputStream inputStream) throws SAXException, IOException {
+        return parse(inputStream, true);
+    }
+
+    /**
+     * XML stream'ini DOM Document'e ayrıştırır.
+     *
+     * @param inputStream XML içeriği
+     * @param namespaceAware Namespace desteği açık mı
+     * @return Ayrıştırılmış belge
+     */
+    public static Document parse(InputStream inputStream, boolean namespaceAware) throws SAXException, IOException {
+        DocumentBuilder builder = namespaceAware ? NAMESPACE_AWARE_BUILDER.get() : PLAIN_BUILDER.get();
+        try {
+            builder.setErrorHandler(THROWING_ERROR_HANDLER);
+            return builder.parse(inputStream);
+        } finally {
+            builder.reset();
+        }
+    }
+
+    /**
+     * DOM Document'i XML bildirimi ile UTF-8 olarak stream'e yazar.
+     *
+     * @param document Yazılacak belge
+     * @param outputStream Hedef stream
+     */
+    public static void write(Document document, OutputStream outputStream) throws TransformerException {
+        try {
+            TRANSFORMER.get().transform(new DOMSource(document), new StreamResult(outputStream));
+        } catch (TransformerException | RuntimeException e) {
+            // Yarıda kalan dönüşümden sonra örneğe güvenilmez; sonraki çağrıda yenisi oluşturulur
+            TRANSFORMER.remove();
+            throw e;
+        }
+    }
+
+    /**
+     * DOM Document'i XML bildirimi ile UTF-8 byte dizisine dönüştürür.
+     *
+     * @param document Dönüştürülecek belge
+     * @return Belgenin byte karşılığı
+     */
+    public static byte[] toBytes(Document document) throws TransformerException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(document, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory(boolean namespaceAware) {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(namespaceAware);
+        factory.setXIncludeAware(false);
+        // DOCTYPE içeren belgeler (KamuSM deposu, kullanıcı belgeleri) önceden olduğu gibi kabul edilir
+        setFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        setFeature(factory, "http://xml.org/sax/features/external-general-entities", false);
+        setFeature(factory, "http://xml.org/sax/features/external-parameter-entities", false);
+        setFeature(factory, "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        setAttribute(factory, XMLConstants.ACCESS_EXTERNAL_DTD);
+        setAttribute(factory, XMLConstants.ACCESS_EXTERNAL_SCHEMA);
+        return factory;
+    }
+
+    private static TransformerFactory createTransformerFactory() {
+        TransformerFactory factory = TransformerFactory.newInstance();
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        } catch (TransformerConfigurationException e) {
+            LOGGER.warn("TransformerFactory güvenli işleme özelliği desteklenmiyor: {}", e.getMessage());
+        }
+        setAttribute(factory, XMLConstants.ACCESS_EXTERNAL_DTD);
+        setAttribute(factory, XMLConstants.ACCESS_EXTERNAL_STYLESHEET);
+        return factory;
+    }
+
+    private static void setFeature(DocumentBuilderFactory factory, String feature, boolean value) {
+        try {
+            factory.setFeature(feature, value);
+        } catch (ParserConfigurationException e) {
+            LOGGER.warn("XML parser özelliği desteklenmiyor: {}", feature);
+        }
+    }
+
+    private static void setAttribute(DocumentBuilderFactory factory, String attribute) {
+        try {
+            factory.setAttribute(attribute, "");
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("XML parser özelliği desteklenmiyor: {}", attribute);
+        }
+    }
+
+    private static void setAttribute(TransformerFactory factory, String attribute) {
+        try {
+            factory.setAttribute(attribute, "");
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("TransformerFactory özelliği desteklenmiyor: {}", attribute);
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder(DocumentBuilderFactory factory) {
+        try {
+            synchronized (factory) {
+                return factory.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("DocumentBuilder oluşturulamadı", e);
+        }
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            Transformer transformer;
+            synchronized (TRANSFORMER_FACTORY) {
+                transformer = TRANSFORMER_FACTORY.newTransformer();
+            }
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            return transformer;
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Transformer oluşturulamadı", e);
+        }
+    }
+}
@@ -1,19 +1,29 @@
 package io.mersel.dss.signer.api.controllers;
 
+import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
 import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.util.SpoolFileService;
+import io.mersel.dss.signer.api.util.SpoolFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,6 +40,12 @@ class XadesControllerTest {
     @Mock
     private WsSecuritySignatureService wsSecuritySignatureService;
 
+    @Mock
+    private SpoolFileService spoolFileService;
+
+    @TempDir
+    Path spoolDirectory;
+
     private SigningMaterial signingMaterial = null; // SigningMaterial final class - mock edilemiyor
 
     private XadesController controller;
@@ -37,9 +53,16 @@ class XadesControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(spoolFileService.spool(any(InputStream.class), anyString()))
+            .thenAnswer(invocation -> {
+                Path path = Files.createTempFile(spoolDirectory, "spool-", invocation.getArgument(1));
+                Files.copy((InputStream) invocation.getArgument(0), path, StandardCopyOption.REPLACE_EXISTING);
+                return new SpoolFile(path);
+            });
         controller = new XadesController(
             xadesSignatureService,
             wsSecuritySignatureService,
+            spoolFileService,
             signingMaterial,
             "testAlias",
             "testPin".toCharArray()
@@ -124,5 +147,93 @@ class XadesControllerTest {
         assertNotNull(response);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
-}
 
+    @Test
+    void testSignXadesRawReturnsSignedDocument() throws Exception {
+        // Given
+        String xmlContent = "<?xml version=\"1.0\"?><test>data</test>";
+        when(xadesSignatureService.signXml(
+            any(InputStream.class),
+            eq(DocumentType.UblDocument),
+            isNull(),
+            eq(false),
+            eq(signingMaterial)
+        )).thenReturn(new SignResponse(xmlContent.getBytes(), "test-signature-value"));
+
+        // When
+        ResponseEntity<?> response = controller.signXadesRaw(
+            DocumentType.UblDocument,
+            null,
+            "application/xml; charset=UTF-8",
+            new ByteArrayInputStream(xmlContent.getBytes()));
+
+        // Then - imzalı belge ek kopya olmadan doğrudan döner
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/xml", response.getHeaders().getContentType().toString());
+        assertEquals("test-signature-value", response.getHeaders().getFirst("x-signature-value"));
+        assertEquals(xmlContent.getBytes().length, response.getHeaders().getContentLength());
+        assertEquals(xmlContent, new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        verify(spoolFileService, never()).createFile(anyString());
+
+        // Girdi geçici dosyası imzalamadan sonra silinir
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testSignXadesRawZipContentTypeSignsZippedInput() {
+        // Given
+        when(xadesSignatureService.signXml(
+            any(InputStream.class),
+            eq(DocumentType.EArchiveReport),
+            eq("sig-1"),
+            eq(true),
+            eq(signingMaterial)
+        )).thenReturn(new SignResponse(new byte[]{1, 2, 3}, "test-signature-value"));
+
+        // When
+        ResponseEntity<?> response = controller.signXadesRaw(
+            DocumentType.EArchiveReport,
+            "sig-1",
+            "application/zip",
+            new ByteArrayInputStream(new byte[]{1}));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/zip", response.getHeaders().getContentType().toString());
+        verify(spoolFileService).spool(any(InputStream.class), eq(".zip"));
+    }
+
+    @Test
+    void testSignXadesRawRejectsOversizedBody() {
+        // Given - gövde diske alınırken sınır aşılır
+        when(spoolFileService.spool(any(InputStream.class), anyString()))
+            .thenThrow(new SignatureException(SpoolFileService.PAYLOAD_TOO_LARGE, "çok büyük"));
+
+        // When
+        ResponseEntity<?> response = controller.signXadesRaw(
+            DocumentType.UblDocument,
+            null,
+            "text/xml",
+            new ByteArrayInputStream(new byte[]{1}));
+
+        // Then
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        verifyNoInteractions(xadesSignatureService);
+    }
+
+    @Test
+    void testSignXadesRawWithNoneDocumentType() {
+        // When
+        ResponseEntity<?> response = controller.signXadesRaw(
+            DocumentType.None,
+            null,
+            "application/xml",
+            new ByteArrayInputStream(new byte[]{1}));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(xadesSignatureService);
+    }
+}
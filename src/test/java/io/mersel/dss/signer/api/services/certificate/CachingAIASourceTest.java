@@ -0,0 +1,165 @@
+package io.mersel.dss.signer.api.services.certificate;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CachingAIASource test'leri.
+ */
+class CachingAIASourceTest {
+
+    private static final String AIA_URL = "http://aia.test/ca.crt";
+    private static final long ONE_HOUR = 60 * 60 * 1000L;
+
+    private static CertificateToken issuer;
+    private static CertificateToken firstCertificate;
+    private static CertificateToken secondCertificate;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Path directory;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair issuerKeys = generator.generateKeyPair();
+        KeyPair subjectKeys = generator.generateKeyPair();
+
+        issuer = certificate("CN=Test CA", BigInteger.ONE, issuerKeys, issuerKeys, true);
+        firstCertificate = certificate("CN=Imzaci 1", BigInteger.valueOf(2), subjectKeys, issuerKeys, false);
+        secondCertificate = certificate("CN=Imzaci 2", BigInteger.valueOf(3), subjectKeys, issuerKeys, false);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("aia-cache");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.map(Path::toFile).sorted((a, b) -> -a.compareTo(b)).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void testIssuerDownloadedOnceForSameCa() {
+        // Given
+        CachingAIASource source = newSource();
+
+        // When - aynı sertifika tekrar, aynı CA'dan başka bir sertifika bir kez sorgulanır
+        Set<CertificateToken> first = source.getCertificatesByAIA(firstCertificate);
+        source.getCertificatesByAIA(firstCertificate);
+        Set<CertificateToken> second = source.getCertificatesByAIA(secondCertificate);
+
+        // Then
+        assertEquals(1, downloads.get());
+        assertTrue(first.contains(issuer));
+        assertTrue(second.contains(issuer));
+        assertEquals(1.0, meterRegistry.get("signer.aia.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testIssuerLoadedFromDiskAfterRestart() {
+        // Given
+        newSource().getCertificatesByAIA(firstCertificate);
+
+        // When - yeni örnek aynı klasörü kullanır
+        Set<CertificateToken> issuers = newSource().getCertificatesByAIA(firstCertificate);
+
+        // Then
+        assertEquals(1, downloads.get());
+        assertTrue(issuers.contains(issuer));
+    }
+
+    @Test
+    void testChainProviderUsesAiaSource() throws Exception {
+        // Given
+        OnlineCertificateChainProvider provider = new OnlineCertificateChainProvider(newSource());
+
+        // When
+        List<X509Certificate> chain = provider.buildChain(firstCertificate.getCertificate());
+        provider.buildChain(firstCertificate.getCertificate());
+
+        // Then
+        assertEquals(2, chain.size());
+        assertEquals(issuer.getCertificate(), chain.get(1));
+        assertEquals(1, downloads.get());
+    }
+
+    private CachingAIASource newSource() {
+        return new CachingAIASource(new AiaDataLoader(), directory, meterRegistry);
+    }
+
+    private static CertificateToken certificate(String subjectName, BigInteger serial, KeyPair keys,
+                                                KeyPair issuerKeys, boolean ca) throws Exception {
+        long start = System.currentTimeMillis() - ONE_HOUR;
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(new X500Name("CN=Test CA"), serial,
+            new Date(start), new Date(start + 365 * 24 * ONE_HOUR), new X500Name(subjectName), keys.getPublic());
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        if (!ca) {
+            builder.addExtension(Extension.authorityInfoAccess, false, new AuthorityInformationAccess(
+                AccessDescription.id_ad_caIssuers, new GeneralName(GeneralName.uniformResourceIdentifier, AIA_URL)));
+        }
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(
+            builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(issuerKeys.getPrivate()))));
+    }
+
+    /**
+     * AIA adresi için issuer sertifikasını döndüren loader.
+     */
+    private class AiaDataLoader implements DataLoader {
+
+        @Override
+        public byte[] get(String url) {
+            assertEquals(AIA_URL, url);
+            downloads.incrementAndGet();
+            return issuer.getEncoded();
+        }
+
+        @Override
+        public DataAndUrl get(List<String> urlStrings) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] post(String url, byte[] content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.mersel.dss.signer.api.services.certificate;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import io.mersel.dss.signer.api.services.TrustedRootsRefreshedEvent;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CertificateVerifierProvider test'leri.
+ */
+class CertificateVerifierProviderTest {
+
+    private static CertificateToken firstRoot;
+    private static CertificateToken secondRoot;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        firstRoot = rootCertificate("CN=Test Kok 1");
+        secondRoot = rootCertificate("CN=Test Kok 2");
+    }
+
+    @Test
+    void testSnapshotReusedUntilRefresh() {
+        // Given
+        AtomicInteger builds = new AtomicInteger();
+        CertificateVerifierProvider provider = new CertificateVerifierProvider(() -> {
+            builds.incrementAndGet();
+            return new CommonCertificateVerifier();
+        });
+
+        // When
+        CertificateVerifier first = provider.get();
+        CertificateVerifier second = provider.get();
+
+        // Then - istekler anlık görüntüyü yeniden oluşturmadan paylaşır
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void testTrustedRootsRefreshSwapsSnapshot() {
+        // Given
+        List<CertificateToken> roots = new CopyOnWriteArrayList<>();
+        roots.add(firstRoot);
+        CertificateVerifierProvider provider = new CertificateVerifierProvider(() -> verifierWithRoots(roots));
+        CertificateVerifier before = provider.get();
+
+        // When - yeni kök eklenir ve yenileme olayı yayınlanır
+        roots.add(secondRoot);
+        provider.onTrustedRootsRefreshed(new TrustedRootsRefreshedEvent(this, roots.size()));
+
+        // Then - yeni istekler yeni kökleri görür, önceki anlık görüntü değişmez
+        CertificateVerifier after = provider.get();
+        assertNotSame(before, after);
+        assertTrue(isTrusted(after, secondRoot));
+        assertFalse(isTrusted(before, secondRoot));
+        assertTrue(isTrusted(before, firstRoot));
+    }
+
+    @Test
+    void testFailedRefreshKeepsPreviousSnapshot() {
+        // Given
+        AtomicInteger builds = new AtomicInteger();
+        CertificateVerifierProvider provider = new CertificateVerifierProvider(() -> {
+            if (builds.incrementAndGet() > 1) {
+                throw new IllegalStateException("kök deposu okunamadı");
+            }
+            return new CommonCertificateVerifier();
+        });
+        CertificateVerifier before = provider.get();
+
+        // When
+        provider.onTrustedRootsRefreshed(new TrustedRootsRefreshedEvent(this, 0));
+
+        // Then
+        assertSame(before, provider.get());
+    }
+
+    @Test
+    void testFixedProviderIgnoresRefresh() {
+        // Given
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        CertificateVerifierProvider provider = CertificateVerifierProvider.of(verifier);
+
+        // When
+        provider.refresh();
+
+        // Then
+        assertSame(verifier, provider.get());
+    }
+
+    private static CertificateVerifier verifierWithRoots(List<CertificateToken> roots) {
+        CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+        roots.forEach(trustedSource::addCertificate);
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setTrustedCertSources(trustedSource);
+        return verifier;
+    }
+
+    private static boolean isTrusted(CertificateVerifier verifier, CertificateToken certificate) {
+        return verifier.getTrustedCertSources().isTrusted(certificate);
+    }
+
+    private static CertificateToken rootCertificate(String subjectName) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keys = generator.generateKeyPair();
+        X500Name subject = new X500Name(subjectName);
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(subject, BigInteger.ONE, notBefore, notAfter, subject, keys.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keys.getPrivate()))));
+    }
+}
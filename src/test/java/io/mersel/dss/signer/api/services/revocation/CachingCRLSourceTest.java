@@ -0,0 +1,318 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.CertificateStatus;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CachingCRLSource test'leri.
+ */
+class CachingCRLSourceTest {
+
+    private static final String CRL_URL = "http://crl.test/ca.crl";
+    private static final long ONE_HOUR = 60 * 60 * 1000L;
+    private static final long REFRESH_AHEAD = 10 * 60 * 1000L;
+    private static final long DEFAULT_TTL = 30 * 60 * 1000L;
+
+    private static KeyPair issuerKeys;
+    private static KeyPair otherKeys;
+    private static CertificateToken issuer;
+    private static CertificateToken goodCertificate;
+    private static CertificateToken revokedCertificate;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Path directory;
+    private boolean withNextUpdate = true;
+    private boolean signedByOtherKey;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        issuerKeys = generator.generateKeyPair();
+        KeyPair subjectKeys = generator.generateKeyPair();
+        otherKeys = generator.generateKeyPair();
+
+        issuer = certificate("CN=Test CA", BigInteger.ONE, issuerKeys, true);
+        goodCertificate = certificate("CN=Imzaci 1", BigInteger.valueOf(2), subjectKeys, false);
+        revokedCertificate = certificate("CN=Imzaci 2", BigInteger.valueOf(3), subjectKeys, false);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        now.set(System.currentTimeMillis());
+        directory = Files.createTempDirectory("crl-cache");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.map(Path::toFile).sorted((a, b) -> -a.compareTo(b)).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void testCrlDownloadedOnceAndStatusResolved() {
+        // Given
+        CachingCRLSource source = newSource();
+
+        // When
+        CRLToken good = source.getRevocationToken(goodCertificate, issuer);
+        CRLToken revoked = source.getRevocationToken(revokedCertificate, issuer);
+        CRLToken goodAgain = source.getRevocationToken(goodCertificate, issuer);
+
+        // Then
+        assertEquals(1, downloads.get());
+        assertEquals(CertificateStatus.GOOD, good.getStatus());
+        assertEquals(CertificateStatus.REVOKED, revoked.getStatus());
+        assertEquals(CertificateStatus.GOOD, goodAgain.getStatus());
+        assertEquals(CRL_URL, good.getSourceURL());
+    }
+
+    @Test
+    void testEachCallerGetsOwnToken() {
+        // Given
+        CachingCRLSource source = newSource();
+        CRLToken first = source.getRevocationToken(goodCertificate, issuer);
+
+        // When - çağıranlardan biri token'ı değiştirir
+        first.setSourceURL("http://baska.test/ca.crl");
+        first.setExternalOrigin(RevocationOrigin.CACHED);
+        CRLToken second = source.getRevocationToken(goodCertificate, issuer);
+
+        // Then - önbellekteki CRL'den üretilen yeni token etkilenmez
+        assertEquals(1, downloads.get());
+        assertNotSame(first, second);
+        assertEquals(CRL_URL, second.getSourceURL());
+        assertEquals(RevocationOrigin.EXTERNAL, second.getExternalOrigin());
+        assertEquals(CertificateStatus.GOOD, second.getStatus());
+    }
+
+    @Test
+    void testCrlWithBrokenSignatureRejected() throws Exception {
+        // Given - CRL yayıncıdan farklı bir anahtarla imzalanmış
+        signedByOtherKey = true;
+        CachingCRLSource source = newSource();
+
+        // When
+        CRLToken token = source.getRevocationToken(goodCertificate, issuer);
+
+        // Then - CRL döndürülmez, bellekte ve diskte saklanmaz
+        assertNull(token);
+        assertEquals(0, source.size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+
+        // When - sonraki istek CRL'i yeniden indirir
+        signedByOtherKey = false;
+        token = source.getRevocationToken(goodCertificate, issuer);
+
+        // Then
+        assertEquals(2, downloads.get());
+        assertEquals(CertificateStatus.GOOD, token.getStatus());
+    }
+
+    @Test
+    void testRefreshKeepsCurrentCrlWhenNewSignatureBroken() {
+        // Given
+        CachingCRLSource source = newSource();
+        CRLToken before = source.getRevocationToken(goodCertificate, issuer);
+
+        // When - yenilenen CRL'in imzası bozuk
+        signedByOtherKey = true;
+        now.addAndGet(ONE_HOUR - REFRESH_AHEAD + 1000L);
+        source.refresh();
+        CRLToken after = source.getRevocationToken(goodCertificate, issuer);
+
+        // Then - mevcut CRL kullanılmaya devam eder
+        assertEquals(2, downloads.get());
+        assertEquals(before.getThisUpdate(), after.getThisUpdate());
+        assertEquals(1.0, meterRegistry.get("signer.revocation.refresh")
+            .tag("type", "crl").tag("result", "failure").counter().count());
+    }
+
+    @Test
+    void testCrlLoadedFromDiskAfterRestart() throws Exception {
+        // Given
+        newSource().getRevocationToken(goodCertificate, issuer);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+
+        // When - yeni örnek aynı klasörü kullanır
+        CRLToken token = newSource().getRevocationToken(goodCertificate, issuer);
+
+        // Then
+        assertEquals(1, downloads.get());
+        assertEquals(CertificateStatus.GOOD, token.getStatus());
+    }
+
+    @Test
+    void testRefreshDownloadsNewCrlBeforeNextUpdate() {
+        // Given
+        CachingCRLSource source = newSource();
+        source.getRevocationToken(goodCertificate, issuer);
+
+        // When - öne alma süresine girilmeden yenileme yapılmaz
+        source.refresh();
+        assertEquals(1, downloads.get());
+
+        now.addAndGet(ONE_HOUR - REFRESH_AHEAD + 1000L);
+        source.refresh();
+
+        // Then - yenilenen CRL istek yolunda indirme yapılmadan kullanılır
+        assertEquals(2, downloads.get());
+        source.getRevocationToken(goodCertificate, issuer);
+        assertEquals(2, downloads.get());
+        assertEquals(1.0, meterRegistry.get("signer.revocation.refresh")
+            .tag("type", "crl").tag("result", "success").counter().count());
+    }
+
+    @Test
+    void testExpiredCrlDownloadedAgain() {
+        // Given
+        CachingCRLSource source = newSource();
+        source.getRevocationToken(goodCertificate, issuer);
+
+        // When - nextUpdate geçti ve yenileme çalışmadı
+        now.addAndGet(ONE_HOUR + 1000L);
+        CRLToken token = source.getRevocationToken(goodCertificate, issuer);
+
+        // Then
+        assertEquals(2, downloads.get());
+        assertEquals(CertificateStatus.GOOD, token.getStatus());
+    }
+
+    @Test
+    void testCrlWithoutNextUpdateUsedForDefaultTtl() {
+        // Given
+        withNextUpdate = false;
+        CachingCRLSource source = newSource();
+        source.getRevocationToken(goodCertificate, issuer);
+
+        // When - varsayılan süre içinde CRL yeniden indirilmez
+        now.addAndGet(DEFAULT_TTL - REFRESH_AHEAD - 1000L);
+        CRLToken token = source.getRevocationToken(goodCertificate, issuer);
+
+        // Then
+        assertEquals(1, downloads.get());
+        assertEquals(CertificateStatus.GOOD, token.getStatus());
+
+        // When - varsayılan süre dolunca yeniden indirilir
+        now.addAndGet(REFRESH_AHEAD + 2000L);
+        source.getRevocationToken(goodCertificate, issuer);
+
+        // Then
+        assertEquals(2, downloads.get());
+    }
+
+    private CachingCRLSource newSource() {
+        return new CachingCRLSource(new CrlDataLoader(), directory, REFRESH_AHEAD, DEFAULT_TTL,
+            meterRegistry, now::get);
+    }
+
+    private byte[] crl() {
+        try {
+            Date thisUpdate = new Date(now.get() - 1000L);
+            X509v2CRLBuilder builder = new X509v2CRLBuilder(new X500Name("CN=Test CA"), thisUpdate);
+            if (withNextUpdate) {
+                builder.setNextUpdate(new Date(now.get() + ONE_HOUR));
+            }
+            builder.addCRLEntry(revokedCertificate.getSerialNumber(), thisUpdate, CRLReason.keyCompromise);
+            ContentSigner signer = signedByOtherKey
+                ? new JcaContentSignerBuilder("SHA256withRSA").build(otherKeys.getPrivate())
+                : signer();
+            return builder.build(signer).getEncoded();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CertificateToken certificate(String subjectName, BigInteger serial, KeyPair keys,
+                                                boolean ca) throws Exception {
+        long start = System.currentTimeMillis() - ONE_HOUR;
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(new X500Name("CN=Test CA"), serial,
+            new Date(start), new Date(start + 365 * 24 * ONE_HOUR), new X500Name(subjectName), keys.getPublic());
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        if (ca) {
+            builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+        } else {
+            DistributionPointName name = new DistributionPointName(new GeneralNames(
+                new GeneralName(GeneralName.uniformResourceIdentifier, CRL_URL)));
+            builder.addExtension(Extension.cRLDistributionPoints, false,
+                new CRLDistPoint(new DistributionPoint[] { new DistributionPoint(name, null, null) }));
+        }
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(builder.build(signer())));
+    }
+
+    private static ContentSigner signer() throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(issuerKeys.getPrivate());
+    }
+
+    /**
+     * Her çağrıda o anki zamana göre yeni CRL üreten loader.
+     */
+    private class CrlDataLoader implements DataLoader {
+
+        @Override
+        public byte[] get(String url) {
+            assertEquals(CRL_URL, url);
+            downloads.incrementAndGet();
+            return crl();
+        }
+
+        @Override
+        public DataAndUrl get(List<String> urlStrings) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] post(String url, byte[] content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.validation.RevocationDataVerifier;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CachingOCSPSource test'leri.
+ */
+class CachingOCSPSourceTest {
+
+    private static final long FIVE_MINUTES = 5 * 60 * 1000L;
+    private static final long ONE_HOUR = 60 * 60 * 1000L;
+
+    private static KeyPair issuerKeys;
+    private static CertificateToken issuer;
+    private static CertificateToken firstCertificate;
+    private static CertificateToken secondCertificate;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RevocationDataVerifier revocationDataVerifier;
+    private long nextUpdateOffset;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        issuerKeys = generator.generateKeyPair();
+        KeyPair subjectKeys = generator.generateKeyPair();
+
+        issuer = certificate("CN=Test CA", "CN=Test CA", BigInteger.ONE, issuerKeys.getPublic(), true);
+        firstCertificate = certificate("CN=Test CA", "CN=Imzaci 1", BigInteger.valueOf(2),
+            subjectKeys.getPublic(), false);
+        secondCertificate = certificate("CN=Test CA", "CN=Imzaci 2", BigInteger.valueOf(3),
+            subjectKeys.getPublic(), false);
+    }
+
+    @BeforeEach
+    void setUp() {
+        now.set(System.currentTimeMillis());
+        nextUpdateOffset = ONE_HOUR;
+        revocationDataVerifier = RevocationDataVerifier.createDefaultRevocationDataVerifier();
+        revocationDataVerifier.setSignatureMaximumRevocationFreshness(FIVE_MINUTES);
+    }
+
+    @Test
+    void testSecondRequestServedFromCache() {
+        // Given
+        CachingOCSPSource source = newSource(10);
+
+        // When
+        OCSPToken first = source.getRevocationToken(firstCertificate, issuer);
+        OCSPToken second = source.getRevocationToken(firstCertificate, issuer);
+
+        // Then - aynı yanıt, çağırana özel ayrı token olarak döner
+        assertEquals(1, delegateCalls.get());
+        assertNotSame(first, second);
+        assertArrayEquals(first.getEncoded(), second.getEncoded());
+        assertArrayEquals(first.getDigest(DigestAlgorithm.SHA256), second.getDigest(DigestAlgorithm.SHA256));
+        assertEquals(RevocationOrigin.CACHED, second.getExternalOrigin());
+        assertEquals(1.0, meterRegistry.get("signer.revocation.cache")
+            .tag("type", "ocsp").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testEntryRefetchedAfterFreshnessLimit() {
+        // Given
+        CachingOCSPSource source = newSource(10);
+        source.getRevocationToken(firstCertificate, issuer);
+
+        // When - RevocationDataVerifier tazelik sınırı (5 dk) aşılır
+        now.addAndGet(FIVE_MINUTES + 1000L);
+        source.getRevocationToken(firstCertificate, issuer);
+
+        // Then
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    void testEntryRefetchedAfterNextUpdate() {
+        // Given - yanıt tazelik sınırından önce geçerliliğini yitirir
+        nextUpdateOffset = 60 * 1000L;
+        CachingOCSPSource source = newSource(10);
+        source.getRevocationToken(firstCertificate, issuer);
+
+        // When
+        now.addAndGet(2 * 60 * 1000L);
+        source.getRevocationToken(firstCertificate, issuer);
+
+        // Then
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryEvicted() {
+        // Given
+        CachingOCSPSource source = newSource(1);
+        source.getRevocationToken(firstCertificate, issuer);
+
+        // When - kapasite dolu, yeni sertifika en eski kaydı çıkarır
+        source.getRevocationToken(secondCertificate, issuer);
+        source.getRevocationToken(firstCertificate, issuer);
+
+        // Then
+        assertEquals(3, delegateCalls.get());
+        assertEquals(1, source.size());
+    }
+
+    @Test
+    void testCertIdKeyDistinguishesSerialNumbers() {
+        assertNotEquals(CachingOCSPSource.getCertIdKey(firstCertificate, issuer),
+            CachingOCSPSource.getCertIdKey(secondCertificate, issuer));
+        assertEquals(CachingOCSPSource.getCertIdKey(firstCertificate, issuer),
+            CachingOCSPSource.getCertIdKey(firstCertificate, issuer));
+    }
+
+    private CachingOCSPSource newSource(int maxEntries) {
+        OCSPSource delegate = (certificate, issuerCertificate) -> {
+            delegateCalls.incrementAndGet();
+            return ocspToken(certificate, issuerCertificate);
+        };
+        return new CachingOCSPSource(delegate, revocationDataVerifier, maxEntries, meterRegistry, now::get);
+    }
+
+    private OCSPToken ocspToken(CertificateToken certificate, CertificateToken issuerCertificate) {
+        try {
+            Date thisUpdate = new Date(now.get());
+            BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(
+                new RespID(new X500Name(issuerCertificate.getSubject().getRFC2253())));
+            builder.addResponse(DSSRevocationUtils.getOCSPCertificateID(certificate, issuerCertificate,
+                DigestAlgorithm.SHA1), CertificateStatus.GOOD, thisUpdate,
+                new Date(now.get() + nextUpdateOffset), null);
+            BasicOCSPResp response = builder.build(signer(issuerKeys.getPrivate()), null, thisUpdate);
+            SingleResp singleResp = response.getResponses()[0];
+            return new OCSPToken(response, singleResp, certificate, issuerCertificate);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CertificateToken certificate(String issuerName, String subjectName, BigInteger serial,
+                                                PublicKey publicKey, boolean ca) throws Exception {
+        long start = System.currentTimeMillis() - ONE_HOUR;
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(new X500Name(issuerName), serial,
+            new Date(start), new Date(start + 365 * 24 * ONE_HOUR), new X500Name(subjectName), publicKey);
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        X509CertificateHolder holder = builder.build(signer(issuerKeys.getPrivate()));
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(holder));
+    }
+
+    private static ContentSigner signer(PrivateKey privateKey) throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(privateKey);
+    }
+}
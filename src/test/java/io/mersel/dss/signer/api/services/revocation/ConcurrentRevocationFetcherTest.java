@@ -0,0 +1,287 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.revocation.crl.CRL;
+import eu.europa.esig.dss.model.x509.revocation.ocsp.OCSP;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.validation.RevocationDataVerifier;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConcurrentRevocationFetcher test'leri.
+ */
+class ConcurrentRevocationFetcherTest {
+
+    private static final String OCSP_URL = "http://ocsp.test";
+    private static final long ONE_HOUR = 60 * 60 * 1000L;
+    private static final long HEDGE_DELAY = 500L;
+    private static final long TIMEOUT = 5000L;
+    private static final long OPEN_MILLIS = 30 * 1000L;
+
+    private static KeyPair issuerKeys;
+    private static CertificateToken issuer;
+    private static CertificateToken firstCertificate;
+    private static CertificateToken secondCertificate;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger ocspCalls = new AtomicInteger();
+    private final AtomicInteger crlCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService executor;
+    private ConcurrentRevocationFetcher fetcher;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        issuerKeys = generator.generateKeyPair();
+        KeyPair subjectKeys = generator.generateKeyPair();
+
+        issuer = certificate("CN=Test CA", BigInteger.ONE, issuerKeys, true);
+        firstCertificate = certificate("CN=Imzaci 1", BigInteger.valueOf(2), subjectKeys, false);
+        secondCertificate = certificate("CN=Imzaci 2", BigInteger.valueOf(3), subjectKeys, false);
+    }
+
+    @BeforeEach
+    void setUp() {
+        now.set(System.currentTimeMillis());
+        executor = Executors.newFixedThreadPool(4);
+        fetcher = new ConcurrentRevocationFetcher(executor, HEDGE_DELAY, TIMEOUT, 2, OPEN_MILLIS, meterRegistry, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testOcspReturnedWithoutHedgeWhenFast() {
+        // Given
+        HedgedRevocationDataLoadingStrategy strategy = strategy(
+            (certificate, issuerCertificate) -> {
+                ocspCalls.incrementAndGet();
+                return ocspToken(certificate, issuerCertificate);
+            });
+
+        // When
+        RevocationToken<?> token = strategy.getRevocationToken(firstCertificate, issuer);
+
+        // Then
+        assertTrue(token instanceof OCSPToken);
+        assertEquals(0, crlCalls.get());
+        assertEquals(0.0, meterRegistry.get("signer.revocation.hedge").counter().count());
+    }
+
+    @Test
+    void testCrlRacedWhenOcspSlow() {
+        // Given - OCSP yanıtlayıcısı testin sonuna kadar yanıt vermez
+        HedgedRevocationDataLoadingStrategy strategy = strategy(
+            (certificate, issuerCertificate) -> {
+                ocspCalls.incrementAndGet();
+                awaitRelease();
+                return ocspToken(certificate, issuerCertificate);
+            });
+
+        // When
+        long start = System.currentTimeMillis();
+        RevocationToken<?> token = strategy.getRevocationToken(firstCertificate, issuer);
+
+        // Then - CRL hedge gecikmesinden sonra başlatılır ve OCSP beklenmeden kullanılır
+        assertTrue(token instanceof CRLToken);
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT);
+        assertEquals(1, crlCalls.get());
+        assertEquals(1.0, meterRegistry.get("signer.revocation.hedge").counter().count());
+    }
+
+    @Test
+    void testCircuitOpensAfterConsecutiveFailures() {
+        // Given - OCSP yanıtlayıcısı yanıt döndürmüyor
+        HedgedRevocationDataLoadingStrategy strategy = strategy(
+            (certificate, issuerCertificate) -> {
+                ocspCalls.incrementAndGet();
+                return null;
+            });
+        strategy.getRevocationToken(firstCertificate, issuer);
+        strategy.getRevocationToken(firstCertificate, issuer);
+        assertTrue(fetcher.isOpen(ConcurrentRevocationFetcher.OCSP_TYPE, OCSP_URL));
+
+        // When - devre açıkken yanıtlayıcı sorgulanmaz, CRL doğrudan kullanılır
+        RevocationToken<?> token = strategy.getRevocationToken(firstCertificate, issuer);
+
+        // Then
+        assertTrue(token instanceof CRLToken);
+        assertEquals(2, ocspCalls.get());
+        assertEquals(1.0, meterRegistry.get("signer.revocation.fetch")
+            .tag("type", "ocsp").tag("result", "circuit_open").counter().count());
+
+        // Açık süre dolunca tek bir deneme yapılır
+        now.addAndGet(OPEN_MILLIS + 1000L);
+        strategy.getRevocationToken(firstCertificate, issuer);
+        assertEquals(3, ocspCalls.get());
+    }
+
+    @Test
+    void testRejectedQueryLoadedInline() {
+        // Given - havuzun tek iş parçacığı meşgul ve kuyruğu yok
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        saturated.execute(this::awaitRelease);
+        fetcher = new ConcurrentRevocationFetcher(saturated, HEDGE_DELAY, TIMEOUT, 2, OPEN_MILLIS, meterRegistry, now::get);
+        HedgedRevocationDataLoadingStrategy strategy = strategy(
+            (certificate, issuerCertificate) -> {
+                ocspCalls.incrementAndGet();
+                return ocspToken(certificate, issuerCertificate);
+            });
+
+        try {
+            // When
+            RevocationToken<?> token = strategy.getRevocationToken(firstCertificate, issuer);
+
+            // Then - sorgu reddedilir ve çağıran iş parçacığında yapılır
+            assertTrue(token instanceof OCSPToken);
+            assertEquals(1, ocspCalls.get());
+            assertEquals(0, crlCalls.get());
+            assertEquals(1.0, meterRegistry.get("signer.revocation.fetch")
+                .tag("type", "ocsp").tag("result", "rejected").counter().count());
+        } finally {
+            release.countDown();
+            saturated.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPrefetchQueriesChainInParallel() throws Exception {
+        // Given - iki sertifikanın OCSP sorguları birbirini bekler
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        RevocationDataVerifier revocationDataVerifier = RevocationDataVerifier.createDefaultRevocationDataVerifier();
+        revocationDataVerifier.setSignatureMaximumRevocationFreshness(5 * 60 * 1000L);
+        CachingOCSPSource ocspSource = new CachingOCSPSource((certificate, issuerCertificate) -> {
+            ocspCalls.incrementAndGet();
+            bothStarted.countDown();
+            try {
+                bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ocspToken(certificate, issuerCertificate);
+        }, revocationDataVerifier, 10, meterRegistry, now::get);
+
+        // When
+        fetcher.prefetch(Arrays.asList(firstCertificate, secondCertificate, issuer), ocspSource);
+
+        // Then - sorgular paralel çalışır, sonraki sıralı istekler devam eden sorgulara katılır
+        assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+        assertNotNull(ocspSource.getRevocationToken(firstCertificate, issuer));
+        assertNotNull(ocspSource.getRevocationToken(secondCertificate, issuer));
+        assertEquals(2, ocspCalls.get());
+    }
+
+    private HedgedRevocationDataLoadingStrategy strategy(RevocationSource<OCSP> ocsp) {
+        RevocationSource<CRL> crl = (certificate, issuerCertificate) -> {
+            crlCalls.incrementAndGet();
+            return crlToken(certificate);
+        };
+        // Kaynaklar DSS tarafından paket erişimli setter'larla atanır; testte alt sınıfla atanır
+        return new HedgedRevocationDataLoadingStrategy(fetcher) {
+            {
+                ocspSource = ocsp;
+                crlSource = crl;
+                fallbackEnabled = true;
+            }
+        };
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OCSPToken ocspToken(CertificateToken certificate, CertificateToken issuerCertificate) {
+        try {
+            Date thisUpdate = new Date(now.get());
+            BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(
+                new RespID(new X500Name(issuerCertificate.getSubject().getRFC2253())));
+            builder.addResponse(DSSRevocationUtils.getOCSPCertificateID(certificate, issuerCertificate,
+                DigestAlgorithm.SHA1), CertificateStatus.GOOD, thisUpdate, new Date(now.get() + ONE_HOUR), null);
+            BasicOCSPResp response = builder.build(signer(), null, thisUpdate);
+            return new OCSPToken(response, response.getResponses()[0], certificate, issuerCertificate);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CRLToken crlToken(CertificateToken certificate) {
+        try {
+            X509v2CRLBuilder builder = new X509v2CRLBuilder(new X500Name("CN=Test CA"), new Date(now.get()));
+            builder.setNextUpdate(new Date(now.get() + ONE_HOUR));
+            byte[] crl = builder.build(signer()).getEncoded();
+            return new CRLToken(certificate, CRLUtils.buildCRLValidity(CRLUtils.buildCRLBinary(crl), issuer));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CertificateToken certificate(String subjectName, BigInteger serial, KeyPair keys,
+                                                boolean ca) throws Exception {
+        long start = System.currentTimeMillis() - ONE_HOUR;
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(new X500Name("CN=Test CA"), serial,
+            new Date(start), new Date(start + 365 * 24 * ONE_HOUR), new X500Name(subjectName), keys.getPublic());
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        if (!ca) {
+            builder.addExtension(Extension.authorityInfoAccess, false, new AuthorityInformationAccess(
+                AccessDescription.id_ad_ocsp, new GeneralName(GeneralName.uniformResourceIdentifier, OCSP_URL)));
+        }
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(builder.build(signer())));
+    }
+
+    private static ContentSigner signer() throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(issuerKeys.getPrivate());
+    }
+}
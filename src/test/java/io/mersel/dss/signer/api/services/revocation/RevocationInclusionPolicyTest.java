@@ -0,0 +1,179 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.validation.ValidationData;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RevocationInclusionPolicy test'leri.
+ */
+class RevocationInclusionPolicyTest {
+
+    private static KeyPair caKeys;
+    private static CertificateToken ca;
+    private static CertificateToken signer;
+    private static CertificateToken other;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        caKeys = generator.generateKeyPair();
+        ca = certificate("CN=Test CA", "CN=Test CA", BigInteger.ONE, caKeys);
+        signer = certificate("CN=Test Imzaci", "CN=Test CA", BigInteger.valueOf(2), generator.generateKeyPair());
+        other = certificate("CN=Test Diger", "CN=Test CA", BigInteger.valueOf(3), generator.generateKeyPair());
+    }
+
+    @Test
+    void testCrlDroppedWhenOcspCoversEveryCertificate() throws Exception {
+        // Given
+        CRLToken crl = crlToken(signer);
+        OCSPToken ocsp = ocspToken(signer);
+        ValidationData validationData = validationData(crl, ocsp, ca, signer);
+
+        // When
+        new RevocationInclusionPolicy(RevocationInclusionPolicy.Mode.OCSP_PREFERRED, 0).apply(validationData);
+
+        // Then
+        assertTrue(validationData.getCrlTokens().isEmpty());
+        assertTrue(validationData.getOcspTokens().contains(ocsp));
+    }
+
+    @Test
+    void testCrlKeptAsFallbackForCertificateWithoutOcsp() throws Exception {
+        // Given - CA'nın CRL'i OCSP yanıtı olmayan ikinci sertifikayı da kapsar
+        CRLToken crl = crlToken(signer);
+        ValidationData validationData = validationData(crl, ocspToken(signer), ca, signer, other);
+
+        // When
+        new RevocationInclusionPolicy(RevocationInclusionPolicy.Mode.OCSP_PREFERRED, 0).apply(validationData);
+
+        // Then
+        assertTrue(validationData.getCrlTokens().contains(crl));
+    }
+
+    @Test
+    void testAllModeKeepsCrl() throws Exception {
+        // Given
+        CRLToken crl = crlToken(signer);
+        ValidationData validationData = validationData(crl, ocspToken(signer), ca, signer);
+
+        // When
+        new RevocationInclusionPolicy(RevocationInclusionPolicy.Mode.ALL, 0).apply(validationData);
+
+        // Then
+        assertTrue(validationData.getCrlTokens().contains(crl));
+    }
+
+    @Test
+    void testCrlAboveSizeCapDroppedWhenCoveredByOcsp() throws Exception {
+        // Given
+        CRLToken crl = crlToken(signer);
+        OCSPToken ocsp = ocspToken(signer);
+        ValidationData small = validationData(crl, ocsp, ca, signer);
+        ValidationData large = validationData(crl, ocsp, ca, signer);
+
+        // When
+        new RevocationInclusionPolicy(RevocationInclusionPolicy.Mode.ALL, crl.getEncoded().length).apply(small);
+        new RevocationInclusionPolicy(RevocationInclusionPolicy.Mode.ALL, crl.getEncoded().length - 1).apply(large);
+
+        // Then
+        assertTrue(small.getCrlTokens().contains(crl));
+        assertTrue(large.getCrlTokens().isEmpty());
+        assertTrue(large.getOcspTokens().contains(ocsp));
+    }
+
+    @Test
+    void testCrlAboveSizeCapFailsWhenOnlyRevocationSource() throws Exception {
+        // Given - imzacı için OCSP yanıtı yok, CRL tek iptal verisi
+        CRLToken crl = crlToken(signer);
+        ValidationData validationData = validationData(crl, null, ca, signer);
+        RevocationInclusionPolicy policy =
+                new RevocationInclusionPolicy(RevocationInclusionPolicy.Mode.ALL, crl.getEncoded().length - 1);
+
+        // When
+        SignatureException exception = assertThrows(SignatureException.class, () -> policy.apply(validationData));
+
+        // Then - CRL çıkarılmaz
+        assertEquals("REVOCATION_DATA_TOO_LARGE", exception.getErrorCode());
+        assertTrue(validationData.getCrlTokens().contains(crl));
+    }
+
+    @Test
+    void testCrlAboveSizeCapFailsWhenFallbackForCertificateWithoutOcsp() throws Exception {
+        // Given - CRL, OCSP yanıtı olmayan ikinci sertifikanın tek iptal verisi
+        CRLToken crl = crlToken(signer);
+        ValidationData validationData = validationData(crl, ocspToken(signer), ca, signer, other);
+        RevocationInclusionPolicy policy = new RevocationInclusionPolicy(
+                RevocationInclusionPolicy.Mode.OCSP_PREFERRED, crl.getEncoded().length - 1);
+
+        // When & Then
+        assertThrows(SignatureException.class, () -> policy.apply(validationData));
+        assertTrue(validationData.getCrlTokens().contains(crl));
+    }
+
+    private static ValidationData validationData(CRLToken crl, OCSPToken ocsp, CertificateToken... certificates) {
+        ValidationData validationData = new ValidationData();
+        for (CertificateToken certificate : certificates) {
+            validationData.addToken(certificate);
+        }
+        validationData.addToken(crl);
+        if (ocsp != null) {
+            validationData.addToken(ocsp);
+        }
+        return validationData;
+    }
+
+    private static CRLToken crlToken(CertificateToken certificate) throws Exception {
+        Date thisUpdate = new Date();
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(new X500Name("CN=Test CA"), thisUpdate);
+        builder.setNextUpdate(new Date(thisUpdate.getTime() + 60 * 60 * 1000L));
+        byte[] encoded = builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()))
+                .getEncoded();
+        return new CRLToken(certificate, CRLUtils.buildCRLValidity(CRLUtils.buildCRLBinary(encoded), ca));
+    }
+
+    private static OCSPToken ocspToken(CertificateToken certificate) throws Exception {
+        Date thisUpdate = new Date();
+        BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(new X500Name("CN=Test CA")));
+        builder.addResponse(DSSRevocationUtils.getOCSPCertificateID(certificate, ca, DigestAlgorithm.SHA1),
+                CertificateStatus.GOOD, thisUpdate, new Date(thisUpdate.getTime() + 60 * 60 * 1000L), null);
+        BasicOCSPResp response = builder.build(
+                new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()), null, thisUpdate);
+        return new OCSPToken(response, response.getResponses()[0], certificate, ca);
+    }
+
+    private static CertificateToken certificate(String subjectName, String issuerName, BigInteger serial,
+                                                KeyPair keys) throws Exception {
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(new X500Name(issuerName), serial,
+                notBefore, notAfter, new X500Name(subjectName), keys.getPublic());
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()))));
+    }
+}
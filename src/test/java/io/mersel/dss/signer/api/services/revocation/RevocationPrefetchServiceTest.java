@@ -0,0 +1,168 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.validation.RevocationDataVerifier;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RevocationPrefetchService test'leri.
+ */
+class RevocationPrefetchServiceTest {
+
+    private static final long FIVE_MINUTES = 5 * 60 * 1000L;
+    private static final long REFRESH_AGE = 3 * 60 * 1000L;
+    private static final long ONE_HOUR = 60 * 60 * 1000L;
+
+    private static KeyPair caKeys;
+    private static CertificateToken root;
+    private static CertificateToken signingCertificate;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger ocspCalls = new AtomicInteger();
+    private final AtomicInteger crlCalls = new AtomicInteger();
+    private final AtomicBoolean ocspAvailable = new AtomicBoolean(true);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CachingOCSPSource ocspSource;
+    private RevocationPrefetchService service;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        caKeys = generator.generateKeyPair();
+        KeyPair subjectKeys = generator.generateKeyPair();
+
+        root = certificate("CN=Test CA", BigInteger.ONE, caKeys, true);
+        signingCertificate = certificate("CN=Imzaci", BigInteger.valueOf(2), subjectKeys, false);
+    }
+
+    @BeforeEach
+    void setUp() {
+        now.set(System.currentTimeMillis());
+        RevocationDataVerifier revocationDataVerifier = RevocationDataVerifier.createDefaultRevocationDataVerifier();
+        revocationDataVerifier.setSignatureMaximumRevocationFreshness(FIVE_MINUTES);
+
+        OCSPSource delegate = (certificate, issuerCertificate) -> {
+            ocspCalls.incrementAndGet();
+            return ocspAvailable.get() ? ocspToken(certificate, issuerCertificate) : null;
+        };
+        CRLSource crlSource = (certificate, issuerCertificate) -> {
+            crlCalls.incrementAndGet();
+            return null;
+        };
+        ocspSource = new CachingOCSPSource(delegate, revocationDataVerifier, 10, meterRegistry, now::get);
+        List<CertificateToken> chain = Arrays.asList(signingCertificate, root);
+        service = new RevocationPrefetchService(chain, ocspSource, crlSource, REFRESH_AGE, meterRegistry, now::get);
+    }
+
+    @Test
+    void testPrefetchedResponseServedOnRequestPath() {
+        // Given
+        service.prefetch();
+
+        // When
+        OCSPToken token = ocspSource.getRevocationToken(signingCertificate, root);
+
+        // Then - kök sertifika atlanır, imzalama sertifikası için tek OCSP isteği yapılır
+        assertNotNull(token);
+        assertEquals(1, ocspCalls.get());
+        assertEquals(1.0, meterRegistry.get("signer.revocation.prefetch.requests")
+            .tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("signer.revocation.prefetch")
+            .tag("result", "success").counter().count());
+    }
+
+    @Test
+    void testResponseRefreshedOnlyAfterRefreshAge() {
+        // Given
+        service.prefetch();
+
+        // When - yenileme yaşına ulaşılmadan tekrar çalışır
+        now.addAndGet(REFRESH_AGE - 1000L);
+        service.prefetch();
+        assertEquals(1, ocspCalls.get());
+
+        now.addAndGet(2000L);
+        service.prefetch();
+
+        // Then - tazelik sınırı dolmadan yeni yanıt alınır
+        assertEquals(2, ocspCalls.get());
+        assertTrue(meterRegistry.get("signer.revocation.prefetch.age").gauge().value() < 1.0);
+        now.addAndGet(FIVE_MINUTES - REFRESH_AGE);
+        ocspSource.getRevocationToken(signingCertificate, root);
+        assertEquals(2, ocspCalls.get());
+    }
+
+    @Test
+    void testCrlWarmedWhenOcspUnavailable() {
+        // Given
+        ocspAvailable.set(false);
+
+        // When
+        service.prefetch();
+
+        // Then
+        assertEquals(1, crlCalls.get());
+        assertTrue(Double.isNaN(meterRegistry.get("signer.revocation.prefetch.age").gauge().value()));
+        assertEquals(1.0, meterRegistry.get("signer.revocation.prefetch")
+            .tag("result", "failure").counter().count());
+    }
+
+    private OCSPToken ocspToken(CertificateToken certificate, CertificateToken issuerCertificate) {
+        try {
+            Date thisUpdate = new Date(now.get());
+            BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(
+                new RespID(new X500Name(issuerCertificate.getSubject().getRFC2253())));
+            builder.addResponse(DSSRevocationUtils.getOCSPCertificateID(certificate, issuerCertificate,
+                DigestAlgorithm.SHA1), CertificateStatus.GOOD, thisUpdate, new Date(now.get() + ONE_HOUR), null);
+            BasicOCSPResp response = builder.build(
+                new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()), null, thisUpdate);
+            return new OCSPToken(response, response.getResponses()[0], certificate, issuerCertificate);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CertificateToken certificate(String subjectName, BigInteger serial, KeyPair keys,
+                                                boolean ca) throws Exception {
+        long start = System.currentTimeMillis() - ONE_HOUR;
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(new X500Name("CN=Test CA"), serial,
+            new Date(start), new Date(start + 365 * 24 * ONE_HOUR), new X500Name(subjectName), keys.getPublic());
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        X509CertificateHolder holder = builder.build(
+            new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()));
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(holder));
+    }
+}
@@ -0,0 +1,370 @@
+package io.mersel.dss.signer.api.services.signature.async;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SignatureJob;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.SignatureJobStatus;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESDocumentPlacementService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESFragmentCacheService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESLevelUpgradeService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESParametersBuilderService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XmlProcessingService;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * AsyncSignatureJobService test'leri.
+ * İmzalama gerçek akışla, iş deposu geçici bir klasörde çalıştırılır.
+ */
+class AsyncSignatureJobServiceTest {
+
+    private static final String DOCUMENT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<eArsivRaporu xmlns=\"http://earsiv.efatura.gov.tr\"><baslik><ID>1</ID></baslik></eArsivRaporu>";
+
+    private static SigningMaterial signingMaterial;
+    private static X509Certificate certificate;
+
+    @Mock
+    private SignatureServiceConfiguration config;
+
+    private Path directory;
+    private ThreadPoolExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+    private XAdESSignatureService xadesSignatureService;
+    private SignatureJobStore jobStore;
+    private AsyncSignatureJobService service;
+
+    @BeforeAll
+    static void createSigningMaterial() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        X500Name subject = new X500Name("CN=Test Imzaci, O=Mersel, C=TR");
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                subject, BigInteger.ONE, notBefore, notAfter, subject, keyPair.getPublic());
+        certificate = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        signingMaterial = new SigningMaterial(keyPair.getPrivate(), certificate,
+                Collections.singletonList(certificate));
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(config.getAsyncJobQueueCapacity()).thenReturn(10);
+        when(config.getAsyncJobRetentionSeconds()).thenReturn(3600L);
+        when(config.getAsyncJobCallbackTimeoutMs()).thenReturn(1000);
+
+        CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+        trustedSource.addCertificate(new CertificateToken(certificate));
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setTrustedCertSources(trustedSource);
+
+        // Zaman damgası yapılandırılmadığından yükseltme adımı belgeyi değiştirmez
+        XAdESLevelUpgradeService levelUpgradeService = new XAdESLevelUpgradeService(
+                CertificateVerifierProvider.of(verifier), new TimestampConfigurationService("", "", "", false),
+                new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry()));
+        xadesSignatureService = new XAdESSignatureService(
+                new XAdESParametersBuilderService(new DigestAlgorithmResolverService()),
+                new XmlProcessingService(),
+                new XAdESDocumentPlacementService(),
+                levelUpgradeService,
+                new XAdESFragmentCacheService(),
+                new CryptoSignerService(new SignatureAlgorithmResolverService()),
+                CertificateVerifierProvider.of(verifier),
+                new CompressionService(),
+                new ConcurrencyLimiter("hsm", 1, new SimpleMeterRegistry()),
+                new ConcurrencyLimiter("cpu", 1, new SimpleMeterRegistry()));
+
+        directory = Files.createTempDirectory("async-jobs");
+        jobStore = new SignatureJobStore(directory);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        meterRegistry = new SimpleMeterRegistry();
+        service = createService();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> path.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void testSubmitCompletesJobAndStoresResult() throws Exception {
+        // When
+        SignatureJob job = submit("ASYNC-1", null);
+
+        // Then - istek XAdES-B imzası ile hemen döner, yükseltme arka planda tamamlanır
+        assertEquals("Signature_ASYNC-1", job.getSignatureId());
+        assertNotNull(job.getSignatureValue());
+        SignatureJob completed = awaitFinished(job.getJobId());
+        assertEquals(SignatureJobStatus.COMPLETED, completed.getStatus());
+
+        String result = new String(service.getResult(job.getJobId()), StandardCharsets.UTF_8);
+        assertTrue(result.contains("Signature_ASYNC-1"));
+        assertNull(jobStore.readInput(job.getJobId()));
+        assertEquals(1, meterRegistry.get("signer.async.jobs.latency").tag("status", "completed").timer().count());
+    }
+
+    @Test
+    void testSubmitRejectedWhenQueueFull() throws Exception {
+        // Given - tek çalışan meşgul, kuyruk kapasitesi yok
+        CountDownLatch release = new CountDownLatch(1);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        service = createService();
+
+        try {
+            // When
+            SignatureException exception = assertThrows(SignatureException.class, () -> submit("ASYNC-2", null));
+
+            // Then - reddedilen işin kaydı ve ara belgesi diskte bırakılmaz
+            assertEquals("JOB_QUEUE_FULL", exception.getErrorCode());
+            assertTrue(jobStore.loadAll().isEmpty());
+            assertEquals(1.0, meterRegistry.get("signer.async.jobs.rejected").counter().count());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testSubmitRejectsNonHttpCallbackUrl() {
+        // When
+        SignatureException exception = assertThrows(SignatureException.class,
+                () -> submit("ASYNC-3", "file:///etc/passwd"));
+
+        // Then
+        assertEquals("INVALID_CALLBACK_URL", exception.getErrorCode());
+        assertTrue(jobStore.loadAll().isEmpty());
+    }
+
+    @Test
+    void testSubmitRejectsInternalCallbackHosts() {
+        for (String callbackUrl : new String[]{
+                "http://127.0.0.1:8080/callback",
+                "http://localhost/callback",
+                "http://169.254.169.254/latest/meta-data/",
+                "http://10.0.0.5/callback",
+                "http://192.168.1.10/callback",
+                "http://[::1]/callback"}) {
+            // When
+            SignatureException exception = assertThrows(SignatureException.class,
+                    () -> submit("ASYNC-6", callbackUrl));
+
+            // Then
+            assertEquals("INVALID_CALLBACK_URL", exception.getErrorCode(), callbackUrl);
+        }
+        assertTrue(jobStore.loadAll().isEmpty());
+    }
+
+    @Test
+    void testSubmitRejectsCallbackHostOutsideAllowList() {
+        // Given
+        when(config.getAsyncJobCallbackAllowedHosts()).thenReturn(Collections.singleton("callback.example.com"));
+
+        // When
+        SignatureException exception = assertThrows(SignatureException.class,
+                () -> submit("ASYNC-7", "https://other.example.com/callback"));
+
+        // Then
+        assertEquals("INVALID_CALLBACK_URL", exception.getErrorCode());
+    }
+
+    @Test
+    void testCallbackReceivesFinalStatus() throws Exception {
+        // Given - geri çağrıyı karşılayan yerel HTTP sunucusu, izin listesinde
+        when(config.getAsyncJobCallbackAllowedHosts()).thenReturn(Collections.singleton("127.0.0.1"));
+        CompletableFuture<String> callbackBody = new CompletableFuture<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/callback", exchange -> {
+            callbackBody.complete(new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            // When
+            SignatureJob job = submit("ASYNC-5",
+                    "http://127.0.0.1:" + server.getAddress().getPort() + "/callback");
+
+            // Then
+            String body = callbackBody.get(10, TimeUnit.SECONDS);
+            assertTrue(body.contains(job.getJobId()));
+            assertTrue(body.contains("\"status\":\"COMPLETED\""));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testRecoverPendingJobsAfterRestart() throws Exception {
+        // Given - çalışırken kesilmiş bir iş diskte duruyor
+        SignResponse signed = xadesSignatureService.signXmlWithoutUpgrade(
+                new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)),
+                DocumentType.EArchiveReport, "ASYNC-4", false, signingMaterial);
+        SignatureJob job = newJob(SignatureJobStatus.RUNNING);
+        job.setSignatureId(signed.getSignatureId());
+        jobStore.writeInput(job.getJobId(), signed.getSignedDocument());
+        jobStore.save(job);
+
+        // When - yeni servis örneği (yeniden başlatma) yarım kalan işleri kuyruğa alır
+        createService().recoverPendingJobs();
+
+        // Then
+        assertEquals(SignatureJobStatus.COMPLETED, awaitFinished(job.getJobId()).getStatus());
+        assertArrayEquals(signed.getSignedDocument(), service.getResult(job.getJobId()));
+    }
+
+    @Test
+    void testJobFailsWhenInputMissing() {
+        // Given
+        SignatureJob job = newJob(SignatureJobStatus.PENDING);
+        jobStore.save(job);
+
+        // When
+        service.runJob(job.getJobId());
+
+        // Then
+        SignatureJob failed = service.getJob(job.getJobId());
+        assertEquals(SignatureJobStatus.FAILED, failed.getStatus());
+        assertEquals("JOB_INPUT_MISSING", failed.getErrorCode());
+        SignatureException exception = assertThrows(SignatureException.class,
+                () -> service.getResult(job.getJobId()));
+        assertEquals("JOB_FAILED", exception.getErrorCode());
+    }
+
+    @Test
+    void testGetResultOfPendingAndUnknownJobs() {
+        // Given
+        SignatureJob job = newJob(SignatureJobStatus.PENDING);
+        jobStore.save(job);
+
+        // When & Then
+        assertEquals("JOB_NOT_COMPLETED", assertThrows(SignatureException.class,
+                () -> service.getResult(job.getJobId())).getErrorCode());
+        assertEquals("JOB_NOT_FOUND", assertThrows(SignatureException.class,
+                () -> service.getJob(UUID.randomUUID().toString())).getErrorCode());
+        assertEquals("JOB_NOT_FOUND", assertThrows(SignatureException.class,
+                () -> service.getJob("../application")).getErrorCode());
+    }
+
+    @Test
+    void testPurgeFinishedJobsKeepsPendingJobs() {
+        // Given
+        SignatureJob finished = newJob(SignatureJobStatus.COMPLETED);
+        finished.setCompletedAt(1L);
+        jobStore.save(finished);
+        SignatureJob pending = newJob(SignatureJobStatus.PENDING);
+        jobStore.save(pending);
+
+        // When
+        service.purgeFinishedJobs();
+
+        // Then
+        assertNull(jobStore.load(finished.getJobId()));
+        assertNotNull(jobStore.load(pending.getJobId()));
+    }
+
+    private AsyncSignatureJobService createService() {
+        XAdESLevelUpgradeService levelUpgradeService = new XAdESLevelUpgradeService(
+                CertificateVerifierProvider.of(new CommonCertificateVerifier()),
+                new TimestampConfigurationService("", "", "", false),
+                new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry()));
+        return new AsyncSignatureJobService(xadesSignatureService, levelUpgradeService,
+                new DigestAlgorithmResolverService(), new CompressionService(), jobStore,
+                executor, config, meterRegistry);
+    }
+
+    private SignatureJob submit(String signatureId, String callbackUrl) {
+        return service.submit(
+                new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)),
+                DocumentType.EArchiveReport,
+                signatureId,
+                false,
+                callbackUrl,
+                signingMaterial);
+    }
+
+    private SignatureJob newJob(SignatureJobStatus status) {
+        SignatureJob job = new SignatureJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(status);
+        job.setDocumentType(DocumentType.EArchiveReport);
+        job.setDigestAlgorithm("SHA256");
+        job.setCreatedAt(System.currentTimeMillis());
+        return job;
+    }
+
+    private SignatureJob awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        SignatureJob job = service.getJob(jobId);
+        while (!job.getStatus().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = service.getJob(jobId);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,95 @@
+package io.mersel.dss.signer.api.services.signature.async;
+
+import io.mersel.dss.signer.api.models.SignatureJob;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.SignatureJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SignatureJobStore test'leri.
+ */
+class SignatureJobStoreTest {
+
+    private Path directory;
+    private SignatureJobStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("job-store");
+        store = new SignatureJobStore(directory);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> path.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() {
+        // Given
+        SignatureJob job = new SignatureJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(SignatureJobStatus.PENDING);
+        job.setDocumentType(DocumentType.EArchiveReport);
+        job.setSignatureId("Signature_1");
+        job.setZipped(true);
+        job.setCreatedAt(1234L);
+
+        // When
+        store.save(job);
+        store.writeInput(job.getJobId(), new byte[]{1, 2, 3});
+
+        // Then - yeni depo örneği (yeniden başlatma) aynı kaydı okur
+        SignatureJobStore reopened = new SignatureJobStore(directory);
+        SignatureJob loaded = reopened.load(job.getJobId());
+        assertEquals(SignatureJobStatus.PENDING, loaded.getStatus());
+        assertEquals(DocumentType.EArchiveReport, loaded.getDocumentType());
+        assertEquals("Signature_1", loaded.getSignatureId());
+        assertTrue(loaded.isZipped());
+        assertEquals(1234L, loaded.getCreatedAt());
+        assertArrayEquals(new byte[]{1, 2, 3}, reopened.readInput(job.getJobId()));
+        assertEquals(1, reopened.loadAll().size());
+    }
+
+    @Test
+    void testDeleteRemovesAllJobFiles() throws Exception {
+        // Given
+        String jobId = UUID.randomUUID().toString();
+        SignatureJob job = new SignatureJob();
+        job.setJobId(jobId);
+        job.setStatus(SignatureJobStatus.COMPLETED);
+        store.save(job);
+        store.writeInput(jobId, new byte[]{1});
+        store.writeResult(jobId, new byte[]{2});
+
+        // When
+        store.delete(jobId);
+
+        // Then
+        assertNull(store.load(jobId));
+        assertNull(store.readResult(jobId));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testInvalidJobIdIsNotResolved() {
+        // When & Then - klasör dışına işaret eden tanımlayıcılar okunmaz
+        assertFalse(store.isValidJobId("../../etc/passwd"));
+        assertNull(store.load("../../etc/passwd"));
+        assertNull(store.readResult("../application"));
+    }
+}
@@ -0,0 +1,253 @@
+package io.mersel.dss.signer.api.services.signature.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchSignEntry;
+import io.mersel.dss.signer.api.models.BatchSignResult;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BatchSignatureService test'leri.
+ */
+class BatchSignatureServiceTest {
+
+    @Mock
+    private XAdESSignatureService xadesSignatureService;
+
+    @Mock
+    private PAdESSignatureService padesSignatureService;
+
+    @Mock
+    private SignatureServiceConfiguration config;
+
+    private ExecutorService executor;
+    private BatchSignatureService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.getBatchMaxEntries()).thenReturn(10);
+        when(config.getBatchMaxEntryBytes()).thenReturn(1024L);
+        when(config.getBatchMaxTotalBytes()).thenReturn(4096L);
+        executor = Executors.newFixedThreadPool(2);
+        service = new BatchSignatureService(xadesSignatureService, padesSignatureService,
+            new CompressionService(), config, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSignBatchReportsFailedEntryWithoutFailingBatch() throws Exception {
+        // Given
+        when(xadesSignatureService.signXml(any(), eq(DocumentType.UblDocument), isNull(), eq(false), any()))
+            .thenReturn(new SignResponse("signed-invoice".getBytes(), "c2ln", "Signature_1"));
+        when(xadesSignatureService.signXml(any(), eq(DocumentType.HrXml), isNull(), eq(false), any()))
+            .thenThrow(new SignatureException("XML_INVALID", "Belge ayrıştırılamadı"));
+        when(padesSignatureService.signPdf(any(), isNull(), isNull(), eq(false), any()))
+            .thenReturn(new SignResponse("signed-pdf".getBytes(), null));
+
+        List<BatchSignEntry> entries = Arrays.asList(
+            new BatchSignEntry("invoice.xml", "<Invoice/>".getBytes(), DocumentType.UblDocument),
+            new BatchSignEntry("user.xml", "<bozuk".getBytes(), DocumentType.HrXml),
+            new BatchSignEntry("report.pdf", "%PDF-1.4".getBytes(), DocumentType.OtherXmlDocument));
+
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        List<BatchSignResult> results = service.signBatch(entries, null, output);
+
+        // Then
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Signature_1", results.get(0).getSignatureId());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("XML_INVALID", results.get(1).getErrorCode());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("Pdf", results.get(2).getDocumentType());
+
+        Map<String, byte[]> zipEntries = readZip(output.toByteArray());
+        assertArrayEquals("signed-invoice".getBytes(), zipEntries.get("invoice.xml"));
+        assertArrayEquals("signed-pdf".getBytes(), zipEntries.get("report.pdf"));
+        assertFalse(zipEntries.containsKey("user.xml"));
+
+        JsonNode report = new ObjectMapper().readTree(zipEntries.get(BatchSignatureService.REPORT_ENTRY_NAME));
+        assertEquals(3, report.size());
+        assertEquals("user.xml", report.get(1).get("name").asText());
+        assertFalse(report.get(1).get("success").asBoolean());
+    }
+
+    @Test
+    void testSignBatchRejectsDuplicateEntryNames() throws Exception {
+        // Given - multipart isteğinde aynı adla iki belge
+        when(xadesSignatureService.signXml(any(), any(), isNull(), eq(false), any()))
+            .thenReturn(new SignResponse("signed".getBytes(), "c2ln"));
+
+        List<BatchSignEntry> entries = Arrays.asList(
+            new BatchSignEntry("doc.xml", "<a/>".getBytes(), DocumentType.OtherXmlDocument),
+            new BatchSignEntry("doc.xml", "<b/>".getBytes(), DocumentType.OtherXmlDocument));
+
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        List<BatchSignResult> results = service.signBatch(entries, null, output);
+
+        // Then - ZIP girdileriyle aynı kural: ilk girdi imzalanır, ikincisi reddedilir
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("DUPLICATE_ENTRY", results.get(1).getErrorCode());
+        Map<String, byte[]> zipEntries = readZip(output.toByteArray());
+        assertEquals(2, zipEntries.size());
+        assertArrayEquals("signed".getBytes(), zipEntries.get("doc.xml"));
+        verify(xadesSignatureService, times(1)).signXml(any(), any(), isNull(), eq(false), any());
+    }
+
+    @Test
+    void testSignBatchRejectsTooManyEntries() {
+        // Given
+        when(config.getBatchMaxEntries()).thenReturn(1);
+        List<BatchSignEntry> entries = Arrays.asList(
+            new BatchSignEntry("a.xml", "<a/>".getBytes(), DocumentType.OtherXmlDocument),
+            new BatchSignEntry("b.xml", "<b/>".getBytes(), DocumentType.OtherXmlDocument));
+
+        // When & Then
+        SignatureException exception = assertThrows(SignatureException.class,
+            () -> service.signBatch(entries, null, new ByteArrayOutputStream()));
+        assertEquals("BATCH_TOO_LARGE", exception.getErrorCode());
+        verifyNoInteractions(xadesSignatureService);
+    }
+
+    @Test
+    void testReadZipEntriesAppliesPerEntryAndDefaultDocumentTypes() throws Exception {
+        // Given
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(zip)) {
+            for (String name : new String[]{"a.xml", "b.xml"}) {
+                zos.putNextEntry(new ZipEntry(name));
+                zos.write("<x/>".getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+
+        // When
+        List<BatchSignEntry> entries = service.readZipEntries(
+            new ByteArrayInputStream(zip.toByteArray()),
+            Collections.singletonList(DocumentType.UblDocument),
+            DocumentType.EArchiveReport);
+
+        // Then
+        assertEquals(2, entries.size());
+        assertEquals(DocumentType.UblDocument, entries.get(0).getDocumentType());
+        assertEquals(DocumentType.EArchiveReport, entries.get(1).getDocumentType());
+    }
+
+    @Test
+    void testReadZipEntriesReportsDuplicateNames() throws Exception {
+        // Given - ZipOutputStream aynı adı kabul etmediğinden ikinci ad yazıldıktan sonra değiştirilir
+        byte[] zip = renameEntry(
+            createZip(new String[]{"doc.xml", "dup.xml"}, "<x/>".getBytes(StandardCharsets.UTF_8)),
+            "dup.xml", "doc.xml");
+        when(xadesSignatureService.signXml(any(), any(), isNull(), eq(false), any()))
+            .thenReturn(new SignResponse("signed".getBytes(), "c2ln"));
+
+        // When
+        List<BatchSignEntry> entries = service.readZipEntries(
+            new ByteArrayInputStream(zip), null, DocumentType.OtherXmlDocument);
+        List<BatchSignResult> results = service.signBatch(entries, null, new ByteArrayOutputStream());
+
+        // Then
+        assertEquals(2, entries.size());
+        assertFalse(entries.get(0).isRejected());
+        assertTrue(entries.get(1).isRejected());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("DUPLICATE_ENTRY", results.get(1).getErrorCode());
+        verify(xadesSignatureService, times(1)).signXml(any(), any(), isNull(), eq(false), any());
+    }
+
+    @Test
+    void testReadZipEntriesRejectsOversizedEntry() throws Exception {
+        // Given - sıkıştırılmış hali küçük, açılmış hali sınırın üzerinde
+        byte[] zip = createZip(new String[]{"big.xml"}, new byte[2048]);
+
+        // When & Then
+        SignatureException exception = assertThrows(SignatureException.class,
+            () -> service.readZipEntries(new ByteArrayInputStream(zip), null, DocumentType.OtherXmlDocument));
+        assertEquals("ZIP_TOO_LARGE", exception.getErrorCode());
+    }
+
+    @Test
+    void testReadZipEntriesRejectsOversizedArchive() throws Exception {
+        // Given - her girdi sınır içinde, toplam açılan boyut sınırın üzerinde
+        byte[] zip = createZip(new String[]{"a.xml", "b.xml", "c.xml", "d.xml", "e.xml"}, new byte[1000]);
+
+        // When & Then
+        SignatureException exception = assertThrows(SignatureException.class,
+            () -> service.readZipEntries(new ByteArrayInputStream(zip), null, DocumentType.OtherXmlDocument));
+        assertEquals("ZIP_TOO_LARGE", exception.getErrorCode());
+    }
+
+    private byte[] createZip(String[] names, byte[] content) throws Exception {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(zip)) {
+            for (String name : names) {
+                zos.putNextEntry(new ZipEntry(name));
+                zos.write(content);
+                zos.closeEntry();
+            }
+        }
+        return zip.toByteArray();
+    }
+
+    private byte[] renameEntry(byte[] zip, String from, String to) {
+        byte[] source = from.getBytes(StandardCharsets.UTF_8);
+        byte[] target = to.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i <= zip.length - source.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(zip, i, i + source.length), source)) {
+                System.arraycopy(target, 0, zip, i, target.length);
+            }
+        }
+        return zip;
+    }
+
+    private Map<String, byte[]> readZip(byte[] zipBytes) throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zipBytes))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), IOUtils.toByteArray(zis));
+            }
+        }
+        return entries;
+    }
+}
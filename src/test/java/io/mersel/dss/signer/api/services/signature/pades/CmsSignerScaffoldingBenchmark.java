@@ -0,0 +1,66 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PAdES CMS hazırlığının istek başına bellek ayırma karşılaştırması.
+ *
+ * <p>Materyal başına önbelleklenen {@link CmsSignerScaffolding} ile her istekte yeniden
+ * oluşturulan parçaların istek başına ayırdığı bayt miktarını yazdırır. Sonuç JVM'e ve
+ * makineye bağlı olduğundan birim testlerin parçası değildir; surefire tarafından
+ * çalıştırılmaz ve doğrulama yapmaz:
+ *
+ * <pre>
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mersel.dss.signer.api.services.signature.pades.CmsSignerScaffoldingBenchmark \
+ *     -Dbenchmark.iterations=2000
+ * </pre>
+ */
+public final class CmsSignerScaffoldingBenchmark {
+
+    private CmsSignerScaffoldingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = Integer.getInteger("benchmark.iterations", 2000);
+        CmsSignerScaffoldingTest.createSigningMaterial();
+        byte[] content = "PDF bayt aralıkları".getBytes(StandardCharsets.UTF_8);
+        CmsSignerScaffolding cached = new CmsSignerScaffolding(CmsSignerScaffoldingTest.signingMaterial);
+
+        // Isınma
+        for (int i = 0; i < 200; i++) {
+            prepare(new CmsSignerScaffolding(CmsSignerScaffoldingTest.signingMaterial), content);
+            prepare(cached, content);
+        }
+
+        long start = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            prepare(new CmsSignerScaffolding(CmsSignerScaffoldingTest.signingMaterial), content);
+        }
+        long perRequestBytes = (allocatedBytes() - start) / iterations;
+
+        start = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            prepare(cached, content);
+        }
+        long cachedBytes = (allocatedBytes() - start) / iterations;
+
+        System.out.printf("PAdES CMS hazırlığı (%d tekrar): istek başına oluşturma %d bayt/istek, "
+                + "önbellek %d bayt/istek%n", iterations, perRequestBytes, cachedBytes);
+    }
+
+    /**
+     * İmzalama öncesi istek başına yapılan CMS hazırlığı: imzalayıcı, özet ve üreteç.
+     */
+    private static void prepare(CmsSignerScaffolding scaffolding, byte[] content) throws Exception {
+        scaffolding.createGenerator(
+                scaffolding.createContentSigner(CmsSignerScaffoldingTest.signingMaterial.getPrivateKey()),
+                CmsSignerScaffoldingTest.digest(scaffolding, content));
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
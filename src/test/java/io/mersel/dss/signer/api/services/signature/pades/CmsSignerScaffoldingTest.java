@@ -0,0 +1,135 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.asn1.ess.SigningCertificateV2;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cms.CMSAbsentContent;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CmsSignerScaffolding test'leri.
+ */
+class CmsSignerScaffoldingTest {
+
+    static SigningMaterial signingMaterial;
+    private static X509Certificate certificate;
+
+    @BeforeAll
+    static void createSigningMaterial() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        X500Name subject = new X500Name("CN=Test Imzaci, O=Mersel, C=TR");
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                subject, BigInteger.ONE, notBefore, notAfter, subject, keyPair.getPublic());
+        certificate = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        signingMaterial = new SigningMaterial(keyPair.getPrivate(), certificate,
+                Collections.singletonList(certificate));
+    }
+
+    @Test
+    void testSignedAttributesCarryCertificateHashAndContentDigest() throws Exception {
+        // Given
+        CmsSignerScaffolding scaffolding = new CmsSignerScaffolding(signingMaterial);
+        byte[] content = "PDF bayt aralıkları".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        CMSSignedData signedData = sign(scaffolding, content);
+
+        // Then
+        SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+        Attribute messageDigest = signer.getSignedAttributes().get(CMSAttributes.messageDigest);
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content),
+                ASN1OctetString.getInstance(messageDigest.getAttrValues().getObjectAt(0)).getOctets());
+
+        Attribute signingCertificate = signer.getSignedAttributes()
+                .get(PKCSObjectIdentifiers.id_aa_signingCertificateV2);
+        SigningCertificateV2 signingCertificateV2 = SigningCertificateV2.getInstance(
+                signingCertificate.getAttrValues().getObjectAt(0));
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded()),
+                signingCertificateV2.getCerts()[0].getCertHash());
+        assertTrue(verify(signedData, content));
+    }
+
+    @Test
+    void testScaffoldingSharedAcrossConcurrentRequests() throws Exception {
+        // Given
+        CmsSignerScaffolding scaffolding = new CmsSignerScaffolding(signingMaterial);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // When - her istek farklı içeriği aynı parçalarla imzalar
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                byte[] content = ("belge-" + i).getBytes(StandardCharsets.UTF_8);
+                results.add(executor.submit(() -> verify(sign(scaffolding, content), content)));
+            }
+
+            // Then
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static CMSSignedData sign(CmsSignerScaffolding scaffolding, byte[] content) throws Exception {
+        ContentSigner contentSigner = scaffolding.createContentSigner(signingMaterial.getPrivateKey());
+        return scaffolding.createGenerator(contentSigner, digest(scaffolding, content))
+                .generate(new CMSAbsentContent(), false);
+    }
+
+    static byte[] digest(CmsSignerScaffolding scaffolding, byte[] content) throws Exception {
+        DigestCalculator digestCalculator = scaffolding.createDigestCalculator();
+        try (OutputStream outputStream = digestCalculator.getOutputStream()) {
+            outputStream.write(content);
+        }
+        return digestCalculator.getDigest();
+    }
+
+    private static boolean verify(CMSSignedData signedData, byte[] content) throws Exception {
+        CMSSignedData detached = new CMSSignedData(new CMSProcessableByteArray(content), signedData.getEncoded());
+        SignerInformation signer = detached.getSignerInfos().getSigners().iterator().next();
+        X509CertificateHolder holder = (X509CertificateHolder) detached.getCertificates()
+                .getMatches(signer.getSID()).iterator().next();
+        return signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(holder));
+    }
+}
@@ -0,0 +1,493 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfArray;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.service.tsp.OnlineTSPSource;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.PadesSignatureLevel;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.SpoolFileService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * PAdESLevelUpgradeService test'leri.
+ */
+class PAdESLevelUpgradeServiceTest {
+
+    private static SigningMaterial signingMaterial;
+    private static X509Certificate caCertificate;
+    private static PrivateKey caKey;
+    private static X509Certificate tsaCertificate;
+    private static PrivateKey tsaKey;
+
+    private final AtomicLong timestampSerial = new AtomicLong();
+    private final AtomicInteger ocspRequests = new AtomicInteger();
+    private long maxTimestamps = Long.MAX_VALUE;
+    private Path directory;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair caKeys = generator.generateKeyPair();
+        KeyPair signerKeys = generator.generateKeyPair();
+        KeyPair tsaKeys = generator.generateKeyPair();
+
+        caCertificate = certificate("CN=Test CA, O=Mersel, C=TR", caKeys, null, caKeys.getPrivate(), false);
+        caKey = caKeys.getPrivate();
+        X509Certificate signerCertificate = certificate("CN=Test Imzaci, O=Mersel, C=TR", signerKeys,
+                caCertificate, caKeys.getPrivate(), false);
+        tsaCertificate = certificate("CN=Test TSA, O=Mersel, C=TR", tsaKeys, null, tsaKeys.getPrivate(), true);
+        tsaKey = tsaKeys.getPrivate();
+        signingMaterial = new SigningMaterial(signerKeys.getPrivate(), signerCertificate,
+                Arrays.asList(signerCertificate, caCertificate));
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("pades-level");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testLevelTAddsSignatureTimestampOverSignatureValue() throws Exception {
+        // Given
+        PAdESSignatureService service = signatureService(this::ocspToken, (certificate, issuer) -> null);
+
+        // When
+        SignResponse response = service.signPdf(new ByteArrayInputStream(Files.readAllBytes(createPdf(3))),
+                null, null, false, signingMaterial, PadesSignatureLevel.T);
+
+        // Then
+        byte[] pdf = response.getSignedDocument();
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            AcroFields fields = reader.getAcroFields();
+            List<String> names = fields.getSignatureNames();
+            assertEquals(1, names.size());
+            PdfDictionary signature = fields.getSignatureDictionary(names.get(0));
+            SignerInformation signer = verifyCms(pdf, signature);
+
+            Attribute attribute = signer.getUnsignedAttributes()
+                    .get(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken);
+            assertNotNull(attribute);
+            TimeStampToken timestamp = new TimeStampToken(new CMSSignedData(
+                    attribute.getAttrValues().getObjectAt(0).toASN1Primitive().getEncoded()));
+            assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(signer.getSignature()),
+                    timestamp.getTimeStampInfo().getMessageImprintDigest());
+            assertNull(reader.getCatalog().get(PdfName.DSS));
+            assertEquals(0, ocspRequests.get());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testLevelLtWritesDssAndVriFromRevocationSources() throws Exception {
+        // Given
+        PAdESSignatureService service = signatureService(this::ocspToken, (certificate, issuer) -> null);
+
+        // When
+        byte[] pdf = service.signPdf(new ByteArrayInputStream(Files.readAllBytes(createPdf(3))),
+                null, null, false, signingMaterial, PadesSignatureLevel.LT).getSignedDocument();
+
+        // Then - imzacı, CA ve TSA sertifikaları ile imzacının OCSP yanıtı DSS'e yazılır
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            AcroFields fields = reader.getAcroFields();
+            PdfDictionary signature = fields.getSignatureDictionary(fields.getSignatureNames().get(0));
+            verifyCms(pdf, signature);
+
+            PdfDictionary dss = reader.getCatalog().getAsDict(PdfName.DSS);
+            assertNotNull(dss);
+            assertEquals(3, dss.getAsArray(PdfName.CERTS).size());
+            assertEquals(1, dss.getAsArray(PdfName.OCSPS).size());
+            assertNull(dss.getAsArray(PdfName.CRLS));
+            assertEquals(1, ocspRequests.get());
+
+            OCSPResp ocspResponse = new OCSPResp(PdfReader.getStreamBytes(
+                    (com.itextpdf.text.pdf.PRStream) dss.getAsArray(PdfName.OCSPS).getDirectObject(0)));
+            assertEquals(OCSPResp.SUCCESSFUL, ocspResponse.getStatus());
+
+            String vriKey = PAdESLevelUpgradeService.getVriKey(
+                    signature.getAsString(PdfName.CONTENTS).getOriginalBytes());
+            PdfDictionary vri = dss.getAsDict(PdfName.VRI).getAsDict(new PdfName(vriKey));
+            assertNotNull(vri);
+            assertEquals(3, vri.getAsArray(PdfName.CERT).size());
+            assertEquals(1, vri.getAsArray(PdfName.OCSP).size());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testLevelLtFallsBackToCrlWhenOcspUnavailable() throws Exception {
+        // Given
+        PAdESSignatureService service = signatureService((certificate, issuer) -> null, this::crlToken);
+
+        // When
+        byte[] pdf = service.signPdf(new ByteArrayInputStream(Files.readAllBytes(createPdf(3))),
+                null, null, false, signingMaterial, PadesSignatureLevel.LT).getSignedDocument();
+
+        // Then
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            PdfDictionary dss = reader.getCatalog().getAsDict(PdfName.DSS);
+            assertNull(dss.getAsArray(PdfName.OCSPS));
+            assertEquals(1, dss.getAsArray(PdfName.CRLS).size());
+            assertEquals(1, ocspRequests.get());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testLevelLtaFileModeAddsDocumentTimestampCoveringDss() throws Exception {
+        // Given
+        PAdESSignatureService service = signatureService(this::ocspToken, (certificate, issuer) -> null);
+        Path input = createPdf(20);
+        Path output = Files.createTempFile(directory, "signed", ".pdf");
+
+        // When
+        service.signPdf(input, null, null, false, signingMaterial, PadesSignatureLevel.LTA, output);
+
+        // Then - ara dosya silinir, son imza DSS'i de kapsayan belge zaman damgasıdır
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        byte[] pdf = Files.readAllBytes(output);
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            AcroFields fields = reader.getAcroFields();
+            List<String> names = fields.getSignatureNames();
+            assertEquals(2, names.size());
+            verifyCms(pdf, fields.getSignatureDictionary(names.get(0)));
+            assertNotNull(reader.getCatalog().getAsDict(PdfName.DSS));
+
+            String documentTimestampName = names.get(1);
+            PdfDictionary documentTimestamp = fields.getSignatureDictionary(documentTimestampName);
+            assertEquals(PdfName.DOCTIMESTAMP, documentTimestamp.getAsName(PdfName.TYPE));
+            assertEquals(PdfName.ETSI_RFC3161, documentTimestamp.getAsName(PdfName.SUBFILTER));
+            assertTrue(fields.signatureCoversWholeDocument(documentTimestampName));
+
+            TimeStampToken timestamp = new TimeStampToken(new CMSSignedData(
+                    documentTimestamp.getAsString(PdfName.CONTENTS).getOriginalBytes()));
+            assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(signedRanges(pdf, documentTimestamp)),
+                    timestamp.getTimeStampInfo().getMessageImprintDigest());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testLevelLtaFileModeReleasesOutputWhenDocumentTimestampFails() throws Exception {
+        // Given - TSA imza zaman damgasından sonra yanıt vermez
+        Path descriptors = Paths.get("/proc/self/fd");
+        assumeTrue(Files.isDirectory(descriptors));
+        maxTimestamps = 1;
+        PAdESSignatureService service = signatureService(this::ocspToken, (certificate, issuer) -> null);
+        Path input = createPdf(3);
+        Path output = Files.createTempFile(directory, "signed", ".pdf");
+
+        // When
+        assertThrows(SignatureException.class, () ->
+                service.signPdf(input, null, null, false, signingMaterial, PadesSignatureLevel.LTA, output));
+
+        // Then - belge zaman damgası ön kapatmadan sonra başarısız olsa da çıktı dosyası açık kalmaz
+        assertEquals(0, openDescriptors(descriptors, output));
+    }
+
+    @Test
+    void testLevelTFileModeReleasesOutputWhenSignatureTimestampFails() throws Exception {
+        // Given - TSA yanıt vermez, imza ön kapatmadan sonra başarısız olur
+        Path descriptors = Paths.get("/proc/self/fd");
+        assumeTrue(Files.isDirectory(descriptors));
+        maxTimestamps = 0;
+        PAdESSignatureService service = signatureService(this::ocspToken, (certificate, issuer) -> null);
+        Path input = createPdf(3);
+        Path output = Files.createTempFile(directory, "signed", ".pdf");
+
+        // When
+        assertThrows(SignatureException.class, () ->
+                service.signPdf(input, null, null, false, signingMaterial, PadesSignatureLevel.T, output));
+
+        // Then
+        assertEquals(0, openDescriptors(descriptors, output));
+    }
+
+    @Test
+    void testLevelLtStreamModeSpoolsRevisionAndReleasesItOnFailure() throws Exception {
+        // Given - imzalı revizyon STREAM_SPOOL_DIRECTORY altındaki geçici dosyaya yazılır
+        Path descriptors = Paths.get("/proc/self/fd");
+        assumeTrue(Files.isDirectory(descriptors));
+        maxTimestamps = 0;
+        PAdESSignatureService service = signatureService(this::ocspToken, (certificate, issuer) -> null);
+        byte[] input = Files.readAllBytes(createPdf(3));
+
+        // When
+        assertThrows(SignatureException.class, () -> service.signPdf(new ByteArrayInputStream(input), null, null,
+                false, signingMaterial, PadesSignatureLevel.LT, new ByteArrayOutputStream()));
+
+        // Then - geçici dosya silinir ve üzerinde açık dosya tanımlayıcısı kalmaz
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(0, openDescriptorsUnder(descriptors, directory));
+    }
+
+    private static long openDescriptorsUnder(Path descriptors, Path directory) throws Exception {
+        Path target = directory.toRealPath();
+        try (Stream<Path> links = Files.list(descriptors)) {
+            return links.filter(link -> {
+                try {
+                    return Files.readSymbolicLink(link).startsWith(target);
+                } catch (Exception e) {
+                    return false;
+                }
+            }).count();
+        }
+    }
+
+    private static long openDescriptors(Path descriptors, Path file) throws Exception {
+        Path target = file.toRealPath();
+        try (Stream<Path> links = Files.list(descriptors)) {
+            return links.filter(link -> {
+                try {
+                    return Files.readSymbolicLink(link).equals(target);
+                } catch (Exception e) {
+                    return false;
+                }
+            }).count();
+        }
+    }
+
+    private PAdESSignatureService signatureService(OCSPSource ocspSource, CRLSource crlSource) {
+        OCSPSource countingOcspSource = (certificate, issuer) -> {
+            ocspRequests.incrementAndGet();
+            return ocspSource.getRevocationToken(certificate, issuer);
+        };
+        PAdESLevelUpgradeService upgradeService = new PAdESLevelUpgradeService(
+                new LocalTimestampConfigurationService(),
+                countingOcspSource,
+                crlSource,
+                new ConcurrencyLimiter("network", 4, new SimpleMeterRegistry()));
+        return new PAdESSignatureService(new ConcurrencyLimiter("hsm", 1, new SimpleMeterRegistry()),
+                upgradeService, new SpoolFileService(directory, Long.MAX_VALUE), PadesSignatureLevel.B);
+    }
+
+    private Path createPdf(int pageCount) throws Exception {
+        Path path = Files.createTempFile(directory, "document", ".pdf");
+        Document document = new Document();
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            PdfWriter.getInstance(document, outputStream);
+            document.open();
+            for (int i = 1; i <= pageCount; i++) {
+                document.add(new Paragraph("Test sayfasi " + i));
+                document.newPage();
+            }
+            document.close();
+        }
+        return path;
+    }
+
+    private static byte[] signedRanges(byte[] pdf, PdfDictionary signatureDictionary) {
+        PdfArray byteRange = signatureDictionary.getAsArray(PdfName.BYTERANGE);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int i = 0; i < byteRange.size(); i += 2) {
+            content.write(pdf, byteRange.getAsNumber(i).intValue(), byteRange.getAsNumber(i + 1).intValue());
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * İmza sözlüğündeki CMS imzasını ByteRange içeriği üzerinde BouncyCastle ile doğrular.
+     */
+    private static SignerInformation verifyCms(byte[] pdf, PdfDictionary signatureDictionary) throws Exception {
+        byte[] contents = signatureDictionary.getAsString(PdfName.CONTENTS).getOriginalBytes();
+        CMSSignedData signedData = new CMSSignedData(
+                new CMSProcessableByteArray(signedRanges(pdf, signatureDictionary)), contents);
+        SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+        X509CertificateHolder certificate = (X509CertificateHolder) signedData.getCertificates()
+                .getMatches(signer.getSID()).iterator().next();
+        assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(certificate)));
+        return signer;
+    }
+
+    private static X509Certificate certificate(String subjectName, KeyPair keys, X509Certificate issuer,
+                                               PrivateKey issuerKey, boolean timestamping) throws Exception {
+        X500Name subject = new X500Name(subjectName);
+        X500Name issuerName = issuer != null ? X500Name.getInstance(issuer.getSubjectX500Principal().getEncoded()) : subject;
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                issuerName, BigInteger.valueOf(issuer != null ? 2 : 1), notBefore, notAfter, subject,
+                keys.getPublic());
+        if (timestamping) {
+            builder.addExtension(Extension.extendedKeyUsage, true,
+                    new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping));
+        }
+        return new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(issuerKey)));
+    }
+
+    private OCSPToken ocspToken(CertificateToken certificate, CertificateToken issuer) {
+        try {
+            Date thisUpdate = new Date();
+            BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(
+                    new RespID(new X500Name(issuer.getSubject().getRFC2253())));
+            builder.addResponse(DSSRevocationUtils.getOCSPCertificateID(certificate, issuer, DigestAlgorithm.SHA1),
+                    CertificateStatus.GOOD, thisUpdate, new Date(thisUpdate.getTime() + 60 * 60 * 1000L), null);
+            BasicOCSPResp response = builder.build(
+                    new JcaContentSignerBuilder("SHA256withRSA").build(caKey), null, thisUpdate);
+            return new OCSPToken(response, response.getResponses()[0], certificate, issuer);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CRLToken crlToken(CertificateToken certificate, CertificateToken issuer) {
+        try {
+            Date thisUpdate = new Date();
+            X509v2CRLBuilder builder = new X509v2CRLBuilder(
+                    new X500Name(issuer.getSubject().getRFC2253()), thisUpdate);
+            builder.setNextUpdate(new Date(thisUpdate.getTime() + 60 * 60 * 1000L));
+            byte[] encoded = builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKey)).getEncoded();
+            return new CRLToken(certificate, CRLUtils.buildCRLValidity(CRLUtils.buildCRLBinary(encoded), issuer));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Test TSA sertifikası ile zaman damgası üreten süreç içi TSA.
+     */
+    private class LocalTspSource extends OnlineTSPSource {
+
+        @Override
+        public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+            if (timestampSerial.get() >= maxTimestamps) {
+                throw new IllegalStateException("TSA kullanılamıyor");
+            }
+            try {
+                TimeStampTokenGenerator generator = new TimeStampTokenGenerator(
+                        new JcaSimpleSignerInfoGeneratorBuilder().build("SHA256withRSA", tsaKey, tsaCertificate),
+                        new JcaDigestCalculatorProviderBuilder().build()
+                                .get(new AlgorithmIdentifier(OIWObjectIdentifiers.idSHA1)),
+                        new ASN1ObjectIdentifier("1.2.3.4"));
+                generator.addCertificates(new JcaCertStore(Collections.singletonList(tsaCertificate)));
+                // OnlineTSPSource gibi TSA sertifikası yanıtta istenir
+                TimeStampRequestGenerator requestGenerator = new TimeStampRequestGenerator();
+                requestGenerator.setCertReq(true);
+                TimeStampRequest request = requestGenerator
+                        .generate(new ASN1ObjectIdentifier(digestAlgorithm.getOid()), digest);
+                return new TimestampBinary(generator.generate(request,
+                        BigInteger.valueOf(timestampSerial.incrementAndGet()), new Date()).getEncoded());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Süreç içi TSA'yı döndüren timestamp yapılandırması.
+     */
+    private class LocalTimestampConfigurationService extends TimestampConfigurationService {
+
+        LocalTimestampConfigurationService() {
+            super("", "", "", false);
+        }
+
+        @Override
+        public OnlineTSPSource getTspSource() {
+            return new LocalTspSource();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfArray;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PAdESSignatureService test'leri.
+ */
+class PAdESSignatureServiceTest {
+
+    private static SigningMaterial signingMaterial;
+
+    private Path directory;
+    private PAdESSignatureService service;
+
+    @BeforeAll
+    static void createSigningMaterial() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        X500Name subject = new X500Name("CN=Test Imzaci, O=Mersel, C=TR");
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                subject, BigInteger.ONE, notBefore, notAfter, subject, keyPair.getPublic());
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        signingMaterial = new SigningMaterial(keyPair.getPrivate(), certificate,
+                Collections.singletonList(certificate));
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("pades");
+        service = new PAdESSignatureService(new ConcurrencyLimiter("hsm", 1, new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testSignStreamProducesValidSignature() throws Exception {
+        // Given
+        byte[] pdf = Files.readAllBytes(createPdf(3));
+
+        // When
+        SignResponse response = service.signPdf(new ByteArrayInputStream(pdf), null, null, false, signingMaterial);
+
+        // Then
+        assertSignaturesValid(response.getSignedDocument(), 1);
+    }
+
+    @Test
+    void testSignFileWritesValidSignatureToOutputFile() throws Exception {
+        // Given
+        Path input = createPdf(50);
+        Path output = Files.createTempFile(directory, "signed", ".pdf");
+
+        // When
+        service.signPdf(input, null, null, false, signingMaterial, output);
+
+        // Then - çıktı doğrudan hedef dosyaya yazılır, girdi değişmez
+        assertSignaturesValid(Files.readAllBytes(output), 1);
+        assertTrue(Files.exists(input));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void testSignFileAppendModeKeepsExistingSignature() throws Exception {
+        // Given
+        Path input = createPdf(3);
+        Path firstSigned = Files.createTempFile(directory, "signed-1", ".pdf");
+        Path secondSigned = Files.createTempFile(directory, "signed-2", ".pdf");
+        service.signPdf(input, null, null, true, signingMaterial, firstSigned);
+
+        // When
+        service.signPdf(firstSigned, null, null, true, signingMaterial, secondSigned);
+
+        // Then - ilk revizyon baytları korunur
+        byte[] first = Files.readAllBytes(firstSigned);
+        byte[] second = Files.readAllBytes(secondSigned);
+        assertArrayEquals(first, Arrays.copyOf(second, first.length));
+        assertSignaturesValid(second, 2);
+    }
+
+    @Test
+    void testSignFileAppendModeWithCrossReferenceStream() throws Exception {
+        // Given - xref stream kullanan belge
+        Path input = createPdf(3, true);
+        Path firstSigned = Files.createTempFile(directory, "signed-1", ".pdf");
+        Path secondSigned = Files.createTempFile(directory, "signed-2", ".pdf");
+        service.signPdf(input, null, null, true, signingMaterial, firstSigned);
+
+        // When
+        service.signPdf(firstSigned, null, null, true, signingMaterial, secondSigned);
+
+        // Then
+        byte[] first = Files.readAllBytes(firstSigned);
+        byte[] second = Files.readAllBytes(secondSigned);
+        assertArrayEquals(first, Arrays.copyOf(second, first.length));
+        assertSignaturesValid(second, 2);
+        PdfReader reader = new PdfReader(second);
+        try {
+            assertTrue(reader.isNewXrefType());
+            assertFalse(reader.isRebuilt());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testSignFileAppendModeAfterStreamSignature() throws Exception {
+        // Given - AcroForm'u dolaylı nesne olarak yazan iText imzası
+        Path firstSigned = Files.createTempFile(directory, "signed-1", ".pdf");
+        Path secondSigned = Files.createTempFile(directory, "signed-2", ".pdf");
+        Files.write(firstSigned, service.signPdf(new ByteArrayInputStream(Files.readAllBytes(createPdf(3))),
+                null, null, false, signingMaterial).getSignedDocument());
+
+        // When
+        service.signPdf(firstSigned, null, null, true, signingMaterial, secondSigned);
+
+        // Then
+        byte[] first = Files.readAllBytes(firstSigned);
+        byte[] second = Files.readAllBytes(secondSigned);
+        assertArrayEquals(first, Arrays.copyOf(second, first.length));
+        assertSignaturesValid(second, 2);
+    }
+
+    @Test
+    void testSignFileAppendModeWithAttachmentUsesStamper() throws Exception {
+        // Given - dosya eki artımlı güncelleme yerine iText ekleme modunu gerektirir
+        Path firstSigned = Files.createTempFile(directory, "signed-1", ".pdf");
+        Path secondSigned = Files.createTempFile(directory, "signed-2", ".pdf");
+        service.signPdf(createPdf(3), null, null, true, signingMaterial, firstSigned);
+
+        // When
+        service.signPdf(firstSigned, "ek".getBytes(StandardCharsets.UTF_8), "ek.txt", true,
+                signingMaterial, secondSigned);
+
+        // Then
+        byte[] first = Files.readAllBytes(firstSigned);
+        byte[] second = Files.readAllBytes(secondSigned);
+        assertArrayEquals(first, Arrays.copyOf(second, first.length));
+        assertSignaturesValid(second, 2);
+    }
+
+    private Path createPdf(int pageCount) throws Exception {
+        return createPdf(pageCount, false);
+    }
+
+    private Path createPdf(int pageCount, boolean fullCompression) throws Exception {
+        Path path = Files.createTempFile(directory, "document", ".pdf");
+        Document document = new Document();
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            if (fullCompression) {
+                writer.setFullCompression();
+            }
+            document.open();
+            for (int i = 1; i <= pageCount; i++) {
+                document.add(new Paragraph("Test sayfasi " + i));
+                document.newPage();
+            }
+            document.close();
+        }
+        return path;
+    }
+
+    private static void assertSignaturesValid(byte[] pdf, int expectedCount) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            AcroFields fields = reader.getAcroFields();
+            List<String> names = fields.getSignatureNames();
+            assertEquals(expectedCount, names.size());
+            for (String name : names) {
+                assertTrue(verifyCms(pdf, fields.getSignatureDictionary(name)), name);
+            }
+            assertTrue(fields.signatureCoversWholeDocument(names.get(names.size() - 1)));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * İmza sözlüğündeki CMS imzasını ByteRange içeriği üzerinde BouncyCastle ile doğrular.
+     */
+    private static boolean verifyCms(byte[] pdf, PdfDictionary signatureDictionary) throws Exception {
+        PdfArray byteRange = signatureDictionary.getAsArray(PdfName.BYTERANGE);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int i = 0; i < byteRange.size(); i += 2) {
+            content.write(pdf, byteRange.getAsNumber(i).intValue(), byteRange.getAsNumber(i + 1).intValue());
+        }
+        byte[] contents = signatureDictionary.getAsString(PdfName.CONTENTS).getOriginalBytes();
+
+        CMSSignedData signedData = new CMSSignedData(new CMSProcessableByteArray(content.toByteArray()), contents);
+        SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+        X509CertificateHolder certificate = (X509CertificateHolder) signedData.getCertificates()
+                .getMatches(signer.getSID()).iterator().next();
+        return signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(certificate));
+    }
+}
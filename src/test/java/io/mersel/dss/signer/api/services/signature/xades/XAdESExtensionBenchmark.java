@@ -0,0 +1,54 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+/**
+ * XAdES-B imzasını A seviyesine tek geçişte ve seviye seviye uzatmanın süre karşılaştırması.
+ *
+ * <p>Binlerce satırlık bir e-Arşiv raporunu {@link XAdESLevelUpgradeServiceTest} ile aynı
+ * yerel TSA, OCSP ve CRL kaynaklarıyla imzalar; ardından her seviyeyi ayrı profille uzatan
+ * yol ile aynı DOM üzerinde tek geçişte uzatan yolun ortalama sürelerini yazdırır. Sonuç
+ * makineye bağlı olduğundan birim testlerin parçası değildir; surefire tarafından
+ * çalıştırılmaz ve doğrulama yapmaz:
+ *
+ * <pre>
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mersel.dss.signer.api.services.signature.xades.XAdESExtensionBenchmark \
+ *     -Dbenchmark.lines=5000 -Dbenchmark.iterations=10
+ * </pre>
+ */
+public final class XAdESExtensionBenchmark {
+
+    private XAdESExtensionBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int lines = Integer.getInteger("benchmark.lines", 5000);
+        int iterations = Integer.getInteger("benchmark.iterations", 10);
+
+        XAdESLevelUpgradeServiceTest.createCertificates();
+        XAdESLevelUpgradeServiceTest fixture = new XAdESLevelUpgradeServiceTest();
+        fixture.setUp();
+        byte[] signedBytes = fixture.signWithoutUpgrade(lines);
+
+        // Isınma
+        for (int i = 0; i < 3; i++) {
+            fixture.extendPerLevel(signedBytes);
+            fixture.extendSinglePass(signedBytes);
+        }
+
+        long perLevelNanos = 0;
+        long singlePassNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            fixture.extendPerLevel(signedBytes);
+            perLevelNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            fixture.extendSinglePass(signedBytes);
+            singlePassNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("XAdES B->A (%d KB, %d tekrar): seviye seviye %.1f ms, tek geçiş %.1f ms%n",
+                signedBytes.length / 1024, iterations,
+                perLevelNanos / 1e6 / iterations, singlePassNanos / 1e6 / iterations);
+    }
+}
@@ -0,0 +1,644 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.alert.SilentOnStatusAlert;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.SignatureWrapper;
+import eu.europa.esig.dss.diagnostic.TimestampWrapper;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.enumerations.TimestampType;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.service.tsp.OnlineTSPSource;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.spi.validation.RevocationDataVerifier;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.XAdESTimestampParameters;
+import eu.europa.esig.dss.xades.signature.XAdESLevelA;
+import eu.europa.esig.dss.xades.signature.XAdESLevelBaselineT;
+import eu.europa.esig.dss.xades.signature.XAdESLevelC;
+import eu.europa.esig.dss.xades.signature.XAdESLevelXL;
+import eu.europa.esig.dss.xades.signature.XadesUtil;
+import eu.europa.esig.dss.xml.utils.DomUtils;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.revocation.CachingOCSPSource;
+import io.mersel.dss.signer.api.services.revocation.ConcurrentRevocationFetcher;
+import io.mersel.dss.signer.api.services.revocation.RevocationInclusionPolicy;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XAdESLevelUpgradeService test'leri.
+ * XAdES-A yükseltmesi, test sırasında üretilen kendinden imzalı imzacı ve zaman damgası
+ * sertifikaları ile süreç içi bir TSA kullanılarak çalıştırılır.
+ */
+class XAdESLevelUpgradeServiceTest {
+
+    private static final String XADES_NAMESPACE = "http://uri.etsi.org/01903/v1.3.2#";
+    private static final String OCSP_URL = "http://ocsp.test";
+    private static final String CRL_URL = "http://crl.test/ca.crl";
+
+    private static SigningMaterial signingMaterial;
+    private static X509Certificate signingCertificate;
+    private static X509Certificate tsaCertificate;
+    private static PrivateKey tsaKey;
+
+    private final AtomicLong timestampSerial = new AtomicLong();
+    private CommonCertificateVerifier verifier;
+    private XmlProcessingService xmlProcessor;
+    private XAdESLevelUpgradeService upgradeService;
+    private XAdESSignatureService signatureService;
+
+    @BeforeAll
+    static void createCertificates() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair signerKeys = generator.generateKeyPair();
+        KeyPair tsaKeys = generator.generateKeyPair();
+
+        signingCertificate = certificate("CN=Test Imzaci, O=Mersel, C=TR", signerKeys, false);
+        tsaCertificate = certificate("CN=Test TSA, O=Mersel, C=TR", tsaKeys, true);
+        tsaKey = tsaKeys.getPrivate();
+        signingMaterial = new SigningMaterial(signerKeys.getPrivate(), signingCertificate,
+                Collections.singletonList(signingCertificate));
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Kendinden imzalı sertifikalar güvenilir kök olarak tanımlanır (iptal kontrolü gerekmez)
+        CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+        trustedSource.addCertificate(new CertificateToken(signingCertificate));
+        trustedSource.addCertificate(new CertificateToken(tsaCertificate));
+        verifier = new CommonCertificateVerifier();
+        verifier.setTrustedCertSources(trustedSource);
+        verifier.setAugmentationAlertOnSelfSignedCertificateChains(new SilentOnStatusAlert());
+
+        xmlProcessor = new XmlProcessingService();
+        upgradeService = new XAdESLevelUpgradeService(CertificateVerifierProvider.of(verifier),
+                new LocalTimestampConfigurationService(),
+                new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry()));
+        signatureService = new XAdESSignatureService(
+                new XAdESParametersBuilderService(new DigestAlgorithmResolverService()),
+                xmlProcessor,
+                new XAdESDocumentPlacementService(),
+                upgradeService,
+                new XAdESFragmentCacheService(),
+                new CryptoSignerService(new SignatureAlgorithmResolverService()),
+                CertificateVerifierProvider.of(verifier),
+                new CompressionService(),
+                new ConcurrencyLimiter("hsm", 1, new SimpleMeterRegistry()),
+                new ConcurrencyLimiter("cpu", 1, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testSignEArchiveReportUpgradesSignedDomToArchiveLevel() {
+        // When - imzalı DOM yeniden ayrıştırılmadan yerinde yükseltilir
+        SignResponse response = signatureService.signXml(report(10), DocumentType.EArchiveReport,
+                "RAPOR-1", false, signingMaterial);
+
+        // Then
+        Document signed = xmlProcessor.parseDocument(response.getSignedDocument());
+        // Zincir güvenilir kendinden imzalı sertifikadan oluştuğundan referans/değer eklenmez
+        for (String property : new String[] { "SignatureTimeStamp", "SigAndRefsTimeStamp" }) {
+            assertEquals(1, signed.getElementsByTagNameNS(XADES_NAMESPACE, property).getLength(), property);
+        }
+        assertEquals(2, signed.getElementsByTagNameNS("*", "TimeStampValidationData").getLength());
+        assertEquals(1, signed.getElementsByTagNameNS("*", "ArchiveTimeStamp").getLength());
+        assertValid(response.getSignedDocument(), 3);
+    }
+
+    @Test
+    void testSinglePassMatchesPerLevelExtension() {
+        // Given
+        byte[] signedBytes = signWithoutUpgrade(10);
+
+        // When
+        byte[] perLevel = extendPerLevel(signedBytes);
+        byte[] singlePass = extendSinglePass(signedBytes);
+
+        // Then - iki yol aynı özellikleri üretir ve tüm zaman damgaları geçerlidir
+        assertEquals(unsignedPropertyNames(perLevel), unsignedPropertyNames(singlePass));
+        assertValid(perLevel, 3);
+        assertValid(singlePass, 3);
+    }
+
+    @Test
+    void testSelfProducedSignatureSkipsRevalidation() {
+        // Given - imzadan sonra değiştirilen belge: tam doğrulama imzayı reddederdi
+        Document signed = tamperedSignedDocument();
+
+        // When
+        Document upgraded = upgradeService.upgradeIfNeeded(signed, DocumentType.EArchiveReport,
+                parameters(SignatureLevel.XAdES_BASELINE_B), selfProducedSignature(signed));
+
+        // Then - imza servis tarafından üretildiğinden yeniden doğrulanmadan yükseltilir
+        assertNotNull(upgraded);
+        assertEquals(1, upgraded.getElementsByTagNameNS("*", "ArchiveTimeStamp").getLength());
+    }
+
+    @Test
+    void testStrictValidationRevalidatesSelfProducedSignature() {
+        // Given
+        XAdESLevelUpgradeService strictService = new XAdESLevelUpgradeService(CertificateVerifierProvider.of(verifier),
+                new LocalTimestampConfigurationService(),
+                new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry()), true);
+        Document signed = tamperedSignedDocument();
+
+        // When
+        Document upgraded = strictService.upgradeIfNeeded(signed, DocumentType.EArchiveReport,
+                parameters(SignatureLevel.XAdES_BASELINE_B), selfProducedSignature(signed));
+
+        // Then - bozulan imza tespit edilir, XAdES-B korunur
+        assertNull(upgraded);
+    }
+
+    @Test
+    void testNetworkPermitHeldOnlyDuringTimestampRequests() {
+        // Given
+        ConcurrencyLimiter networkLimiter = new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry());
+        List<Integer> availablePermits = new ArrayList<>();
+        XAdESLevelUpgradeService service = new XAdESLevelUpgradeService(CertificateVerifierProvider.of(verifier),
+                new LocalTimestampConfigurationService(() -> new LocalTspSource() {
+                    @Override
+                    public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+                        availablePermits.add(networkLimiter.getAvailablePermits());
+                        return super.getTimeStampResponse(digestAlgorithm, digest);
+                    }
+                }),
+                networkLimiter);
+        Document signed = xmlProcessor.parseDocument(signWithoutUpgrade(10));
+
+        // When
+        Document upgraded = service.upgradeIfNeeded(signed, DocumentType.EArchiveReport,
+                parameters(SignatureLevel.XAdES_BASELINE_B), selfProducedSignature(signed));
+
+        // Then - izin her zaman damgası isteğinde alınır ve uzatma bitince serbesttir
+        assertNotNull(upgraded);
+        assertEquals(Arrays.asList(0, 0, 0), availablePermits);
+        assertEquals(1, networkLimiter.getAvailablePermits());
+    }
+
+    @Test
+    void testSelfProducedFactsOfAnotherSignatureIgnored() {
+        // Given
+        Document signed = tamperedSignedDocument();
+        SelfProducedSignature otherSignature = new SelfProducedSignature("Signature_Baska",
+                new CertificateToken(signingCertificate));
+
+        // When
+        Document upgraded = upgradeService.upgradeIfNeeded(signed, DocumentType.EArchiveReport,
+                parameters(SignatureLevel.XAdES_BASELINE_B), otherSignature);
+
+        // Then - bilgiler bu imzaya ait olmadığından tam doğrulama yapılır
+        assertNull(upgraded);
+    }
+
+    @Test
+    void testRevocationFetchedWhileSignatureTimestampRequested() throws Exception {
+        // Given - OCSP adresli, test CA'sı tarafından verilmiş imzacı
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair caKeys = generator.generateKeyPair();
+        KeyPair signerKeys = generator.generateKeyPair();
+        X509Certificate caCertificate = certificate("CN=Test CA, O=Mersel, C=TR", caKeys, false);
+        X509Certificate signerCertificate = issuedCertificate("CN=Test Imzaci OCSP, O=Mersel, C=TR",
+                signerKeys, caCertificate, caKeys.getPrivate());
+        OCSPSource ocspSource = (certificate, issuer) -> ocspToken(certificate, issuer, caKeys.getPrivate());
+
+        CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+        trustedSource.addCertificate(new CertificateToken(caCertificate));
+        trustedSource.addCertificate(new CertificateToken(tsaCertificate));
+        verifier.addTrustedCertSources(trustedSource);
+        verifier.setOcspSource(ocspSource);
+        Document signed = xmlProcessor.parseDocument(signatureService.signXmlWithoutUpgrade(report(10),
+                DocumentType.EArchiveReport, null, false, new SigningMaterial(signerKeys.getPrivate(),
+                        signerCertificate, Arrays.asList(signerCertificate, caCertificate))).getSignedDocument());
+
+        // Yükseltme boş OCSP önbelleği ve eş zamanlı sorgu stratejisi ile yapılır
+        CountDownLatch ocspStarted = new CountDownLatch(1);
+        RevocationDataVerifier revocationDataVerifier = RevocationDataVerifier.createDefaultRevocationDataVerifier();
+        revocationDataVerifier.setSignatureMaximumRevocationFreshness(5 * 60 * 1000L);
+        CommonCertificateVerifier upgradeVerifier = new CommonCertificateVerifier();
+        upgradeVerifier.setTrustedCertSources(trustedSource);
+        upgradeVerifier.setOcspSource(new CachingOCSPSource((certificate, issuer) -> {
+            ocspStarted.countDown();
+            return ocspSource.getRevocationToken(certificate, issuer);
+        }, revocationDataVerifier, 10, new SimpleMeterRegistry()));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        upgradeVerifier.setRevocationDataLoadingStrategyFactory(new ConcurrentRevocationFetcher(
+                executor, 500, 5000, 5, 30000, new SimpleMeterRegistry()));
+
+        // İlk (imza) zaman damgası isteği OCSP sorgusunun başlamasını bekler
+        AtomicInteger timestampRequests = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        OnlineTSPSource tspSource = new LocalTspSource() {
+            @Override
+            public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+                if (timestampRequests.getAndIncrement() == 0) {
+                    try {
+                        overlapped.set(ocspStarted.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getTimeStampResponse(digestAlgorithm, digest);
+            }
+        };
+        XAdESLevelUpgradeService service = new XAdESLevelUpgradeService(CertificateVerifierProvider.of(upgradeVerifier),
+                new LocalTimestampConfigurationService(() -> tspSource),
+                new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry()));
+
+        // İmzalama akışındaki gibi parametreler imzalama zincirini taşır
+        XAdESSignatureParameters parameters = parameters(SignatureLevel.XAdES_BASELINE_B);
+        parameters.setSigningCertificate(new CertificateToken(signerCertificate));
+        parameters.setCertificateChain(new CertificateToken(signerCertificate), new CertificateToken(caCertificate));
+
+        try {
+            // When
+            Document upgraded = service.upgradeIfNeeded(signed, DocumentType.EArchiveReport,
+                    parameters, selfProducedSignature(signed, signerCertificate));
+
+            // Then - zincirin OCSP sorgusu imza zaman damgası beklenirken başlatılmıştır
+            assertTrue(overlapped.get());
+            assertNotNull(upgraded);
+            assertEquals(1, upgraded.getElementsByTagNameNS(XADES_NAMESPACE, "CompleteRevocationRefs").getLength());
+            assertEquals(1, upgraded.getElementsByTagNameNS(XADES_NAMESPACE, "OCSPValues").getLength());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrlEmbeddedAsFallbackWhenOcspUnavailable() throws Exception {
+        // Given - imzacı için OCSP yanıtı yok, yalnızca CRL mevcut
+        AtomicReference<byte[]> crl = new AtomicReference<>();
+
+        // When
+        Document upgraded = upgradeWithCrlOnly(0, crl);
+
+        // Then - CRL referanslanır ve parça parça gömülen değer tam base64 kodlamasıyla aynıdır
+        assertNotNull(upgraded);
+        assertEquals(1, upgraded.getElementsByTagNameNS(XADES_NAMESPACE, "CRLRefs").getLength());
+        Node crlValue = upgraded.getElementsByTagNameNS(XADES_NAMESPACE, "EncapsulatedCRLValue").item(0);
+        assertNotNull(crlValue);
+        assertEquals(XadesUtil.formatWithBase64(crl.get()), crlValue.getTextContent());
+        assertValid(DomUtils.serializeNode(upgraded), 3);
+    }
+
+    @Test
+    void testOversizedOnlyCrlFailsUpgrade() throws Exception {
+        // Given
+        AtomicReference<byte[]> crl = new AtomicReference<>();
+
+        // When - imzacının tek iptal verisi olan CRL boyut sınırının üzerinde
+        Document upgraded = upgradeWithCrlOnly(16, crl);
+
+        // Then - CRL'siz uzun süreli imza üretilmez, yükseltme başarısız olur
+        assertTrue(crl.get().length > 16);
+        assertNull(upgraded);
+    }
+
+    /**
+     * Test CA'sı tarafından verilmiş, iptal verisi yalnızca CRL ile sağlanan bir imzacı ile
+     * imzalayıp verilen CRL boyut sınırıyla XAdES-A seviyesine yükseltir.
+     */
+    private Document upgradeWithCrlOnly(long maxEmbeddedCrlBytes, AtomicReference<byte[]> crl) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair caKeys = generator.generateKeyPair();
+        KeyPair signerKeys = generator.generateKeyPair();
+        X500Name caName = new X500Name("CN=Test CRL CA, O=Mersel, C=TR");
+        X509v3CertificateBuilder caBuilder = new JcaX509v3CertificateBuilder(caName, BigInteger.ONE,
+                new Date(System.currentTimeMillis() - 60_000L),
+                new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L), caName, caKeys.getPublic());
+        caBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+        X509Certificate caCertificate = new JcaX509CertificateConverter().getCertificate(
+                caBuilder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate())));
+        X509Certificate signerCertificate = issuedCertificate("CN=Test Imzaci CRL, O=Mersel, C=TR",
+                signerKeys, caCertificate, caKeys.getPrivate());
+
+        Date thisUpdate = new Date();
+        X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(caName, thisUpdate);
+        crlBuilder.setNextUpdate(new Date(thisUpdate.getTime() + 60 * 60 * 1000L));
+        crl.set(crlBuilder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()))
+                .getEncoded());
+        CertificateToken caToken = new CertificateToken(caCertificate);
+        CRLToken crlToken = new CRLToken(new CertificateToken(signerCertificate),
+                CRLUtils.buildCRLValidity(CRLUtils.buildCRLBinary(crl.get()), caToken));
+        crlToken.setExternalOrigin(RevocationOrigin.EXTERNAL);
+
+        CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+        trustedSource.addCertificate(caToken);
+        trustedSource.addCertificate(new CertificateToken(tsaCertificate));
+        verifier.addTrustedCertSources(trustedSource);
+        verifier.setCrlSource((certificate, issuer) -> crlToken);
+        Document signed = xmlProcessor.parseDocument(signatureService.signXmlWithoutUpgrade(report(10),
+                DocumentType.EArchiveReport, null, false, new SigningMaterial(signerKeys.getPrivate(),
+                        signerCertificate, Arrays.asList(signerCertificate, caCertificate))).getSignedDocument());
+
+        XAdESLevelUpgradeService service = new XAdESLevelUpgradeService(CertificateVerifierProvider.of(verifier),
+                new LocalTimestampConfigurationService(),
+                new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry()),
+                false, RevocationInclusionPolicy.Mode.OCSP_PREFERRED, maxEmbeddedCrlBytes);
+        XAdESSignatureParameters parameters = parameters(SignatureLevel.XAdES_BASELINE_B);
+        parameters.setSigningCertificate(new CertificateToken(signerCertificate));
+        parameters.setCertificateChain(new CertificateToken(signerCertificate), caToken);
+        return service.upgradeIfNeeded(signed, DocumentType.EArchiveReport,
+                parameters, selfProducedSignature(signed, signerCertificate));
+    }
+
+    /**
+     * Her seviyeyi ayrı profil ile uzatır: her adım belgeyi yeniden ayrıştırır, doğrulama
+     * verisini yeniden toplar ve sonucu serileştirir.
+     */
+    byte[] extendPerLevel(byte[] signedBytes) {
+        DSSDocument document = new InMemoryDocument(signedBytes);
+        document = extend(new XAdESLevelBaselineT(verifier), document, SignatureLevel.XAdES_BASELINE_T);
+        document = extend(new XAdESLevelC(verifier), document, SignatureLevel.XAdES_C);
+        document = extend(new XAdESLevelXL(verifier), document, SignatureLevel.XAdES_XL);
+        document = extend(new XAdESLevelA(verifier), document, SignatureLevel.XAdES_A);
+        return DSSUtils.toByteArray(document);
+    }
+
+    private DSSDocument extend(XAdESLevelBaselineT profile, DSSDocument document, SignatureLevel level) {
+        profile.setTspSource(new LocalTspSource());
+        return profile.extendSignatures(document, parameters(level));
+    }
+
+    /**
+     * Belgeyi bir kez ayrıştırıp tüm seviyeleri aynı DOM üzerinde uzatır.
+     */
+    byte[] extendSinglePass(byte[] signedBytes) {
+        Document document = xmlProcessor.parseDocument(signedBytes);
+        XAdESLevelA levelA = new XAdESLevelA(verifier);
+        levelA.setTspSource(new LocalTspSource());
+        return xmlProcessor.documentToBytes(levelA.extendSignatures(document, parameters(SignatureLevel.XAdES_A)));
+    }
+
+    private XAdESSignatureParameters parameters(SignatureLevel level) {
+        XAdESTimestampParameters timestampParameters = new XAdESTimestampParameters();
+        timestampParameters.setCanonicalizationMethod(CanonicalizationMethod.INCLUSIVE_WITH_COMMENTS);
+        timestampParameters.setDigestAlgorithm(DigestAlgorithm.SHA256);
+
+        XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+        parameters.setSignatureLevel(level);
+        parameters.setTokenReferencesDigestAlgorithm(DigestAlgorithm.SHA256);
+        parameters.setSignatureTimestampParameters(timestampParameters);
+        parameters.setArchiveTimestampParameters(timestampParameters);
+        parameters.setContentTimestampParameters(timestampParameters);
+        parameters.setEn319132(false);
+        return parameters;
+    }
+
+    /**
+     * İmzalandıktan sonra içeriği değiştirilmiş (referans özeti artık tutmayan) belge.
+     */
+    private Document tamperedSignedDocument() {
+        Document signed = xmlProcessor.parseDocument(signWithoutUpgrade(10));
+        signed.getElementsByTagNameNS("*", "faturaNo").item(0).setTextContent("DEGISTIRILDI");
+        return signed;
+    }
+
+    private SelfProducedSignature selfProducedSignature(Document signed) {
+        return selfProducedSignature(signed, signingCertificate);
+    }
+
+    private SelfProducedSignature selfProducedSignature(Document signed, X509Certificate certificate) {
+        Element signature = (Element) signed.getElementsByTagNameNS(
+                "http://www.w3.org/2000/09/xmldsig#", "Signature").item(0);
+        return new SelfProducedSignature(signature.getAttribute("Id"), new CertificateToken(certificate));
+    }
+
+    byte[] signWithoutUpgrade(int lines) {
+        return signatureService.signXmlWithoutUpgrade(report(lines), DocumentType.EArchiveReport,
+                null, false, signingMaterial).getSignedDocument();
+    }
+
+    private List<String> unsignedPropertyNames(byte[] signedBytes) {
+        Document document = xmlProcessor.parseDocument(signedBytes);
+        Node properties = document.getElementsByTagNameNS(XADES_NAMESPACE,
+                "UnsignedSignatureProperties").item(0);
+        // Seviye seviye zincirde XL adımı aynı Id'li TimeStampValidationData'yı tekrar ekler
+        List<String> names = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (Node child = properties.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && ids.add(((Element) child).getAttribute("Id"))) {
+                names.add(child.getLocalName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * İmzanın ve tüm zaman damgalarının özetlerinin belgeyle eşleştiğini doğrular.
+     */
+    private void assertValid(byte[] signedBytes, int expectedTimestamps) {
+        SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(new InMemoryDocument(signedBytes));
+        validator.setCertificateVerifier(verifier);
+        DiagnosticData diagnosticData = validator.validateDocument().getDiagnosticData();
+
+        SignatureWrapper signature = diagnosticData.getSignatures().get(0);
+        assertTrue(signature.isSignatureIntact());
+        assertTrue(signature.isSignatureValid());
+
+        List<TimestampWrapper> timestamps = diagnosticData.getTimestampList();
+        assertEquals(expectedTimestamps, timestamps.size());
+        for (TimestampWrapper timestamp : timestamps) {
+            assertTrue(timestamp.isMessageImprintDataIntact(), timestamp.getType().name());
+            assertTrue(timestamp.isSignatureValid(), timestamp.getType().name());
+        }
+        assertEquals(1, timestamps.stream().filter(t -> t.getType() == TimestampType.ARCHIVE_TIMESTAMP).count());
+    }
+
+    private static ByteArrayInputStream report(int lines) {
+        StringBuilder xml = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<earsiv:eArsivRaporu xmlns:earsiv=\"http://earsiv.efatura.gov.tr\">")
+                .append("<earsiv:baslik><earsiv:versiyon>1.0</earsiv:versiyon></earsiv:baslik>")
+                .append("<earsiv:repo>");
+        for (int i = 0; i < lines; i++) {
+            xml.append("<earsiv:fatura><earsiv:faturaNo>ABC2024").append(String.format("%09d", i))
+                    .append("</earsiv:faturaNo><earsiv:toplamTutar>100.00</earsiv:toplamTutar></earsiv:fatura>");
+        }
+        xml.append("</earsiv:repo></earsiv:eArsivRaporu>");
+        return new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static X509Certificate certificate(String subjectName, KeyPair keys, boolean timestamping)
+            throws Exception {
+        X500Name subject = new X500Name(subjectName);
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                subject, BigInteger.ONE, notBefore, notAfter, subject, keys.getPublic());
+        if (timestamping) {
+            builder.addExtension(Extension.extendedKeyUsage, true,
+                    new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping));
+        }
+        return new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keys.getPrivate())));
+    }
+
+    private static X509Certificate issuedCertificate(String subjectName, KeyPair keys, X509Certificate issuer,
+                                                     PrivateKey issuerKey) throws Exception {
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                issuer, BigInteger.valueOf(2), notBefore, notAfter, new X500Name(subjectName), keys.getPublic());
+        builder.addExtension(Extension.authorityInfoAccess, false, new AuthorityInformationAccess(
+                AccessDescription.id_ad_ocsp, new GeneralName(GeneralName.uniformResourceIdentifier, OCSP_URL)));
+        builder.addExtension(Extension.cRLDistributionPoints, false, new CRLDistPoint(new DistributionPoint[] {
+                new DistributionPoint(new DistributionPointName(new GeneralNames(
+                        new GeneralName(GeneralName.uniformResourceIdentifier, CRL_URL))), null, null) }));
+        return new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(issuerKey)));
+    }
+
+    private static OCSPToken ocspToken(CertificateToken certificate, CertificateToken issuer, PrivateKey issuerKey) {
+        try {
+            Date thisUpdate = new Date();
+            BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(
+                    new RespID(new X500Name(issuer.getSubject().getRFC2253())));
+            builder.addResponse(DSSRevocationUtils.getOCSPCertificateID(certificate, issuer, DigestAlgorithm.SHA1),
+                    CertificateStatus.GOOD, thisUpdate, new Date(thisUpdate.getTime() + 60 * 60 * 1000L), null);
+            BasicOCSPResp response = builder.build(
+                    new JcaContentSignerBuilder("SHA256withRSA").build(issuerKey), null, thisUpdate);
+            return new OCSPToken(response, response.getResponses()[0], certificate, issuer);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Test TSA sertifikası ile zaman damgası üreten süreç içi TSA.
+     */
+    private class LocalTspSource extends OnlineTSPSource {
+
+        @Override
+        public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+            try {
+                TimeStampTokenGenerator generator = new TimeStampTokenGenerator(
+                        new JcaSimpleSignerInfoGeneratorBuilder().build("SHA256withRSA", tsaKey, tsaCertificate),
+                        new JcaDigestCalculatorProviderBuilder().build()
+                                .get(new AlgorithmIdentifier(OIWObjectIdentifiers.idSHA1)),
+                        new ASN1ObjectIdentifier("1.2.3.4"));
+                generator.addCertificates(new JcaCertStore(Collections.singletonList(tsaCertificate)));
+                TimeStampRequest request = new TimeStampRequestGenerator()
+                        .generate(new ASN1ObjectIdentifier(digestAlgorithm.getOid()), digest);
+                return new TimestampBinary(generator.generate(request,
+                        BigInteger.valueOf(timestampSerial.incrementAndGet()), new Date()).getEncoded());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Süreç içi TSA'yı döndüren timestamp yapılandırması.
+     */
+    private class LocalTimestampConfigurationService extends TimestampConfigurationService {
+
+        private final Supplier<OnlineTSPSource> tspSource;
+
+        LocalTimestampConfigurationService() {
+            this(LocalTspSource::new);
+        }
+
+        LocalTimestampConfigurationService(Supplier<OnlineTSPSource> tspSource) {
+            super("", "", "", false);
+            this.tspSource = tspSource;
+        }
+
+        @Override
+        public OnlineTSPSource getTspSource() {
+            return tspSource.get();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.crypto.dsig.XMLSignature;
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * XAdESSignatureService test'leri.
+ * Gerçek imzalama akışı, test sırasında üretilen kendinden imzalı bir sertifika ile çalıştırılır.
+ */
+class XAdESSignatureServiceTest {
+
+    private static final String UBL_DOCUMENT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\"" +
+            " xmlns:ext=\"urn:oasis:names:specification:ubl:schema:xsd:CommonExtensionComponents-2\"" +
+            " xmlns:cbc=\"urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2\">" +
+            "<ext:UBLExtensions><ext:UBLExtension><ext:ExtensionContent/></ext:UBLExtension></ext:UBLExtensions>" +
+            "<cbc:UBLVersionID>2.1</cbc:UBLVersionID>" +
+            "<cbc:ID>ABC2024000000001</cbc:ID>" +
+            "</Invoice>";
+
+    private static final String XADES_NAMESPACE = "http://uri.etsi.org/01903/v1.3.2#";
+
+    private static SigningMaterial signingMaterial;
+    private static X509Certificate certificate;
+
+    private XmlProcessingService xmlProcessor;
+    private XAdESFragmentCacheService fragmentCache;
+    private XAdESSignatureService service;
+
+    @BeforeAll
+    static void createSigningMaterial() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        X500Name subject = new X500Name("CN=Test Imzaci, O=Mersel, C=TR");
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                subject, BigInteger.ONE, notBefore, notAfter, subject, keyPair.getPublic());
+        certificate = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        signingMaterial = new SigningMaterial(keyPair.getPrivate(), certificate,
+                Collections.singletonList(certificate));
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Kendinden imzalı sertifika güvenilir kök olarak tanımlanır (iptal kontrolü gerekmez)
+        CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+        trustedSource.addCertificate(new CertificateToken(certificate));
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setTrustedCertSources(trustedSource);
+
+        xmlProcessor = spy(new XmlProcessingService());
+        fragmentCache = new XAdESFragmentCacheService();
+        service = new XAdESSignatureService(
+                new XAdESParametersBuilderService(new DigestAlgorithmResolverService()),
+                xmlProcessor,
+                new XAdESDocumentPlacementService(),
+                new XAdESLevelUpgradeService(CertificateVerifierProvider.of(verifier),
+                        new TimestampConfigurationService("", "", "", false),
+                        new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry())),
+                fragmentCache,
+                new CryptoSignerService(new SignatureAlgorithmResolverService()),
+                CertificateVerifierProvider.of(verifier),
+                new CompressionService(),
+                new ConcurrencyLimiter("hsm", 1, new SimpleMeterRegistry()),
+                new ConcurrencyLimiter("cpu", 1, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testSignXmlReturnsSignatureIdWrittenIntoDocument() {
+        // When
+        SignResponse response = sign("TEST-1");
+
+        // Then
+        assertEquals("Signature_TEST-1", response.getSignatureId());
+        Element signature = findSignature(response);
+        assertEquals(response.getSignatureId(), signature.getAttribute("Id"));
+        assertEquals("ExtensionContent", signature.getParentNode().getLocalName());
+        assertNotNull(response.getSignatureValue());
+    }
+
+    @Test
+    void testSignXmlWithoutSignatureIdReturnsGeneratedId() {
+        // When
+        SignResponse response = sign(null);
+
+        // Then
+        assertNotNull(response.getSignatureId());
+        assertEquals(response.getSignatureId(), findSignature(response).getAttribute("Id"));
+    }
+
+    @Test
+    void testSignXmlParsesAndSerializesDocumentOnlyOnce() {
+        // When
+        sign("TEST-2");
+
+        // Then - imza sonrası belge yeniden ayrıştırılmamalı
+        verify(xmlProcessor, times(1)).parseDocument(any());
+        verify(xmlProcessor, times(1)).documentToBytes(any());
+    }
+
+    @Test
+    void testSignXmlReusesCertificateFragmentsAcrossSignatures() {
+        // Given - ilk imza KeyInfo ve SigningCertificate parçalarını önbelleğe alır
+        Element first = findSignature(sign("TEST-3"));
+        assertEquals(2, fragmentCache.getFragments(signingMaterial).size());
+
+        // When
+        Element second = findSignature(sign("TEST-4"));
+
+        // Then - ikinci imzadaki parçalar önbellekten klonlanır ve aynı içeriği taşır
+        assertEquals(2, fragmentCache.getFragments(signingMaterial).size());
+        assertTrue(firstChild(first, XMLSignature.XMLNS, "KeyInfo")
+                .isEqualNode(firstChild(second, XMLSignature.XMLNS, "KeyInfo")));
+        assertTrue(firstChild(first, XADES_NAMESPACE, "SigningCertificate")
+                .isEqualNode(firstChild(second, XADES_NAMESPACE, "SigningCertificate")));
+        assertNotEquals(first.getAttribute("Id"), second.getAttribute("Id"));
+    }
+
+    private Element firstChild(Element parent, String namespace, String localName) {
+        NodeList nodes = parent.getElementsByTagNameNS(namespace, localName);
+        assertEquals(1, nodes.getLength());
+        return (Element) nodes.item(0);
+    }
+
+    private SignResponse sign(String signatureId) {
+        return service.signXml(
+                new ByteArrayInputStream(UBL_DOCUMENT.getBytes(StandardCharsets.UTF_8)),
+                DocumentType.UblDocument,
+                signatureId,
+                false,
+                signingMaterial);
+    }
+
+    private Element findSignature(SignResponse response) {
+        Document signed = new XmlProcessingService().parseDocument(response.getSignedDocument());
+        NodeList signatures = signed.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
+        assertEquals(1, signatures.getLength());
+        return (Element) signatures.item(0);
+    }
+}
@@ -0,0 +1,229 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import io.mersel.dss.signer.api.dtos.XadesPrepareResponseDto;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.certificate.CertificateVerifierProvider;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.mersel.dss.signer.api.util.BoundedTtlCache;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.crypto.dsig.XMLSignature;
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XAdESTwoPhaseSignatureService test'leri.
+ * Hazırlık ve tamamlama aşamaları gerçek imzalama akışı ile çalıştırılır.
+ */
+class XAdESTwoPhaseSignatureServiceTest {
+
+    private static final String DOCUMENT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Report><ID>1</ID></Report>";
+
+    private static SigningMaterial signingMaterial;
+    private static X509Certificate certificate;
+
+    private CryptoSignerService cryptoSigner;
+    private XAdESTwoPhaseSignatureService service;
+
+    @BeforeAll
+    static void createSigningMaterial() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        X500Name subject = new X500Name("CN=Test Imzaci, O=Mersel, C=TR");
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                subject, BigInteger.ONE, notBefore, notAfter, subject, keyPair.getPublic());
+        certificate = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        signingMaterial = new SigningMaterial(keyPair.getPrivate(), certificate,
+                Collections.singletonList(certificate));
+    }
+
+    @BeforeEach
+    void setUp() {
+        CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+        trustedSource.addCertificate(new CertificateToken(certificate));
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setTrustedCertSources(trustedSource);
+
+        cryptoSigner = new CryptoSignerService(new SignatureAlgorithmResolverService());
+        XAdESSignatureService xadesSignatureService = new XAdESSignatureService(
+                new XAdESParametersBuilderService(new DigestAlgorithmResolverService()),
+                new XmlProcessingService(),
+                new XAdESDocumentPlacementService(),
+                new XAdESLevelUpgradeService(CertificateVerifierProvider.of(verifier),
+                        new TimestampConfigurationService("", "", "", false),
+                        new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry())),
+                new XAdESFragmentCacheService(),
+                cryptoSigner,
+                CertificateVerifierProvider.of(verifier),
+                new CompressionService(),
+                new ConcurrencyLimiter("hsm", 1, new SimpleMeterRegistry()),
+                new ConcurrencyLimiter("cpu", 1, new SimpleMeterRegistry()));
+        service = new XAdESTwoPhaseSignatureService(xadesSignatureService,
+                new BoundedTtlCache<>(10, 60_000L));
+    }
+
+    @Test
+    void testPrepareReturnsDataToSignAndDigest() {
+        // When
+        XadesPrepareResponseDto prepared = prepare("TWO-1");
+
+        // Then
+        assertNotNull(prepared.getHandle());
+        assertEquals("Signature_TWO-1", prepared.getSignatureId());
+        byte[] dataToSign = Base64.getDecoder().decode(prepared.getDataToSign());
+        DigestAlgorithm digestAlgorithm = DigestAlgorithm.forName(prepared.getDigestAlgorithm());
+        assertArrayEquals(DSSUtils.digest(digestAlgorithm, dataToSign),
+                Base64.getDecoder().decode(prepared.getDigest()));
+        assertNotNull(prepared.getExpiresAt());
+        assertEquals(1, service.getPendingCount());
+    }
+
+    @Test
+    void testFinalizeWithServerKey() {
+        // Given
+        XadesPrepareResponseDto prepared = prepare("TWO-2");
+
+        // When
+        SignResponse response = service.finalizeSignature(prepared.getHandle(), null);
+
+        // Then
+        assertEquals("Signature_TWO-2", response.getSignatureId());
+        assertSignatureValueWritten(response);
+        assertFalse(response.isZipped());
+        assertEquals(0, service.getPendingCount());
+    }
+
+    @Test
+    void testFinalizeZippedStateReturnsZipPackage() throws Exception {
+        // Given
+        XadesPrepareResponseDto prepared = service.prepare(
+                new ByteArrayInputStream(new CompressionService().zipBytes("belge.xml",
+                        DOCUMENT.getBytes(StandardCharsets.UTF_8))),
+                DocumentType.OtherXmlDocument,
+                "TWO-6",
+                true,
+                signingMaterial);
+
+        // When
+        SignResponse response = service.finalizeSignature(prepared.getHandle(), null);
+
+        // Then
+        assertTrue(response.isZipped());
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.getSignedDocument()))) {
+            assertNotNull(zip.getNextEntry());
+        }
+    }
+
+    @Test
+    void testFinalizeWithExternallyComputedSignatureValue() {
+        // Given - istemci imzalanacak veriyi kendi anahtarıyla imzalar
+        XadesPrepareResponseDto prepared = prepare("TWO-3");
+        byte[] signatureValue = signExternally(prepared);
+
+        // When
+        SignResponse response = service.finalizeSignature(prepared.getHandle(), signatureValue);
+
+        // Then
+        assertEquals(Base64.getEncoder().encodeToString(signatureValue), response.getSignatureValue());
+        assertSignatureValueWritten(response);
+    }
+
+    @Test
+    void testInvalidSignatureValueKeepsStateForRetry() {
+        // Given
+        XadesPrepareResponseDto prepared = prepare("TWO-4");
+
+        // When
+        SignatureException exception = assertThrows(SignatureException.class,
+                () -> service.finalizeSignature(prepared.getHandle(), new byte[256]));
+
+        // Then - aynı tanıtıcıyla doğru imza değeri kabul edilir
+        assertEquals("INVALID_SIGNATURE_VALUE", exception.getErrorCode());
+        assertEquals(1, service.getPendingCount());
+        SignResponse response = service.finalizeSignature(prepared.getHandle(), signExternally(prepared));
+        assertSignatureValueWritten(response);
+    }
+
+    @Test
+    void testFinalizeTwiceFails() {
+        // Given
+        XadesPrepareResponseDto prepared = prepare("TWO-5");
+        service.finalizeSignature(prepared.getHandle(), null);
+
+        // When & Then
+        SignatureException exception = assertThrows(SignatureException.class,
+                () -> service.finalizeSignature(prepared.getHandle(), null));
+        assertEquals("SIGNING_STATE_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    void testFinalizeUnknownHandleFails() {
+        // When & Then
+        SignatureException exception = assertThrows(SignatureException.class,
+                () -> service.finalizeSignature("unknown", null));
+        assertEquals("SIGNING_STATE_NOT_FOUND", exception.getErrorCode());
+    }
+
+    private XadesPrepareResponseDto prepare(String signatureId) {
+        return service.prepare(
+                new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)),
+                DocumentType.OtherXmlDocument,
+                signatureId,
+                false,
+                signingMaterial);
+    }
+
+    private byte[] signExternally(XadesPrepareResponseDto prepared) {
+        ToBeSigned dataToSign = new ToBeSigned(Base64.getDecoder().decode(prepared.getDataToSign()));
+        return cryptoSigner.sign(dataToSign, signingMaterial.getPrivateKey(),
+                DigestAlgorithm.forName(prepared.getDigestAlgorithm())).getValue();
+    }
+
+    private void assertSignatureValueWritten(SignResponse response) {
+        Document signed = new XmlProcessingService().parseDocument(response.getSignedDocument());
+        NodeList values = signed.getElementsByTagNameNS(XMLSignature.XMLNS, "SignatureValue");
+        assertEquals(1, values.getLength());
+        assertEquals(response.getSignatureValue(),
+                values.item(0).getTextContent().replaceAll("\\s", ""));
+    }
+}
@@ -0,0 +1,108 @@
+package io.mersel.dss.signer.api.services.util;
+
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+import io.mersel.dss.signer.api.util.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NetworkLimitedDataLoader test'leri.
+ */
+class NetworkLimitedDataLoaderTest {
+
+    private final ConcurrencyLimiter networkLimiter =
+            new ConcurrencyLimiter("network", 1, new SimpleMeterRegistry());
+
+    @Test
+    void testPermitHeldOnlyDuringRequest() {
+        // Given
+        RecordingDataLoader delegate = new RecordingDataLoader();
+        NetworkLimitedDataLoader dataLoader = new NetworkLimitedDataLoader(delegate, networkLimiter);
+
+        // When
+        byte[] crl = dataLoader.get("http://crl.test/ca.crl");
+        byte[] ocsp = dataLoader.post("http://ocsp.test", new byte[] { 1 });
+
+        // Then
+        assertEquals("http://crl.test/ca.crl", new String(crl, StandardCharsets.UTF_8));
+        assertEquals("http://ocsp.test", new String(ocsp, StandardCharsets.UTF_8));
+        assertEquals(2, delegate.calls);
+        assertEquals(0, delegate.availablePermits);
+        assertEquals(1, networkLimiter.getAvailablePermits());
+    }
+
+    @Test
+    void testPermitReleasedOnFailure() {
+        // Given
+        NetworkLimitedDataLoader dataLoader = new NetworkLimitedDataLoader(new RecordingDataLoader() {
+            @Override
+            public byte[] get(String url) {
+                throw new DSSExternalResourceException("Bağlantı kurulamadı: " + url);
+            }
+        }, networkLimiter);
+
+        // When & Then
+        assertThrows(DSSExternalResourceException.class, () -> dataLoader.get("http://crl.test/ca.crl"));
+        assertEquals(1, networkLimiter.getAvailablePermits());
+    }
+
+    @Test
+    void testInterruptedWhileWaitingForPermit() throws Exception {
+        // Given - tek izin başka bir çağrıda tutuluyor
+        NetworkLimitedDataLoader dataLoader = new NetworkLimitedDataLoader(new RecordingDataLoader(), networkLimiter);
+
+        try (ConcurrencyLimiter.Permit ignored = networkLimiter.acquire()) {
+            // When
+            Thread.currentThread().interrupt();
+            DSSExternalResourceException exception = assertThrows(DSSExternalResourceException.class,
+                    () -> dataLoader.get("http://crl.test/ca.crl"));
+
+            // Then - kesilme bilgisi korunur
+            assertTrue(Thread.interrupted());
+            assertTrue(exception.getCause() instanceof InterruptedException);
+        }
+        assertEquals(1, networkLimiter.getAvailablePermits());
+    }
+
+    /**
+     * İstenen adresi yanıt olarak dönen ve çağrı sırasındaki izin sayısını kaydeden loader.
+     */
+    private class RecordingDataLoader implements DataLoader {
+
+        private static final long serialVersionUID = 1L;
+
+        int calls;
+        int availablePermits = -1;
+
+        @Override
+        public byte[] get(String url) {
+            return record(url);
+        }
+
+        @Override
+        public DataAndUrl get(List<String> urlStrings) {
+            return new DataAndUrl(urlStrings.get(0), record(urlStrings.get(0)));
+        }
+
+        @Override
+        public byte[] post(String url, byte[] content) {
+            return record(url);
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+        }
+
+        private byte[] record(String url) {
+            calls++;
+            availablePermits = networkLimiter.getAvailablePermits();
+            return url.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
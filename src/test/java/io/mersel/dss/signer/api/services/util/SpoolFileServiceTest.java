@@ -0,0 +1,100 @@
+package io.mersel.dss.signer.api.services.util;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.util.SpoolFile;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpoolFileService test'leri.
+ */
+class SpoolFileServiceTest {
+
+    private Path directory;
+    private SpoolFileService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("spool");
+        service = new SpoolFileService(directory, 16);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.map(Path::toFile).sorted((a, b) -> -a.compareTo(b)).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void testSpoolWritesBodyAndCloseDeletesFile() throws Exception {
+        // Given
+        byte[] content = "%PDF-1.4 test".getBytes("UTF-8");
+
+        // When
+        SpoolFile spoolFile = service.spool(new ByteArrayInputStream(content), ".pdf");
+
+        // Then
+        assertEquals(content.length, spoolFile.size());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        spoolFile.writeTo(output);
+        assertArrayEquals(content, output.toByteArray());
+
+        spoolFile.close();
+        spoolFile.close();
+        assertFalse(Files.exists(spoolFile.getPath()));
+    }
+
+    @Test
+    void testSpoolRejectsOversizedBodyAndRemovesFile() throws Exception {
+        // When
+        SignatureException error = assertThrows(SignatureException.class,
+            () -> service.spool(new ByteArrayInputStream(new byte[17]), ".pdf"));
+
+        // Then - yarım yazılmış dosya bırakılmaz
+        assertEquals(SpoolFileService.PAYLOAD_TOO_LARGE, error.getErrorCode());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testLimitDetectedThroughWrappingExceptions() {
+        // Given
+        InputStream limited = service.limit(new ByteArrayInputStream(new byte[32]));
+
+        // When - ayrıştırıcılar hatayı kendi exception'ları ile sarabilir
+        SignatureException wrapped = assertThrows(SignatureException.class, () -> {
+            try {
+                IOUtils.toByteArray(limited);
+            } catch (Exception e) {
+                throw new SignatureException("XML byte'ları okunamadı", e);
+            }
+        });
+
+        // Then
+        assertTrue(SpoolFileService.isPayloadTooLarge(wrapped));
+        assertFalse(SpoolFileService.isPayloadTooLarge(new SignatureException("başka hata")));
+    }
+
+    @Test
+    void testLimitAllowsBodyAtLimit() throws Exception {
+        // When
+        byte[] read = IOUtils.toByteArray(service.limit(new ByteArrayInputStream(new byte[16])));
+
+        // Then
+        assertEquals(16, read.length);
+    }
+}
@@ -0,0 +1,107 @@
+package io.mersel.dss.signer.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoundedTtlCache test'leri.
+ */
+class BoundedTtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+
+    @Test
+    void testEntryExpiresAfterTtl() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 100L, now::get);
+        assertEquals(1_100L, cache.put("a", "value"));
+
+        // When & Then
+        now.set(1_099L);
+        assertEquals("value", cache.get("a"));
+        now.set(1_100L);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPutRejectedWhenFullOfLiveEntries() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, 100L, now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        // When & Then - mevcut kayıtlar korunur
+        assertEquals(-1L, cache.put("c", "3"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("2", cache.get("b"));
+    }
+
+    @Test
+    void testPutPurgesExpiredEntriesWhenFull() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, 100L, now::get);
+        cache.put("a", "1");
+        now.addAndGet(50L);
+        cache.put("b", "2");
+
+        // When
+        now.addAndGet(60L);
+        long expiresAt = cache.put("c", "3");
+
+        // Then
+        assertTrue(expiresAt > 0);
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void testRemoveReturnsValueOnlyOnce() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 100L, now::get);
+        cache.put("a", "1");
+
+        // When & Then
+        assertEquals("1", cache.remove("a"));
+        assertNull(cache.remove("a"));
+    }
+
+    @Test
+    void testPutWithDeadlineKeepsOriginalExpiry() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 100L, now::get);
+        long expiresAt = cache.put("a", "1");
+        cache.remove("a");
+
+        // When
+        now.addAndGet(80L);
+        cache.put("a", "1", expiresAt);
+
+        // Then
+        assertEquals(expiresAt, cache.getExpiresAt("a"));
+        now.addAndGet(20L);
+        assertNull(cache.get("a"));
+        assertEquals(-1L, cache.put("b", "2", now.get()));
+    }
+
+    @Test
+    void testPurgeExpired() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 100L, now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        now.addAndGet(100L);
+        cache.put("c", "3");
+
+        // When
+        int removed = cache.purgeExpired();
+
+        // Then
+        assertEquals(2, removed);
+        assertEquals(1, cache.size());
+    }
+}
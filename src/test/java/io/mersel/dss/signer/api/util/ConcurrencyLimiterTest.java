@@ -0,0 +1,104 @@
+package io.mersel.dss.signer.api.util;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConcurrencyLimiter test'leri.
+ */
+class ConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testPermitReleasedOnClose() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("hsm", 2, meterRegistry);
+
+        // When
+        try (ConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            // Then
+            assertNotNull(permit);
+            assertEquals(1, limiter.getAvailablePermits());
+            assertEquals(1.0, meterRegistry.get("signer.limiter.in.use").tag("limiter", "hsm").gauge().value());
+        }
+        assertEquals(2, limiter.getAvailablePermits());
+    }
+
+    @Test
+    void testCloseIsIdempotent() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("network", 1, meterRegistry);
+        ConcurrencyLimiter.Permit permit = limiter.acquire();
+
+        // When
+        permit.close();
+        permit.close();
+
+        // Then - izin sayısı başlangıç değerini aşmaz
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    @Test
+    void testCallReleasesPermitOnFailure() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("hsm", 1, meterRegistry);
+
+        // When
+        String result = limiter.call(() -> {
+            assertEquals(0, limiter.getAvailablePermits());
+            return "imza";
+        });
+        IOException exception = assertThrows(IOException.class, () -> limiter.call(() -> {
+            throw new IOException("HSM yanıt vermedi");
+        }));
+
+        // Then - işlem hatası olduğu gibi iletilir, izin her iki durumda da bırakılır
+        assertEquals("imza", result);
+        assertEquals("HSM yanıt vermedi", exception.getMessage());
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    @Test
+    void testAcquireBlocksUntilPermitReleased() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("cpu", 1, meterRegistry);
+        ConcurrencyLimiter.Permit held = limiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        AtomicBoolean failed = new AtomicBoolean();
+
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.run(acquired::countDown);
+            } catch (InterruptedException e) {
+                failed.set(true);
+            }
+        });
+        waiter.start();
+
+        // When & Then - izin bırakılana kadar ikinci işlem bekler
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        held.close();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join(5_000L);
+        assertFalse(failed.get());
+
+        Timer waitTimer = meterRegistry.get("signer.limiter.wait").tag("limiter", "cpu").timer();
+        assertEquals(2, waitTimer.count());
+        assertTrue(waitTimer.max(TimeUnit.MILLISECONDS) >= 50.0);
+    }
+
+    @Test
+    void testNonPositivePermitsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ConcurrencyLimiter("hsm", 0, meterRegistry));
+    }
+}
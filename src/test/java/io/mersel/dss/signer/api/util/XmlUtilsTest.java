@@ -0,0 +1,132 @@
+package io.mersel.dss.signer.api.util;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XmlUtils yardımcı sınıfı test'leri.
+ */
+class XmlUtilsTest {
+
+    private static final String XML =
+            "<inv:Invoice xmlns:inv=\"urn:test\"><inv:ID>1</inv:ID></inv:Invoice>";
+
+    @Test
+    void testParseAndSerializeRoundTrip() throws Exception {
+        // When
+        Document document = XmlUtils.parse(stream(XML));
+        String serialized = new String(XmlUtils.toBytes(document), StandardCharsets.UTF_8);
+
+        // Then
+        assertEquals("urn:test", document.getDocumentElement().getNamespaceURI());
+        assertTrue(serialized.startsWith("<?xml"));
+        assertTrue(serialized.contains("UTF-8"));
+        assertTrue(serialized.contains("<inv:ID>1</inv:ID>"));
+    }
+
+    @Test
+    void testParseWithoutNamespaceAwareness() throws Exception {
+        // When
+        Document document = XmlUtils.parse(stream(XML), false);
+
+        // Then
+        assertNull(document.getDocumentElement().getNamespaceURI());
+        assertEquals("inv:Invoice", document.getDocumentElement().getTagName());
+    }
+
+    @Test
+    void testParseAcceptsDoctypeWithInternalEntity() throws Exception {
+        // Given
+        String xml = "<?xml version=\"1.0\"?>" +
+                "<!DOCTYPE foo [<!ENTITY firma \"Mersel\">]>" +
+                "<foo>&firma;</foo>";
+
+        // When
+        Document document = XmlUtils.parse(stream(xml));
+
+        // Then
+        assertEquals("Mersel", document.getDocumentElement().getTextContent());
+    }
+
+    @Test
+    void testParseDoesNotResolveExternalEntities() throws Exception {
+        // Given - harici entity içeren belge (XXE)
+        String xxe = "<?xml version=\"1.0\"?>" +
+                "<!DOCTYPE foo [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>" +
+                "<foo>&xxe;</foo>";
+
+        // When
+        Document document = XmlUtils.parse(stream(xxe));
+
+        // Then - entity içeriği okunmaz
+        assertEquals("", document.getDocumentElement().getTextContent());
+    }
+
+    @Test
+    void testParseRejectsEntityExpansionAttack() {
+        // Given - iç içe entity açılımı (billion laughs)
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?><!DOCTYPE foo [<!ENTITY e0 \"lol\">");
+        for (int i = 1; i <= 10; i++) {
+            xml.append("<!ENTITY e").append(i).append(" \"");
+            for (int j = 0; j < 10; j++) {
+                xml.append("&e").append(i - 1).append(';');
+            }
+            xml.append("\">");
+        }
+        xml.append("]><foo>&e10;</foo>");
+
+        // When & Then
+        assertThrows(SAXException.class, () -> XmlUtils.parse(stream(xml.toString())));
+    }
+
+    @Test
+    void testParserIsReusableAfterFailure() throws Exception {
+        // Given
+        assertThrows(SAXException.class, () -> XmlUtils.parse(stream("<bozuk")));
+
+        // When
+        Document document = XmlUtils.parse(stream(XML));
+
+        // Then
+        assertEquals("Invoice", document.getDocumentElement().getLocalName());
+    }
+
+    @Test
+    void testConcurrentParseAndSerialize() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            // When
+            for (int i = 0; i < 50; i++) {
+                final String xml = "<a><b>" + i + "</b></a>";
+                Callable<String> task = () -> new String(
+                        XmlUtils.toBytes(XmlUtils.parse(stream(xml))), StandardCharsets.UTF_8);
+                futures.add(executor.submit(task));
+            }
+
+            // Then
+            for (int i = 0; i < futures.size(); i++) {
+                assertTrue(futures.get(i).get().endsWith("<a><b>" + i + "</b></a>"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ByteArrayInputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}